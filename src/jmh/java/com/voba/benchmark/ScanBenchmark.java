@@ -0,0 +1,109 @@
+package com.voba.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import com.voba.model.FileNode;
+import com.voba.model.ScanEngine;
+import com.voba.model.ScanOptions;
+import com.voba.service.DirectoryService;
+import com.voba.service.ScanExecutor;
+import com.voba.service.ScanMetrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Misst den Durchsatz von {@link DirectoryService#scanDirectory(String, ScanOptions)} auf
+ * synthetischen Bäumen ({@link SyntheticTrees}), sequentiell ({@code threads=1}) und parallel mit
+ * verschiedenen Thread-Anzahlen.
+ *
+ * <p>
+ * Neben Scans pro Sekunde wird über {@link EntryCounter} die Anzahl gelesener Einträge pro Sekunde
+ * ausgegeben; die Allokationsrate liefert der Profiler {@code -prof gc}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScanBenchmark {
+
+  @Param({"WIDE", "DEEP", "SMALL_FILES", "HUGE_FILES"})
+  private SyntheticTrees.Shape shape;
+
+  @Param({"1", "2", "4", "8"})
+  private int threads;
+
+  @Param({"NIO", "FILE_IO"})
+  private ScanEngine engine;
+
+  private String root;
+  private long entryCount;
+  private ScanOptions options;
+  private DirectoryService directoryService;
+  private ScanExecutor scanExecutor;
+
+  /** Zählt die gelesenen Einträge; JMH gibt den Wert als Rate pro Sekunde aus. */
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  @State(Scope.Thread)
+  public static class EntryCounter {
+    public long entries;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      entries = 0;
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    root = SyntheticTrees.get(shape).toString();
+    options = new ScanOptions()
+        .setUseParallelProcessing(threads > 1)
+        .setMaxThreads(threads)
+        .setEngine(engine);
+    scanExecutor = new ScanExecutor(threads, 1, 0, 60);
+    directoryService = new DirectoryService();
+    ReflectionTestUtils.setField(directoryService, "scanExecutor", scanExecutor);
+    ReflectionTestUtils.setField(directoryService, "scanMetrics",
+        new ScanMetrics(new SimpleMeterRegistry(), 2));
+    entryCount = countEntries(directoryService.scanDirectory(root, options));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    scanExecutor.shutdown();
+  }
+
+  @Benchmark
+  public FileNode scan(EntryCounter counter) {
+    FileNode result = directoryService.scanDirectory(root, options);
+    counter.entries += entryCount;
+    return result;
+  }
+
+  private static long countEntries(FileNode node) {
+    long count = 1;
+    for (FileNode child : node.getChildren()) {
+      count += countEntries(child);
+    }
+    return count;
+  }
+}
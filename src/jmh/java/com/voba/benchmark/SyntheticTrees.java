@@ -0,0 +1,102 @@
+package com.voba.benchmark;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * Erzeugt reproduzierbare synthetische Verzeichnisbäume für die Benchmarks.
+ *
+ * <p>
+ * Die Bäume werden unter {@code benchmark.dir} angelegt (Standard: {@code java.io.tmpdir}, für
+ * tmpfs z.B. {@code -Dbenchmark.dir=/dev/shm}) und über alle Läufe wiederverwendet. Namen und
+ * Größen stammen aus einem Zufallsgenerator mit festem Startwert, sodass jeder Baum bei jedem
+ * Aufbau gleich aussieht.
+ */
+public final class SyntheticTrees {
+
+  /** Form eines synthetischen Baums. */
+  public enum Shape {
+    /** Ein Verzeichnis mit 2.000 Unterverzeichnissen mit je 20 Dateien. */
+    WIDE,
+    /** Binärer Baum mit 14 Ebenen (ca. 16.000 Verzeichnisse) und zwei Dateien je Verzeichnis. */
+    DEEP,
+    /** 100 Verzeichnisse mit je 1.000 Dateien von 0 bis 4 KiB. */
+    SMALL_FILES,
+    /** 20 Verzeichnisse mit je 5 Dateien von 1 bis 4 GiB (als Sparse-Dateien angelegt). */
+    HUGE_FILES
+  }
+
+  private static final long SEED = 42;
+  private static final String COMPLETE_MARKER = ".complete";
+
+  private SyntheticTrees() {
+  }
+
+  /**
+   * Gibt den Baum der angegebenen Form zurück und legt ihn bei Bedarf an.
+   *
+   * @param shape Form des Baums
+   * @return Wurzelverzeichnis
+   * @throws IOException wenn der Baum nicht angelegt werden kann
+   */
+  static Path get(Shape shape) throws IOException {
+    Path base = Paths.get(System.getProperty("benchmark.dir", System.getProperty("java.io.tmpdir")));
+    Path root = base.resolve("drivevisualizer-jmh").resolve(shape.name().toLowerCase());
+    if (Files.exists(root.resolve(COMPLETE_MARKER))) {
+      return root;
+    }
+
+    Files.createDirectories(root);
+    Random random = new Random(SEED);
+    switch (shape) {
+      case WIDE -> {
+        for (int d = 0; d < 2_000; d++) {
+          createFiles(Files.createDirectories(root.resolve("dir" + d)), 20, 16_384, random);
+        }
+      }
+      case DEEP -> createBinaryTree(root, 13, random);
+      case SMALL_FILES -> {
+        for (int d = 0; d < 100; d++) {
+          createFiles(Files.createDirectories(root.resolve("dir" + d)), 1_000, 4_096, random);
+        }
+      }
+      case HUGE_FILES -> {
+        for (int d = 0; d < 20; d++) {
+          Path directory = Files.createDirectories(root.resolve("dir" + d));
+          for (int f = 0; f < 5; f++) {
+            long size = (1L << 30) * (1 + random.nextInt(4));
+            try (RandomAccessFile file =
+                new RandomAccessFile(directory.resolve("huge" + f + ".bin").toFile(), "rw")) {
+              file.setLength(size);
+            }
+          }
+        }
+      }
+      default -> throw new IllegalArgumentException("Unknown shape: " + shape);
+    }
+    Files.createFile(root.resolve(COMPLETE_MARKER));
+    return root;
+  }
+
+  private static void createBinaryTree(Path directory, int levels, Random random)
+      throws IOException {
+    createFiles(directory, 2, 65_536, random);
+    if (levels > 0) {
+      createBinaryTree(Files.createDirectories(directory.resolve("a")), levels - 1, random);
+      createBinaryTree(Files.createDirectories(directory.resolve("b")), levels - 1, random);
+    }
+  }
+
+  private static void createFiles(Path directory, int count, int maxSize, Random random)
+      throws IOException {
+    String[] extensions = {".txt", ".java", ".png", ".mp3", ".log"};
+    for (int f = 0; f < count; f++) {
+      Path file = directory.resolve("file" + f + extensions[random.nextInt(extensions.length)]);
+      Files.write(file, new byte[random.nextInt(maxSize + 1)]);
+    }
+  }
+}
@@ -0,0 +1,106 @@
+package com.voba.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.voba.model.ElidedTree;
+import com.voba.model.FileNode;
+import com.voba.model.ScanOptions;
+import com.voba.service.DirectoryService;
+import com.voba.service.ScanExecutor;
+import com.voba.service.ScanMetrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Misst die Verarbeitung eines bereits gescannten Baums: {@link FileNode#sortChildren()} und die
+ * JSON-Serialisierung, wie sie {@code /api/scan} ausführt, im Standardformat und im Format ohne
+ * wiederholte Pfade ({@link ElidedTree}).
+ *
+ * <p>
+ * Vor jedem Sortieren werden die Kinder mit festem Startwert gemischt, damit jeder Aufruf dieselbe
+ * Arbeit erledigt. Die Allokationsrate liefert der Profiler {@code -prof gc}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TreeBenchmark {
+
+  @Param({"WIDE", "DEEP", "SMALL_FILES"})
+  private SyntheticTrees.Shape shape;
+
+  private FileNode tree;
+  private ObjectMapper objectMapper;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    ScanExecutor scanExecutor = new ScanExecutor(1, 1, 0, 60);
+    DirectoryService directoryService = new DirectoryService();
+    ReflectionTestUtils.setField(directoryService, "scanExecutor", scanExecutor);
+    ReflectionTestUtils.setField(directoryService, "scanMetrics",
+        new ScanMetrics(new SimpleMeterRegistry(), 2));
+    try {
+      tree = directoryService.scanDirectory(SyntheticTrees.get(shape).toString(), new ScanOptions());
+    } finally {
+      scanExecutor.shutdown();
+    }
+    objectMapper = new ObjectMapper();
+  }
+
+  /** Mischt die Kinder des Baums vor jedem Sortieren. */
+  @State(Scope.Thread)
+  public static class ShuffledTree {
+    private final Random random = new Random(42);
+
+    @Setup(Level.Invocation)
+    public void shuffle(TreeBenchmark benchmark) {
+      shuffle(benchmark.tree);
+    }
+
+    private void shuffle(FileNode node) {
+      Collections.shuffle(node.getChildren(), random);
+      for (FileNode child : node.getChildren()) {
+        if (child.isDirectory()) {
+          shuffle(child);
+        }
+      }
+    }
+  }
+
+  @Benchmark
+  public FileNode sortChildren(ShuffledTree shuffled) {
+    tree.sortChildren();
+    return tree;
+  }
+
+  @Benchmark
+  public void serializeJson() throws IOException {
+    objectMapper.writeValue(OutputStream.nullOutputStream(), tree);
+  }
+
+  @Benchmark
+  public void serializeElidedJson() throws IOException {
+    objectMapper.writeValue(OutputStream.nullOutputStream(), ElidedTree.of(tree));
+  }
+}
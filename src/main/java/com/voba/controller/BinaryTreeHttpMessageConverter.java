@@ -0,0 +1,48 @@
+package com.voba.controller;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.voba.model.BinaryTree;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+/** Schreibt {@link BinaryTree}-Antworten mit dem Content-Type {@value BinaryTree#MEDIA_TYPE}. */
+@Component
+public class BinaryTreeHttpMessageConverter extends AbstractHttpMessageConverter<BinaryTree> {
+
+  /** Konstruktor; unterstützt nur den binären Content-Type. */
+  public BinaryTreeHttpMessageConverter() {
+    super(MediaType.parseMediaType(BinaryTree.MEDIA_TYPE));
+  }
+
+  @Override
+  protected boolean supports(Class<?> clazz) {
+    return BinaryTree.class.isAssignableFrom(clazz);
+  }
+
+  @Override
+  protected boolean canRead(MediaType mediaType) {
+    return false;
+  }
+
+  @Override
+  protected BinaryTree readInternal(
+      Class<? extends BinaryTree> clazz, HttpInputMessage inputMessage) {
+    throw new HttpMessageNotReadableException("Binary trees can only be written", inputMessage);
+  }
+
+  @Override
+  protected void writeInternal(BinaryTree tree, HttpOutputMessage outputMessage)
+      throws IOException {
+    OutputStream outputStream = new BufferedOutputStream(outputMessage.getBody(), 1 << 16);
+    tree.writeTo(outputStream);
+    outputStream.flush();
+  }
+}
@@ -0,0 +1,90 @@
+package com.voba.controller;
+
+import com.voba.model.ScanOptions;
+
+/**
+ * Gemeinsame Request-Parameter der Endpunkte, die einen gehaltenen Baum auflösen
+ * ({@code /api/node}, {@code /api/layout}, {@code /api/stats}, {@code /api/top},
+ * {@code /api/duplicates}, {@code /api/search}, {@code /api/query}).
+ *
+ * <p>
+ * Die Parameter bestimmen die Ergebnis-Signatur ({@link ScanOptions#resultSignature()}) und müssen
+ * daher wie beim ursprünglichen Scan übergeben werden; sonst wird das Verzeichnis mit abweichenden
+ * Optionen neu gescannt. Alle sind optional:
+ *
+ * <ul>
+ * <li>{@code includeHidden}: versteckte Dateien inkludieren (default: false)
+ * <li>{@code compact}: Ergebnis als kompakten Baum halten (default: false)
+ * <li>{@code archives}: ZIP- und JAR-Archive wie Verzeichnisse durchsuchen (default: false)
+ * <li>{@code diskUsage}: belegten Speicherplatz abrechnen, Hardlinks nur einmal zählen
+ * (default: false)
+ * <li>{@code aggregateBelow}: Dateien unter dieser Größe in Bytes zusammenfassen (default: keine)
+ * <li>{@code maxChildren}: nur die größten Kinder je Verzeichnis behalten (default: alle)
+ * <li>{@code maxDepth}: Inhalt von Verzeichnissen auf dieser Tiefe zusammenfassen
+ * (default: keine)
+ * </ul>
+ */
+public class CachedTreeParameters {
+
+  private boolean includeHidden;
+  private boolean compact;
+  private boolean archives;
+  private boolean diskUsage;
+  private Long aggregateBelow;
+  private Integer maxChildren;
+  private Integer maxDepth;
+
+  /**
+   * Erstellt die ScanOptions für einen sequentiellen Scan.
+   *
+   * @return neue ScanOptions
+   * @throws IllegalArgumentException wenn ein Wert zum Zusammenfassen negativ ist
+   */
+  ScanOptions toScanOptions() {
+    return toScanOptions(false, null);
+  }
+
+  /**
+   * Erstellt die ScanOptions.
+   *
+   * @param parallel   parallele Verarbeitung nutzen
+   * @param maxThreads max. Anzahl Threads (null = Standard)
+   * @return neue ScanOptions
+   * @throws IllegalArgumentException wenn ein Wert zum Zusammenfassen negativ ist
+   */
+  ScanOptions toScanOptions(boolean parallel, Integer maxThreads) {
+    ScanOptions options = ScanOptionsFactory.create(includeHidden, parallel, maxThreads, null)
+        .setCompactTree(compact)
+        .setScanArchives(archives)
+        .setDiskUsage(diskUsage);
+    return ScanOptionsFactory.withAggregation(options, aggregateBelow, maxChildren, maxDepth);
+  }
+
+  public void setIncludeHidden(boolean includeHidden) {
+    this.includeHidden = includeHidden;
+  }
+
+  public void setCompact(boolean compact) {
+    this.compact = compact;
+  }
+
+  public void setArchives(boolean archives) {
+    this.archives = archives;
+  }
+
+  public void setDiskUsage(boolean diskUsage) {
+    this.diskUsage = diskUsage;
+  }
+
+  public void setAggregateBelow(Long aggregateBelow) {
+    this.aggregateBelow = aggregateBelow;
+  }
+
+  public void setMaxChildren(Integer maxChildren) {
+    this.maxChildren = maxChildren;
+  }
+
+  public void setMaxDepth(Integer maxDepth) {
+    this.maxDepth = maxDepth;
+  }
+}
@@ -1,21 +1,47 @@
 package com.voba.controller;
 
 import java.io.File;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.voba.model.BinaryTree;
+import com.voba.model.DirectoryStatistics;
+import com.voba.model.DuplicateReport;
 import com.voba.model.FileNode;
+import com.voba.model.NameIndex;
+import com.voba.model.ScanEngine;
+import com.voba.model.ScanOptions;
+import com.voba.model.TopEntries;
+import com.voba.model.TreeQuery;
 import com.voba.service.DirectoryService;
+import com.voba.service.DuplicateFinderService;
+import com.voba.service.NameIndexService;
+import com.voba.service.ScanCacheService;
+import com.voba.service.ScanExecutor;
+import com.voba.service.ScanProgress;
+import com.voba.service.ScanRejectedException;
+import com.voba.service.TreeQueryService;
+import com.voba.service.TreemapLayoutService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * REST-Controller für Dateisystem-Operationen. Bietet Endpunkte zum Scannen von
@@ -27,9 +53,42 @@ import org.springframework.web.bind.annotation.RestController;
 @CrossOrigin
 public class FileSystemController {
 
+  /** Größte Breite bzw. Höhe einer Zeichenfläche für {@code /api/layout}. */
+  private static final int MAX_LAYOUT_SIZE = 16384;
+
+  /** Größte Anzahl von Einträgen für {@code /api/top}. */
+  private static final int MAX_TOP_ENTRIES = 10000;
+
+  /** Größte Anzahl von Gruppen bzw. Verzeichnissen für {@code /api/duplicates}. */
+  private static final int MAX_DUPLICATE_ENTRIES = 10000;
+
+  /** Größte Seitengröße für {@code /api/search}. */
+  private static final int MAX_SEARCH_RESULTS = 1000;
+
   @Autowired
   private DirectoryService directoryService;
 
+  @Autowired
+  private ScanCacheService scanCacheService;
+
+  @Autowired
+  private ScanExecutor scanExecutor;
+
+  @Autowired
+  private TreemapLayoutService treemapLayoutService;
+
+  @Autowired
+  private DuplicateFinderService duplicateFinderService;
+
+  @Autowired
+  private NameIndexService nameIndexService;
+
+  @Autowired
+  private TreeQueryService treeQueryService;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
   /**
    * Scannt ein Verzeichnis und gibt die Dateistruktur zurück.
    *
@@ -39,30 +98,588 @@ public class FileSystemController {
    * @param parallel      Optional: parallele Verarbeitung nutzen (default: false)
    * @param maxThreads    Optional: max. Anzahl Threads bei paralleler
    *                      Verarbeitung (default: CPU-Kerne)
-   * @return ResponseEntity mit der Dateistruktur oder Fehlermeldung
+   * @param engine        Optional: Scan-Engine NIO oder FILE_IO (default: NIO)
+   * @param virtualThreads Optional: Verzeichnisse auf virtuellen Threads lesen, z.B. für
+   *                      Netzwerk-Dateisysteme (default: false)
+   * @param maxInFlight   Optional: max. Anzahl gleichzeitiger Dateisystem-Zugriffe mit
+   *                      virtuellen Threads (default: 256)
+   * @param compact       Optional: Ergebnis als kompakten Baum halten (default:
+   *                      false)
+   * @param refresh       Optional: Cache umgehen und neu scannen (default: false)
+   * @param incremental   Optional: beim Neuscan unveränderte Verzeichnisse aus dem gecachten
+   *                      Ergebnis übernehmen statt sie zu listen (default: false)
+   * @param archives      Optional: ZIP- und JAR-Archive wie Verzeichnisse durchsuchen
+   *                      (default: false)
+   * @param diskUsage     Optional: belegten Speicherplatz abrechnen, Hardlinks nur einmal zählen
+   *                      und zusätzlich die scheinbare Größe liefern (default: false)
+   * @param aggregateBelow Optional: Dateien unter dieser Größe in Bytes zu einem Knoten
+   *                      "N other files" zusammenfassen (default: keine)
+   * @param maxChildren   Optional: nur die größten Kinder je Verzeichnis behalten, den Rest
+   *                      zusammenfassen (default: alle)
+   * @param maxDepth      Optional: Inhalt von Verzeichnissen auf dieser Tiefe zusammenfassen
+   *                      (default: keine)
+   * @param depth         Optional: nur diese Anzahl Ebenen unterhalb der Wurzel liefern, tiefere
+   *                      Ebenen über {@code /api/node} (default: ganzer Baum)
+   * @param limit         Optional: max. Anzahl Kinder je Verzeichnis, wenn depth gesetzt ist
+   *                      (default: 1000)
+   * @param format        Optional: JSON, ELIDED für kompaktes JSON ohne wiederholte Pfade oder
+   *                      BINARY (default: JSON bzw. BINARY, wenn der Accept-Header
+   *                      {@value BinaryTree#MEDIA_TYPE} enthält)
+   * @param accept        Accept-Header für die Wahl des binären Formats
+   * @return ResponseEntity mit der Dateistruktur oder Fehlermeldung (429/503, wenn der Scan
+   *         abgelehnt wird)
    */
   @GetMapping("/scan")
   public ResponseEntity<?> scanDirectory(
       @RequestParam String path,
       @RequestParam(required = false, defaultValue = "false") boolean includeHidden,
       @RequestParam(required = false, defaultValue = "false") boolean parallel,
-      @RequestParam(required = false) Integer maxThreads) {
+      @RequestParam(required = false) Integer maxThreads,
+      @RequestParam(required = false) String engine,
+      @RequestParam(required = false, defaultValue = "false") boolean virtualThreads,
+      @RequestParam(required = false) Integer maxInFlight,
+      @RequestParam(required = false, defaultValue = "false") boolean compact,
+      @RequestParam(required = false, defaultValue = "false") boolean refresh,
+      @RequestParam(required = false, defaultValue = "false") boolean incremental,
+      @RequestParam(required = false, defaultValue = "false") boolean archives,
+      @RequestParam(required = false, defaultValue = "false") boolean diskUsage,
+      @RequestParam(required = false) Long aggregateBelow,
+      @RequestParam(required = false) Integer maxChildren,
+      @RequestParam(required = false) Integer maxDepth,
+      @RequestParam(required = false) Integer depth,
+      @RequestParam(required = false, defaultValue = "1000") int limit,
+      @RequestParam(required = false) String format,
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+    try {
+      TreeFormat treeFormat = TreeFormat.negotiate(format, accept);
+      ScanOptions options = ScanOptionsFactory.create(includeHidden, parallel, maxThreads, engine)
+          .setCompactTree(compact)
+          .setIncremental(incremental)
+          .setScanArchives(archives)
+          .setDiskUsage(diskUsage);
+      ScanOptionsFactory.withVirtualThreads(options, virtualThreads, maxInFlight);
+      ScanOptionsFactory.withAggregation(options, aggregateBelow, maxChildren, maxDepth);
+
+      FileNode result = refresh
+          ? scanCacheService.refresh(path, options, new ScanProgress())
+          : scanCacheService.scan(path, options);
+      return ResponseEntity.ok(depth != null
+          ? treeFormat.slice(result, depth, 0, limit)
+          : treeFormat.tree(result));
+    } catch (Exception exception) {
+      return errorResponse(exception);
+    }
+  }
+
+  /**
+   * Liefert einen Ausschnitt eines bereits gescannten Verzeichnisses aus dem serverseitig
+   * gehaltenen Baum. Dient dem Nachladen tieferer Ebenen und weiterer Seiten von Kindern, nachdem
+   * {@code /api/scan} bzw. {@code /api/scan/stream} nur die obersten Ebenen geliefert hat. Ist der
+   * Baum nicht mehr im Cache, wird das Verzeichnis neu gescannt.
+   *
+   * @param path          Pfad zum Verzeichnis
+   * @param depth         Optional: Anzahl der gelieferten Ebenen (default: 1)
+   * @param offset        Optional: Index des ersten gelieferten Kindes (default: 0)
+   * @param limit         Optional: max. Anzahl Kinder je Verzeichnis (default: 1000)
+   * @param tree          Parameter des ursprünglichen Scans ({@link CachedTreeParameters})
+   * @param format        Optional: JSON, ELIDED oder BINARY (default: wie bei {@code /api/scan})
+   * @param accept        Accept-Header für die Wahl des binären Formats
+   * @return ResponseEntity mit dem Ausschnitt oder Fehlermeldung
+   */
+  @GetMapping("/node")
+  public ResponseEntity<?> getNode(
+      @RequestParam String path,
+      @RequestParam(required = false, defaultValue = "1") int depth,
+      @RequestParam(required = false, defaultValue = "0") int offset,
+      @RequestParam(required = false, defaultValue = "1000") int limit,
+      @ModelAttribute CachedTreeParameters tree,
+      @RequestParam(required = false) String format,
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+    try {
+      TreeFormat treeFormat = TreeFormat.negotiate(format, accept);
+      ScanOptions options = tree.toScanOptions();
+
+      FileNode node = scanCacheService.scan(path, options);
+      return ResponseEntity.ok(treeFormat.slice(node, depth, offset, limit));
+    } catch (Exception exception) {
+      return errorResponse(exception);
+    }
+  }
+
+  /**
+   * Berechnet das Squarified-Treemap-Layout eines bereits gescannten Verzeichnisses für eine
+   * Zeichenfläche ({@link com.voba.model.TreemapLayout}). Der Client zeichnet nur noch die
+   * gelieferten Rechtecke. Layouts werden je Knoten und Zeichenfläche zwischengespeichert; ist der
+   * Baum nicht mehr im Cache, wird das Verzeichnis neu gescannt.
+   *
+   * @param path          Pfad zum Verzeichnis
+   * @param width         Breite der Zeichenfläche in Pixeln
+   * @param height        Höhe der Zeichenfläche in Pixeln
+   * @param minSize       Optional: Mindestgröße eines Rechtecks in Pixeln (default: 10)
+   * @param tree          Parameter des ursprünglichen Scans ({@link CachedTreeParameters})
+   * @return ResponseEntity mit dem Layout oder Fehlermeldung
+   */
+  @GetMapping("/layout")
+  public ResponseEntity<?> getLayout(
+      @RequestParam String path,
+      @RequestParam int width,
+      @RequestParam int height,
+      @RequestParam(required = false, defaultValue = "10") int minSize,
+      @ModelAttribute CachedTreeParameters tree) {
+    try {
+      if (width > MAX_LAYOUT_SIZE || height > MAX_LAYOUT_SIZE) {
+        throw new IllegalArgumentException(
+            "Width and height must not exceed " + MAX_LAYOUT_SIZE + ": " + width + "x" + height);
+      }
+      ScanOptions options = tree.toScanOptions();
+
+      FileNode node = scanCacheService.scan(path, options);
+      return ResponseEntity.ok(treemapLayoutService.layout(node, width, height, minSize));
+    } catch (Exception exception) {
+      return errorResponse(exception);
+    }
+  }
+
+  /**
+   * Liefert die aufsummierten Kennzahlen eines bereits gescannten Verzeichnisses
+   * ({@link DirectoryStatistics}): Anzahl der Dateien und Verzeichnisse, größte Tiefe und ein
+   * Histogramm nach Erweiterung. Die Kennzahlen werden beim Scan berechnet; fehlen sie (z.B. bei
+   * kompakten Bäumen), werden sie aus dem gehaltenen Baum ermittelt.
+   *
+   * @param path          Pfad zum Verzeichnis
+   * @param limit         Optional: max. Anzahl der Erweiterungen, die größten zuerst
+   *                      (default: alle)
+   * @param tree          Parameter des ursprünglichen Scans ({@link CachedTreeParameters})
+   * @return ResponseEntity mit den Kennzahlen oder Fehlermeldung
+   */
+  @GetMapping("/stats")
+  public ResponseEntity<?> getStatistics(
+      @RequestParam String path,
+      @RequestParam(required = false) Integer limit,
+      @ModelAttribute CachedTreeParameters tree) {
+    try {
+      if (limit != null && limit < 1) {
+        throw new IllegalArgumentException("Limit must be positive: " + limit);
+      }
+      ScanOptions options = tree.toScanOptions();
+
+      FileNode node = scanCacheService.scan(path, options);
+      DirectoryStatistics statistics = DirectoryStatistics.of(node);
+      List<DirectoryStatistics.ExtensionStatistics> extensions = statistics.getExtensions();
+
+      Map<String, Object> response = new LinkedHashMap<>();
+      response.put("path", node.getPath());
+      response.put("size", statistics.getSize());
+      response.put("fileCount", statistics.getFileCount());
+      response.put("directoryCount", statistics.getDirectoryCount());
+      response.put("maxDepth", statistics.getMaxDepth());
+      response.put("extensionCount", extensions.size());
+      response.put("extensions", limit != null && limit < extensions.size()
+          ? extensions.subList(0, limit)
+          : extensions);
+      return ResponseEntity.ok(response);
+    } catch (Exception exception) {
+      return errorResponse(exception);
+    }
+  }
+
+  /**
+   * Liefert die größten Dateien oder Verzeichnisse unterhalb eines Verzeichnisses.
+   *
+   * <p>
+   * Ist der Baum im Cache, wird er durchsucht. Sonst wird das Verzeichnis gescannt und der Baum wie
+   * bei {@code /api/scan} gehalten, oder mit {@code retain=false} nur nach den größten Einträgen
+   * durchsucht, ohne einen Baum aufzubauen ({@link DirectoryService#scanTop}).
+   *
+   * @param path          Pfad zum Verzeichnis
+   * @param n             Optional: Anzahl der Einträge (default: 100, max. 10000)
+   * @param kind          Optional: {@code file} oder {@code directory} (default: file)
+   * @param retain        Optional: false, um ohne gehaltenen Baum zu scannen (default: true)
+   * @param parallel      Optional: parallele Verarbeitung nutzen (default: false)
+   * @param maxThreads    Optional: max. Anzahl Threads (default: 4)
+   * @param tree          Parameter des ursprünglichen Scans ({@link CachedTreeParameters})
+   * @return ResponseEntity mit den Einträgen oder Fehlermeldung
+   */
+  @GetMapping("/top")
+  public ResponseEntity<?> getTop(
+      @RequestParam String path,
+      @RequestParam(required = false, defaultValue = "100") int n,
+      @RequestParam(required = false, defaultValue = "file") String kind,
+      @RequestParam(required = false, defaultValue = "true") boolean retain,
+      @RequestParam(required = false, defaultValue = "false") boolean parallel,
+      @RequestParam(required = false) Integer maxThreads,
+      @ModelAttribute CachedTreeParameters tree) {
+    try {
+      if (n < 1 || n > MAX_TOP_ENTRIES) {
+        throw new IllegalArgumentException(
+            "n must be between 1 and " + MAX_TOP_ENTRIES + ": " + n);
+      }
+      boolean directories = switch (kind.trim().toLowerCase(Locale.ROOT)) {
+        case "file" -> false;
+        case "directory" -> true;
+        default -> throw new IllegalArgumentException("Unknown kind: " + kind);
+      };
+      ScanOptions options = tree.toScanOptions(parallel, maxThreads);
+
+      FileNode node = scanCacheService.getIfPresent(path, options);
+      TopEntries top;
+      if (node == null && !retain) {
+        top = directoryService.scanTop(path, options, n, new ScanProgress());
+      } else {
+        if (node == null) {
+          node = scanCacheService.scan(path, options);
+        }
+        top = TopEntries.of(node, n);
+      }
+
+      Map<String, Object> response = new LinkedHashMap<>();
+      response.put("path", top.getRoot().toString());
+      response.put("size", top.getSize());
+      response.put("kind", directories ? "directory" : "file");
+      response.put("source", node != null ? "tree" : "scan");
+      response.put("entries", directories ? top.getDirectories() : top.getFiles());
+      return ResponseEntity.ok(response);
+    } catch (Exception exception) {
+      return errorResponse(exception);
+    }
+  }
+
+  /**
+   * Sucht inhaltsgleiche Dateien unterhalb eines Verzeichnisses.
+   *
+   * <p>
+   * Kandidaten werden aus dem gehaltenen Baum nach Größe vorausgewählt (ggf. wird das Verzeichnis
+   * dafür wie bei {@code /api/scan} gescannt) und dann über Teil- und vollständige Hashes
+   * verglichen ({@link DuplicateFinderService}).
+   *
+   * @param path          Pfad zum Verzeichnis
+   * @param minSize       Optional: Mindestgröße einer Datei in Bytes (default: 1)
+   * @param limit         Optional: max. Anzahl der Gruppen und Verzeichnisse, die meisten
+   *                      einsparbaren Bytes zuerst (default: 100, max. 10000)
+   * @param tree          Parameter des ursprünglichen Scans ({@link CachedTreeParameters})
+   * @return ResponseEntity mit den Duplikatgruppen oder Fehlermeldung
+   */
+  @GetMapping("/duplicates")
+  public ResponseEntity<?> getDuplicates(
+      @RequestParam String path,
+      @RequestParam(required = false, defaultValue = "1") long minSize,
+      @RequestParam(required = false, defaultValue = "100") int limit,
+      @ModelAttribute CachedTreeParameters tree) {
     try {
-      com.voba.model.ScanOptions options = new com.voba.model.ScanOptions()
-          .setIncludeHiddenFiles(includeHidden)
-          .setUseParallelProcessing(parallel);
+      if (limit > MAX_DUPLICATE_ENTRIES) {
+        throw new IllegalArgumentException(
+            "Limit must not exceed " + MAX_DUPLICATE_ENTRIES + ": " + limit);
+      }
+      ScanOptions options = tree.toScanOptions();
 
-      if (maxThreads != null && maxThreads > 0) {
-        options.setMaxThreads(maxThreads);
+      FileNode node = scanCacheService.scan(path, options);
+      DuplicateReport report = duplicateFinderService.find(node, minSize, limit);
+      return ResponseEntity.ok(report);
+    } catch (Exception exception) {
+      return errorResponse(exception);
+    }
+  }
+
+  /**
+   * Sucht Dateien und Verzeichnisse nach ihrem Namen.
+   *
+   * <p>
+   * Gesucht wird in einem {@link NameIndex} über den gehaltenen Baum, der bei der ersten Suche
+   * aufgebaut und vorgehalten wird ({@link NameIndexService}); ggf. wird das Verzeichnis dafür wie
+   * bei {@code /api/scan} gescannt. Groß-/Kleinschreibung wird nicht beachtet.
+   *
+   * @param path          Pfad zum Verzeichnis
+   * @param q             Suchbegriff bzw. Muster
+   * @param mode          Optional: {@code substring} (Name enthält q) oder {@code glob} (Name
+   *                      entspricht q mit {@code *} und {@code ?}) (default: substring)
+   * @param offset        Optional: Anzahl zu überspringender Treffer (default: 0)
+   * @param limit         Optional: max. Anzahl der Treffer, die größten zuerst (default: 50,
+   *                      max. 1000)
+   * @param tree          Parameter des ursprünglichen Scans ({@link CachedTreeParameters})
+   * @return ResponseEntity mit den Treffern oder Fehlermeldung
+   */
+  @GetMapping("/search")
+  public ResponseEntity<?> search(
+      @RequestParam String path,
+      @RequestParam String q,
+      @RequestParam(required = false, defaultValue = "substring") String mode,
+      @RequestParam(required = false, defaultValue = "0") int offset,
+      @RequestParam(required = false, defaultValue = "50") int limit,
+      @ModelAttribute CachedTreeParameters tree) {
+    try {
+      if (limit > MAX_SEARCH_RESULTS) {
+        throw new IllegalArgumentException(
+            "Limit must not exceed " + MAX_SEARCH_RESULTS + ": " + limit);
       }
+      boolean glob = switch (mode.trim().toLowerCase(Locale.ROOT)) {
+        case "substring" -> false;
+        case "glob" -> true;
+        default -> throw new IllegalArgumentException("Unknown mode: " + mode);
+      };
+      ScanOptions options = tree.toScanOptions();
 
-      FileNode result = directoryService.scanDirectory(path, options);
-      return ResponseEntity.ok(result);
+      NameIndex index = nameIndexService.index(scanCacheService.scan(path, options));
+      NameIndex.Result result = glob
+          ? index.glob(q, offset, limit)
+          : index.substring(q, offset, limit);
+
+      Map<String, Object> response = new LinkedHashMap<>();
+      response.put("path", index.getRootPath());
+      response.put("query", q);
+      response.put("mode", glob ? "glob" : "substring");
+      response.put("total", result.total());
+      response.put("offset", offset);
+      response.put("entries", result.entries());
+      return ResponseEntity.ok(response);
     } catch (Exception exception) {
-      Map<String, String> error = new HashMap<>();
-      error.put("error", exception.getMessage());
-      return ResponseEntity.badRequest().body(error);
+      return errorResponse(exception);
+    }
+  }
+
+  /**
+   * Filtert die Dateien eines bereits gescannten Verzeichnisses und liefert das Ergebnis als
+   * beschnittenen Baum im selben Format wie {@code /api/scan}.
+   *
+   * <p>
+   * Der Baum enthält nur Dateien, die alle angegebenen Bedingungen erfüllen ({@link TreeQuery}),
+   * und die Verzeichnisse, in denen sie liegen; Verzeichnisgrößen sind die Summe der passenden
+   * Dateien. Ausgewertet wird parallel über die Teilbäume ({@link TreeQueryService}); ist der Baum
+   * nicht im Cache, wird das Verzeichnis wie bei {@code /api/scan} gescannt.
+   *
+   * @param path          Pfad zum Verzeichnis
+   * @param minSize       Optional: Mindestgröße einer Datei in Bytes
+   * @param maxSize       Optional: Höchstgröße einer Datei in Bytes
+   * @param ext           Optional: zulässige Erweiterungen, getrennt durch {@code |} oder
+   *                      {@code ,}, z.B. {@code iso|vmdk}
+   * @param name          Optional: Glob-Muster für den Dateinamen mit {@code *} und {@code ?}
+   * @param olderThanDays Optional: nur Dateien, die vor mindestens so vielen Tagen geändert wurden
+   * @param newerThanDays Optional: nur Dateien, die vor höchstens so vielen Tagen geändert wurden
+   * @param minFileDepth  Optional: Mindesttiefe einer Datei unterhalb des Verzeichnisses (direkte
+   *                      Kinder: 1)
+   * @param maxFileDepth  Optional: Höchsttiefe einer Datei unterhalb des Verzeichnisses
+   * @param parallel      Optional: Teilbäume parallel auswerten (default: true)
+   * @param maxThreads    Optional: max. Anzahl Threads (default: 4)
+   * @param tree          Parameter des ursprünglichen Scans ({@link CachedTreeParameters})
+   * @param depth         Optional: nur diese Anzahl Ebenen liefern (default: ganzer Baum)
+   * @param limit         Optional: max. Anzahl Kinder je Verzeichnis, wenn depth gesetzt ist
+   *                      (default: 1000)
+   * @param format        Optional: JSON, ELIDED oder BINARY (default: wie bei {@code /api/scan})
+   * @param accept        Accept-Header für die Wahl des binären Formats
+   * @return ResponseEntity mit dem beschnittenen Baum oder Fehlermeldung
+   */
+  @GetMapping("/query")
+  public ResponseEntity<?> query(
+      @RequestParam String path,
+      @RequestParam(required = false) Long minSize,
+      @RequestParam(required = false) Long maxSize,
+      @RequestParam(required = false) String ext,
+      @RequestParam(required = false) String name,
+      @RequestParam(required = false) Integer olderThanDays,
+      @RequestParam(required = false) Integer newerThanDays,
+      @RequestParam(required = false) Integer minFileDepth,
+      @RequestParam(required = false) Integer maxFileDepth,
+      @RequestParam(required = false, defaultValue = "true") boolean parallel,
+      @RequestParam(required = false) Integer maxThreads,
+      @ModelAttribute CachedTreeParameters tree,
+      @RequestParam(required = false) Integer depth,
+      @RequestParam(required = false, defaultValue = "1000") int limit,
+      @RequestParam(required = false) String format,
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+    try {
+      TreeFormat treeFormat = TreeFormat.negotiate(format, accept);
+      Set<String> extensions = ext != null ? Set.copyOf(List.of(ext.split("[|,]"))) : null;
+      TreeQuery query = new TreeQuery(minSize, maxSize, extensions, name,
+          olderThanDays, newerThanDays, minFileDepth, maxFileDepth);
+      ScanOptions options = tree.toScanOptions(parallel, maxThreads);
+
+      FileNode result = treeQueryService.query(
+          scanCacheService.scan(path, options), query, options);
+      return ResponseEntity.ok(depth != null
+          ? treeFormat.slice(result, depth, 0, limit)
+          : treeFormat.tree(result));
+    } catch (Exception exception) {
+      return errorResponse(exception);
+    }
+  }
+
+  /**
+   * Scannt ein Verzeichnis und streamt das Ergebnis schrittweise als NDJSON.
+   *
+   * <p>
+   * Jede Zeile ist ein JSON-Objekt mit einem Feld {@code type}:
+   *
+   * <ul>
+   * <li>{@code subtree}: ein fertig gescannter, sortierter Eintrag direkt unterhalb der Wurzel
+   * ({@code node}); mit {@code maxChildren} stehen diese Einträge erst am Ende des Scans fest
+   * <li>{@code progress}: bisher gelesene Verzeichnisse, Dateien und Bytes sowie wie viele
+   * Verzeichnisse beim inkrementellen Neuscan übernommen bzw. neu gelistet wurden
+   * <li>{@code complete}: Name, Pfad, Gesamtgröße und Anzahl Kinder der Wurzel, die finalen
+   * Zähler und ob das Ergebnis aus dem Cache stammt ({@code cached})
+   * <li>{@code error}: Fehlermeldung, falls der Scan nach Beginn der Antwort scheitert
+   * </ul>
+   *
+   * <p>
+   * Es wird immer die NIO-Engine mit einzelnen FileNode-Objekten verwendet. Liegt das Verzeichnis
+   * bereits im Cache, werden dessen Einträge sofort gesendet; andernfalls wird das Ergebnis nach dem
+   * Scan im Cache abgelegt. Läuft bereits ein identischer Scan (auch über {@code /api/scan}), wird
+   * auf ihn gewartet und die Einträge werden danach gesendet ({@code cached} ist dann true). Trennt
+   * der Client die Verbindung, bricht der Scan beim nächsten Schreibversuch ab.
+   *
+   * @param path          Pfad zum zu scannenden Verzeichnis
+   * @param includeHidden Optional: versteckte Dateien inkludieren (default:
+   *                      false)
+   * @param parallel      Optional: parallele Verarbeitung nutzen (default: false)
+   * @param maxThreads    Optional: max. Anzahl Threads bei paralleler
+   *                      Verarbeitung (default: CPU-Kerne)
+   * @param virtualThreads Optional: Verzeichnisse auf virtuellen Threads lesen, z.B. für
+   *                      Netzwerk-Dateisysteme (default: false)
+   * @param maxInFlight   Optional: max. Anzahl gleichzeitiger Dateisystem-Zugriffe mit
+   *                      virtuellen Threads (default: 256)
+   * @param refresh       Optional: Cache umgehen und neu scannen (default: false)
+   * @param incremental   Optional: beim Neuscan unveränderte Verzeichnisse aus dem gecachten
+   *                      Ergebnis übernehmen statt sie zu listen (default: false)
+   * @param archives      Optional: ZIP- und JAR-Archive wie Verzeichnisse durchsuchen
+   *                      (default: false)
+   * @param diskUsage     Optional: belegten Speicherplatz abrechnen, Hardlinks nur einmal zählen
+   *                      und zusätzlich die scheinbare Größe liefern (default: false)
+   * @param aggregateBelow Optional: Dateien unter dieser Größe in Bytes zu einem Knoten
+   *                      "N other files" zusammenfassen (default: keine)
+   * @param maxChildren   Optional: nur die größten Kinder je Verzeichnis behalten, den Rest
+   *                      zusammenfassen (default: alle)
+   * @param maxDepth      Optional: Inhalt von Verzeichnissen auf dieser Tiefe zusammenfassen
+   *                      (default: keine)
+   * @param depth         Optional: Anzahl Ebenen unterhalb der Wurzel, die gestreamt werden;
+   *                      tiefere Ebenen über {@code /api/node} (default: ganzer Baum)
+   * @param limit         Optional: max. Anzahl Kinder je Verzeichnis, wenn depth gesetzt ist
+   *                      (default: 1000)
+   * @param format        Optional: Format der Teilbäume, JSON oder ELIDED (default: JSON)
+   * @return ResponseEntity mit dem NDJSON-Stream oder Fehlermeldung (JSON; 429, wenn keine
+   *         weiteren Scans angenommen werden)
+   */
+  @GetMapping("/scan/stream")
+  public ResponseEntity<StreamingResponseBody> streamScan(
+      @RequestParam String path,
+      @RequestParam(required = false, defaultValue = "false") boolean includeHidden,
+      @RequestParam(required = false, defaultValue = "false") boolean parallel,
+      @RequestParam(required = false) Integer maxThreads,
+      @RequestParam(required = false, defaultValue = "false") boolean virtualThreads,
+      @RequestParam(required = false) Integer maxInFlight,
+      @RequestParam(required = false, defaultValue = "false") boolean refresh,
+      @RequestParam(required = false, defaultValue = "false") boolean incremental,
+      @RequestParam(required = false, defaultValue = "false") boolean archives,
+      @RequestParam(required = false, defaultValue = "false") boolean diskUsage,
+      @RequestParam(required = false) Long aggregateBelow,
+      @RequestParam(required = false) Integer maxChildren,
+      @RequestParam(required = false) Integer maxDepth,
+      @RequestParam(required = false) Integer depth,
+      @RequestParam(required = false, defaultValue = "1000") int limit,
+      @RequestParam(required = false) String format) {
+    ScanOptions options;
+    FileNode cachedRoot;
+    TreeFormat treeFormat;
+    try {
+      treeFormat = TreeFormat.parse(format);
+      if (treeFormat == TreeFormat.BINARY) {
+        throw new IllegalArgumentException("The binary format is not available for streamed scans");
+      }
+      if (depth != null && depth < 1) {
+        throw new IllegalArgumentException("Depth must be at least 1: " + depth);
+      }
+      if (limit <= 0) {
+        throw new IllegalArgumentException("Limit must be positive: " + limit);
+      }
+      directoryService.validateDirectory(path);
+      options = ScanOptionsFactory.create(includeHidden, parallel, maxThreads, ScanEngine.NIO.name())
+          .setIncremental(incremental)
+          .setScanArchives(archives)
+          .setDiskUsage(diskUsage);
+      ScanOptionsFactory.withVirtualThreads(options, virtualThreads, maxInFlight);
+      ScanOptionsFactory.withAggregation(options, aggregateBelow, maxChildren, maxDepth);
+
+      // Abgelehnte Scans sofort melden, bevor die Antwort mit Status 200 beginnt
+      cachedRoot = refresh ? null : scanCacheService.getIfPresent(path, options);
+      if (cachedRoot == null && scanExecutor.isSaturated()) {
+        throw new ScanRejectedException(ScanRejectedException.Reason.QUEUE_FULL,
+            "Too many scans are running or waiting, try again later");
+      }
+    } catch (Exception exception) {
+      ResponseEntity<Map<String, String>> response = errorResponse(exception);
+      Map<String, String> error = response.getBody();
+      return ResponseEntity.status(response.getStatusCode())
+          .headers(response.getHeaders())
+          .contentType(MediaType.APPLICATION_JSON)
+          .body(outputStream -> objectMapper.writeValue(outputStream, error));
+    }
+
+    StreamingResponseBody body = outputStream -> {
+      NdjsonWriter writer = new NdjsonWriter(outputStream, objectMapper);
+      ScanProgress progress = new ScanProgress();
+      progress
+          .onSubtreeCompleted(node -> writer.write(subtreeMessage(node, treeFormat, depth, limit)))
+          .onProgress(current -> writer.write(progressMessage("progress", current)), 250);
+
+      try {
+        FileNode root = cachedRoot;
+        boolean cached = root != null;
+        if (refresh) {
+          root = scanCacheService.refresh(path, options, progress);
+        } else if (!cached) {
+          // Läuft derselbe Scan bereits, wird auf ihn gewartet statt ein zweites Mal zu scannen
+          ScanCacheService.ScanResult result = scanCacheService.scan(path, options, progress);
+          root = result.root();
+          cached = !result.scanned();
+        }
+        if (cached) {
+          for (FileNode child : root.getChildren()) {
+            writer.write(subtreeMessage(child, treeFormat, depth, limit));
+          }
+        }
+        Map<String, Object> complete = progressMessage("complete", progress);
+        complete.put("name", root.getName());
+        complete.put("path", root.getPath());
+        complete.put("size", root.getSize());
+        complete.put("directory", root.isDirectory());
+        complete.put("childCount", root.getChildren().size());
+        complete.put("cached", cached);
+        writer.write(complete);
+      } catch (UncheckedIOException clientGone) {
+        throw clientGone.getCause();
+      } catch (RuntimeException exception) {
+        writer.write(Map.of("type", "error", "error", String.valueOf(exception.getMessage())));
+      }
+    };
+
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(NdjsonWriter.MEDIA_TYPE))
+        .body(body);
+  }
+
+  private Map<String, Object> subtreeMessage(
+      FileNode node, TreeFormat treeFormat, Integer depth, int limit) {
+    Object payload = depth != null
+        ? treeFormat.slice(node, depth - 1, 0, limit)
+        : treeFormat.tree(node);
+    return Map.of("type", "subtree", "node", payload);
+  }
+
+  private Map<String, Object> progressMessage(String type, ScanProgress progress) {
+    Map<String, Object> message = new LinkedHashMap<>();
+    message.put("type", type);
+    message.put("directories", progress.getDirectories());
+    message.put("files", progress.getFiles());
+    message.put("bytes", progress.getBytes());
+    message.put("reusedDirectories", progress.getReusedDirectories());
+    message.put("relistedDirectories", progress.getRelistedDirectories());
+    return message;
+  }
+
+  private ResponseEntity<Map<String, String>> errorResponse(Exception exception) {
+    if (exception instanceof ScanRejectedException rejected) {
+      return ScanRejections.toResponse(rejected);
     }
+    Map<String, String> error = new HashMap<>();
+    error.put("error", exception.getMessage());
+    return ResponseEntity.badRequest().body(error);
   }
 
   /**
@@ -0,0 +1,26 @@
+package com.voba.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/** Registriert die Web-Metriken, die Actuator nicht selbst erfasst. */
+@Configuration
+public class MetricsConfiguration {
+
+  /**
+   * Filter für die Antwortgröße der API-Endpunkte.
+   *
+   * @param registry Registry für die Metrik
+   * @return Registrierung des Filters
+   */
+  @Bean
+  FilterRegistrationBean<ResponseSizeFilter> responseSizeFilter(MeterRegistry registry) {
+    FilterRegistrationBean<ResponseSizeFilter> registration =
+        new FilterRegistrationBean<>(new ResponseSizeFilter(registry));
+    registration.addUrlPatterns("/api/*");
+    return registration;
+  }
+}
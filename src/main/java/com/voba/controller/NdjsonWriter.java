@@ -0,0 +1,42 @@
+package com.voba.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Schreibt Objekte als Newline-delimited JSON (eine Zeile pro Objekt) in einen Stream. Jede Zeile
+ * wird sofort geflusht, damit der Client Teilergebnisse ohne Verzögerung erhält. Schreibzugriffe
+ * sind synchronisiert, da sie aus mehreren Scan-Threads erfolgen können.
+ */
+class NdjsonWriter {
+
+  /** Content-Type für NDJSON-Antworten. */
+  static final String MEDIA_TYPE = "application/x-ndjson";
+
+  private final OutputStream outputStream;
+  private final ObjectMapper objectMapper;
+
+  NdjsonWriter(OutputStream outputStream, ObjectMapper objectMapper) {
+    this.outputStream = outputStream;
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * Schreibt ein Objekt als eine JSON-Zeile.
+   *
+   * @param value zu schreibendes Objekt
+   * @throws UncheckedIOException wenn der Client die Verbindung getrennt hat
+   */
+  synchronized void write(Object value) {
+    try {
+      outputStream.write(objectMapper.writeValueAsBytes(value));
+      outputStream.write('\n');
+      outputStream.flush();
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+  }
+}
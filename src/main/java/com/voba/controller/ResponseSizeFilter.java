@@ -0,0 +1,175 @@
+package com.voba.controller;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Misst die Größe der Antworten unter {@code /api/} als Verteilung
+ * {@code drivevisualizer.response.size} in Bytes, getaggt mit dem URI-Muster des Handlers.
+ *
+ * <p>
+ * Gezählt werden die vom Handler geschriebenen Bytes vor einer eventuellen Komprimierung durch den
+ * Server. Bei asynchronen Antworten (gestreamte Scans) wird erst beim Abschluss der Anfrage gemessen.
+ */
+class ResponseSizeFilter extends OncePerRequestFilter {
+
+  private final MeterRegistry registry;
+
+  ResponseSizeFilter(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    CountingResponse countingResponse = new CountingResponse(response);
+    try {
+      chain.doFilter(request, countingResponse);
+    } finally {
+      if (request.isAsyncStarted()) {
+        request.getAsyncContext().addListener(new AsyncListener() {
+          @Override
+          public void onComplete(AsyncEvent event) {
+            record(request, countingResponse);
+          }
+
+          @Override
+          public void onTimeout(AsyncEvent event) {
+          }
+
+          @Override
+          public void onError(AsyncEvent event) {
+          }
+
+          @Override
+          public void onStartAsync(AsyncEvent event) {
+          }
+        });
+      } else {
+        record(request, countingResponse);
+      }
+    }
+  }
+
+  private void record(HttpServletRequest request, CountingResponse response) {
+    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    DistributionSummary.builder("drivevisualizer.response.size")
+        .description("Bytes written by API responses before compression")
+        .baseUnit("bytes")
+        .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+        .publishPercentileHistogram()
+        .register(registry)
+        .record(response.bytes.sum());
+  }
+
+  /** Antwort-Wrapper, der alle über Stream oder Writer geschriebenen Bytes zählt. */
+  private static final class CountingResponse extends HttpServletResponseWrapper {
+
+    private final LongAdder bytes = new LongAdder();
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    CountingResponse(HttpServletResponse response) {
+      super(response);
+    }
+
+    @Override
+    public synchronized ServletOutputStream getOutputStream() throws IOException {
+      if (outputStream == null) {
+        ServletOutputStream delegate = super.getOutputStream();
+        outputStream = new ServletOutputStream() {
+          @Override
+          public void write(int b) throws IOException {
+            delegate.write(b);
+            bytes.increment();
+          }
+
+          @Override
+          public void write(byte[] buffer, int offset, int length) throws IOException {
+            delegate.write(buffer, offset, length);
+            bytes.add(length);
+          }
+
+          @Override
+          public void flush() throws IOException {
+            delegate.flush();
+          }
+
+          @Override
+          public void close() throws IOException {
+            delegate.close();
+          }
+
+          @Override
+          public boolean isReady() {
+            return delegate.isReady();
+          }
+
+          @Override
+          public void setWriteListener(WriteListener listener) {
+            delegate.setWriteListener(listener);
+          }
+        };
+      }
+      return outputStream;
+    }
+
+    @Override
+    public synchronized PrintWriter getWriter() throws IOException {
+      if (writer == null) {
+        Writer delegate = super.getWriter();
+        Charset charset = Charset.forName(getCharacterEncoding());
+        // Zeichen werden zum Zählen kodiert; der Writer des Servers kodiert sie erneut
+        writer = new PrintWriter(new Writer() {
+          @Override
+          public void write(char[] buffer, int offset, int length) throws IOException {
+            delegate.write(buffer, offset, length);
+            bytes.add(new String(buffer, offset, length).getBytes(charset).length);
+          }
+
+          @Override
+          public void write(String text, int offset, int length) throws IOException {
+            delegate.write(text, offset, length);
+            bytes.add(text.substring(offset, offset + length).getBytes(charset).length);
+          }
+
+          @Override
+          public void flush() throws IOException {
+            delegate.flush();
+          }
+
+          @Override
+          public void close() throws IOException {
+            delegate.close();
+          }
+        });
+      }
+      return writer;
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package com.voba.controller;
+
+import java.util.Map;
+
+import com.voba.service.ScanCacheService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST-Controller für den Scan-Cache. Bietet Endpunkte zum Abrufen der Cache-Statistik und zum
+ * Verwerfen gecachter Ergebnisse.
+ */
+@RestController
+@RequestMapping("/api/cache")
+@CrossOrigin
+public class ScanCacheController {
+
+  @Autowired
+  private ScanCacheService scanCacheService;
+
+  /**
+   * Ruft Zähler und Füllstand des Caches ab.
+   *
+   * @return ResponseEntity mit der Cache-Statistik
+   */
+  @GetMapping
+  public ResponseEntity<Map<String, Object>> getStats() {
+    return ResponseEntity.ok(scanCacheService.getStats());
+  }
+
+  /**
+   * Verwirft gecachte Ergebnisse.
+   *
+   * @param path Optional: nur Einträge verwerfen, die diesen Pfad betreffen (default: alle)
+   * @return ResponseEntity mit der aktualisierten Cache-Statistik
+   */
+  @DeleteMapping
+  public ResponseEntity<Map<String, Object>> evict(@RequestParam(required = false) String path) {
+    if (path == null || path.isBlank()) {
+      scanCacheService.clear();
+    } else {
+      scanCacheService.invalidate(path);
+    }
+    return ResponseEntity.ok(scanCacheService.getStats());
+  }
+}
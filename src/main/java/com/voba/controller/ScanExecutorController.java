@@ -0,0 +1,35 @@
+package com.voba.controller;
+
+import java.util.Map;
+
+import com.voba.service.ScanExecutor;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST-Controller für den anwendungsweiten Scan-Executor. Zeigt Konfiguration, laufende und
+ * wartende Scans sowie Wartezeiten.
+ */
+@RestController
+@RequestMapping("/api/executor")
+@CrossOrigin
+public class ScanExecutorController {
+
+  @Autowired
+  private ScanExecutor scanExecutor;
+
+  /**
+   * Ruft Auslastung und Wartezeiten des Scan-Executors ab.
+   *
+   * @return ResponseEntity mit der Executor-Statistik
+   */
+  @GetMapping
+  public ResponseEntity<Map<String, Object>> getStats() {
+    return ResponseEntity.ok(scanExecutor.getStats());
+  }
+}
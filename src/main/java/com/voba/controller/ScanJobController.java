@@ -0,0 +1,166 @@
+package com.voba.controller;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.voba.model.FileNode;
+import com.voba.model.ScanOptions;
+import com.voba.service.ScanJob;
+import com.voba.service.ScanJobService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST-Controller für asynchrone Scan-Jobs. Bietet Endpunkte zum Starten, Abfragen, Abbrechen und
+ * Abrufen des Ergebnisses von Scans, die im Hintergrund laufen.
+ */
+@RestController
+@RequestMapping("/api/jobs")
+@CrossOrigin
+public class ScanJobController {
+
+  @Autowired
+  private ScanJobService scanJobService;
+
+  /**
+   * Startet einen Scan im Hintergrund.
+   *
+   * @param path          Pfad zum zu scannenden Verzeichnis
+   * @param includeHidden Optional: versteckte Dateien inkludieren (default: false)
+   * @param parallel      Optional: parallele Verarbeitung nutzen (default: false)
+   * @param maxThreads    Optional: max. Anzahl Threads bei paralleler Verarbeitung
+   * @param engine        Optional: Scan-Engine NIO oder FILE_IO (default: NIO)
+   * @param virtualThreads Optional: Verzeichnisse auf virtuellen Threads lesen, z.B. für
+   *                      Netzwerk-Dateisysteme (default: false)
+   * @param maxInFlight   Optional: max. Anzahl gleichzeitiger Dateisystem-Zugriffe mit
+   *                      virtuellen Threads (default: 256)
+   * @param compact       Optional: Ergebnis als kompakten Baum halten (default: false)
+   * @param incremental   Optional: unveränderte Verzeichnisse aus einem gecachten Ergebnis
+   *                      übernehmen statt sie zu listen (default: false)
+   * @param archives      Optional: ZIP- und JAR-Archive wie Verzeichnisse durchsuchen
+   *                      (default: false)
+   * @param diskUsage     Optional: belegten Speicherplatz abrechnen, Hardlinks nur einmal zählen
+   *                      und zusätzlich die scheinbare Größe liefern (default: false)
+   * @param aggregateBelow Optional: Dateien unter dieser Größe in Bytes zu einem Knoten
+   *                      "N other files" zusammenfassen (default: keine)
+   * @param maxChildren   Optional: nur die größten Kinder je Verzeichnis behalten, den Rest
+   *                      zusammenfassen (default: alle)
+   * @param maxDepth      Optional: Inhalt von Verzeichnissen auf dieser Tiefe zusammenfassen
+   *                      (default: keine)
+   * @return 202 mit dem Job-Status und Location-Header oder Fehlermeldung
+   */
+  @PostMapping
+  public ResponseEntity<?> startJob(
+      @RequestParam String path,
+      @RequestParam(required = false, defaultValue = "false") boolean includeHidden,
+      @RequestParam(required = false, defaultValue = "false") boolean parallel,
+      @RequestParam(required = false) Integer maxThreads,
+      @RequestParam(required = false) String engine,
+      @RequestParam(required = false, defaultValue = "false") boolean virtualThreads,
+      @RequestParam(required = false) Integer maxInFlight,
+      @RequestParam(required = false, defaultValue = "false") boolean compact,
+      @RequestParam(required = false, defaultValue = "false") boolean incremental,
+      @RequestParam(required = false, defaultValue = "false") boolean archives,
+      @RequestParam(required = false, defaultValue = "false") boolean diskUsage,
+      @RequestParam(required = false) Long aggregateBelow,
+      @RequestParam(required = false) Integer maxChildren,
+      @RequestParam(required = false) Integer maxDepth) {
+    try {
+      ScanOptions options = ScanOptionsFactory.create(includeHidden, parallel, maxThreads, engine)
+          .setCompactTree(compact)
+          .setIncremental(incremental)
+          .setScanArchives(archives)
+          .setDiskUsage(diskUsage);
+      ScanOptionsFactory.withVirtualThreads(options, virtualThreads, maxInFlight);
+      ScanOptionsFactory.withAggregation(options, aggregateBelow, maxChildren, maxDepth);
+      ScanJob job = scanJobService.startJob(path, options);
+      return ResponseEntity.accepted()
+          .location(URI.create("/api/jobs/" + job.getId()))
+          .body(job);
+    } catch (Exception exception) {
+      return error(HttpStatus.BAD_REQUEST, exception.getMessage());
+    }
+  }
+
+  /**
+   * Listet alle laufenden und aufbewahrten Jobs.
+   *
+   * @return ResponseEntity mit der Liste der Jobs
+   */
+  @GetMapping
+  public ResponseEntity<List<ScanJob>> getJobs() {
+    return ResponseEntity.ok(scanJobService.getJobs());
+  }
+
+  /**
+   * Ruft Status, Fortschritt und geschätzte Restzeit eines Jobs ab.
+   *
+   * @param id ID des Jobs
+   * @return ResponseEntity mit dem Job-Status oder 404
+   */
+  @GetMapping("/{id}")
+  public ResponseEntity<?> getJob(@PathVariable String id) {
+    ScanJob job = scanJobService.getJob(id);
+    if (job == null) {
+      return notFound(id);
+    }
+    return ResponseEntity.ok(job);
+  }
+
+  /**
+   * Ruft das Ergebnis eines abgeschlossenen Jobs ab.
+   *
+   * @param id ID des Jobs
+   * @return ResponseEntity mit der Dateistruktur, 404 wenn unbekannt oder 409 wenn der Job nicht
+   *         erfolgreich abgeschlossen ist
+   */
+  @GetMapping("/{id}/result")
+  public ResponseEntity<?> getResult(@PathVariable String id) {
+    ScanJob job = scanJobService.getJob(id);
+    if (job == null) {
+      return notFound(id);
+    }
+    FileNode result = scanJobService.getResult(id);
+    if (result == null) {
+      return error(HttpStatus.CONFLICT, "Job is " + job.getStatus());
+    }
+    return ResponseEntity.ok(result);
+  }
+
+  /**
+   * Bricht einen Job ab.
+   *
+   * @param id ID des Jobs
+   * @return ResponseEntity mit dem Job-Status oder 404
+   */
+  @DeleteMapping("/{id}")
+  public ResponseEntity<?> cancelJob(@PathVariable String id) {
+    ScanJob job = scanJobService.cancelJob(id);
+    if (job == null) {
+      return notFound(id);
+    }
+    return ResponseEntity.ok(job);
+  }
+
+  private ResponseEntity<Map<String, String>> notFound(String id) {
+    return error(HttpStatus.NOT_FOUND, "Unknown job: " + id);
+  }
+
+  private ResponseEntity<Map<String, String>> error(HttpStatus status, String message) {
+    Map<String, String> error = new HashMap<>();
+    error.put("error", message);
+    return ResponseEntity.status(status).body(error);
+  }
+}
@@ -0,0 +1,81 @@
+package com.voba.controller;
+
+import java.util.Locale;
+
+import com.voba.model.ScanEngine;
+import com.voba.model.ScanOptions;
+
+/** Erstellt {@link ScanOptions} aus den gemeinsamen Request-Parametern der Scan-Endpunkte. */
+final class ScanOptionsFactory {
+
+  private ScanOptionsFactory() {
+  }
+
+  /**
+   * Erstellt die ScanOptions aus Request-Parametern.
+   *
+   * @param includeHidden versteckte Dateien inkludieren
+   * @param parallel      parallele Verarbeitung nutzen
+   * @param maxThreads    max. Anzahl Threads (null = Standard)
+   * @param engine        Name der Scan-Engine (null = Standard)
+   * @return neue ScanOptions
+   * @throws IllegalArgumentException bei ungültiger Engine
+   */
+  static ScanOptions create(
+      boolean includeHidden, boolean parallel, Integer maxThreads, String engine) {
+    ScanOptions options = new ScanOptions()
+        .setIncludeHiddenFiles(includeHidden)
+        .setUseParallelProcessing(parallel);
+
+    if (maxThreads != null && maxThreads > 0) {
+      options.setMaxThreads(maxThreads);
+    }
+
+    if (engine != null && !engine.isBlank()) {
+      options.setEngine(ScanEngine.valueOf(engine.trim().toUpperCase(Locale.ROOT)));
+    }
+    return options;
+  }
+
+  /**
+   * Übernimmt die Request-Parameter für den Scan auf virtuellen Threads.
+   *
+   * @param options        zu ergänzende ScanOptions
+   * @param virtualThreads Verzeichnisse auf virtuellen Threads lesen
+   * @param maxInFlight    max. Anzahl gleichzeitiger Dateisystem-Zugriffe (null = Standard)
+   * @return die übergebenen ScanOptions
+   * @throws IllegalArgumentException wenn maxInFlight kleiner als 1 ist
+   */
+  static ScanOptions withVirtualThreads(
+      ScanOptions options, boolean virtualThreads, Integer maxInFlight) {
+    options.setUseVirtualThreads(virtualThreads);
+    if (maxInFlight != null) {
+      options.setMaxInFlightOperations(maxInFlight);
+    }
+    return options;
+  }
+
+  /**
+   * Übernimmt die Request-Parameter zum Zusammenfassen von Einträgen.
+   *
+   * @param options        zu ergänzende ScanOptions
+   * @param aggregateBelow Dateien unter dieser Größe in Bytes zusammenfassen (null = nicht)
+   * @param maxChildren    max. Anzahl Kinder je Verzeichnis (null = unbegrenzt)
+   * @param maxDepth       Tiefe, unterhalb der alles zusammengefasst wird (null = unbegrenzt)
+   * @return die übergebenen ScanOptions
+   * @throws IllegalArgumentException wenn ein Wert negativ ist
+   */
+  static ScanOptions withAggregation(
+      ScanOptions options, Long aggregateBelow, Integer maxChildren, Integer maxDepth) {
+    if (aggregateBelow != null) {
+      options.setAggregateBelowSize(aggregateBelow);
+    }
+    if (maxChildren != null) {
+      options.setMaxChildren(maxChildren);
+    }
+    if (maxDepth != null) {
+      options.setMaxDepth(maxDepth);
+    }
+    return options;
+  }
+}
@@ -0,0 +1,35 @@
+package com.voba.controller;
+
+import java.util.Map;
+
+import com.voba.service.ScanRejectedException;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/** Übersetzt abgelehnte Scans in HTTP-Antworten. */
+final class ScanRejections {
+
+  /** Empfohlene Wartezeit vor einem neuen Versuch in Sekunden. */
+  static final int RETRY_AFTER_SECONDS = 5;
+
+  private ScanRejections() {
+  }
+
+  /**
+   * Erzeugt die Antwort für einen abgelehnten Scan: 429 bei voller Warteschlange, sonst 503, jeweils
+   * mit {@code Retry-After}-Header.
+   *
+   * @param exception Ablehnung des {@link com.voba.service.ScanExecutor}
+   * @return Fehlerantwort
+   */
+  static ResponseEntity<Map<String, String>> toResponse(ScanRejectedException exception) {
+    HttpStatus status = exception.getReason() == ScanRejectedException.Reason.QUEUE_FULL
+        ? HttpStatus.TOO_MANY_REQUESTS
+        : HttpStatus.SERVICE_UNAVAILABLE;
+    return ResponseEntity.status(status)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(RETRY_AFTER_SECONDS))
+        .body(Map.of("error", String.valueOf(exception.getMessage())));
+  }
+}
@@ -0,0 +1,137 @@
+package com.voba.controller;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.voba.model.ScanOptions;
+import com.voba.model.SnapshotInfo;
+import com.voba.service.ScanRejectedException;
+import com.voba.service.SnapshotService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST-Controller für gespeicherte Snapshots. Bietet Endpunkte zum Speichern, Auflisten, Laden und
+ * Löschen von Scan-Ergebnissen.
+ */
+@RestController
+@RequestMapping("/api/snapshots")
+@CrossOrigin
+public class SnapshotController {
+
+  @Autowired
+  private SnapshotService snapshotService;
+
+  /**
+   * Speichert das (ggf. gecachte) Scan-Ergebnis eines Verzeichnisses als Snapshot.
+   *
+   * @param path          Pfad zum Verzeichnis
+   * @param includeHidden Optional: versteckte Dateien inkludieren (default: false)
+   * @return 201 mit der Beschreibung des Snapshots und Location-Header oder Fehlermeldung
+   */
+  @PostMapping
+  public ResponseEntity<?> saveSnapshot(
+      @RequestParam String path,
+      @RequestParam(required = false, defaultValue = "false") boolean includeHidden) {
+    try {
+      ScanOptions options = ScanOptionsFactory.create(includeHidden, false, null, null);
+      SnapshotInfo snapshot = snapshotService.save(path, options);
+      return ResponseEntity.created(URI.create("/api/snapshots/" + snapshot.getId())).body(snapshot);
+    } catch (ScanRejectedException exception) {
+      return ScanRejections.toResponse(exception);
+    } catch (IOException exception) {
+      return error(HttpStatus.INTERNAL_SERVER_ERROR, exception.getMessage());
+    } catch (Exception exception) {
+      return error(HttpStatus.BAD_REQUEST, exception.getMessage());
+    }
+  }
+
+  /**
+   * Listet alle gespeicherten Snapshots, die neuesten zuerst.
+   *
+   * @return ResponseEntity mit der Liste der Snapshots oder Fehlermeldung
+   */
+  @GetMapping
+  public ResponseEntity<?> getSnapshots() {
+    try {
+      return ResponseEntity.ok(snapshotService.getSnapshots());
+    } catch (IOException exception) {
+      return error(HttpStatus.INTERNAL_SERVER_ERROR, exception.getMessage());
+    }
+  }
+
+  /**
+   * Ruft die Beschreibung eines Snapshots ab.
+   *
+   * @param id ID des Snapshots
+   * @return ResponseEntity mit der Beschreibung oder 404
+   */
+  @GetMapping("/{id}")
+  public ResponseEntity<?> getSnapshot(@PathVariable String id) {
+    SnapshotInfo snapshot = snapshotService.getSnapshot(id);
+    if (snapshot == null) {
+      return notFound(id);
+    }
+    return ResponseEntity.ok(snapshot);
+  }
+
+  /**
+   * Lädt einen Snapshot. Der Baum ist danach über {@code /api/scan} und {@code /api/node} für den
+   * gespeicherten Pfad abrufbar.
+   *
+   * @param id ID des Snapshots
+   * @return ResponseEntity mit der Beschreibung, 404 oder Fehlermeldung
+   */
+  @PostMapping("/{id}/load")
+  public ResponseEntity<?> loadSnapshot(@PathVariable String id) {
+    try {
+      SnapshotInfo snapshot = snapshotService.load(id);
+      if (snapshot == null) {
+        return notFound(id);
+      }
+      return ResponseEntity.ok(snapshot);
+    } catch (IOException exception) {
+      return error(HttpStatus.UNPROCESSABLE_ENTITY, exception.getMessage());
+    }
+  }
+
+  /**
+   * Löscht einen Snapshot.
+   *
+   * @param id ID des Snapshots
+   * @return 204, 404 oder Fehlermeldung
+   */
+  @DeleteMapping("/{id}")
+  public ResponseEntity<?> deleteSnapshot(@PathVariable String id) {
+    try {
+      if (!snapshotService.delete(id)) {
+        return notFound(id);
+      }
+      return ResponseEntity.noContent().build();
+    } catch (IOException exception) {
+      return error(HttpStatus.INTERNAL_SERVER_ERROR, exception.getMessage());
+    }
+  }
+
+  private ResponseEntity<Map<String, String>> notFound(String id) {
+    return error(HttpStatus.NOT_FOUND, "Unknown snapshot: " + id);
+  }
+
+  private ResponseEntity<Map<String, String>> error(HttpStatus status, String message) {
+    Map<String, String> error = new HashMap<>();
+    error.put("error", message);
+    return ResponseEntity.status(status).body(error);
+  }
+}
@@ -0,0 +1,84 @@
+package com.voba.controller;
+
+import java.util.Locale;
+
+import com.voba.model.BinaryTree;
+import com.voba.model.ElidedTree;
+import com.voba.model.FileNode;
+import com.voba.model.FileNodeSlice;
+
+/** Ausgabeformate für gescannte Bäume, wählbar über den Request-Parameter {@code format}. */
+enum TreeFormat {
+
+  /** Standard-JSON mit vollständigem Pfad je Knoten ({@link FileNode}, {@link FileNodeSlice}). */
+  JSON,
+
+  /** Kompaktes JSON mit kurzen Feldnamen und Pfad nur an der Wurzel ({@link ElidedTree}). */
+  ELIDED,
+
+  /** Binäres Format mit Namenstabelle und Varints ({@link BinaryTree}). */
+  BINARY;
+
+  /**
+   * Ermittelt das Format aus dem Request-Parameter.
+   *
+   * @param format Name des Formats (null = JSON)
+   * @return Format
+   * @throws IllegalArgumentException bei unbekanntem Format
+   */
+  static TreeFormat parse(String format) {
+    if (format == null || format.isBlank()) {
+      return JSON;
+    }
+    return valueOf(format.trim().toUpperCase(Locale.ROOT));
+  }
+
+  /**
+   * Ermittelt das Format aus dem Request-Parameter oder, wenn dieser fehlt, aus dem
+   * {@code Accept}-Header: verlangt der Client {@value BinaryTree#MEDIA_TYPE}, wird binär
+   * geantwortet.
+   *
+   * @param format Name des Formats oder null
+   * @param accept Wert des Accept-Headers oder null
+   * @return Format
+   * @throws IllegalArgumentException bei unbekanntem Format
+   */
+  static TreeFormat negotiate(String format, String accept) {
+    if (format == null && accept != null && accept.contains(BinaryTree.MEDIA_TYPE)) {
+      return BINARY;
+    }
+    return parse(format);
+  }
+
+  /**
+   * Erstellt den Antwortinhalt für einen vollständigen Baum.
+   *
+   * @param node Wurzel
+   * @return zu serialisierendes Objekt
+   */
+  Object tree(FileNode node) {
+    return switch (this) {
+      case JSON -> node;
+      case ELIDED -> ElidedTree.of(node);
+      case BINARY -> BinaryTree.of(node);
+    };
+  }
+
+  /**
+   * Erstellt den Antwortinhalt für einen Ausschnitt.
+   *
+   * @param node   Wurzel des Ausschnitts
+   * @param depth  Anzahl der mitgelieferten Ebenen unterhalb der Wurzel
+   * @param offset Index des ersten Kindes der Wurzel
+   * @param limit  max. Anzahl Kinder je Verzeichnis
+   * @return zu serialisierendes Objekt
+   * @throws IllegalArgumentException bei ungültigen Parametern
+   */
+  Object slice(FileNode node, int depth, int offset, int limit) {
+    return switch (this) {
+      case JSON -> FileNodeSlice.of(node, depth, offset, limit);
+      case ELIDED -> ElidedTree.slice(node, depth, offset, limit);
+      case BINARY -> BinaryTree.slice(node, depth, offset, limit);
+    };
+  }
+}
@@ -0,0 +1,106 @@
+package com.voba.controller;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.voba.model.ScanOptions;
+import com.voba.service.TreeWatch;
+import com.voba.service.TreeWatchService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST-Controller für den Watch-Modus. Bietet Endpunkte zum Starten, Abfragen und Beenden der
+ * Überwachung gescannter Verzeichnisse.
+ */
+@RestController
+@RequestMapping("/api/watches")
+@CrossOrigin
+public class TreeWatchController {
+
+  @Autowired
+  private TreeWatchService treeWatchService;
+
+  /**
+   * Startet die Überwachung eines Verzeichnisses. Der Baum ist danach über {@code /api/scan} und
+   * {@code /api/node} stets aktuell abrufbar.
+   *
+   * @param path          Pfad zum zu überwachenden Verzeichnis
+   * @param includeHidden Optional: versteckte Dateien inkludieren (default: false)
+   * @return 201 mit dem Status der Überwachung und Location-Header oder Fehlermeldung
+   */
+  @PostMapping
+  public ResponseEntity<?> startWatch(
+      @RequestParam String path,
+      @RequestParam(required = false, defaultValue = "false") boolean includeHidden) {
+    try {
+      ScanOptions options = ScanOptionsFactory.create(includeHidden, false, null, null);
+      TreeWatch watch = treeWatchService.startWatch(path, options);
+      return ResponseEntity.created(URI.create("/api/watches/" + watch.getId())).body(watch);
+    } catch (Exception exception) {
+      return error(HttpStatus.BAD_REQUEST, exception.getMessage());
+    }
+  }
+
+  /**
+   * Listet alle laufenden Überwachungen.
+   *
+   * @return ResponseEntity mit der Liste der Überwachungen
+   */
+  @GetMapping
+  public ResponseEntity<List<TreeWatch>> getWatches() {
+    return ResponseEntity.ok(treeWatchService.getWatches());
+  }
+
+  /**
+   * Ruft den Status einer Überwachung ab.
+   *
+   * @param id ID der Überwachung
+   * @return ResponseEntity mit dem Status oder 404
+   */
+  @GetMapping("/{id}")
+  public ResponseEntity<?> getWatch(@PathVariable String id) {
+    TreeWatch watch = treeWatchService.getWatch(id);
+    if (watch == null) {
+      return notFound(id);
+    }
+    return ResponseEntity.ok(watch);
+  }
+
+  /**
+   * Beendet eine Überwachung.
+   *
+   * @param id ID der Überwachung
+   * @return ResponseEntity mit dem letzten Status oder 404
+   */
+  @DeleteMapping("/{id}")
+  public ResponseEntity<?> stopWatch(@PathVariable String id) {
+    TreeWatch watch = treeWatchService.stopWatch(id);
+    if (watch == null) {
+      return notFound(id);
+    }
+    return ResponseEntity.ok(watch);
+  }
+
+  private ResponseEntity<Map<String, String>> notFound(String id) {
+    return error(HttpStatus.NOT_FOUND, "Unknown watch: " + id);
+  }
+
+  private ResponseEntity<Map<String, String>> error(HttpStatus status, String message) {
+    Map<String, String> error = new HashMap<>();
+    error.put("error", message);
+    return ResponseEntity.status(status).body(error);
+  }
+}
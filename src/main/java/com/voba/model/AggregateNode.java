@@ -0,0 +1,69 @@
+package com.voba.model;
+
+import java.nio.file.Path;
+
+/**
+ * Synthetischer Knoten, der die beim Scan zusammengefassten Einträge eines Verzeichnisses
+ * vertritt (siehe {@link ScanOptions#setAggregateBelowSize(long)},
+ * {@link ScanOptions#setMaxChildren(int)} und {@link ScanOptions#setMaxDepth(int)}).
+ *
+ * <p>
+ * Der Knoten ist eine Datei mit der Summe der Größen aller zusammengefassten Einträge. Sein Name
+ * (z.B. {@code 120 other files} oder {@code 4 other files, 2 folders}) beschreibt den Inhalt; der
+ * Pfad liegt im vertretenen Verzeichnis, existiert aber nicht im Dateisystem.
+ */
+public class AggregateNode extends FileNode {
+
+  private final long fileCount;
+  private final long directoryCount;
+
+  /**
+   * Konstruktor mit Parametern.
+   *
+   * @param directory      Verzeichnis, dessen Einträge zusammengefasst wurden
+   * @param fileCount      Anzahl der zusammengefassten Dateien
+   * @param directoryCount Anzahl der zusammengefassten Verzeichnisse
+   * @param size           Summe der Größen in Bytes
+   */
+  public AggregateNode(Path directory, long fileCount, long directoryCount, long size) {
+    super(directory.resolve(name(fileCount, directoryCount)), false);
+    this.fileCount = fileCount;
+    this.directoryCount = directoryCount;
+    setSize(size);
+  }
+
+  /**
+   * Erstellt den Namen eines Sammelknotens.
+   *
+   * @param fileCount      Anzahl der Dateien
+   * @param directoryCount Anzahl der Verzeichnisse
+   * @return Name ohne Zeichen, die in Dateinamen unzulässig sind
+   */
+  static String name(long fileCount, long directoryCount) {
+    String files = fileCount + (fileCount == 1 ? " other file" : " other files");
+    if (directoryCount == 0) {
+      return files;
+    }
+    return files + ", " + directoryCount + (directoryCount == 1 ? " folder" : " folders");
+  }
+
+  /**
+   * Gibt die Anzahl der zusammengefassten Dateien zurück, einschließlich der Dateien in
+   * zusammengefassten Verzeichnissen.
+   *
+   * @return Anzahl der Dateien
+   */
+  public long getFileCount() {
+    return fileCount;
+  }
+
+  /**
+   * Gibt die Anzahl der zusammengefassten Verzeichnisse zurück, einschließlich aller
+   * Unterverzeichnisse.
+   *
+   * @return Anzahl der Verzeichnisse
+   */
+  public long getDirectoryCount() {
+    return directoryCount;
+  }
+}
@@ -0,0 +1,64 @@
+package com.voba.model;
+
+import java.nio.file.Path;
+
+/**
+ * Knoten für ein ZIP- oder JAR-Archiv und dessen Einträge.
+ *
+ * <p>
+ * Die Größe ({@link #getSize()}) ist bei Einträgen die komprimierte Größe, beim Archiv selbst die
+ * Dateigröße auf dem Datenträger; damit bleibt der Baum ein Abbild des belegten Speichers. Die
+ * unkomprimierte Größe steht zusätzlich in {@link #getUncompressedSize()} und wird für
+ * Verzeichnisse und das Archiv über alle Einträge summiert.
+ *
+ * <p>
+ * Die Pfade der Einträge setzen sich aus dem Pfad des Archivs und dem Pfad im Archiv zusammen
+ * (z.B. {@code /home/user/lib.jar/META-INF/MANIFEST.MF}); sie existieren nicht im Dateisystem.
+ */
+public class ArchiveNode extends FileNode {
+
+  private final boolean archive;
+  private long uncompressedSize;
+
+  /**
+   * Konstruktor mit Parametern.
+   *
+   * @param path        Pfad des Archivs bzw. des Eintrags
+   * @param isDirectory true für das Archiv selbst und Verzeichnisse im Archiv
+   * @param archive     true für das Archiv selbst
+   */
+  public ArchiveNode(Path path, boolean isDirectory, boolean archive) {
+    super(path, isDirectory);
+    this.archive = archive;
+  }
+
+  @Override
+  public void addChild(FileNode child) {
+    super.addChild(child);
+    if (child instanceof ArchiveNode entry) {
+      uncompressedSize += entry.uncompressedSize;
+    }
+  }
+
+  /**
+   * Gibt an, ob der Knoten das Archiv selbst ist (und nicht ein Eintrag darin).
+   *
+   * @return true für das Archiv
+   */
+  public boolean isArchive() {
+    return archive;
+  }
+
+  /**
+   * Gibt die unkomprimierte Größe zurück, bei Verzeichnissen und dem Archiv summiert.
+   *
+   * @return unkomprimierte Größe in Bytes
+   */
+  public long getUncompressedSize() {
+    return uncompressedSize;
+  }
+
+  public void setUncompressedSize(long uncompressedSize) {
+    this.uncompressedSize = uncompressedSize;
+  }
+}
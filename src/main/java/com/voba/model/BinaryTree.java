@@ -0,0 +1,235 @@
+package com.voba.model;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binäre Darstellung eines {@link FileNode}-Baums für große Bäume, deren JSON-Antwort im Browser
+ * zu langsam geparst wird (Decoder: {@code static/js/treedecoder.js}).
+ *
+ * <p>
+ * Aufbau, alle Zahlen als vorzeichenlose Varints (LEB128), Zeichenketten als Länge in Bytes und
+ * UTF-8:
+ *
+ * <ol>
+ * <li>Kennung {@code DVT} und Versionsbyte {@value #VERSION}
+ * <li>Flags ({@code 1} = Ausschnitt), Pfad der Wurzel, Pfad-Trennzeichen, Offset der Wurzel
+ * <li>Namenstabelle: Anzahl, dann jeder Name einmal; gleiche Namen (z.B. {@code index.js}) werden
+ * nur einmal übertragen, Erweiterungen leitet der Decoder je Tabelleneintrag aus dem Namen ab
+ * <li>Anzahl der Knoten, dann die Knoten in Preorder: Index des Namens, Flags ({@link #DIRECTORY},
+ * {@link #CHILDREN}, {@link #MODIFIED}, {@link #ARCHIVE_ENTRY}, {@link #ARCHIVE},
+ * {@link #AGGREGATE}, {@link #APPARENT}), Größe, optional Änderungszeitpunkt, unkomprimierte
+ * Größe, Anzahl der zusammengefassten Dateien und Verzeichnisse sowie scheinbare Größe, bei
+ * Verzeichnissen die Anzahl der Kinder und, wenn Kinder folgen, die Anzahl der übertragenen Kinder
+ * </ol>
+ *
+ * <p>
+ * Ausschnitte haben dieselbe Bedeutung der Parameter wie bei {@link FileNodeSlice}. Die Knoten
+ * werden in einem Durchlauf in einen Puffer kodiert, damit Namenstabelle und Knoten auch dann
+ * zusammenpassen, wenn sich der Baum (z.B. im Watch-Modus) währenddessen ändert.
+ */
+public final class BinaryTree {
+
+  /** Content-Type der binären Darstellung. */
+  public static final String MEDIA_TYPE = "application/vnd.drivevisualizer.tree";
+
+  static final int VERSION = 3;
+
+  /** Der Knoten ist ein Verzeichnis. */
+  static final int DIRECTORY = 1;
+  /** Die Kinder des Verzeichnisses folgen. */
+  static final int CHILDREN = 2;
+  /** Der Änderungszeitpunkt folgt. */
+  static final int MODIFIED = 4;
+  /** Der Knoten ist ein {@link ArchiveNode}; die unkomprimierte Größe folgt. */
+  static final int ARCHIVE_ENTRY = 8;
+  /** Der Knoten ist das Archiv selbst. */
+  static final int ARCHIVE = 16;
+  /** Der Knoten ist ein {@link AggregateNode}; die Anzahl der Dateien und Verzeichnisse folgt. */
+  static final int AGGREGATE = 32;
+  /** Der Knoten ist ein {@link DiskUsageNode}; die scheinbare Größe folgt. */
+  static final int APPARENT = 64;
+
+  private final FileNode node;
+  private final int depth;
+  private final int offset;
+  private final int limit;
+  private final boolean slice;
+
+  private BinaryTree(FileNode node, int depth, int offset, int limit, boolean slice) {
+    this.node = node;
+    this.depth = depth;
+    this.offset = offset;
+    this.limit = limit;
+    this.slice = slice;
+  }
+
+  /**
+   * Erstellt die Darstellung des vollständigen Baums.
+   *
+   * @param node Wurzel
+   * @return Darstellung des Baums
+   */
+  public static BinaryTree of(FileNode node) {
+    return new BinaryTree(node, Integer.MAX_VALUE, 0, Integer.MAX_VALUE, false);
+  }
+
+  /**
+   * Erstellt die Darstellung eines Ausschnitts.
+   *
+   * @param node   Wurzel des Ausschnitts
+   * @param depth  Anzahl der mitgelieferten Ebenen unterhalb der Wurzel (0 = nur die Wurzel)
+   * @param offset Index des ersten Kindes der Wurzel (für seitenweises Nachladen)
+   * @param limit  max. Anzahl Kinder je Verzeichnis
+   * @return Darstellung des Ausschnitts
+   * @throws IllegalArgumentException wenn ein Parameter negativ bzw. limit nicht positiv ist
+   */
+  public static BinaryTree slice(FileNode node, int depth, int offset, int limit) {
+    FileNodeSlice.checkParameters(depth, offset, limit);
+    return new BinaryTree(node, depth, offset, limit, true);
+  }
+
+  /**
+   * Schreibt den Baum in den Ausgabestrom. Der Strom wird weder geflusht noch geschlossen.
+   *
+   * @param outputStream Ziel
+   * @throws IOException bei Schreibfehlern
+   */
+  public void writeTo(OutputStream outputStream) throws IOException {
+    Encoder nodes = new Encoder();
+    int nodeCount = writeNode(node, depth, offset, nodes);
+
+    Encoder header = new Encoder();
+    header.writeByte('D');
+    header.writeByte('V');
+    header.writeByte('T');
+    header.writeByte(VERSION);
+    header.writeVarint(slice ? 1 : 0);
+    header.writeString(node.getPath());
+    header.writeString(node.getPathObject().getFileSystem().getSeparator());
+    header.writeVarint(offset);
+    header.writeVarint(nodes.names.size());
+    for (String name : nodes.nameList) {
+      header.writeString(name);
+    }
+    header.writeVarint(nodeCount);
+
+    header.writeTo(outputStream);
+    nodes.writeTo(outputStream);
+  }
+
+  private int writeNode(FileNode current, int remainingDepth, int childOffset, Encoder encoder) {
+    List<FileNode> children = current.isDirectory() ? current.getChildren() : List.of();
+    int from = Math.min(childOffset, children.size());
+    int to = remainingDepth > 0 ? (int) Math.min((long) from + limit, children.size()) : from;
+
+    int flags = 0;
+    if (current.isDirectory()) {
+      flags |= DIRECTORY;
+      if (remainingDepth > 0) {
+        flags |= CHILDREN;
+      }
+    }
+    if (current.getLastModified() > 0) {
+      flags |= MODIFIED;
+    }
+    if (current instanceof ArchiveNode archiveNode) {
+      flags |= archiveNode.isArchive() ? ARCHIVE_ENTRY | ARCHIVE : ARCHIVE_ENTRY;
+    }
+    if (current instanceof AggregateNode) {
+      flags |= AGGREGATE;
+    }
+    if (current instanceof DiskUsageNode) {
+      flags |= APPARENT;
+    }
+
+    encoder.writeVarint(encoder.nameIndex(current.getName()));
+    encoder.writeByte(flags);
+    encoder.writeVarint(current.getSize());
+    if ((flags & MODIFIED) != 0) {
+      encoder.writeVarint(current.getLastModified());
+    }
+    if ((flags & ARCHIVE_ENTRY) != 0) {
+      encoder.writeVarint(((ArchiveNode) current).getUncompressedSize());
+    }
+    if ((flags & AGGREGATE) != 0) {
+      AggregateNode aggregate = (AggregateNode) current;
+      encoder.writeVarint(aggregate.getFileCount());
+      encoder.writeVarint(aggregate.getDirectoryCount());
+    }
+    if ((flags & APPARENT) != 0) {
+      encoder.writeVarint(((DiskUsageNode) current).getApparentSize());
+    }
+    if ((flags & DIRECTORY) == 0) {
+      return 1;
+    }
+    encoder.writeVarint(children.size());
+    if ((flags & CHILDREN) == 0) {
+      return 1;
+    }
+
+    encoder.writeVarint(to - from);
+    int count = 1;
+    for (FileNode child : children.subList(from, to)) {
+      count += writeNode(child, remainingDepth - 1, 0, encoder);
+    }
+    return count;
+  }
+
+  /** Wachsender Puffer mit Varint-Kodierung und Namenstabelle. */
+  private static final class Encoder {
+
+    private byte[] buffer = new byte[8192];
+    private int length;
+    private final Map<String, Integer> names = new HashMap<>();
+    private final List<String> nameList = new ArrayList<>();
+
+    int nameIndex(String name) {
+      Integer index = names.get(name);
+      if (index == null) {
+        index = nameList.size();
+        names.put(name, index);
+        nameList.add(name);
+      }
+      return index;
+    }
+
+    void writeByte(int value) {
+      ensureCapacity(1);
+      buffer[length++] = (byte) value;
+    }
+
+    void writeVarint(long value) {
+      ensureCapacity(10);
+      while ((value & ~0x7FL) != 0) {
+        buffer[length++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      buffer[length++] = (byte) value;
+    }
+
+    void writeString(String value) {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      writeVarint(bytes.length);
+      ensureCapacity(bytes.length);
+      System.arraycopy(bytes, 0, buffer, length, bytes.length);
+      length += bytes.length;
+    }
+
+    void writeTo(OutputStream outputStream) throws IOException {
+      outputStream.write(buffer, 0, length);
+    }
+
+    private void ensureCapacity(int additional) {
+      if (length + additional > buffer.length) {
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + additional));
+      }
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package com.voba.model;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Schreibgeschützte {@link FileNode}-Sicht auf einen Knoten eines {@link CompactFileTree} oder
+ * {@link MappedFileTree}. Hält selbst nur den Baum und den Knoten-Index; alle Werte werden bei
+ * Bedarf aus den Spalten bzw. der Snapshot-Datei gelesen.
+ */
+final class CompactFileNode extends FileNode {
+  private final IndexedFileTree tree;
+  private final int index;
+
+  CompactFileNode(IndexedFileTree tree, int index) {
+    this.tree = tree;
+    this.index = index;
+  }
+
+  @Override
+  public void addChild(FileNode child) {
+    throw new UnsupportedOperationException("Compact tree nodes are read-only");
+  }
+
+  @Override
+  public void setSize(long size) {
+    throw new UnsupportedOperationException("Compact tree nodes are read-only");
+  }
+
+  @Override
+  public void insertChildSorted(FileNode child) {
+    throw new UnsupportedOperationException("Compact tree nodes are read-only");
+  }
+
+  @Override
+  public boolean removeChild(FileNode child) {
+    throw new UnsupportedOperationException("Compact tree nodes are read-only");
+  }
+
+  @Override
+  public void repositionChild(FileNode child) {
+    throw new UnsupportedOperationException("Compact tree nodes are read-only");
+  }
+
+  @Override
+  public void replaceChildren(FileNode rescanned) {
+    throw new UnsupportedOperationException("Compact tree nodes are read-only");
+  }
+
+  @Override
+  public void setLastModified(long lastModified) {
+    throw new UnsupportedOperationException("Compact tree nodes are read-only");
+  }
+
+  @Override
+  public void setStatistics(DirectoryStatistics statistics) {
+    // Sichten werden bei jedem Zugriff neu erzeugt, eine Statistik ließe sich nicht wiederfinden
+  }
+
+  @Override
+  public boolean isReadOnly() {
+    return true;
+  }
+
+  @Override
+  public void sortChildren() {
+    tree.sortChildren(index);
+  }
+
+  @Override
+  public long estimateMemoryBytes() {
+    // Die Spalten werden vom gesamten Baum geteilt
+    return tree.estimatedMemoryBytes();
+  }
+
+  @Override
+  public String getName() {
+    return tree.name(index);
+  }
+
+  @Override
+  public String getPath() {
+    return getPathObject().toString();
+  }
+
+  @Override
+  public Path getPathObject() {
+    return tree.path(index);
+  }
+
+  @Override
+  public long getSize() {
+    return tree.size(index);
+  }
+
+  @Override
+  public boolean isDirectory() {
+    return tree.isDirectory(index);
+  }
+
+  @Override
+  public long getLastModified() {
+    return tree.lastModified(index);
+  }
+
+  @Override
+  public List<FileNode> getChildren() {
+    List<FileNode> children = new ArrayList<>();
+    for (int child = tree.firstChild(index);
+        child != CompactFileTree.NO_NODE;
+        child = tree.nextSibling(child)) {
+      children.add(new CompactFileNode(tree, child));
+    }
+    return children;
+  }
+
+  @Override
+  public String getExtension() {
+    return tree.extension(index);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof CompactFileNode node && node.tree == tree && node.index == index;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(System.identityHashCode(tree), index);
+  }
+}
@@ -0,0 +1,413 @@
+package com.voba.model;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Spaltenorientierte Darstellung eines gescannten Verzeichnisbaums.
+ *
+ * <p>
+ * Statt eines {@link FileNode}-Objekts pro Eintrag (mit eigenem {@link Path}, Extension-String und
+ * Kinderliste) liegen alle Knoten in parallelen primitiven Arrays: Eltern-Index, erstes Kind,
+ * nächstes Geschwister, Größe und Flags. Namen werden als Pfadsegmente nur einmal gespeichert
+ * (interniert), Erweiterungen über ein {@link ExtensionDictionary} als ID abgelegt. Vollständige
+ * Pfade werden erst bei Bedarf aus den Segmenten zusammengesetzt.
+ *
+ * <p>
+ * Index 0 ist immer die Wurzel. Da Knoten in Scan-Reihenfolge angehängt werden, hat jeder Knoten
+ * einen größeren Index als sein Elternknoten.
+ *
+ * <p>
+ * Über {@link #root()} und {@link #node(int)} erhält man {@link FileNode}-Sichten auf den Baum,
+ * sodass Controller und Serialisierung unverändert weiterarbeiten.
+ */
+public class CompactFileTree implements IndexedFileTree {
+
+  /** Markiert einen fehlenden Index (kein Elternteil, kein Kind, kein Geschwister). */
+  public static final int NO_NODE = -1;
+
+  private static final byte FLAG_DIRECTORY = 1;
+
+  private final Path rootPath;
+  private final int nodeCount;
+  private final int[] parent;
+  private final int[] firstChild;
+  private final int[] nextSibling;
+  private final int[] nameId;
+  private final int[] extensionId;
+  private final long[] size;
+  private final byte[] flags;
+  private final String[] names;
+  private final ExtensionDictionary extensions;
+
+  private CompactFileTree(Builder builder) {
+    this.rootPath = builder.rootPath;
+    this.nodeCount = builder.nodeCount;
+    this.parent = Arrays.copyOf(builder.parent, nodeCount);
+    this.firstChild = Arrays.copyOf(builder.firstChild, nodeCount);
+    this.nextSibling = Arrays.copyOf(builder.nextSibling, nodeCount);
+    this.nameId = Arrays.copyOf(builder.nameId, nodeCount);
+    this.extensionId = Arrays.copyOf(builder.extensionId, nodeCount);
+    this.size = Arrays.copyOf(builder.size, nodeCount);
+    this.flags = Arrays.copyOf(builder.flags, nodeCount);
+    this.names = new String[builder.names.size()];
+    for (Map.Entry<String, Integer> entry : builder.names.entrySet()) {
+      names[entry.getValue()] = entry.getKey();
+    }
+    this.extensions = builder.extensions;
+  }
+
+  /**
+   * Erzeugt einen Builder für einen neuen Baum.
+   *
+   * @param rootPath Pfad des Wurzelverzeichnisses
+   * @return neuer Builder, dessen Wurzel bereits angelegt ist
+   */
+  public static Builder builder(Path rootPath) {
+    return new Builder(rootPath);
+  }
+
+  /**
+   * Gibt eine {@link FileNode}-Sicht auf die Wurzel zurück.
+   *
+   * @return Wurzelknoten
+   */
+  public FileNode root() {
+    return node(0);
+  }
+
+  /**
+   * Gibt eine {@link FileNode}-Sicht auf einen Knoten zurück.
+   *
+   * @param index Index des Knotens
+   * @return Sicht auf den Knoten
+   */
+  public FileNode node(int index) {
+    return new CompactFileNode(this, index);
+  }
+
+  public int nodeCount() {
+    return nodeCount;
+  }
+
+  public Path getRootPath() {
+    return rootPath;
+  }
+
+  public int parent(int index) {
+    return parent[index];
+  }
+
+  @Override
+  public int firstChild(int index) {
+    return firstChild[index];
+  }
+
+  @Override
+  public int nextSibling(int index) {
+    return nextSibling[index];
+  }
+
+  @Override
+  public long size(int index) {
+    return size[index];
+  }
+
+  /**
+   * Der kompakte Scan erfasst keine Änderungszeitpunkte.
+   *
+   * @param index Index des Knotens
+   * @return immer 0 (unbekannt)
+   */
+  @Override
+  public long lastModified(int index) {
+    return 0;
+  }
+
+  @Override
+  public boolean isDirectory(int index) {
+    return (flags[index] & FLAG_DIRECTORY) != 0;
+  }
+
+  public int extensionId(int index) {
+    return extensionId[index];
+  }
+
+  @Override
+  public String extension(int index) {
+    return extensions.extension(extensionId[index]);
+  }
+
+  public ExtensionDictionary getExtensions() {
+    return extensions;
+  }
+
+  /**
+   * Gibt den Namen (letztes Pfadsegment) eines Knotens zurück.
+   *
+   * @param index Index des Knotens
+   * @return Name des Knotens
+   */
+  @Override
+  public String name(int index) {
+    if (index == 0) {
+      return rootPath.getFileName() != null ? rootPath.getFileName().toString() : rootPath.toString();
+    }
+    return names[nameId[index]];
+  }
+
+  /**
+   * Setzt den vollständigen Pfad eines Knotens aus den Namenssegmenten zusammen.
+   *
+   * @param index Index des Knotens
+   * @return Pfad des Knotens
+   */
+  @Override
+  public Path path(int index) {
+    Deque<String> segments = new ArrayDeque<>();
+    for (int current = index; current != 0; current = parent[current]) {
+      segments.push(names[nameId[current]]);
+    }
+    Path result = rootPath;
+    for (String segment : segments) {
+      result = result.resolve(segment);
+    }
+    return result;
+  }
+
+  /**
+   * Zählt die direkten Kinder eines Knotens.
+   *
+   * @param index Index des Knotens
+   * @return Anzahl der Kinder
+   */
+  public int childCount(int index) {
+    int count = 0;
+    for (int child = firstChild[index]; child != NO_NODE; child = nextSibling[child]) {
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Sortiert die Kinder aller Verzeichnisse unterhalb eines Knotens nach Größe (absteigend) und
+   * Name, analog zu {@link FileNode#sortChildren()}. Dabei werden nur die Geschwister-Verweise neu
+   * verkettet.
+   *
+   * @param index Index des Knotens, dessen Teilbaum sortiert wird
+   */
+  @Override
+  public synchronized void sortChildren(int index) {
+    IndexBuffer buffer = new IndexBuffer();
+    Deque<Integer> pending = new ArrayDeque<>();
+    pending.push(index);
+
+    while (!pending.isEmpty()) {
+      int directory = pending.pop();
+      buffer.clear();
+      for (int child = firstChild[directory]; child != NO_NODE; child = nextSibling[child]) {
+        buffer.add(child);
+        if (isDirectory(child)) {
+          pending.push(child);
+        }
+      }
+      if (buffer.length < 2) {
+        continue;
+      }
+
+      buffer.sort(this::compareForDisplay);
+      firstChild[directory] = buffer.values[0];
+      for (int i = 0; i < buffer.length - 1; i++) {
+        nextSibling[buffer.values[i]] = buffer.values[i + 1];
+      }
+      nextSibling[buffer.values[buffer.length - 1]] = NO_NODE;
+    }
+  }
+
+  private int compareForDisplay(int first, int second) {
+    int sizeCompare = Long.compare(size[second], size[first]);
+    if (sizeCompare != 0) {
+      return sizeCompare;
+    }
+    return name(first).compareToIgnoreCase(name(second));
+  }
+
+  /**
+   * Schätzt den Heap-Verbrauch des Baums (Arrays und internierte Namen).
+   *
+   * @return geschätzter Speicherverbrauch in Bytes
+   */
+  @Override
+  public long estimatedMemoryBytes() {
+    long arrays = 5L * Integer.BYTES * nodeCount + (long) Long.BYTES * nodeCount + nodeCount;
+    long nameBytes = 0;
+    for (String name : names) {
+      // String-Objekt (24) + byte[]-Header (16) + Inhalt (Latin-1) + Referenz im Array
+      nameBytes += 24 + 16 + name.length() + 4;
+    }
+    return arrays + nameBytes;
+  }
+
+  /**
+   * Baut einen {@link CompactFileTree} in Scan-Reihenfolge auf. Größen von Verzeichnissen werden
+   * beim Abschluss über {@link #build()} aufsummiert. Nicht thread-sicher.
+   */
+  public static final class Builder {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Path rootPath;
+    private final Map<String, Integer> names = new HashMap<>();
+    private final ExtensionDictionary extensions = new ExtensionDictionary();
+    private int nodeCount;
+    private int[] parent = new int[INITIAL_CAPACITY];
+    private int[] firstChild = new int[INITIAL_CAPACITY];
+    private int[] nextSibling = new int[INITIAL_CAPACITY];
+    private int[] nameId = new int[INITIAL_CAPACITY];
+    private int[] extensionId = new int[INITIAL_CAPACITY];
+    private long[] size = new long[INITIAL_CAPACITY];
+    private byte[] flags = new byte[INITIAL_CAPACITY];
+
+    private Builder(Path rootPath) {
+      this.rootPath = rootPath;
+      append(NO_NODE, NO_NODE, ExtensionDictionary.NONE, 0, FLAG_DIRECTORY);
+    }
+
+    /**
+     * Hängt ein Verzeichnis an.
+     *
+     * @param parentIndex Index des Elternverzeichnisses
+     * @param name        Name des Verzeichnisses
+     * @return Index des neuen Knotens
+     */
+    public int addDirectory(int parentIndex, String name) {
+      return append(parentIndex, intern(name), ExtensionDictionary.NONE, 0, FLAG_DIRECTORY);
+    }
+
+    /**
+     * Hängt eine Datei an.
+     *
+     * @param parentIndex Index des Elternverzeichnisses
+     * @param name        Dateiname
+     * @param fileSize    Größe der Datei in Bytes
+     * @return Index des neuen Knotens
+     */
+    public int addFile(int parentIndex, String name, long fileSize) {
+      int extension = extensions.idOf(FileNode.extractExtension(name));
+      return append(parentIndex, intern(name), extension, fileSize, (byte) 0);
+    }
+
+    /**
+     * Summiert die Verzeichnisgrößen auf und erzeugt den unveränderlichen Baum.
+     *
+     * @return fertiger Baum
+     */
+    public CompactFileTree build() {
+      // Kinder haben immer größere Indizes als ihre Eltern
+      for (int index = nodeCount - 1; index > 0; index--) {
+        size[parent[index]] += size[index];
+      }
+      return new CompactFileTree(this);
+    }
+
+    private int intern(String name) {
+      Integer id = names.get(name);
+      if (id == null) {
+        id = names.size();
+        names.put(name, id);
+      }
+      return id;
+    }
+
+    private int append(int parentIndex, int name, int extension, long nodeSize, byte nodeFlags) {
+      if (nodeCount == parent.length) {
+        grow();
+      }
+      int index = nodeCount++;
+      parent[index] = parentIndex;
+      firstChild[index] = NO_NODE;
+      nameId[index] = name;
+      extensionId[index] = extension;
+      size[index] = nodeSize;
+      flags[index] = nodeFlags;
+
+      // Neue Kinder werden vorne eingehängt; die Reihenfolge stellt sortChildren() her
+      if (parentIndex != NO_NODE) {
+        nextSibling[index] = firstChild[parentIndex];
+        firstChild[parentIndex] = index;
+      } else {
+        nextSibling[index] = NO_NODE;
+      }
+      return index;
+    }
+
+    private void grow() {
+      int capacity = parent.length * 2;
+      parent = Arrays.copyOf(parent, capacity);
+      firstChild = Arrays.copyOf(firstChild, capacity);
+      nextSibling = Arrays.copyOf(nextSibling, capacity);
+      nameId = Arrays.copyOf(nameId, capacity);
+      extensionId = Arrays.copyOf(extensionId, capacity);
+      size = Arrays.copyOf(size, capacity);
+      flags = Arrays.copyOf(flags, capacity);
+    }
+  }
+
+  /** Wiederverwendbarer int-Puffer mit Merge-Sort, um Boxing beim Sortieren zu vermeiden. */
+  private static final class IndexBuffer {
+    private int[] values = new int[16];
+    private int[] scratch = new int[16];
+    private int length;
+
+    void clear() {
+      length = 0;
+    }
+
+    void add(int value) {
+      if (length == values.length) {
+        values = Arrays.copyOf(values, length * 2);
+      }
+      values[length++] = value;
+    }
+
+    void sort(IndexComparator comparator) {
+      if (scratch.length < length) {
+        scratch = new int[values.length];
+      }
+      mergeSort(comparator, 0, length);
+    }
+
+    private void mergeSort(IndexComparator comparator, int from, int to) {
+      if (to - from < 2) {
+        return;
+      }
+      int middle = (from + to) >>> 1;
+      mergeSort(comparator, from, middle);
+      mergeSort(comparator, middle, to);
+
+      int left = from;
+      int right = middle;
+      int out = from;
+      while (left < middle && right < to) {
+        scratch[out++] = comparator.compare(values[left], values[right]) <= 0
+            ? values[left++]
+            : values[right++];
+      }
+      while (left < middle) {
+        scratch[out++] = values[left++];
+      }
+      while (right < to) {
+        scratch[out++] = values[right++];
+      }
+      System.arraycopy(scratch, from, values, from, to - from);
+    }
+  }
+
+  @FunctionalInterface
+  private interface IndexComparator {
+    int compare(int first, int second);
+  }
+}
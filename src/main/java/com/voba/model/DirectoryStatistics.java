@@ -0,0 +1,268 @@
+package com.voba.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Aufsummierte Kennzahlen eines Verzeichnisses: Anzahl der Dateien und Verzeichnisse darunter,
+ * größte Tiefe und ein Histogramm nach Dateierweiterung (Anzahl und Bytes).
+ *
+ * <p>
+ * Die Scan-Engines berechnen die Statistik jedes Verzeichnisses, sobald es vollständig gescannt
+ * ist, aus seinen direkten Kindern ({@link #compute(FileNode, ExtensionDictionary)}); für
+ * Unterverzeichnisse wird deren bereits berechnete Statistik übernommen, sodass kein weiterer
+ * Durchlauf über den Baum nötig ist. Das Histogramm ist nach den IDs eines
+ * {@link ExtensionDictionary} geordnet und liegt in primitiven Arrays. Fehlt die Statistik (z.B.
+ * bei kompakten Bäumen, Snapshots oder nach Änderungen im Watch-Modus), berechnet
+ * {@link #of(FileNode)} sie bei Bedarf.
+ *
+ * <p>
+ * Archive zählen wie auf dem Datenträger als Dateien. Zusammengefasste Einträge
+ * ({@link AggregateNode}) gehen in die Anzahl der Dateien und Verzeichnisse ein, aber nicht in das
+ * Histogramm, da ihre Erweiterungen beim Scan nicht erfasst werden.
+ */
+public final class DirectoryStatistics {
+
+  private final ExtensionDictionary extensions;
+  private final long size;
+  private final long fileCount;
+  private final long directoryCount;
+  private final int maxDepth;
+  private final int[] extensionIds;
+  private final long[] extensionCounts;
+  private final long[] extensionBytes;
+
+  private DirectoryStatistics(ExtensionDictionary extensions, long size, long fileCount,
+      long directoryCount, int maxDepth, Histogram histogram) {
+    this.extensions = extensions;
+    this.size = size;
+    this.fileCount = fileCount;
+    this.directoryCount = directoryCount;
+    this.maxDepth = maxDepth;
+    this.extensionIds = histogram.sortedIds();
+    this.extensionCounts = new long[extensionIds.length];
+    this.extensionBytes = new long[extensionIds.length];
+    for (int i = 0; i < extensionIds.length; i++) {
+      int slot = histogram.slot(extensionIds[i]);
+      extensionCounts[i] = histogram.counts[slot];
+      extensionBytes[i] = histogram.bytes[slot];
+    }
+  }
+
+  /**
+   * Gibt die Statistik eines Knotens zurück und berechnet sie, wenn sie fehlt. Berechnete
+   * Statistiken werden am Knoten abgelegt, soweit dieser das zulässt.
+   *
+   * @param node Knoten
+   * @return Statistik
+   */
+  public static DirectoryStatistics of(FileNode node) {
+    return of(node, new ExtensionDictionary());
+  }
+
+  private static DirectoryStatistics of(FileNode node, ExtensionDictionary extensions) {
+    DirectoryStatistics statistics = node.getStatistics();
+    if (statistics == null) {
+      statistics = compute(node, extensions);
+      node.setStatistics(statistics);
+    }
+    return statistics;
+  }
+
+  /**
+   * Berechnet die Statistik eines Knotens aus seinen direkten Kindern. Unterverzeichnisse ohne
+   * Statistik werden dabei ebenfalls berechnet.
+   *
+   * @param node       Knoten
+   * @param extensions Wörterbuch für neue Erweiterungs-IDs, z.B. eines je Scan
+   * @return Statistik
+   */
+  public static DirectoryStatistics compute(FileNode node, ExtensionDictionary extensions) {
+    Histogram histogram = new Histogram();
+    if (!node.isDirectory()) {
+      histogram.add(extensions.idOf(node.getExtension()), 1, node.getSize());
+      return new DirectoryStatistics(extensions, node.getSize(), 1, 0, 0, histogram);
+    }
+
+    long fileCount = 0;
+    long directoryCount = 0;
+    int maxDepth = 0;
+    for (FileNode child : node.getChildren()) {
+      if (child instanceof AggregateNode aggregate) {
+        fileCount += aggregate.getFileCount();
+        directoryCount += aggregate.getDirectoryCount();
+        maxDepth = Math.max(maxDepth, 1);
+      } else if (!child.isDirectory() || child instanceof ArchiveNode) {
+        // Archive sind im Baum Verzeichnisse und haben daher keine Erweiterung
+        String extension = child.isDirectory()
+            ? FileNode.extractExtension(child.getName())
+            : child.getExtension();
+        fileCount++;
+        histogram.add(extensions.idOf(extension), 1, child.getSize());
+        maxDepth = Math.max(maxDepth, 1);
+      } else {
+        DirectoryStatistics subdirectory = of(child, extensions);
+        fileCount += subdirectory.fileCount;
+        directoryCount += 1 + subdirectory.directoryCount;
+        maxDepth = Math.max(maxDepth, 1 + subdirectory.maxDepth);
+        histogram.addAll(subdirectory, extensions);
+      }
+    }
+    return new DirectoryStatistics(
+        extensions, node.getSize(), fileCount, directoryCount, maxDepth, histogram);
+  }
+
+  /**
+   * Gibt die Größe des Knotens bei der Berechnung zurück.
+   *
+   * @return Größe in Bytes
+   */
+  public long getSize() {
+    return size;
+  }
+
+  /**
+   * Gibt die Anzahl aller Dateien unterhalb des Knotens zurück.
+   *
+   * @return Anzahl der Dateien
+   */
+  public long getFileCount() {
+    return fileCount;
+  }
+
+  /**
+   * Gibt die Anzahl aller Verzeichnisse unterhalb des Knotens zurück, ohne den Knoten selbst.
+   *
+   * @return Anzahl der Verzeichnisse
+   */
+  public long getDirectoryCount() {
+    return directoryCount;
+  }
+
+  /**
+   * Gibt die Tiefe des tiefsten Eintrags relativ zum Knoten zurück; direkte Kinder haben Tiefe 1.
+   *
+   * @return größte Tiefe, 0 bei leeren Verzeichnissen und Dateien
+   */
+  public int getMaxDepth() {
+    return maxDepth;
+  }
+
+  /**
+   * Gibt das Histogramm nach Erweiterung zurück, absteigend nach Bytes.
+   *
+   * @return Einträge je Erweiterung
+   */
+  public List<ExtensionStatistics> getExtensions() {
+    List<ExtensionStatistics> result = new ArrayList<>(extensionIds.length);
+    for (int i = 0; i < extensionIds.length; i++) {
+      result.add(new ExtensionStatistics(
+          extensions.extension(extensionIds[i]), extensionCounts[i], extensionBytes[i]));
+    }
+    result.sort(Comparator.comparingLong(ExtensionStatistics::size).reversed()
+        .thenComparing(ExtensionStatistics::count, Comparator.reverseOrder()));
+    return result;
+  }
+
+  /**
+   * Schätzt den Heap-Verbrauch der Statistik (ohne das geteilte Wörterbuch).
+   *
+   * @return geschätzter Speicherverbrauch in Bytes
+   */
+  public long estimateMemoryBytes() {
+    // Objekt (56) + drei Array-Header (48) + je Erweiterung ID, Anzahl und Bytes
+    return 56 + 48 + 20L * extensionIds.length;
+  }
+
+  /**
+   * Anzahl und Summe der Größen der Dateien mit einer Erweiterung.
+   *
+   * @param extension Erweiterung ohne Punkt oder null für Dateien ohne Erweiterung
+   * @param count     Anzahl der Dateien
+   * @param size      Summe der Größen in Bytes
+   */
+  public record ExtensionStatistics(String extension, long count, long size) {
+  }
+
+  /** Offen adressierte Tabelle von Erweiterungs-IDs auf Anzahl und Bytes. */
+  private static final class Histogram {
+    private static final int EMPTY = -1;
+
+    private int[] ids = emptyTable(8);
+    private long[] counts = new long[8];
+    private long[] bytes = new long[8];
+    private int entries;
+
+    private static int[] emptyTable(int capacity) {
+      int[] table = new int[capacity];
+      Arrays.fill(table, EMPTY);
+      return table;
+    }
+
+    void add(int id, long count, long size) {
+      int slot = slot(id);
+      if (ids[slot] == EMPTY) {
+        if (2 * (entries + 1) > ids.length) {
+          grow();
+          slot = slot(id);
+        }
+        ids[slot] = id;
+        entries++;
+      }
+      counts[slot] += count;
+      bytes[slot] += size;
+    }
+
+    /** Übernimmt ein Histogramm, dessen IDs ggf. aus einem anderen Wörterbuch stammen. */
+    void addAll(DirectoryStatistics other, ExtensionDictionary extensions) {
+      boolean sameDictionary = other.extensions == extensions;
+      for (int i = 0; i < other.extensionIds.length; i++) {
+        int id = sameDictionary
+            ? other.extensionIds[i]
+            : extensions.idOf(other.extensions.extension(other.extensionIds[i]));
+        add(id, other.extensionCounts[i], other.extensionBytes[i]);
+      }
+    }
+
+    /** Position einer ID oder des freien Platzes, an dem sie eingetragen würde. */
+    int slot(int id) {
+      int mask = ids.length - 1;
+      int slot = (id * 0x9E3779B9 >>> 16) & mask;
+      while (ids[slot] != EMPTY && ids[slot] != id) {
+        slot = (slot + 1) & mask;
+      }
+      return slot;
+    }
+
+    int[] sortedIds() {
+      int[] sorted = new int[entries];
+      int next = 0;
+      for (int id : ids) {
+        if (id != EMPTY) {
+          sorted[next++] = id;
+        }
+      }
+      Arrays.sort(sorted);
+      return sorted;
+    }
+
+    private void grow() {
+      int[] oldIds = ids;
+      long[] oldCounts = counts;
+      long[] oldBytes = bytes;
+      ids = emptyTable(oldIds.length * 2);
+      counts = new long[oldIds.length * 2];
+      bytes = new long[oldIds.length * 2];
+      for (int i = 0; i < oldIds.length; i++) {
+        if (oldIds[i] != EMPTY) {
+          int slot = slot(oldIds[i]);
+          ids[slot] = oldIds[i];
+          counts[slot] = oldCounts[i];
+          bytes[slot] = oldBytes[i];
+        }
+      }
+    }
+  }
+}
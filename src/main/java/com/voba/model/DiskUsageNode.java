@@ -0,0 +1,64 @@
+package com.voba.model;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Knoten eines Scans mit Speicherplatz-Abrechnung ({@link ScanOptions#setDiskUsage(boolean)}).
+ *
+ * <p>
+ * Die Größe ({@link #getSize()}) ist der auf dem Datenträger belegte Platz: Dateien zählen mit
+ * ihrer auf ganze Blöcke aufgerundeten Größe, mehrfach verlinkte Dateien (Hardlinks) nur beim
+ * ersten gefundenen Link, alle weiteren mit 0. Die scheinbare Größe, also die Länge der Dateien
+ * wie bei einem normalen Scan, steht zusätzlich in {@link #getApparentSize()} und wird für
+ * Verzeichnisse über alle Kinder summiert. Kinder, die keine {@code DiskUsageNode} sind (z.B.
+ * zusammengefasste Einträge), gehen mit ihrer Größe in die scheinbare Größe ein.
+ */
+public class DiskUsageNode extends FileNode {
+
+  private long apparentSize;
+
+  /**
+   * Konstruktor mit Parametern.
+   *
+   * @param path        Pfad zur Datei oder zum Verzeichnis
+   * @param isDirectory true, wenn es sich um ein Verzeichnis handelt
+   */
+  public DiskUsageNode(Path path, boolean isDirectory) {
+    super(path, isDirectory);
+  }
+
+  @Override
+  public void addChild(FileNode child) {
+    super.addChild(child);
+    apparentSize += apparentSize(child);
+  }
+
+  @Override
+  public List<FileNode> retainLargestChildren(int count) {
+    List<FileNode> removed = super.retainLargestChildren(count);
+    for (FileNode child : removed) {
+      apparentSize -= apparentSize(child);
+    }
+    return removed;
+  }
+
+  private static long apparentSize(FileNode node) {
+    return node instanceof DiskUsageNode diskUsageNode
+        ? diskUsageNode.apparentSize
+        : node.getSize();
+  }
+
+  /**
+   * Gibt die scheinbare Größe zurück, bei Verzeichnissen summiert.
+   *
+   * @return Summe der Dateilängen in Bytes
+   */
+  public long getApparentSize() {
+    return apparentSize;
+  }
+
+  public void setApparentSize(long apparentSize) {
+    this.apparentSize = apparentSize;
+  }
+}
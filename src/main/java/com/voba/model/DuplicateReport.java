@@ -0,0 +1,63 @@
+package com.voba.model;
+
+import java.util.List;
+
+/**
+ * Ergebnis einer Duplikatsuche: Gruppen inhaltsgleicher Dateien und der durch Kopien belegte
+ * Platz je Verzeichnis.
+ *
+ * <p>
+ * Je Gruppe gilt die erste Datei (nach Pfad sortiert) als Original; jede weitere Kopie zählt mit
+ * ihrer Größe zu den einsparbaren Bytes ({@code reclaimableBytes}) und wird dem Verzeichnis
+ * zugerechnet, in dem sie liegt. Gruppen und Verzeichnisse sind absteigend nach einsparbaren Bytes
+ * sortiert und ggf. gekürzt; die Zähler beziehen sich immer auf das vollständige Ergebnis.
+ *
+ * @param path             Pfad der durchsuchten Wurzel
+ * @param fileCount        Anzahl der betrachteten Dateien (ab der Mindestgröße)
+ * @param candidates       Anzahl der Dateien, deren Größe mindestens ein weiteres Mal vorkommt
+ * @param partialHashes    Anzahl der berechneten Teil-Hashes (Anfang und Ende der Datei)
+ * @param fullHashes       Anzahl der berechneten vollständigen Hashes
+ * @param cacheHits        Anzahl der Hashes, die aus dem Cache übernommen wurden
+ * @param skipped          Anzahl der Dateien, die nicht gelesen werden konnten oder sich seit dem
+ *                         Scan geändert haben
+ * @param groupCount       Anzahl aller Duplikatgruppen
+ * @param duplicateCount   Anzahl aller entbehrlichen Kopien
+ * @param reclaimableBytes Summe der einsparbaren Bytes
+ * @param groups           Duplikatgruppen
+ * @param directories      Verzeichnisse mit entbehrlichen Kopien
+ */
+public record DuplicateReport(
+    String path,
+    long fileCount,
+    long candidates,
+    long partialHashes,
+    long fullHashes,
+    long cacheHits,
+    long skipped,
+    long groupCount,
+    long duplicateCount,
+    long reclaimableBytes,
+    List<Group> groups,
+    List<DirectoryEntry> directories) {
+
+  /**
+   * Dateien mit gleicher Größe und gleichem SHA-256-Hash.
+   *
+   * @param size             Größe einer Datei in Bytes
+   * @param hash             SHA-256-Hash des Inhalts (hexadezimal)
+   * @param paths            Pfade, aufsteigend sortiert
+   * @param reclaimableBytes einsparbare Bytes, wenn nur die erste Datei behalten wird
+   */
+  public record Group(long size, String hash, List<String> paths, long reclaimableBytes) {
+  }
+
+  /**
+   * Entbehrliche Kopien in einem Verzeichnis (ohne Unterverzeichnisse).
+   *
+   * @param path             Pfad des Verzeichnisses
+   * @param copies           Anzahl der Kopien
+   * @param reclaimableBytes Summe ihrer Größen in Bytes
+   */
+  public record DirectoryEntry(String path, long copies, long reclaimableBytes) {
+  }
+}
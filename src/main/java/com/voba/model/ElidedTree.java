@@ -0,0 +1,152 @@
+package com.voba.model;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Kompakte JSON-Darstellung eines {@link FileNode}-Baums ohne wiederholte Pfade.
+ *
+ * <p>
+ * Die Standard-Serialisierung schreibt für jeden Knoten den vollständigen Pfad, sodass die
+ * Antwort mit Tiefe mal Anzahl der Knoten wächst. Diese Darstellung überträgt den Pfad nur an der
+ * Wurzel; der Client setzt die Pfade der Nachfahren aus Pfad der Eltern, Trennzeichen und Name
+ * zusammen und leitet die Erweiterung aus dem Namen ab ({@link FileNode#extractExtension(String)}).
+ * Der Baum wird direkt mit dem {@link JsonGenerator} in den Ausgabestrom geschrieben, ohne
+ * Zwischenobjekte wie bei {@link FileNodeSlice}. Felder:
+ *
+ * <ul>
+ * <li>{@code p}, {@code sep}: Pfad und Pfad-Trennzeichen, nur an der Wurzel
+ * <li>{@code n}: Name
+ * <li>{@code s}: Größe in Bytes
+ * <li>{@code m}: Änderungszeitpunkt in Millisekunden, fehlt wenn unbekannt
+ * <li>{@code c}: Kinder; bei einem vollständigen Baum hat jedes Verzeichnis dieses Feld
+ * <li>{@code k}: Anzahl der Kinder, nur bei Ausschnitten und dort bei jedem Verzeichnis
+ * <li>{@code o}: Index des ersten mitgelieferten Kindes, nur an der Wurzel eines Ausschnitts
+ * <li>{@code z}, {@code u}: Markierung eines Archivs ({@code true}) und unkomprimierte Größe bei
+ * {@link ArchiveNode}
+ * <li>{@code a}: scheinbare Größe bei {@link DiskUsageNode}
+ * <li>{@code g}, {@code gd}: Anzahl der zusammengefassten Dateien und Verzeichnisse bei
+ * {@link AggregateNode}
+ * </ul>
+ *
+ * <p>
+ * Ein Knoten ist genau dann ein Verzeichnis, wenn er {@code c} oder {@code k} enthält.
+ */
+@JsonSerialize(using = ElidedTree.Serializer.class)
+public final class ElidedTree {
+
+  private final FileNode node;
+  private final int depth;
+  private final int offset;
+  private final int limit;
+  private final boolean slice;
+
+  private ElidedTree(FileNode node, int depth, int offset, int limit, boolean slice) {
+    this.node = node;
+    this.depth = depth;
+    this.offset = offset;
+    this.limit = limit;
+    this.slice = slice;
+  }
+
+  /**
+   * Erstellt die Darstellung des vollständigen Baums.
+   *
+   * @param node Wurzel
+   * @return Darstellung des Baums
+   */
+  public static ElidedTree of(FileNode node) {
+    return new ElidedTree(node, Integer.MAX_VALUE, 0, Integer.MAX_VALUE, false);
+  }
+
+  /**
+   * Erstellt die Darstellung eines Ausschnitts mit derselben Bedeutung der Parameter wie
+   * {@link FileNodeSlice#of(FileNode, int, int, int)}.
+   *
+   * @param node   Wurzel des Ausschnitts
+   * @param depth  Anzahl der mitgelieferten Ebenen unterhalb der Wurzel (0 = nur die Wurzel)
+   * @param offset Index des ersten Kindes der Wurzel (für seitenweises Nachladen)
+   * @param limit  max. Anzahl Kinder je Verzeichnis
+   * @return Darstellung des Ausschnitts
+   * @throws IllegalArgumentException wenn ein Parameter negativ bzw. limit nicht positiv ist
+   */
+  public static ElidedTree slice(FileNode node, int depth, int offset, int limit) {
+    FileNodeSlice.checkParameters(depth, offset, limit);
+    return new ElidedTree(node, depth, offset, limit, true);
+  }
+
+  /** Schreibt den Baum rekursiv; die Rekursionstiefe entspricht der Verzeichnistiefe. */
+  static final class Serializer extends StdSerializer<ElidedTree> {
+
+    Serializer() {
+      super(ElidedTree.class);
+    }
+
+    @Override
+    public void serialize(ElidedTree tree, JsonGenerator generator, SerializerProvider provider)
+        throws IOException {
+      FileNode root = tree.node;
+      generator.writeStartObject();
+      generator.writeStringField("p", root.getPath());
+      generator.writeStringField("sep", root.getPathObject().getFileSystem().getSeparator());
+      if (tree.slice && root.isDirectory()) {
+        generator.writeNumberField("o", tree.offset);
+      }
+      writeFields(tree, root, tree.depth, tree.offset, generator);
+      generator.writeEndObject();
+    }
+
+    private void writeNode(ElidedTree tree, FileNode node, int depth, JsonGenerator generator)
+        throws IOException {
+      generator.writeStartObject();
+      writeFields(tree, node, depth, 0, generator);
+      generator.writeEndObject();
+    }
+
+    private void writeFields(
+        ElidedTree tree, FileNode node, int depth, int offset, JsonGenerator generator)
+        throws IOException {
+      generator.writeStringField("n", node.getName());
+      generator.writeNumberField("s", node.getSize());
+      if (node.getLastModified() != 0) {
+        generator.writeNumberField("m", node.getLastModified());
+      }
+      if (node instanceof ArchiveNode archiveNode) {
+        if (archiveNode.isArchive()) {
+          generator.writeBooleanField("z", true);
+        }
+        generator.writeNumberField("u", archiveNode.getUncompressedSize());
+      }
+      if (node instanceof DiskUsageNode diskUsageNode) {
+        generator.writeNumberField("a", diskUsageNode.getApparentSize());
+      }
+      if (node instanceof AggregateNode aggregate) {
+        generator.writeNumberField("g", aggregate.getFileCount());
+        generator.writeNumberField("gd", aggregate.getDirectoryCount());
+      }
+      if (!node.isDirectory()) {
+        return;
+      }
+
+      List<FileNode> children = node.getChildren();
+      if (tree.slice) {
+        generator.writeNumberField("k", children.size());
+      }
+      if (depth == 0) {
+        return;
+      }
+      int from = Math.min(offset, children.size());
+      int to = (int) Math.min((long) from + tree.limit, children.size());
+      generator.writeArrayFieldStart("c");
+      for (FileNode child : children.subList(from, to)) {
+        writeNode(tree, child, depth - 1, generator);
+      }
+      generator.writeEndArray();
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package com.voba.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wörterbuch, das Dateierweiterungen auf fortlaufende Integer-IDs abbildet. Die ID 0 steht für
+ * "keine Erweiterung", damit Knoten statt eines String-Verweises nur eine kleine Zahl speichern.
+ *
+ * <p>
+ * Die Methoden sind thread-sicher, da mehrere Scan-Tasks gleichzeitig neue Erweiterungen eintragen
+ * können. Bekannte Erweiterungen werden ohne Sperre nachgeschlagen, da das bei jeder Datei
+ * geschieht; nur das Anlegen neuer IDs ist synchronisiert.
+ */
+public class ExtensionDictionary {
+
+  /** ID für Einträge ohne Erweiterung (z.B. Verzeichnisse). */
+  public static final int NONE = 0;
+
+  private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+  private final List<String> extensions = new ArrayList<>();
+
+  public ExtensionDictionary() {
+    extensions.add(null);
+  }
+
+  /**
+   * Liefert die ID einer Erweiterung und legt sie bei Bedarf an.
+   *
+   * @param extension Erweiterung (null = keine Erweiterung)
+   * @return ID der Erweiterung
+   */
+  public int idOf(String extension) {
+    if (extension == null) {
+      return NONE;
+    }
+    Integer id = ids.get(extension);
+    return id != null ? id : register(extension);
+  }
+
+  private synchronized int register(String extension) {
+    Integer id = ids.get(extension);
+    if (id == null) {
+      // Erst die Liste ergänzen, damit jede sichtbare ID auflösbar ist
+      id = extensions.size();
+      extensions.add(extension);
+      ids.put(extension, id);
+    }
+    return id;
+  }
+
+  /**
+   * Liefert die Erweiterung zu einer ID.
+   *
+   * @param id ID der Erweiterung
+   * @return Erweiterung oder null für {@link #NONE}
+   */
+  public synchronized String extension(int id) {
+    return extensions.get(id);
+  }
+
+  /**
+   * Gibt die Anzahl der IDs inklusive {@link #NONE} zurück.
+   *
+   * @return Anzahl der vergebenen IDs
+   */
+  public synchronized int size() {
+    return extensions.size();
+  }
+}
@@ -3,17 +3,43 @@ package com.voba.model;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 /**
  * Modellklasse für einen Knoten in der Dateisystem-Hierarchie. Repräsentiert eine Datei oder ein
  * Verzeichnis mit allen relevanten Informationen.
  */
 public class FileNode {
+
+  /** Reihenfolge der Kinder: absteigend nach Größe, bei gleicher Größe nach Name. */
+  private static final Comparator<FileNode> SIZE_ORDER = (firstChild, secondChild) -> {
+    int sizeCompare = Long.compare(secondChild.getSize(), firstChild.getSize());
+    if (sizeCompare != 0) {
+      return sizeCompare;
+    }
+    return firstChild.getName().compareToIgnoreCase(secondChild.getName());
+  };
+
   private final Path path;
-  private final List<FileNode> children;
+  private volatile List<FileNode> children;
   private final String extension;
-  private long size;
+  private volatile long size;
+  private long lastModified;
+  private volatile DirectoryStatistics statistics;
+  private volatile long version;
+
+  /**
+   * Konstruktor für Unterklassen, die ihre Daten nicht in eigenen Feldern halten, sondern als
+   * Sicht auf einen anderen Speicher (z.B. {@link CompactFileTree}) alle Getter überschreiben.
+   */
+  protected FileNode() {
+    this.path = null;
+    this.children = null;
+    this.extension = null;
+  }
 
   /**
    * Konstruktor mit Parametern.
@@ -28,18 +54,23 @@ public class FileNode {
 
     // Extrahiere Extension aus dem Dateinamen
     if (!isDirectory && path.getFileName() != null) {
-      String fileName = path.getFileName().toString();
-      if (fileName.contains(".")) {
-        int lastDot = fileName.lastIndexOf(".");
-        this.extension = fileName.substring(lastDot + 1).toLowerCase();
-      } else {
-        this.extension = null;
-      }
+      this.extension = extractExtension(path.getFileName().toString());
     } else {
       this.extension = null;
     }
   }
 
+  /**
+   * Ermittelt die Dateierweiterung (klein geschrieben) aus einem Dateinamen.
+   *
+   * @param fileName Dateiname ohne Verzeichnisanteil
+   * @return Erweiterung ohne Punkt oder null, wenn der Name keinen Punkt enthält
+   */
+  public static String extractExtension(String fileName) {
+    int lastDot = fileName.lastIndexOf('.');
+    return lastDot >= 0 ? fileName.substring(lastDot + 1).toLowerCase() : null;
+  }
+
   /**
    * Fügt ein Kind-Element hinzu und aktualisiert die Größe.
    *
@@ -52,6 +83,8 @@ public class FileNode {
 
   private void updateParentSizes(long additionalSize) {
     this.size += additionalSize;
+    statistics = null;
+    version++;
   }
 
   /** Sortiert die Kind-Elemente nach Größe und Name (rekursiv). */
@@ -60,14 +93,7 @@ public class FileNode {
       return;
     }
 
-    children.sort(
-        (firstChild, secondChild) -> {
-          int sizeCompare = Long.compare(secondChild.size, firstChild.size);
-          if (sizeCompare != 0) {
-            return sizeCompare;
-          }
-          return firstChild.getName().compareToIgnoreCase(secondChild.getName());
-        });
+    children.sort(SIZE_ORDER);
 
     for (FileNode child : children) {
       if (child.isDirectory()) {
@@ -76,6 +102,153 @@ public class FileNode {
     }
   }
 
+  /**
+   * Sortiert die direkten Kinder und entfernt alle nach den ersten {@code count}; die Größe wird um
+   * die entfernten Kinder verringert.
+   *
+   * @param count Anzahl der zu behaltenden Kinder
+   * @return entfernte Kinder, leer wenn es nicht mehr als count Kinder gibt
+   */
+  public List<FileNode> retainLargestChildren(int count) {
+    if (children == null || children.size() <= count) {
+      return Collections.emptyList();
+    }
+
+    children.sort(SIZE_ORDER);
+    List<FileNode> tail = children.subList(count, children.size());
+    List<FileNode> removed = new ArrayList<>(tail);
+    tail.clear();
+    for (FileNode child : removed) {
+      size -= child.size;
+    }
+    statistics = null;
+    version++;
+    return removed;
+  }
+
+  /**
+   * Sucht ein direktes Kind anhand seines Namens.
+   *
+   * @param name Name des Kindes
+   * @return das Kind oder null, wenn es keines mit diesem Namen gibt
+   */
+  public FileNode getChild(String name) {
+    for (FileNode child : getChildren()) {
+      if (child.getName().equals(name)) {
+        return child;
+      }
+    }
+    return null;
+  }
+
+  /*
+   * Die folgenden Mutatoren verändern einen bereits sortierten Baum nachträglich (z.B. im
+   * Watch-Modus). Sie ersetzen die Kinderliste jeweils durch eine Kopie, damit gleichzeitig laufende
+   * Leser (z.B. die JSON-Serialisierung) nie eine ConcurrentModificationException sehen, und
+   * erhalten die Sortierung, ohne sortChildren() erneut aufzurufen. Eine berechnete
+   * {@link DirectoryStatistics} wird verworfen; da der Watch-Modus auch die Größe aller Vorfahren
+   * anpasst ({@link #setSize(long)}), gilt das für den ganzen Pfad bis zur Wurzel. Jeder Mutator
+   * erhöht den Änderungsstand ({@link #getVersion()}). Kinderliste, Größe, Statistik und
+   * Änderungsstand sind volatile, damit Leser ohne Sperre (Serialisierung, Sortierung nach Größe,
+   * Caches) die Änderungen des Watch-Threads sehen.
+   */
+
+  /**
+   * Fügt ein Kind an der zur Sortierung passenden Position ein und erhöht die Größe entsprechend.
+   *
+   * @param child Einzufügendes Kind
+   */
+  public synchronized void insertChildSorted(FileNode child) {
+    List<FileNode> updated = new ArrayList<>(children.size() + 1);
+    updated.addAll(children);
+    updated.add(insertionPoint(updated, child), child);
+    children = updated;
+    size += child.getSize();
+    statistics = null;
+    version++;
+  }
+
+  /**
+   * Entfernt ein Kind und verringert die Größe entsprechend.
+   *
+   * @param child Zu entfernendes Kind
+   * @return true, wenn das Kind vorhanden war
+   */
+  public synchronized boolean removeChild(FileNode child) {
+    List<FileNode> updated = new ArrayList<>(children);
+    if (!updated.remove(child)) {
+      return false;
+    }
+    children = updated;
+    size -= child.getSize();
+    statistics = null;
+    version++;
+    return true;
+  }
+
+  /**
+   * Verschiebt ein Kind, dessen Größe sich geändert hat, an seine neue Position. Die eigene Größe
+   * bleibt unverändert und muss vom Aufrufer angepasst werden.
+   *
+   * @param child Kind mit geänderter Größe
+   */
+  public synchronized void repositionChild(FileNode child) {
+    List<FileNode> updated = new ArrayList<>(children);
+    if (!updated.remove(child)) {
+      return;
+    }
+    updated.add(insertionPoint(updated, child), child);
+    children = updated;
+    version++;
+  }
+
+  /**
+   * Übernimmt Kinder und Größe eines neu gescannten Knotens für dasselbe Verzeichnis. Der Knoten
+   * selbst bleibt erhalten, sodass Verweise darauf (z.B. aus dem Eltern-Knoten) gültig bleiben.
+   *
+   * @param rescanned neu gescannter, sortierter Knoten
+   */
+  public synchronized void replaceChildren(FileNode rescanned) {
+    // Kinder zuletzt: wer die neuen Kinder sieht, sieht auch die neue Größe
+    size = rescanned.getSize();
+    statistics = rescanned.getStatistics();
+    children = new ArrayList<>(rescanned.getChildren());
+    version++;
+  }
+
+  private static int insertionPoint(List<FileNode> sortedChildren, FileNode child) {
+    int index = Collections.binarySearch(sortedChildren, child, SIZE_ORDER);
+    return index >= 0 ? index : -index - 1;
+  }
+
+  /**
+   * Schätzt den Heap-Verbrauch dieses Knotens inklusive aller Nachfahren. Berücksichtigt Objekt-
+   * Header, Pfad, Erweiterung und Kinderliste; die Werte sind Näherungen für eine 64-Bit-JVM mit
+   * komprimierten Referenzen. Der Pfad wird bewusst nicht gelesen, da {@link Path#toString()} die
+   * String-Form im Path-Objekt zwischenspeichert und den Verbrauch so erhöhen würde.
+   *
+   * @return geschätzter Speicherverbrauch in Bytes
+   */
+  public long estimateMemoryBytes() {
+    // FileNode (40) + Path-Objekt (40) + Byte-Repräsentation des Pfads (16 + ~80)
+    long bytes = 40 + 40 + 96;
+    if (extension != null) {
+      bytes += 40 + extension.length();
+    }
+    DirectoryStatistics currentStatistics = statistics;
+    if (currentStatistics != null) {
+      bytes += currentStatistics.estimateMemoryBytes();
+    }
+    if (children != null) {
+      // ArrayList (24) + Array-Header (16) + Referenzen
+      bytes += 40 + 4L * children.size();
+      for (FileNode child : children) {
+        bytes += child.estimateMemoryBytes();
+      }
+    }
+    return bytes;
+  }
+
   public String getName() {
     return path.getFileName() != null ? path.getFileName().toString() : path.toString();
   }
@@ -84,6 +257,13 @@ public class FileNode {
     return path.toString();
   }
 
+  /**
+   * Gibt den Pfad als {@link Path} zurück. Nicht Teil der JSON-Ausgabe, da er dort nur
+   * {@link #getPath()} als URI wiederholen würde.
+   *
+   * @return Pfad
+   */
+  @JsonIgnore
   public Path getPathObject() {
     return path;
   }
@@ -104,7 +284,63 @@ public class FileNode {
     return extension;
   }
 
+  /**
+   * Gibt an, ob der Knoten nur eine Sicht auf einen unveränderlichen Speicher ist (kompakter Baum
+   * oder Snapshot) und die Mutatoren daher nicht unterstützt.
+   *
+   * @return true, wenn der Knoten schreibgeschützt ist
+   */
+  @JsonIgnore
+  public boolean isReadOnly() {
+    return false;
+  }
+
   public void setSize(long size) {
     this.size = size;
+    statistics = null;
+    version++;
+  }
+
+  /**
+   * Gibt die beim Scan berechnete Statistik zurück. Nicht Teil der JSON-Ausgabe; fehlt sie, wird
+   * sie über {@link DirectoryStatistics#of(FileNode)} berechnet.
+   *
+   * @return Statistik oder null, wenn sie nicht (mehr) vorliegt
+   */
+  @JsonIgnore
+  public DirectoryStatistics getStatistics() {
+    return statistics;
+  }
+
+  public void setStatistics(DirectoryStatistics statistics) {
+    this.statistics = statistics;
+  }
+
+  /**
+   * Gibt den Zeitpunkt der letzten Änderung zurück, wie er beim Scan gelesen wurde. Bei
+   * Verzeichnissen ändert er sich, wenn Einträge angelegt, gelöscht oder umbenannt werden.
+   *
+   * @return Änderungszeitpunkt in Millisekunden seit der Epoche oder 0, wenn unbekannt
+   */
+  public long getLastModified() {
+    return lastModified;
+  }
+
+  public void setLastModified(long lastModified) {
+    this.lastModified = lastModified;
+    version++;
+  }
+
+  /**
+   * Gibt den Änderungsstand des Knotens zurück. Er steigt mit jeder Änderung über einen Mutator,
+   * im Watch-Modus also auch bei allen Vorfahren eines geänderten Eintrags. Caches für Teilbäume
+   * nehmen ihn in ihren Schlüssel auf, da Umbenennen oder Verschieben Größe und Anzahl der Kinder
+   * nicht ändert. Sichten auf unveränderliche Speicher ({@link #isReadOnly()}) bleiben bei 0.
+   *
+   * @return Änderungsstand
+   */
+  @JsonIgnore
+  public long getVersion() {
+    return version;
   }
 }
@@ -0,0 +1,181 @@
+package com.voba.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Ausschnitt eines {@link FileNode}-Baums für die Übertragung an den Client.
+ *
+ * <p>
+ * Statt des vollständigen Baums enthält ein Ausschnitt nur die obersten Ebenen bis zu einer
+ * gewählten Tiefe und je Verzeichnis höchstens eine begrenzte Anzahl Kinder (die größten, da die
+ * Kinder sortiert sind). {@link #getChildCount()} gibt immer die tatsächliche Anzahl der Kinder an,
+ * sodass der Client erkennt, ob weitere Ebenen oder Seiten nachgeladen werden müssen. Bei
+ * Verzeichnissen jenseits der Tiefe fehlt {@code children} in der JSON-Ausgabe.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FileNodeSlice {
+
+  private final String name;
+  private final String path;
+  private final long size;
+  private final boolean directory;
+  private final String extension;
+  private final int childCount;
+  private final Integer offset;
+  private final Long fileCount;
+  private final Long directoryCount;
+  private final Long apparentSize;
+  private final List<FileNodeSlice> children;
+
+  private FileNodeSlice(
+      FileNode node, int childCount, Integer offset, List<FileNodeSlice> children) {
+    this.name = node.getName();
+    this.path = node.getPath();
+    this.size = node.getSize();
+    this.directory = node.isDirectory();
+    this.extension = node.getExtension();
+    this.childCount = childCount;
+    this.offset = offset;
+    if (node instanceof AggregateNode aggregate) {
+      this.fileCount = aggregate.getFileCount();
+      this.directoryCount = aggregate.getDirectoryCount();
+    } else {
+      this.fileCount = null;
+      this.directoryCount = null;
+    }
+    this.apparentSize = node instanceof DiskUsageNode diskUsageNode
+        ? diskUsageNode.getApparentSize()
+        : null;
+    this.children = children;
+  }
+
+  /**
+   * Erstellt einen Ausschnitt ab dem angegebenen Knoten.
+   *
+   * @param node   Wurzel des Ausschnitts
+   * @param depth  Anzahl der mitgelieferten Ebenen unterhalb der Wurzel (0 = nur die Wurzel)
+   * @param offset Index des ersten Kindes der Wurzel (für seitenweises Nachladen)
+   * @param limit  max. Anzahl Kinder je Verzeichnis
+   * @return Ausschnitt des Baums
+   * @throws IllegalArgumentException wenn ein Parameter negativ bzw. limit nicht positiv ist
+   */
+  public static FileNodeSlice of(FileNode node, int depth, int offset, int limit) {
+    checkParameters(depth, offset, limit);
+    return slice(node, depth, offset, limit, true);
+  }
+
+  /**
+   * Prüft die Parameter eines Ausschnitts; gemeinsam genutzt von allen Ausgabeformaten.
+   *
+   * @param depth  Anzahl der mitgelieferten Ebenen unterhalb der Wurzel
+   * @param offset Index des ersten Kindes der Wurzel
+   * @param limit  max. Anzahl Kinder je Verzeichnis
+   * @throws IllegalArgumentException wenn ein Parameter negativ bzw. limit nicht positiv ist
+   */
+  static void checkParameters(int depth, int offset, int limit) {
+    if (depth < 0) {
+      throw new IllegalArgumentException("Depth must not be negative: " + depth);
+    }
+    if (offset < 0) {
+      throw new IllegalArgumentException("Offset must not be negative: " + offset);
+    }
+    if (limit <= 0) {
+      throw new IllegalArgumentException("Limit must be positive: " + limit);
+    }
+  }
+
+  private static FileNodeSlice slice(
+      FileNode node, int depth, int offset, int limit, boolean root) {
+    if (!node.isDirectory()) {
+      return new FileNodeSlice(node, 0, null, null);
+    }
+
+    Integer sliceOffset = root ? offset : null;
+    List<FileNode> allChildren = node.getChildren();
+    if (depth == 0) {
+      return new FileNodeSlice(node, allChildren.size(), sliceOffset, null);
+    }
+
+    int from = Math.min(offset, allChildren.size());
+    int to = (int) Math.min((long) from + limit, allChildren.size());
+    List<FileNodeSlice> children = new ArrayList<>(to - from);
+    for (FileNode child : allChildren.subList(from, to)) {
+      children.add(slice(child, depth - 1, 0, limit, false));
+    }
+    return new FileNodeSlice(node, allChildren.size(), sliceOffset, children);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getPath() {
+    return path;
+  }
+
+  public long getSize() {
+    return size;
+  }
+
+  public boolean isDirectory() {
+    return directory;
+  }
+
+  public String getExtension() {
+    return extension;
+  }
+
+  public int getChildCount() {
+    return childCount;
+  }
+
+  /**
+   * Gibt den Index des ersten mitgelieferten Kindes zurück. Nur an der Wurzel eines Ausschnitts
+   * gesetzt.
+   *
+   * @return Offset oder null
+   */
+  public Integer getOffset() {
+    return offset;
+  }
+
+  /**
+   * Gibt die mitgelieferten Kinder zurück.
+   *
+   * @return Kinder oder null, wenn diese Ebene nicht im Ausschnitt enthalten ist
+   */
+  /**
+   * Gibt bei einem {@link AggregateNode} die Anzahl der zusammengefassten Dateien zurück.
+   *
+   * @return Anzahl der Dateien oder null bei anderen Knoten
+   */
+  public Long getFileCount() {
+    return fileCount;
+  }
+
+  /**
+   * Gibt bei einem {@link AggregateNode} die Anzahl der zusammengefassten Verzeichnisse zurück.
+   *
+   * @return Anzahl der Verzeichnisse oder null bei anderen Knoten
+   */
+  public Long getDirectoryCount() {
+    return directoryCount;
+  }
+
+  /**
+   * Gibt bei einem {@link DiskUsageNode} die scheinbare Größe zurück.
+   *
+   * @return scheinbare Größe in Bytes oder null bei anderen Knoten
+   */
+  public Long getApparentSize() {
+    return apparentSize;
+  }
+
+  public List<FileNodeSlice> getChildren() {
+    return children != null ? Collections.unmodifiableList(children) : null;
+  }
+}
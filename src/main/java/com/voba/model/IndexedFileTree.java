@@ -0,0 +1,43 @@
+package com.voba.model;
+
+import java.nio.file.Path;
+
+/**
+ * Lesezugriff auf einen Baum, dessen Knoten über Indizes adressiert werden. Grundlage der
+ * {@link CompactFileNode}-Sichten; umgesetzt vom {@link CompactFileTree} im Heap und vom
+ * {@link MappedFileTree} über eine eingeblendete Snapshot-Datei. Index 0 ist immer die Wurzel,
+ * fehlende Verweise sind {@link CompactFileTree#NO_NODE}.
+ */
+interface IndexedFileTree {
+
+  String name(int index);
+
+  Path path(int index);
+
+  long size(int index);
+
+  long lastModified(int index);
+
+  boolean isDirectory(int index);
+
+  String extension(int index);
+
+  int firstChild(int index);
+
+  int nextSibling(int index);
+
+  /**
+   * Sortiert die Kinder aller Verzeichnisse unterhalb eines Knotens nach Größe (absteigend) und
+   * Name.
+   *
+   * @param index Index des Knotens, dessen Teilbaum sortiert wird
+   */
+  void sortChildren(int index);
+
+  /**
+   * Schätzt den Heap-Verbrauch des gesamten Baums.
+   *
+   * @return geschätzter Speicherverbrauch in Bytes
+   */
+  long estimatedMemoryBytes();
+}
@@ -0,0 +1,492 @@
+package com.voba.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Schreibgeschützter Verzeichnisbaum, der direkt aus einer Snapshot-Datei gelesen wird.
+ *
+ * <p>
+ * Die Datei wird über {@link FileChannel#map} eingeblendet; beim Öffnen wird nur der Header
+ * gelesen. Knoten werden erst beim Zugriff aus dem Page Cache gelesen, sodass auch Snapshots mit
+ * zig Millionen Einträgen praktisch sofort verfügbar sind und den Heap kaum belasten. Über
+ * {@link #root()} erhält man wie beim {@link CompactFileTree} {@link FileNode}-Sichten.
+ *
+ * <p>
+ * Aufbau der Datei (Little Endian):
+ *
+ * <ul>
+ * <li>Header ({@value #HEADER_BYTES} Bytes): Magic, Version, Flags, Anzahl Knoten und Namen, Länge
+ * des Wurzelpfads, Erstellungszeitpunkt, Offsets von Knoten, Namensindex und Namensdaten,
+ * Gesamtgröße
+ * <li>Wurzelpfad als UTF-8
+ * <li>Knoten als Datensätze fester Breite ({@value #RECORD_BYTES} Bytes): Eltern-Index, erstes
+ * Kind, Anzahl Kinder, Namens-ID, Erweiterungs-ID, Flags, Größe, Änderungszeitpunkt
+ * <li>Namensindex: Start-Offset jedes Namens in den Namensdaten (plus End-Offset)
+ * <li>Namensdaten: alle unterschiedlichen Namen und Erweiterungen als UTF-8
+ * </ul>
+ *
+ * <p>
+ * Die Knoten liegen in Breitensuche-Reihenfolge vor, die Kinder eines Verzeichnisses also
+ * zusammenhängend und bereits sortiert. Das nächste Geschwister ergibt sich daher aus dem Index.
+ */
+public final class MappedFileTree implements IndexedFileTree {
+
+  /** Magic-Zahl am Dateianfang ("DVS1"). */
+  public static final int MAGIC = 0x31535644;
+
+  /** Aktuelle Version des Dateiformats. */
+  public static final int VERSION = 1;
+
+  static final int HEADER_BYTES = 80;
+  static final int RECORD_BYTES = 40;
+
+  private static final int HEADER_FLAG_INCLUDE_HIDDEN = 1;
+  private static final int FLAG_DIRECTORY = 1;
+  private static final int NO_NAME = -1;
+
+  private static final int PARENT = 0;
+  private static final int FIRST_CHILD = 4;
+  private static final int CHILD_COUNT = 8;
+  private static final int NAME = 12;
+  private static final int EXTENSION = 16;
+  private static final int FLAGS = 20;
+  private static final int SIZE = 24;
+  private static final int LAST_MODIFIED = 32;
+
+  /** Knoten pro eingeblendetem Abschnitt, damit auch Dateien über 2 GiB gelesen werden können. */
+  private static final int SEGMENT_SHIFT = 24;
+  private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+
+  private final Header header;
+  private final ByteBuffer[] segments;
+  private final ByteBuffer nameIndex;
+  private final ByteBuffer nameData;
+
+  private MappedFileTree(Header header, ByteBuffer[] segments, ByteBuffer nameIndex,
+      ByteBuffer nameData) {
+    this.header = header;
+    this.segments = segments;
+    this.nameIndex = nameIndex;
+    this.nameData = nameData;
+  }
+
+  /**
+   * Blendet eine Snapshot-Datei ein. Liest nur den Header; die Knoten bleiben in der Datei.
+   *
+   * @param file Snapshot-Datei
+   * @return Baum über der Datei
+   * @throws IOException wenn die Datei nicht gelesen werden kann oder kein gültiger Snapshot ist
+   */
+  public static MappedFileTree open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      Header header = readHeader(channel, file);
+      long nodesEnd = header.nodesOffset + (long) header.nodeCount * RECORD_BYTES;
+      if (nodesEnd > header.nameIndexOffset
+          || header.nameDataOffset + header.nameDataBytes > channel.size()) {
+        throw new IOException("Truncated snapshot: " + file);
+      }
+
+      int segmentCount = (int) (((long) header.nodeCount + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+      ByteBuffer[] segments = new ByteBuffer[segmentCount];
+      for (int segment = 0; segment < segmentCount; segment++) {
+        long first = (long) segment << SEGMENT_SHIFT;
+        long records = Math.min(1L << SEGMENT_SHIFT, header.nodeCount - first);
+        segments[segment] = map(channel, header.nodesOffset + first * RECORD_BYTES,
+            records * RECORD_BYTES);
+      }
+      ByteBuffer nameIndex = map(channel, header.nameIndexOffset,
+          (header.nameCount + 1L) * Integer.BYTES);
+      ByteBuffer nameData = map(channel, header.nameDataOffset, header.nameDataBytes);
+      // Die Abbildungen bleiben nach dem Schließen des Kanals gültig
+      return new MappedFileTree(header, segments, nameIndex, nameData);
+    }
+  }
+
+  /**
+   * Liest nur den Header einer Snapshot-Datei, z.B. für Übersichten.
+   *
+   * @param file Snapshot-Datei
+   * @return Header
+   * @throws IOException wenn die Datei nicht gelesen werden kann oder kein gültiger Snapshot ist
+   */
+  public static Header readHeader(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      return readHeader(channel, file);
+    }
+  }
+
+  private static Header readHeader(FileChannel channel, Path file) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    readFully(channel, buffer, 0);
+    if (buffer.getInt(0) != MAGIC) {
+      throw new IOException("Not a snapshot file: " + file);
+    }
+    if (buffer.getInt(4) != VERSION) {
+      throw new IOException("Unsupported snapshot version " + buffer.getInt(4) + ": " + file);
+    }
+
+    // Länge vor dem Allokieren prüfen: eine beschädigte Datei darf keinen Fehler außerhalb von
+    // IOException auslösen, da Übersichten nur diese überspringen
+    int rootPathBytes = buffer.getInt(20);
+    if (rootPathBytes < 0 || rootPathBytes > channel.size() - HEADER_BYTES) {
+      throw new IOException("Invalid root path length " + rootPathBytes + ": " + file);
+    }
+    ByteBuffer rootPath = ByteBuffer.allocate(rootPathBytes);
+    readFully(channel, rootPath, HEADER_BYTES);
+    return new Header(
+        Paths.get(new String(rootPath.array(), StandardCharsets.UTF_8)),
+        (buffer.getInt(8) & HEADER_FLAG_INCLUDE_HIDDEN) != 0,
+        buffer.getInt(12),
+        buffer.getInt(16),
+        buffer.getLong(24),
+        buffer.getLong(32),
+        buffer.getLong(40),
+        buffer.getLong(48),
+        buffer.getLong(56),
+        buffer.getLong(64));
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long position)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new IOException("Truncated snapshot header");
+      }
+    }
+  }
+
+  private static ByteBuffer map(FileChannel channel, long position, long length)
+      throws IOException {
+    if (length > Integer.MAX_VALUE) {
+      throw new IOException("Snapshot section too large to map: " + length + " bytes");
+    }
+    return channel.map(FileChannel.MapMode.READ_ONLY, position, length)
+        .order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  /**
+   * Schreibt einen Baum als Snapshot-Datei. Die Datei wird zunächst neben dem Ziel angelegt und
+   * erst nach vollständigem Schreiben umbenannt, sodass nie ein halber Snapshot entsteht. Die
+   * Kinder werden in der vorliegenden Reihenfolge übernommen, der Baum sollte also sortiert sein.
+   *
+   * @param root           Wurzel des zu speichernden Baums
+   * @param includeHidden  ob der Baum versteckte Dateien enthält
+   * @param createdAt      Erstellungszeitpunkt in Millisekunden seit der Epoche
+   * @param file           Ziel-Datei
+   * @return Header der geschriebenen Datei
+   * @throws IOException wenn die Datei nicht geschrieben werden kann
+   */
+  public static Header write(FileNode root, boolean includeHidden, long createdAt, Path file)
+      throws IOException {
+    Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+    Header header;
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      header = new SnapshotWriter(channel).write(root, includeHidden, createdAt);
+      channel.force(false);
+    } catch (IOException | RuntimeException exception) {
+      Files.deleteIfExists(temporary);
+      throw exception;
+    }
+    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    return header;
+  }
+
+  /**
+   * Gibt eine {@link FileNode}-Sicht auf die Wurzel zurück.
+   *
+   * @return Wurzelknoten
+   */
+  public FileNode root() {
+    return new CompactFileNode(this, 0);
+  }
+
+  public Header getHeader() {
+    return header;
+  }
+
+  public int nodeCount() {
+    return header.nodeCount;
+  }
+
+  public int parent(int index) {
+    return record(index).getInt(offset(index) + PARENT);
+  }
+
+  public int childCount(int index) {
+    return record(index).getInt(offset(index) + CHILD_COUNT);
+  }
+
+  @Override
+  public int firstChild(int index) {
+    return record(index).getInt(offset(index) + FIRST_CHILD);
+  }
+
+  @Override
+  public int nextSibling(int index) {
+    int parent = parent(index);
+    if (parent == CompactFileTree.NO_NODE) {
+      return CompactFileTree.NO_NODE;
+    }
+    int next = index + 1;
+    return next < firstChild(parent) + childCount(parent) ? next : CompactFileTree.NO_NODE;
+  }
+
+  @Override
+  public long size(int index) {
+    return record(index).getLong(offset(index) + SIZE);
+  }
+
+  @Override
+  public long lastModified(int index) {
+    return record(index).getLong(offset(index) + LAST_MODIFIED);
+  }
+
+  @Override
+  public boolean isDirectory(int index) {
+    return (record(index).getInt(offset(index) + FLAGS) & FLAG_DIRECTORY) != 0;
+  }
+
+  @Override
+  public String extension(int index) {
+    int extensionId = record(index).getInt(offset(index) + EXTENSION);
+    return extensionId == NO_NAME ? null : string(extensionId);
+  }
+
+  @Override
+  public String name(int index) {
+    if (index == 0) {
+      Path rootPath = header.rootPath;
+      return rootPath.getFileName() != null ? rootPath.getFileName().toString() : rootPath.toString();
+    }
+    return string(record(index).getInt(offset(index) + NAME));
+  }
+
+  @Override
+  public Path path(int index) {
+    Deque<String> segments = new ArrayDeque<>();
+    for (int current = index; current != 0; current = parent(current)) {
+      segments.push(name(current));
+    }
+    Path result = header.rootPath;
+    for (String segment : segments) {
+      result = result.resolve(segment);
+    }
+    return result;
+  }
+
+  /** Snapshots werden sortiert geschrieben; ein erneutes Sortieren ist nicht nötig. */
+  @Override
+  public void sortChildren(int index) {
+    // bereits sortiert
+  }
+
+  /**
+   * Schätzt den Heap-Verbrauch. Die Knoten und Namen liegen außerhalb des Heaps in der
+   * eingeblendeten Datei und werden nicht mitgezählt.
+   *
+   * @return geschätzter Speicherverbrauch in Bytes
+   */
+  @Override
+  public long estimatedMemoryBytes() {
+    // Baum, Header mit Pfad und je ein Buffer-Objekt pro Abbildung
+    return 16 + 160 + 64L * (segments.length + 2);
+  }
+
+  private ByteBuffer record(int index) {
+    return segments[index >>> SEGMENT_SHIFT];
+  }
+
+  private static int offset(int index) {
+    return (index & SEGMENT_MASK) * RECORD_BYTES;
+  }
+
+  private String string(int nameId) {
+    int start = nameIndex.getInt(nameId * Integer.BYTES);
+    int end = nameIndex.getInt((nameId + 1) * Integer.BYTES);
+    byte[] bytes = new byte[end - start];
+    nameData.get(start, bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Kopfdaten einer Snapshot-Datei.
+   *
+   * @param rootPath        Pfad des gescannten Wurzelverzeichnisses
+   * @param includeHidden   ob versteckte Dateien enthalten sind
+   * @param nodeCount       Anzahl der Knoten inklusive Wurzel
+   * @param nameCount       Anzahl unterschiedlicher Namen und Erweiterungen
+   * @param createdAt       Erstellungszeitpunkt in Millisekunden seit der Epoche
+   * @param nodesOffset     Offset der Knoten-Datensätze
+   * @param nameIndexOffset Offset des Namensindex
+   * @param nameDataOffset  Offset der Namensdaten
+   * @param nameDataBytes   Länge der Namensdaten
+   * @param totalSize       Gesamtgröße des Wurzelverzeichnisses in Bytes
+   */
+  public record Header(Path rootPath, boolean includeHidden, int nodeCount, int nameCount,
+      long createdAt, long nodesOffset, long nameIndexOffset, long nameDataOffset,
+      long nameDataBytes, long totalSize) {
+  }
+
+  /** Schreibt einen Baum in Breitensuche-Reihenfolge über einen Puffer in die Datei. */
+  private static final class SnapshotWriter {
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES)
+        .order(ByteOrder.LITTLE_ENDIAN);
+    private final Map<String, Integer> nameIds = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private long position;
+
+    SnapshotWriter(FileChannel channel) {
+      this.channel = channel;
+    }
+
+    Header write(FileNode root, boolean includeHidden, long createdAt) throws IOException {
+      byte[] rootPath = root.getPath().getBytes(StandardCharsets.UTF_8);
+      position = HEADER_BYTES;
+      buffer.put(rootPath);
+      align();
+      long nodesOffset = position + buffer.position();
+
+      int nodeCount = writeNodes(root);
+      long nameIndexOffset = position + buffer.position();
+      byte[][] encoded = new byte[names.size()][];
+      int nameOffset = 0;
+      for (int nameId = 0; nameId < names.size(); nameId++) {
+        encoded[nameId] = names.get(nameId).getBytes(StandardCharsets.UTF_8);
+        putInt(nameOffset);
+        if ((long) nameOffset + encoded[nameId].length > Integer.MAX_VALUE) {
+          throw new IOException("Too many distinct names for a snapshot");
+        }
+        nameOffset += encoded[nameId].length;
+      }
+      putInt(nameOffset);
+      long nameDataOffset = position + buffer.position();
+      for (byte[] name : encoded) {
+        putBytes(name);
+      }
+      flush();
+
+      Header header = new Header(Paths.get(root.getPath()), includeHidden, nodeCount, names.size(),
+          createdAt, nodesOffset, nameIndexOffset, nameDataOffset, nameOffset, root.getSize());
+      ByteBuffer headerBuffer = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+          .putInt(MAGIC)
+          .putInt(VERSION)
+          .putInt(includeHidden ? HEADER_FLAG_INCLUDE_HIDDEN : 0)
+          .putInt(nodeCount)
+          .putInt(names.size())
+          .putInt(rootPath.length)
+          .putLong(createdAt)
+          .putLong(nodesOffset)
+          .putLong(nameIndexOffset)
+          .putLong(nameDataOffset)
+          .putLong(nameOffset)
+          .putLong(root.getSize())
+          .putLong(0);
+      headerBuffer.flip();
+      while (headerBuffer.hasRemaining()) {
+        channel.write(headerBuffer, headerBuffer.position());
+      }
+      return header;
+    }
+
+    private int writeNodes(FileNode root) throws IOException {
+      Deque<PendingNode> pending = new ArrayDeque<>();
+      pending.add(new PendingNode(root, CompactFileTree.NO_NODE));
+      int written = 0;
+      long nextIndex = 1;
+
+      while (!pending.isEmpty()) {
+        PendingNode current = pending.poll();
+        FileNode node = current.node;
+        List<FileNode> children = node.getChildren();
+        int firstChild = children.isEmpty() ? CompactFileTree.NO_NODE : (int) nextIndex;
+        for (FileNode child : children) {
+          pending.add(new PendingNode(child, written));
+        }
+        nextIndex += children.size();
+        if (nextIndex > Integer.MAX_VALUE) {
+          throw new IOException("Too many entries for a snapshot");
+        }
+
+        ensureCapacity(RECORD_BYTES);
+        buffer.putInt(current.parent)
+            .putInt(firstChild)
+            .putInt(children.size())
+            .putInt(written == 0 ? NO_NAME : nameId(node.getName()))
+            .putInt(node.getExtension() != null ? nameId(node.getExtension()) : NO_NAME)
+            .putInt(node.isDirectory() ? FLAG_DIRECTORY : 0)
+            .putLong(node.getSize())
+            .putLong(node.getLastModified());
+        written++;
+      }
+      return written;
+    }
+
+    private int nameId(String name) {
+      Integer id = nameIds.get(name);
+      if (id == null) {
+        id = names.size();
+        nameIds.put(name, id);
+        names.add(name);
+      }
+      return id;
+    }
+
+    private void putInt(int value) throws IOException {
+      ensureCapacity(Integer.BYTES);
+      buffer.putInt(value);
+    }
+
+    private void putBytes(byte[] bytes) throws IOException {
+      int offset = 0;
+      while (offset < bytes.length) {
+        ensureCapacity(1);
+        int length = Math.min(buffer.remaining(), bytes.length - offset);
+        buffer.put(bytes, offset, length);
+        offset += length;
+      }
+    }
+
+    private void align() throws IOException {
+      while ((position + buffer.position()) % Long.BYTES != 0) {
+        ensureCapacity(1);
+        buffer.put((byte) 0);
+      }
+    }
+
+    private void ensureCapacity(int bytes) throws IOException {
+      if (buffer.remaining() < bytes) {
+        flush();
+      }
+    }
+
+    private void flush() throws IOException {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        position += channel.write(buffer, position);
+      }
+      buffer.clear();
+    }
+  }
+
+  private record PendingNode(FileNode node, int parent) {
+  }
+}
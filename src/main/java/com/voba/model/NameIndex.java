@@ -0,0 +1,512 @@
+package com.voba.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Suchindex über die Namen aller Einträge eines {@link FileNode}-Teilbaums.
+ *
+ * <p>
+ * Gleiche Namen werden nur einmal gespeichert (interniert). Über die kleingeschriebenen Namen wird
+ * ein Trigramm-Index aufgebaut: je Folge von drei Zeichen die aufsteigend sortierten IDs der Namen,
+ * die sie enthalten. Eine Suche schneidet die Listen der Trigramme des Suchbegriffs und prüft nur
+ * die verbleibenden Namen; Suchbegriffe mit weniger als drei Zeichen prüfen alle Namen, deren Zahl
+ * meist weit unter der der Einträge liegt.
+ *
+ * <p>
+ * Die Einträge liegen in primitiven Arrays, absteigend nach Größe nummeriert; je Eintrag werden nur
+ * Name, Eltern-Eintrag und Größe gehalten. Treffer sind damit schon durch ihre Nummer nach Größe
+ * geordnet: Betreffen sie einen großen Teil des Baums, werden die Einträge der Reihe nach geprüft,
+ * bis die angefragte Seite voll ist, sonst werden die Treffer gesammelt und sortiert. Pfade werden
+ * nur für die ausgegebenen Treffer über die Eltern-Verweise zusammengesetzt.
+ *
+ * <p>
+ * Die Wurzel selbst und zusammengefasste Einträge ({@link AggregateNode}) werden nicht
+ * aufgenommen. Der Index ist nach dem Aufbau unveränderlich und thread-sicher; spätere Änderungen
+ * am Baum (z.B. im Watch-Modus) erfordern einen neuen Index.
+ */
+public final class NameIndex {
+
+  /** Treffer, ab deren Anteil an allen Einträgen der Reihe nach statt sortiert gesucht wird. */
+  private static final int SCAN_RATIO = 8;
+
+  private final String rootPath;
+  private final String separator;
+  private final long rootSize;
+
+  private final String[] names;
+  private final String[] lowerCaseNames;
+  private final int[] entryNames;
+  private final int[] entryParents;
+  private final long[] entrySizes;
+  private final BitSet entryDirectories;
+
+  private final int[] nameEntryOffsets;
+  private final int[] nameEntries;
+  private final Map<Long, int[]> trigrams;
+
+  private NameIndex(FileNode root, Builder builder) {
+    this.rootPath = root.getPath();
+    this.separator = root.getPathObject().getFileSystem().getSeparator();
+    this.rootSize = root.getSize();
+
+    // Einträge absteigend nach Größe umnummerieren, bei gleicher Größe in Baumreihenfolge
+    int count = builder.count;
+    int[] order = new int[count];
+    for (int i = 0; i < count; i++) {
+      order[i] = i;
+    }
+    sortBySizeDescending(order, builder.sizes);
+    int[] rank = new int[count];
+    for (int i = 0; i < count; i++) {
+      rank[order[i]] = i;
+    }
+
+    this.names = builder.names.toArray(new String[0]);
+    // toLowerCase liefert unveränderte Namen selbst zurück, meist kostet das keinen Speicher
+    this.lowerCaseNames = new String[names.length];
+    for (int name = 0; name < names.length; name++) {
+      lowerCaseNames[name] = names[name].toLowerCase(Locale.ROOT);
+    }
+    this.entryNames = new int[count];
+    this.entryParents = new int[count];
+    this.entrySizes = new long[count];
+    this.entryDirectories = new BitSet(count);
+    int[] nameCounts = new int[names.length + 1];
+    for (int i = 0; i < count; i++) {
+      int entry = order[i];
+      entryNames[i] = builder.nameIdsByEntry[entry];
+      entryParents[i] = builder.parents[entry] < 0 ? -1 : rank[builder.parents[entry]];
+      entrySizes[i] = builder.sizes[entry];
+      if (builder.directories.get(entry)) {
+        entryDirectories.set(i);
+      }
+      nameCounts[entryNames[i] + 1]++;
+    }
+
+    // Einträge je Name, aufsteigend nach Nummer und damit absteigend nach Größe
+    this.nameEntryOffsets = new int[names.length + 1];
+    for (int name = 0; name < names.length; name++) {
+      nameEntryOffsets[name + 1] = nameEntryOffsets[name] + nameCounts[name + 1];
+    }
+    this.nameEntries = new int[count];
+    int[] next = Arrays.copyOf(nameEntryOffsets, names.length);
+    for (int i = 0; i < count; i++) {
+      nameEntries[next[entryNames[i]]++] = i;
+    }
+
+    this.trigrams = buildTrigrams(lowerCaseNames);
+  }
+
+  /**
+   * Baut den Index eines Teilbaums auf.
+   *
+   * @param root Wurzel
+   * @return Index über alle Einträge unterhalb der Wurzel
+   */
+  public static NameIndex build(FileNode root) {
+    Builder builder = new Builder();
+    builder.collect(root, -1);
+    return new NameIndex(root, builder);
+  }
+
+  private static Map<Long, int[]> buildTrigrams(String[] lowerCaseNames) {
+    Map<Long, IntList> postings = new HashMap<>();
+    for (int name = 0; name < lowerCaseNames.length; name++) {
+      long previous = -1;
+      // Sortiert, damit jedes Trigramm je Name nur einmal eingetragen wird
+      long[] keys = trigramsOf(lowerCaseNames[name]);
+      Arrays.sort(keys);
+      for (long key : keys) {
+        if (key != previous) {
+          postings.computeIfAbsent(key, ignored -> new IntList()).add(name);
+          previous = key;
+        }
+      }
+    }
+    Map<Long, int[]> result = new HashMap<>(postings.size() * 4 / 3 + 1);
+    postings.forEach((key, list) -> result.put(key, list.toArray()));
+    return result;
+  }
+
+  private static long[] trigramsOf(String text) {
+    if (text.length() < 3) {
+      return new long[0];
+    }
+    long[] keys = new long[text.length() - 2];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = trigram(text, i);
+    }
+    return keys;
+  }
+
+  private static long trigram(String text, int start) {
+    return (long) text.charAt(start) << 32
+        | (long) text.charAt(start + 1) << 16
+        | text.charAt(start + 2);
+  }
+
+  /**
+   * Sucht Einträge, deren Name den Suchbegriff enthält (ohne Beachtung der Groß-/Kleinschreibung).
+   *
+   * @param query  Suchbegriff
+   * @param offset Anzahl zu überspringender Treffer
+   * @param limit  max. Anzahl der Treffer
+   * @return Seite der Treffer, absteigend nach Größe
+   * @throws IllegalArgumentException wenn der Suchbegriff leer ist oder offset bzw. limit ungültig
+   *                                  sind
+   */
+  public Result substring(String query, int offset, int limit) {
+    String lowerCase = requireQuery(query).toLowerCase(Locale.ROOT);
+    BitSet matches = matchingNames(List.of(lowerCase),
+        name -> lowerCaseNames[name].contains(lowerCase));
+    return page(matches, offset, limit);
+  }
+
+  /**
+   * Sucht Einträge, deren Name dem Muster entspricht (ohne Beachtung der Groß-/Kleinschreibung).
+   * {@code *} steht für beliebig viele, {@code ?} für genau ein Zeichen; das Muster muss den
+   * ganzen Namen abdecken.
+   *
+   * @param glob   Muster, z.B. {@code *.iso} oder {@code report-20??.pdf}
+   * @param offset Anzahl zu überspringender Treffer
+   * @param limit  max. Anzahl der Treffer
+   * @return Seite der Treffer, absteigend nach Größe
+   * @throws IllegalArgumentException wenn das Muster leer ist oder offset bzw. limit ungültig sind
+   */
+  public Result glob(String glob, int offset, int limit) {
+    Pattern pattern = globPattern(requireQuery(glob));
+    // Nur die festen Teile des Musters können über Trigramme vorausgewählt werden
+    List<String> literals = new ArrayList<>();
+    for (String literal : glob.toLowerCase(Locale.ROOT).split("[*?]+")) {
+      if (!literal.isEmpty()) {
+        literals.add(literal);
+      }
+    }
+    BitSet matches = matchingNames(literals, name -> pattern.matcher(names[name]).matches());
+    return page(matches, offset, limit);
+  }
+
+  /**
+   * Wandelt ein Glob-Muster mit {@code *} und {@code ?} in einen regulären Ausdruck um.
+   *
+   * @param glob Muster
+   * @return regulärer Ausdruck ohne Beachtung der Groß-/Kleinschreibung
+   */
+  public static Pattern globPattern(String glob) {
+    StringBuilder regex = new StringBuilder();
+    int literalStart = 0;
+    for (int i = 0; i < glob.length(); i++) {
+      char c = glob.charAt(i);
+      if (c == '*' || c == '?') {
+        if (i > literalStart) {
+          regex.append(Pattern.quote(glob.substring(literalStart, i)));
+        }
+        regex.append(c == '*' ? ".*" : ".");
+        literalStart = i + 1;
+      }
+    }
+    if (glob.length() > literalStart) {
+      regex.append(Pattern.quote(glob.substring(literalStart)));
+    }
+    return Pattern.compile(regex.toString(),
+        Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE | Pattern.DOTALL);
+  }
+
+  private static String requireQuery(String query) {
+    if (query == null || query.isEmpty()) {
+      throw new IllegalArgumentException("Query must not be empty");
+    }
+    return query;
+  }
+
+  /**
+   * Ermittelt die passenden Namen. Namen, die nicht alle Trigramme der festen Teile enthalten,
+   * werden ohne Prüfung verworfen.
+   */
+  private BitSet matchingNames(List<String> literals, NamePredicate predicate) {
+    int[] candidates = null;
+    for (String literal : literals) {
+      for (long key : trigramsOf(literal)) {
+        int[] posting = trigrams.get(key);
+        if (posting == null) {
+          return new BitSet();
+        }
+        candidates = candidates == null ? posting : intersect(candidates, posting);
+        if (candidates.length == 0) {
+          return new BitSet();
+        }
+      }
+    }
+
+    BitSet matches = new BitSet(names.length);
+    if (candidates == null) {
+      for (int name = 0; name < names.length; name++) {
+        if (predicate.test(name)) {
+          matches.set(name);
+        }
+      }
+    } else {
+      for (int name : candidates) {
+        if (predicate.test(name)) {
+          matches.set(name);
+        }
+      }
+    }
+    return matches;
+  }
+
+  private static int[] intersect(int[] left, int[] right) {
+    int[] result = new int[Math.min(left.length, right.length)];
+    int count = 0;
+    int i = 0;
+    int j = 0;
+    while (i < left.length && j < right.length) {
+      if (left[i] < right[j]) {
+        i++;
+      } else if (left[i] > right[j]) {
+        j++;
+      } else {
+        result[count++] = left[i];
+        i++;
+        j++;
+      }
+    }
+    return Arrays.copyOf(result, count);
+  }
+
+  private Result page(BitSet matchedNames, int offset, int limit) {
+    if (offset < 0) {
+      throw new IllegalArgumentException("Offset must not be negative: " + offset);
+    }
+    if (limit < 1) {
+      throw new IllegalArgumentException("Limit must be positive: " + limit);
+    }
+    long total = 0;
+    for (int name = matchedNames.nextSetBit(0); name >= 0;
+        name = matchedNames.nextSetBit(name + 1)) {
+      total += nameEntryOffsets[name + 1] - nameEntryOffsets[name];
+    }
+
+    int end = (int) Math.min(total, (long) offset + limit);
+    List<Entry> entries = new ArrayList<>(Math.max(0, end - offset));
+    if (offset >= end) {
+      return new Result(total, entries);
+    }
+    if (total * SCAN_RATIO >= entryNames.length) {
+      // Viele Treffer: der Reihe nach prüfen, die Seite ist nach wenigen Einträgen voll
+      int found = 0;
+      for (int entry = 0; entry < entryNames.length && found < end; entry++) {
+        if (matchedNames.get(entryNames[entry])) {
+          if (found++ >= offset) {
+            entries.add(entry(entry));
+          }
+        }
+      }
+    } else {
+      int[] hits = new int[(int) total];
+      int count = 0;
+      for (int name = matchedNames.nextSetBit(0); name >= 0;
+          name = matchedNames.nextSetBit(name + 1)) {
+        for (int i = nameEntryOffsets[name]; i < nameEntryOffsets[name + 1]; i++) {
+          hits[count++] = nameEntries[i];
+        }
+      }
+      Arrays.sort(hits);
+      for (int i = offset; i < end; i++) {
+        entries.add(entry(hits[i]));
+      }
+    }
+    return new Result(total, entries);
+  }
+
+  private Entry entry(int entry) {
+    return new Entry(path(entry), names[entryNames[entry]], entrySizes[entry],
+        entryDirectories.get(entry));
+  }
+
+  private String path(int entry) {
+    List<String> segments = new ArrayList<>();
+    for (int current = entry; current >= 0; current = entryParents[current]) {
+      segments.add(names[entryNames[current]]);
+    }
+    StringBuilder path = new StringBuilder(rootPath);
+    for (int i = segments.size() - 1; i >= 0; i--) {
+      // Wurzeln wie "/" oder "C:\" enden bereits mit dem Trennzeichen
+      if (path.length() > 0 && path.charAt(path.length() - 1) != separator.charAt(0)) {
+        path.append(separator);
+      }
+      path.append(segments.get(i));
+    }
+    return path.toString();
+  }
+
+  /** Sortiert Nummern stabil absteigend nach Größe (Mergesort ohne Boxing). */
+  private static void sortBySizeDescending(int[] order, long[] sizes) {
+    int[] buffer = new int[order.length];
+    for (int width = 1; width < order.length; width *= 2) {
+      for (int start = 0; start < order.length - width; start += 2 * width) {
+        int middle = start + width;
+        int end = Math.min(start + 2 * width, order.length);
+        int i = start;
+        int j = middle;
+        int k = start;
+        while (i < middle && j < end) {
+          buffer[k++] = sizes[order[j]] > sizes[order[i]] ? order[j++] : order[i++];
+        }
+        while (i < middle) {
+          buffer[k++] = order[i++];
+        }
+        while (j < end) {
+          buffer[k++] = order[j++];
+        }
+        System.arraycopy(buffer, start, order, start, end - start);
+      }
+    }
+  }
+
+  /**
+   * Gibt den Pfad der Wurzel zurück.
+   *
+   * @return Pfad
+   */
+  public String getRootPath() {
+    return rootPath;
+  }
+
+  /**
+   * Gibt die Größe der Wurzel beim Aufbau zurück.
+   *
+   * @return Größe in Bytes
+   */
+  public long getRootSize() {
+    return rootSize;
+  }
+
+  /**
+   * Gibt die Anzahl der Einträge zurück.
+   *
+   * @return Anzahl der Einträge ohne die Wurzel
+   */
+  public int getEntryCount() {
+    return entryNames.length;
+  }
+
+  /**
+   * Gibt die Anzahl unterschiedlicher Namen zurück.
+   *
+   * @return Anzahl der Namen
+   */
+  public int getNameCount() {
+    return names.length;
+  }
+
+  /**
+   * Schätzt den Heap-Verbrauch des Index.
+   *
+   * @return geschätzter Speicherverbrauch in Bytes
+   */
+  public long estimateMemoryBytes() {
+    long bytes = 20L * entryNames.length + entryNames.length / 8 + 4L * names.length;
+    for (String name : names) {
+      bytes += 40 + name.length();
+    }
+    for (int[] posting : trigrams.values()) {
+      bytes += 64 + 4L * posting.length;
+    }
+    return bytes;
+  }
+
+  /**
+   * Seite einer Suche.
+   *
+   * @param total   Anzahl aller Treffer
+   * @param entries Treffer der Seite, absteigend nach Größe
+   */
+  public record Result(long total, List<Entry> entries) {
+  }
+
+  /**
+   * Treffer einer Suche.
+   *
+   * @param path      Pfad
+   * @param name      Name
+   * @param size      Größe in Bytes, bei Verzeichnissen die des gesamten Teilbaums
+   * @param directory true bei Verzeichnissen (auch Archiven)
+   */
+  public record Entry(String path, String name, long size, boolean directory) {
+  }
+
+  @FunctionalInterface
+  private interface NamePredicate {
+    boolean test(int name);
+  }
+
+  /** Wachsende Liste primitiver int-Werte. */
+  private static final class IntList {
+    private int[] values = new int[4];
+    private int size;
+
+    void add(int value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = value;
+    }
+
+    int[] toArray() {
+      return Arrays.copyOf(values, size);
+    }
+  }
+
+  /** Sammelt die Einträge in Baumreihenfolge. */
+  private static final class Builder {
+    private final Map<String, Integer> nameIds = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private final BitSet directories = new BitSet();
+    private int[] nameIdsByEntry = new int[64];
+    private int[] parents = new int[64];
+    private long[] sizes = new long[64];
+    private int count;
+
+    private void collect(FileNode directory, int parent) {
+      for (FileNode child : directory.getChildren()) {
+        if (child instanceof AggregateNode) {
+          continue;
+        }
+        int entry = add(child, parent);
+        if (child.isDirectory()) {
+          collect(child, entry);
+        }
+      }
+    }
+
+    private int add(FileNode node, int parent) {
+      if (count == parents.length) {
+        nameIdsByEntry = Arrays.copyOf(nameIdsByEntry, count * 2);
+        parents = Arrays.copyOf(parents, count * 2);
+        sizes = Arrays.copyOf(sizes, count * 2);
+      }
+      String name = node.getName();
+      Integer id = nameIds.get(name);
+      if (id == null) {
+        id = names.size();
+        nameIds.put(name, id);
+        names.add(name);
+      }
+      nameIdsByEntry[count] = id;
+      parents[count] = parent;
+      sizes[count] = node.getSize();
+      if (node.isDirectory()) {
+        directories.set(count);
+      }
+      return count++;
+    }
+  }
+}
@@ -0,0 +1,21 @@
+package com.voba.model;
+
+/**
+ * Verfügbare Implementierungen zum Einlesen des Dateisystems.
+ */
+public enum ScanEngine {
+
+    /**
+     * Ursprüngliche Implementierung auf Basis von {@link java.io.File}. Liest jedes Verzeichnis
+     * vollständig in ein Array ein und fragt pro Eintrag mehrere Attribute einzeln ab.
+     */
+    FILE_IO,
+
+    /**
+     * Implementierung auf Basis von {@link java.nio.file.DirectoryStream}. Verzeichnisse werden als
+     * Stream gelesen und pro Eintrag wird genau einmal
+     * {@link java.nio.file.Files#readAttributes(java.nio.file.Path, Class, java.nio.file.LinkOption...)}
+     * ohne Auflösen von Symlinks aufgerufen.
+     */
+    NIO
+}
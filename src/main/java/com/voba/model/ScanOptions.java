@@ -9,12 +9,23 @@ public class ScanOptions {
     private boolean includeHiddenFiles = false;
     private boolean useParallelProcessing = false;
     private int maxThreads = Runtime.getRuntime().availableProcessors();
+    private boolean useVirtualThreads = false;
+    private int maxInFlightOperations = 256;
+    private ScanEngine engine = ScanEngine.NIO;
+    private boolean compactTree = false;
+    private boolean incremental = false;
+    private boolean scanArchives = false;
+    private boolean diskUsage = false;
+    private long aggregateBelowSize = 0;
+    private int maxChildren = 0;
+    private int maxDepth = 0;
 
     /**
      * Standard-Konstruktor mit sicheren Standardwerten.
      * - Versteckte Dateien werden nicht gescannt (sicherer Standard)
      * - Keine Parallelverarbeitung (einfacher, deterministischer)
      * - Max. Threads = Anzahl der verfügbaren Prozessoren
+     * - NIO-Engine (ein Attribut-Zugriff pro Eintrag)
      */
     public ScanOptions() {
     }
@@ -86,4 +97,276 @@ public class ScanOptions {
         this.maxThreads = maxThreads;
         return this;
     }
+
+    /**
+     * Gibt an, ob Verzeichnisse auf virtuellen Threads gelesen werden sollen.
+     *
+     * @return true wenn virtuelle Threads verwendet werden
+     */
+    public boolean isUseVirtualThreads() {
+        return useVirtualThreads;
+    }
+
+    /**
+     * Setzt, ob Verzeichnisse auf virtuellen Threads gelesen werden sollen. Gedacht für
+     * Netzwerk-Dateisysteme (NFS, SMB), bei denen jeder Zugriff vor allem Wartezeit ist: Statt
+     * durch {@link #getMaxThreads()} begrenzt zu sein, laufen bis zu
+     * {@link #getMaxInFlightOperations()} Dateisystem-Zugriffe gleichzeitig. Hat Vorrang vor der
+     * Fork/Join-Parallelverarbeitung, wirkt aber nicht bei kompakten Bäumen und inkrementellen
+     * Scans.
+     *
+     * @param useVirtualThreads true um virtuelle Threads zu verwenden
+     * @return diese ScanOptions-Instanz für Method-Chaining
+     */
+    public ScanOptions setUseVirtualThreads(boolean useVirtualThreads) {
+        this.useVirtualThreads = useVirtualThreads;
+        return this;
+    }
+
+    /**
+     * Gibt zurück, wie viele Dateisystem-Zugriffe mit virtuellen Threads gleichzeitig laufen dürfen.
+     *
+     * @return maximale Anzahl gleichzeitiger Zugriffe
+     */
+    public int getMaxInFlightOperations() {
+        return maxInFlightOperations;
+    }
+
+    /**
+     * Setzt, wie viele Dateisystem-Zugriffe (Verzeichnis listen, Attribute lesen) mit virtuellen
+     * Threads gleichzeitig laufen dürfen. Schützt den Server des Netzwerk-Dateisystems vor zu vielen
+     * parallelen Anfragen.
+     *
+     * @param maxInFlightOperations maximale Anzahl gleichzeitiger Zugriffe (min. 1)
+     * @return diese ScanOptions-Instanz für Method-Chaining
+     * @throws IllegalArgumentException wenn maxInFlightOperations < 1
+     */
+    public ScanOptions setMaxInFlightOperations(int maxInFlightOperations) {
+        if (maxInFlightOperations < 1) {
+            throw new IllegalArgumentException("maxInFlightOperations must be at least 1");
+        }
+        this.maxInFlightOperations = maxInFlightOperations;
+        return this;
+    }
+
+    /**
+     * Gibt die Engine zurück, mit der das Dateisystem eingelesen wird.
+     *
+     * @return verwendete Scan-Engine
+     */
+    public ScanEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Setzt die Engine, mit der das Dateisystem eingelesen wird.
+     * Die NIO-Engine benötigt deutlich weniger Systemaufrufe pro Eintrag,
+     * die FILE_IO-Engine bleibt als Vergleichs- und Rückfalloption erhalten.
+     *
+     * @param engine zu verwendende Scan-Engine
+     * @return diese ScanOptions-Instanz für Method-Chaining
+     * @throws IllegalArgumentException wenn engine null ist
+     */
+    public ScanOptions setEngine(ScanEngine engine) {
+        if (engine == null) {
+            throw new IllegalArgumentException("engine must not be null");
+        }
+        this.engine = engine;
+        return this;
+    }
+
+    /**
+     * Gibt an, ob das Ergebnis als spaltenorientierter {@link CompactFileTree} gespeichert wird.
+     *
+     * @return true wenn der kompakte Baum verwendet wird
+     */
+    public boolean isCompactTree() {
+        return compactTree;
+    }
+
+    /**
+     * Setzt, ob das Ergebnis als spaltenorientierter {@link CompactFileTree} gespeichert wird.
+     * Spart bei sehr großen Bäumen einen Großteil des Heaps; die zurückgegebenen FileNodes sind
+     * dann schreibgeschützte Sichten. Der kompakte Scan läuft immer sequentiell.
+     *
+     * @param compactTree true um den kompakten Baum zu verwenden
+     * @return diese ScanOptions-Instanz für Method-Chaining
+     */
+    public ScanOptions setCompactTree(boolean compactTree) {
+        this.compactTree = compactTree;
+        return this;
+    }
+
+    /**
+     * Gibt an, ob ein Neuscan auf einem vorhandenen Ergebnis desselben Pfads aufbauen soll.
+     *
+     * @return true wenn inkrementell gescannt werden soll
+     */
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    /**
+     * Setzt, ob ein Neuscan auf einem vorhandenen Ergebnis desselben Pfads aufbauen soll.
+     * Verzeichnisse, deren Änderungszeitpunkt gleich geblieben ist, werden dann nicht erneut
+     * gelistet; nur ihre bekannten Einträge werden neu gelesen. Wirkt nur mit der NIO-Engine und
+     * einzelnen FileNode-Objekten.
+     *
+     * @param incremental true um inkrementell zu scannen
+     * @return diese ScanOptions-Instanz für Method-Chaining
+     */
+    public ScanOptions setIncremental(boolean incremental) {
+        this.incremental = incremental;
+        return this;
+    }
+
+    /**
+     * Gibt an, ob ZIP- und JAR-Archive wie Verzeichnisse durchsucht werden.
+     *
+     * @return true wenn Archive durchsucht werden sollen
+     */
+    public boolean isScanArchives() {
+        return scanArchives;
+    }
+
+    /**
+     * Setzt, ob ZIP- und JAR-Archive wie Verzeichnisse durchsucht werden. Gelesen wird nur das
+     * zentrale Verzeichnis des Archivs, nichts wird entpackt; die Einträge tragen ihre komprimierte
+     * und unkomprimierte Größe. Wirkt nur mit der NIO-Engine und einzelnen FileNode-Objekten.
+     *
+     * @param scanArchives true um Archive zu durchsuchen
+     * @return diese ScanOptions-Instanz für Method-Chaining
+     */
+    public ScanOptions setScanArchives(boolean scanArchives) {
+        this.scanArchives = scanArchives;
+        return this;
+    }
+
+    /**
+     * Gibt an, ob der belegte Speicherplatz statt der Dateigrößen abgerechnet wird.
+     *
+     * @return true wenn der belegte Speicherplatz abgerechnet wird
+     */
+    public boolean isDiskUsage() {
+        return diskUsage;
+    }
+
+    /**
+     * Setzt, ob der belegte Speicherplatz statt der Dateigrößen abgerechnet wird. Dateien zählen
+     * dann mit ihrer auf ganze Blöcke des Dateisystems aufgerundeten Größe, Hardlinks auf dieselbe
+     * Datei nur einmal; die Knoten sind {@link DiskUsageNode}s und tragen zusätzlich die scheinbare
+     * Größe. Archive werden dabei nicht durchsucht. Wirkt nur mit der NIO-Engine (auch auf
+     * virtuellen Threads) und einzelnen FileNode-Objekten.
+     *
+     * @param diskUsage true um den belegten Speicherplatz abzurechnen
+     * @return diese ScanOptions-Instanz für Method-Chaining
+     */
+    public ScanOptions setDiskUsage(boolean diskUsage) {
+        this.diskUsage = diskUsage;
+        return this;
+    }
+
+    /**
+     * Gibt die Größe zurück, unterhalb der Dateien zu einem Sammelknoten zusammengefasst werden.
+     *
+     * @return Größe in Bytes oder 0, wenn nicht zusammengefasst wird
+     */
+    public long getAggregateBelowSize() {
+        return aggregateBelowSize;
+    }
+
+    /**
+     * Setzt die Größe, unterhalb der Dateien nicht als eigene Knoten angelegt, sondern je
+     * Verzeichnis zu einem {@link AggregateNode} ("N other files") zusammengefasst werden. Die
+     * Treemap zeichnet solche Dateien ohnehin nicht; Heap und Antwortgröße sinken bei Verzeichnissen
+     * mit sehr vielen kleinen Dateien (z.B. node_modules) entsprechend.
+     *
+     * @param aggregateBelowSize Größe in Bytes (0 = nicht zusammenfassen)
+     * @return diese ScanOptions-Instanz für Method-Chaining
+     * @throws IllegalArgumentException wenn aggregateBelowSize negativ ist
+     */
+    public ScanOptions setAggregateBelowSize(long aggregateBelowSize) {
+        if (aggregateBelowSize < 0) {
+            throw new IllegalArgumentException("aggregateBelowSize must not be negative");
+        }
+        this.aggregateBelowSize = aggregateBelowSize;
+        return this;
+    }
+
+    /**
+     * Gibt zurück, wie viele Kinder je Verzeichnis höchstens als eigene Knoten erhalten bleiben.
+     *
+     * @return maximale Anzahl Kinder oder 0 für unbegrenzt
+     */
+    public int getMaxChildren() {
+        return maxChildren;
+    }
+
+    /**
+     * Setzt, wie viele Kinder je Verzeichnis höchstens als eigene Knoten erhalten bleiben. Die
+     * größten Kinder bleiben erhalten, alle weiteren werden zu einem {@link AggregateNode}
+     * zusammengefasst. Dateien, die sicher nicht zu den größten gehören, werden gar nicht erst
+     * angelegt; Unterverzeichnisse werden gescannt und erst danach zusammengefasst, da ihre Größe
+     * vorher nicht bekannt ist.
+     *
+     * @param maxChildren maximale Anzahl Kinder (0 = unbegrenzt)
+     * @return diese ScanOptions-Instanz für Method-Chaining
+     * @throws IllegalArgumentException wenn maxChildren negativ ist
+     */
+    public ScanOptions setMaxChildren(int maxChildren) {
+        if (maxChildren < 0) {
+            throw new IllegalArgumentException("maxChildren must not be negative");
+        }
+        this.maxChildren = maxChildren;
+        return this;
+    }
+
+    /**
+     * Gibt die Tiefe zurück, unterhalb der alle Einträge zusammengefasst werden.
+     *
+     * @return Tiefe oder 0 für unbegrenzt
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Setzt die Tiefe, unterhalb der alle Einträge zusammengefasst werden. Verzeichnisse auf dieser
+     * Tiefe (1 = direkt unter der Wurzel) bleiben erhalten, ihr gesamter Inhalt wird aber nur noch
+     * gezählt und als ein {@link AggregateNode} abgelegt.
+     *
+     * @param maxDepth Tiefe (0 = unbegrenzt)
+     * @return diese ScanOptions-Instanz für Method-Chaining
+     * @throws IllegalArgumentException wenn maxDepth negativ ist
+     */
+    public ScanOptions setMaxDepth(int maxDepth) {
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("maxDepth must not be negative");
+        }
+        this.maxDepth = maxDepth;
+        return this;
+    }
+
+    /**
+     * Gibt an, ob mindestens eine der Regeln zum Zusammenfassen aktiv ist.
+     *
+     * @return true wenn Einträge zusammengefasst werden
+     */
+    public boolean isAggregating() {
+        return aggregateBelowSize > 0 || maxChildren > 0 || maxDepth > 0;
+    }
+
+    /**
+     * Gibt eine Signatur der Optionen zurück, die das Scan-Ergebnis beeinflussen. Zwei Scans
+     * desselben Pfads mit gleicher Signatur liefern denselben Baum; Optionen, die nur die
+     * Ausführung betreffen (Parallelität, Threads, Engine, inkrementell), sind nicht enthalten.
+     *
+     * @return Signatur für Cache-Schlüssel
+     */
+    public String resultSignature() {
+        return "hidden=" + includeHiddenFiles + ";compact=" + compactTree
+            + ";archives=" + scanArchives + ";diskUsage=" + diskUsage
+            + ";aggregateBelow=" + aggregateBelowSize
+            + ";maxChildren=" + maxChildren + ";maxDepth=" + maxDepth;
+    }
 }
@@ -0,0 +1,60 @@
+package com.voba.model;
+
+import java.time.Instant;
+
+/** Beschreibung eines gespeicherten Snapshots für die REST-Schnittstelle. */
+public class SnapshotInfo {
+
+  private final String id;
+  private final String path;
+  private final boolean includeHidden;
+  private final int nodeCount;
+  private final long size;
+  private final Instant createdAt;
+  private final long fileBytes;
+
+  /**
+   * Erzeugt die Beschreibung aus dem Header einer Snapshot-Datei.
+   *
+   * @param id        ID des Snapshots (Dateiname ohne Endung)
+   * @param header    Header der Datei
+   * @param fileBytes Größe der Datei in Bytes
+   */
+  public SnapshotInfo(String id, MappedFileTree.Header header, long fileBytes) {
+    this.id = id;
+    this.path = header.rootPath().toString();
+    this.includeHidden = header.includeHidden();
+    this.nodeCount = header.nodeCount();
+    this.size = header.totalSize();
+    this.createdAt = Instant.ofEpochMilli(header.createdAt());
+    this.fileBytes = fileBytes;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public String getPath() {
+    return path;
+  }
+
+  public boolean isIncludeHidden() {
+    return includeHidden;
+  }
+
+  public int getNodeCount() {
+    return nodeCount;
+  }
+
+  public long getSize() {
+    return size;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  public long getFileBytes() {
+    return fileBytes;
+  }
+}
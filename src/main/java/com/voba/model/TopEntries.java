@@ -0,0 +1,201 @@
+package com.voba.model;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Die größten Dateien und Verzeichnisse eines Teilbaums, jeweils höchstens {@code limit} Stück.
+ *
+ * <p>
+ * Beide Listen sind begrenzte Min-Heaps: Der kleinste gehaltene Eintrag liegt oben und wird
+ * verdrängt, sobald ein größerer angeboten wird. Ein Eintrag, der kleiner als dieser ist, wird ohne
+ * Allokation abgewiesen. Teilergebnisse (z.B. von Fork/Join-Subtasks) werden mit
+ * {@link #merge(TopEntries)} zusammengeführt und dabei geleert, damit abgeschlossene Subtasks keine
+ * Einträge mehr halten; das Ergebnis ist dasselbe wie bei einem einzigen Durchlauf. Instanzen sind
+ * nicht thread-sicher und gehören jeweils einer Task.
+ *
+ * <p>
+ * Die Wurzel selbst wird nicht als Verzeichnis angeboten; {@link #getSize()} ist ihre Größe.
+ */
+public final class TopEntries {
+
+  /** Reihenfolge im Heap: kleinster Eintrag zuerst, bei gleicher Größe der größte Pfad. */
+  private static final Comparator<Candidate> HEAP_ORDER = Comparator
+      .comparingLong(Candidate::size)
+      .thenComparing(Candidate::path, Comparator.reverseOrder());
+
+  private final Path root;
+  private final int limit;
+  private final PriorityQueue<Candidate> files = new PriorityQueue<>(HEAP_ORDER);
+  private final PriorityQueue<Candidate> directories = new PriorityQueue<>(HEAP_ORDER);
+  private long size;
+
+  /**
+   * Konstruktor.
+   *
+   * @param root  Wurzel des Teilbaums
+   * @param limit max. Anzahl der Einträge je Liste
+   * @throws IllegalArgumentException wenn limit kleiner als 1 ist
+   */
+  public TopEntries(Path root, int limit) {
+    if (limit < 1) {
+      throw new IllegalArgumentException("Limit must be positive: " + limit);
+    }
+    this.root = root;
+    this.limit = limit;
+  }
+
+  /**
+   * Ermittelt die größten Einträge eines bereits gescannten Baums. Sammelknoten werden übersprungen,
+   * Archive zählen wie auf dem Datenträger als Dateien.
+   *
+   * @param root  Wurzel
+   * @param limit max. Anzahl der Einträge je Liste
+   * @return größte Einträge unterhalb der Wurzel
+   * @throws IllegalArgumentException wenn limit kleiner als 1 ist
+   */
+  public static TopEntries of(FileNode root, int limit) {
+    TopEntries top = new TopEntries(root.getPathObject(), limit);
+    top.size = root.getSize();
+    top.collect(root);
+    return top;
+  }
+
+  private void collect(FileNode directory) {
+    for (FileNode child : directory.getChildren()) {
+      if (child instanceof AggregateNode) {
+        continue;
+      }
+      boolean file = !child.isDirectory() || child instanceof ArchiveNode;
+      PriorityQueue<Candidate> heap = file ? files : directories;
+      // Pfade kompakter Bäume werden erst erzeugt, wenn der Eintrag aufgenommen wird
+      if (accepts(heap, child.getSize())) {
+        add(heap, new Candidate(child.getPathObject(), child.getSize()));
+      }
+      if (!file) {
+        collect(child);
+      }
+    }
+  }
+
+  /**
+   * Bietet eine Datei an.
+   *
+   * @param path Pfad der Datei
+   * @param size Größe in Bytes
+   */
+  public void offerFile(Path path, long size) {
+    if (accepts(files, size)) {
+      add(files, new Candidate(path, size));
+    }
+  }
+
+  /**
+   * Bietet ein Verzeichnis mit der Größe seines gesamten Teilbaums an.
+   *
+   * @param path Pfad des Verzeichnisses
+   * @param size Größe in Bytes
+   */
+  public void offerDirectory(Path path, long size) {
+    if (accepts(directories, size)) {
+      add(directories, new Candidate(path, size));
+    }
+  }
+
+  /**
+   * Übernimmt die Einträge eines Teilergebnisses und leert dessen Listen. Wurzel und Größe des
+   * Teilergebnisses werden nicht übernommen.
+   *
+   * @param other Teilergebnis
+   */
+  public void merge(TopEntries other) {
+    drainInto(other.files, files);
+    drainInto(other.directories, directories);
+  }
+
+  private void drainInto(PriorityQueue<Candidate> source, PriorityQueue<Candidate> target) {
+    // Kleinste zuerst: ist der Ziel-Heap voll, werden so erst die aussichtslosen Einträge verworfen
+    Candidate candidate;
+    while ((candidate = source.poll()) != null) {
+      if (accepts(target, candidate.size())) {
+        add(target, candidate);
+      }
+    }
+  }
+
+  private boolean accepts(PriorityQueue<Candidate> heap, long candidateSize) {
+    return heap.size() < limit || candidateSize >= heap.peek().size();
+  }
+
+  private void add(PriorityQueue<Candidate> heap, Candidate candidate) {
+    heap.add(candidate);
+    if (heap.size() > limit) {
+      heap.poll();
+    }
+  }
+
+  /**
+   * Gibt die größten Dateien zurück, absteigend nach Größe und bei gleicher Größe nach Pfad.
+   *
+   * @return größte Dateien
+   */
+  public List<Entry> getFiles() {
+    return sorted(files);
+  }
+
+  /**
+   * Gibt die größten Verzeichnisse (ohne die Wurzel) zurück, absteigend nach Größe und bei gleicher
+   * Größe nach Pfad.
+   *
+   * @return größte Verzeichnisse
+   */
+  public List<Entry> getDirectories() {
+    return sorted(directories);
+  }
+
+  private static List<Entry> sorted(PriorityQueue<Candidate> heap) {
+    List<Candidate> candidates = new ArrayList<>(heap);
+    candidates.sort(HEAP_ORDER.reversed());
+    List<Entry> entries = new ArrayList<>(candidates.size());
+    for (Candidate candidate : candidates) {
+      entries.add(new Entry(candidate.path().toString(), candidate.size()));
+    }
+    return entries;
+  }
+
+  public Path getRoot() {
+    return root;
+  }
+
+  public int getLimit() {
+    return limit;
+  }
+
+  /**
+   * Gibt die Größe des gesamten Teilbaums zurück.
+   *
+   * @return Größe in Bytes
+   */
+  public long getSize() {
+    return size;
+  }
+
+  public void setSize(long size) {
+    this.size = size;
+  }
+
+  /**
+   * Eintrag der Ergebnisliste.
+   *
+   * @param path Pfad
+   * @param size Größe in Bytes, bei Verzeichnissen die des gesamten Teilbaums
+   */
+  public record Entry(String path, long size) {
+  }
+
+  private record Candidate(Path path, long size) {
+  }
+}
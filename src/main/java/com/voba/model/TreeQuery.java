@@ -0,0 +1,157 @@
+package com.voba.model;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Filter über die Dateien eines gescannten Baums, z.B. "Dateien über 1 GB, älter als 180 Tage, mit
+ * Erweiterung iso oder vmdk".
+ *
+ * <p>
+ * Alle gesetzten Bedingungen müssen zutreffen; nicht gesetzte ({@code null} bzw. leere) gelten
+ * nicht. Die Bedingungen beziehen sich auf Dateien; Verzeichnisse bleiben im Ergebnis erhalten,
+ * soweit sie passende Dateien enthalten. Archive zählen wie auf dem Datenträger als Dateien. Die
+ * Tiefe zählt ab der Wurzel der Abfrage, deren direkte Kinder haben Tiefe 1. Dateien ohne bekannte
+ * Änderungszeit erfüllen keine Bedingung an das Alter.
+ *
+ * <p>
+ * Das Alter wird relativ zum Zeitpunkt der Auswertung angegeben ({@link #evaluator(long)}); als
+ * Schlüssel eines Caches ist eine Abfrage daher nur innerhalb dessen Gültigkeitsdauer genau.
+ *
+ * @param minSize       Mindestgröße in Bytes
+ * @param maxSize       Höchstgröße in Bytes
+ * @param extensions    zulässige Erweiterungen ohne Punkt (Groß-/Kleinschreibung egal)
+ * @param name          Glob-Muster für den Namen mit {@code *} und {@code ?}
+ * @param olderThanDays nur Dateien, die vor mindestens so vielen Tagen geändert wurden
+ * @param newerThanDays nur Dateien, die vor höchstens so vielen Tagen geändert wurden
+ * @param minDepth      Mindesttiefe
+ * @param maxDepth      Höchsttiefe
+ */
+public record TreeQuery(
+    Long minSize,
+    Long maxSize,
+    Set<String> extensions,
+    String name,
+    Integer olderThanDays,
+    Integer newerThanDays,
+    Integer minDepth,
+    Integer maxDepth) {
+
+  /**
+   * Konstruktor mit Prüfung der Bedingungen.
+   *
+   * @throws IllegalArgumentException wenn eine Bedingung negativ ist oder eine Untergrenze über
+   *                                  der Obergrenze liegt
+   */
+  public TreeQuery {
+    requireRange("size", minSize, maxSize);
+    requireRange("depth", minDepth, maxDepth);
+    if (olderThanDays != null && olderThanDays < 0 || newerThanDays != null && newerThanDays < 0) {
+      throw new IllegalArgumentException(
+          "Days must not be negative: " + olderThanDays + ", " + newerThanDays);
+    }
+    Set<String> normalized = new HashSet<>();
+    if (extensions != null) {
+      for (String extension : extensions) {
+        String trimmed = extension.trim();
+        if (trimmed.startsWith(".")) {
+          trimmed = trimmed.substring(1);
+        }
+        if (!trimmed.isEmpty()) {
+          normalized.add(trimmed.toLowerCase(Locale.ROOT));
+        }
+      }
+    }
+    extensions = Set.copyOf(normalized);
+    name = name == null || name.isBlank() ? null : name.trim();
+  }
+
+  private static void requireRange(String label, Number min, Number max) {
+    if (min != null && min.longValue() < 0 || max != null && max.longValue() < 0) {
+      throw new IllegalArgumentException(
+          "Minimum and maximum " + label + " must not be negative: " + min + ", " + max);
+    }
+    if (min != null && max != null && min.longValue() > max.longValue()) {
+      throw new IllegalArgumentException(
+          "Minimum " + label + " must not exceed maximum " + label + ": " + min + " > " + max);
+    }
+  }
+
+  /**
+   * Bereitet die Abfrage für die Auswertung vor.
+   *
+   * @param nowMillis Zeitpunkt, auf den sich das Alter bezieht, in Millisekunden seit der Epoche
+   * @return Auswertung der Abfrage, thread-sicher
+   */
+  public Evaluator evaluator(long nowMillis) {
+    return new Evaluator(this, nowMillis);
+  }
+
+  /** Vorbereitete Abfrage mit kompiliertem Namensmuster und festen Zeitgrenzen. */
+  public static final class Evaluator {
+
+    private final TreeQuery query;
+    private final Pattern name;
+    private final long modifiedBefore;
+    private final long modifiedAfter;
+
+    private Evaluator(TreeQuery query, long nowMillis) {
+      this.query = query;
+      this.name = query.name != null ? NameIndex.globPattern(query.name) : null;
+      this.modifiedBefore = query.olderThanDays != null
+          ? nowMillis - TimeUnit.DAYS.toMillis(query.olderThanDays)
+          : Long.MAX_VALUE;
+      this.modifiedAfter = query.newerThanDays != null
+          ? nowMillis - TimeUnit.DAYS.toMillis(query.newerThanDays)
+          : Long.MIN_VALUE;
+    }
+
+    /**
+     * Prüft, ob ein Verzeichnis auf dieser Tiefe noch passende Dateien enthalten kann.
+     *
+     * @param depth Tiefe des Verzeichnisses
+     * @return false, wenn seine Dateien tiefer als die Höchsttiefe liegen
+     */
+    public boolean descends(int depth) {
+      return query.maxDepth == null || depth < query.maxDepth;
+    }
+
+    /**
+     * Prüft, ob eine Datei alle Bedingungen erfüllt.
+     *
+     * @param file  Datei oder Archiv
+     * @param depth Tiefe der Datei
+     * @return true, wenn die Datei ins Ergebnis gehört
+     */
+    public boolean matches(FileNode file, int depth) {
+      if (query.minDepth != null && depth < query.minDepth
+          || query.maxDepth != null && depth > query.maxDepth) {
+        return false;
+      }
+      long size = file.getSize();
+      if (query.minSize != null && size < query.minSize
+          || query.maxSize != null && size > query.maxSize) {
+        return false;
+      }
+      if (!query.extensions.isEmpty()) {
+        // Archive sind im Baum Verzeichnisse und haben daher keine Erweiterung
+        String extension = file.isDirectory()
+            ? FileNode.extractExtension(file.getName())
+            : file.getExtension();
+        if (extension == null || !query.extensions.contains(extension)) {
+          return false;
+        }
+      }
+      if (query.olderThanDays != null || query.newerThanDays != null) {
+        long lastModified = file.getLastModified();
+        if (lastModified <= 0 || lastModified > modifiedBefore || lastModified < modifiedAfter) {
+          return false;
+        }
+      }
+      return name == null || name.matcher(file.getName()).matches();
+    }
+  }
+}
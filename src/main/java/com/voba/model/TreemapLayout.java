@@ -0,0 +1,312 @@
+package com.voba.model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Squarified-Treemap-Layout eines {@link FileNode}-Teilbaums für eine feste Zeichenfläche.
+ *
+ * <p>
+ * Die Kinder eines Verzeichnisses werden nach dem Squarified-Verfahren (Bruls, Huizing, van Wijk)
+ * zeilenweise entlang der kürzeren Seite des freien Bereichs angeordnet, sodass die Rechtecke
+ * möglichst quadratisch werden. Die Kinder müssen absteigend nach Größe sortiert sein, wie es
+ * {@link FileNode#sortChildren()} herstellt; sie werden nicht erneut sortiert. Kinder, deren Fläche
+ * kleiner als {@code minSize * minSize} Pixel ist, werden nicht einzeln ausgegeben, sondern bleiben
+ * Teil der Fläche ihres Verzeichnisses; in Rechtecke, deren Breite oder Höhe kleiner als
+ * {@code minSize} ist, wird nicht weiter abgestiegen. Ein Verzeichnis mit genau einem Kind gibt
+ * seine Fläche unverändert an das Kind weiter. Der Aufwand hängt damit von der Zeichenfläche ab,
+ * nicht von der Größe des Baums.
+ *
+ * <p>
+ * Die JSON-Darstellung ist spaltenorientiert; Rechteck {@code i} steht an Position {@code i} jeder
+ * Liste, Eltern stehen vor ihren Kindern:
+ *
+ * <ul>
+ * <li>{@code p}, {@code sep}: Pfad der Wurzel und Pfad-Trennzeichen; die Pfade der übrigen
+ * Rechtecke ergeben sich wie bei {@link ElidedTree} aus Eltern, Trennzeichen und Name
+ * <li>{@code w}, {@code h}, {@code min}: Zeichenfläche und Mindestgröße in Pixeln
+ * <li>{@code r}: je Rechteck x, y, Breite und Höhe in Pixeln, auf eine Nachkommastelle gerundet
+ * <li>{@code a}: Index des Eltern-Rechtecks, {@code -1} für die Wurzel
+ * <li>{@code n}, {@code s}: Name und Größe in Bytes
+ * <li>{@code k}: Anzahl der Kinder bei Verzeichnissen, {@code -1} bei Dateien
+ * </ul>
+ *
+ * <p>
+ * Namen, Größen und Anzahl der Kinder werden bei der Berechnung übernommen; das Layout hält keine
+ * Verweise auf den Baum und bleibt in sich stimmig, wenn dieser sich später ändert.
+ */
+@JsonSerialize(using = TreemapLayout.Serializer.class)
+public final class TreemapLayout {
+
+  private final String path;
+  private final String separator;
+  private final int width;
+  private final int height;
+  private final int minSize;
+
+  private int count;
+  private float[] rectangles = new float[64];
+  private int[] parents = new int[16];
+  private long[] sizes = new long[16];
+  private int[] childCounts = new int[16];
+  private final List<String> names = new ArrayList<>();
+
+  private TreemapLayout(FileNode root, int width, int height, int minSize) {
+    this.path = root.getPath();
+    this.separator = root.getPathObject().getFileSystem().getSeparator();
+    this.width = width;
+    this.height = height;
+    this.minSize = minSize;
+  }
+
+  /**
+   * Berechnet das Layout eines Teilbaums.
+   *
+   * @param root    Wurzel des Layouts
+   * @param width   Breite der Zeichenfläche in Pixeln
+   * @param height  Höhe der Zeichenfläche in Pixeln
+   * @param minSize Mindestgröße eines Rechtecks in Pixeln
+   * @return Layout
+   * @throws IllegalArgumentException wenn ein Parameter kleiner als 1 ist
+   */
+  public static TreemapLayout compute(FileNode root, int width, int height, int minSize) {
+    if (width < 1 || height < 1) {
+      throw new IllegalArgumentException(
+          "Width and height must be positive: " + width + "x" + height);
+    }
+    if (minSize < 1) {
+      throw new IllegalArgumentException("Minimum size must be positive: " + minSize);
+    }
+    TreemapLayout layout = new TreemapLayout(root, width, height, minSize);
+    layout.place(root, -1, 0, 0, width, height);
+    return layout;
+  }
+
+  /** Gibt das Rechteck eines Knotens aus und ordnet dessen Kinder darin an. */
+  private void place(FileNode node, int parent, double x, double y, double w, double h) {
+    int index = add(node, parent, x, y, w, h);
+    if (!node.isDirectory() || w < minSize || h < minSize || node.getSize() <= 0) {
+      return;
+    }
+
+    List<FileNode> children = node.getChildren();
+    if (children.size() == 1) {
+      place(children.get(0), index, x, y, w, h);
+      return;
+    }
+    squarify(children, index, x, y, w, h, w * h / node.getSize());
+  }
+
+  /**
+   * Ordnet die sichtbaren Kinder an. Die Fläche der nicht ausgegebenen Kinder wird als ein
+   * gemeinsamer letzter Eintrag mit angeordnet, damit die Proportionen erhalten bleiben.
+   */
+  private void squarify(
+      List<FileNode> children, int parent, double x, double y, double w, double h, double scale) {
+    double minArea = (double) minSize * minSize;
+    int visible = 0;
+    double visibleArea = 0;
+    while (visible < children.size() && children.get(visible).getSize() * scale >= minArea) {
+      visibleArea += children.get(visible).getSize() * scale;
+      visible++;
+    }
+    if (visible == 0) {
+      return;
+    }
+    // Übersteigen die Kinder die Größe des Verzeichnisses (z.B. kurz während einer Änderung im
+    // Watch-Modus), werden sie gestaucht; bei Archiven bleibt dagegen ein Rest
+    double available = w * h;
+    double fit = visibleArea > available ? available / visibleArea : 1;
+    double[] areas = new double[visible + 1];
+    for (int i = 0; i < visible; i++) {
+      areas[i] = children.get(i).getSize() * scale * fit;
+    }
+    areas[visible] = Math.max(0, available - visibleArea * fit);
+    int itemCount = areas[visible] > 0 ? visible + 1 : visible;
+
+    int start = 0;
+    while (start < itemCount) {
+      double side = Math.min(w, h);
+      int end = start + 1;
+      double rowArea = areas[start];
+      double rowMax = areas[start];
+      double rowMin = areas[start];
+      double worst = worstRatio(rowMax, rowMin, rowArea, side);
+      while (end < itemCount) {
+        double candidateArea = rowArea + areas[end];
+        double candidateMax = Math.max(rowMax, areas[end]);
+        double candidateMin = Math.min(rowMin, areas[end]);
+        double candidate = worstRatio(candidateMax, candidateMin, candidateArea, side);
+        if (candidate > worst) {
+          break;
+        }
+        rowArea = candidateArea;
+        rowMax = candidateMax;
+        rowMin = candidateMin;
+        worst = candidate;
+        end++;
+      }
+
+      // Zeile entlang der kürzeren Seite legen, der Rest bleibt für die nächste Zeile
+      double thickness = side > 0 ? rowArea / side : 0;
+      double offset = 0;
+      for (int i = start; i < end; i++) {
+        double length = thickness > 0 ? areas[i] / thickness : 0;
+        if (i < visible) {
+          if (w >= h) {
+            place(children.get(i), parent, x, y + offset, thickness, length);
+          } else {
+            place(children.get(i), parent, x + offset, y, length, thickness);
+          }
+        }
+        offset += length;
+      }
+      if (w >= h) {
+        x += thickness;
+        w -= thickness;
+      } else {
+        y += thickness;
+        h -= thickness;
+      }
+      start = end;
+    }
+  }
+
+  /** Schlechtestes Seitenverhältnis einer Zeile mit dem größten und kleinsten Element. */
+  private static double worstRatio(double largest, double smallest, double rowArea, double side) {
+    double sideSquared = side * side;
+    double rowSquared = rowArea * rowArea;
+    return Math.max(
+        sideSquared * largest / rowSquared,
+        rowSquared / (sideSquared * smallest));
+  }
+
+  private int add(FileNode node, int parent, double x, double y, double w, double h) {
+    if (count == parents.length) {
+      parents = Arrays.copyOf(parents, count * 2);
+      sizes = Arrays.copyOf(sizes, count * 2);
+      childCounts = Arrays.copyOf(childCounts, count * 2);
+      rectangles = Arrays.copyOf(rectangles, count * 8);
+    }
+    int offset = count * 4;
+    rectangles[offset] = round(x);
+    rectangles[offset + 1] = round(y);
+    rectangles[offset + 2] = round(w);
+    rectangles[offset + 3] = round(h);
+    parents[count] = parent;
+    sizes[count] = node.getSize();
+    childCounts[count] = node.isDirectory() ? node.getChildren().size() : -1;
+    names.add(node.getName());
+    return count++;
+  }
+
+  private static float round(double value) {
+    return Math.round(value * 10) / 10f;
+  }
+
+  /**
+   * Gibt die Anzahl der Rechtecke zurück.
+   *
+   * @return Anzahl der Rechtecke, mindestens 1 (die Wurzel)
+   */
+  public int size() {
+    return count;
+  }
+
+  /**
+   * Gibt den Namen des Knotens eines Rechtecks zurück.
+   *
+   * @param index Index des Rechtecks
+   * @return Name
+   */
+  public String name(int index) {
+    return names.get(index);
+  }
+
+  /**
+   * Gibt die Größe des Knotens eines Rechtecks zurück.
+   *
+   * @param index Index des Rechtecks
+   * @return Größe in Bytes
+   */
+  public long size(int index) {
+    return sizes[index];
+  }
+
+  /**
+   * Gibt ein Rechteck zurück.
+   *
+   * @param index Index des Rechtecks
+   * @return x, y, Breite und Höhe in Pixeln
+   */
+  public float[] rectangle(int index) {
+    return Arrays.copyOfRange(rectangles, index * 4, index * 4 + 4);
+  }
+
+  /**
+   * Gibt den Index des Eltern-Rechtecks zurück.
+   *
+   * @param index Index des Rechtecks
+   * @return Index der Eltern oder -1 für die Wurzel
+   */
+  public int parent(int index) {
+    return parents[index];
+  }
+
+  /** Schreibt das Layout spaltenweise. */
+  static final class Serializer extends StdSerializer<TreemapLayout> {
+
+    Serializer() {
+      super(TreemapLayout.class);
+    }
+
+    @Override
+    public void serialize(TreemapLayout layout, JsonGenerator generator,
+        SerializerProvider provider) throws IOException {
+      generator.writeStartObject();
+      generator.writeStringField("p", layout.path);
+      generator.writeStringField("sep", layout.separator);
+      generator.writeNumberField("w", layout.width);
+      generator.writeNumberField("h", layout.height);
+      generator.writeNumberField("min", layout.minSize);
+
+      generator.writeArrayFieldStart("r");
+      for (int i = 0; i < layout.count * 4; i++) {
+        generator.writeNumber(layout.rectangles[i]);
+      }
+      generator.writeEndArray();
+
+      generator.writeArrayFieldStart("a");
+      for (int i = 0; i < layout.count; i++) {
+        generator.writeNumber(layout.parents[i]);
+      }
+      generator.writeEndArray();
+
+      generator.writeArrayFieldStart("n");
+      for (String name : layout.names) {
+        generator.writeString(name);
+      }
+      generator.writeEndArray();
+
+      generator.writeArrayFieldStart("s");
+      for (int i = 0; i < layout.count; i++) {
+        generator.writeNumber(layout.sizes[i]);
+      }
+      generator.writeEndArray();
+
+      generator.writeArrayFieldStart("k");
+      for (int i = 0; i < layout.count; i++) {
+        generator.writeNumber(layout.childCounts[i]);
+      }
+      generator.writeEndArray();
+      generator.writeEndObject();
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package com.voba.service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+/**
+ * Führt die Unterverzeichnis-Tasks eines Scans aus und entscheidet dabei je Task, ob sie
+ * abgespalten oder direkt ausgeführt wird.
+ *
+ * <p>
+ * Statt einer festen Mindestanzahl von Einträgen pro Verzeichnis entscheidet die Länge der eigenen
+ * Warteschlange: Liegen dort höchstens {@link #SURPLUS_THRESHOLD} Tasks mehr, als andere Threads
+ * voraussichtlich stehlen ({@link ForkJoinTask#getSurplusQueuedTaskCount()}), wird die Task
+ * abgespalten, sonst im aktuellen Thread ausgeführt. So verteilen sich auch tiefe Bäume mit wenigen
+ * Einträgen pro Ebene auf alle Threads, während breite Verzeichnisse die Warteschlange nicht mit
+ * Tausenden kleiner Tasks füllen. Die letzte Task läuft immer im aktuellen Thread.
+ */
+final class AdaptiveSplitter {
+
+  /** Überschuss an wartenden Tasks, bis zu dem weiter abgespalten wird. */
+  static final int SURPLUS_THRESHOLD = 3;
+
+  private AdaptiveSplitter() {
+  }
+
+  /**
+   * Führt alle Tasks aus und übergibt ihre Ergebnisse in beliebiger Reihenfolge.
+   *
+   * @param tasks    auszuführende Tasks
+   * @param parallel false, um alle Tasks sequentiell auszuführen
+   * @param results  Empfänger der Ergebnisse; wird nur vom aufrufenden Thread aufgerufen
+   * @param <T>      Ergebnistyp
+   */
+  static <T> void invokeAll(
+      List<? extends ForkJoinTask<T>> tasks, boolean parallel, Consumer<? super T> results) {
+    boolean split = parallel && ForkJoinTask.inForkJoinPool();
+    Deque<ForkJoinTask<T>> forked = new ArrayDeque<>();
+    int last = tasks.size() - 1;
+    for (int i = 0; i <= last; i++) {
+      ForkJoinTask<T> task = tasks.get(i);
+      if (split && i < last && ForkJoinTask.getSurplusQueuedTaskCount() <= SURPLUS_THRESHOLD) {
+        task.fork();
+        forked.push(task);
+      } else {
+        results.accept(task.invoke());
+      }
+    }
+    // In umgekehrter Reihenfolge warten: noch nicht gestohlene Tasks liegen oben auf der eigenen
+    // Warteschlange und werden dann direkt im aktuellen Thread ausgeführt
+    while (!forked.isEmpty()) {
+      results.accept(forked.pop().join());
+    }
+  }
+}
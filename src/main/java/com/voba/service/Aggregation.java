@@ -0,0 +1,173 @@
+package com.voba.service;
+
+import java.nio.file.Path;
+import java.util.PriorityQueue;
+
+import com.voba.model.AggregateNode;
+import com.voba.model.ArchiveNode;
+import com.voba.model.FileNode;
+import com.voba.model.ScanOptions;
+
+/**
+ * Fasst die Einträge eines Verzeichnisses während des Scans nach den Regeln der
+ * {@link ScanOptions} zu einem {@link AggregateNode} zusammen. Eine Instanz je Verzeichnis, die nur
+ * von dem Thread verwendet wird, der das Verzeichnis scannt.
+ *
+ * <p>
+ * Über Dateien wird vor dem Anlegen ihres Knotens entschieden ({@link #foldFile(long)}):
+ * Zusammengefasst werden Dateien unter {@link ScanOptions#getAggregateBelowSize()}, alle Dateien
+ * in Verzeichnissen auf {@link ScanOptions#getMaxDepth()} und Dateien, von denen bereits
+ * {@link ScanOptions#getMaxChildren()} größere im selben Verzeichnis gesehen wurden. Ergebnisse von
+ * Unterverzeichnissen übernimmt {@link #addSubdirectory(FileNode, FileNode)}; {@link #finish}
+ * kürzt danach auf die größten Kinder und hängt den Sammelknoten an.
+ */
+final class Aggregation {
+
+  private final Path directory;
+  private final ScanOptions options;
+  private final boolean foldAll;
+  private final PriorityQueue<Long> largestFiles;
+  private long files;
+  private long directories;
+  private long bytes;
+
+  /**
+   * Konstruktor für ein Verzeichnis.
+   *
+   * @param directory Verzeichnis
+   * @param options   Scan-Optionen
+   * @param depth     Tiefe des Verzeichnisses (0 = Wurzel)
+   */
+  Aggregation(Path directory, ScanOptions options, int depth) {
+    this.directory = directory;
+    this.options = options;
+    this.foldAll = options.getMaxDepth() > 0 && depth >= options.getMaxDepth();
+    this.largestFiles = options.getMaxChildren() > 0 && !foldAll ? new PriorityQueue<>() : null;
+  }
+
+  /**
+   * Entscheidet, ob eine Datei zusammengefasst wird. In diesem Fall wird sie nur gezählt und der
+   * Aufrufer legt keinen Knoten an.
+   *
+   * @param size Größe der Datei
+   * @return true wenn die Datei zusammengefasst wurde
+   */
+  boolean foldFile(long size) {
+    if (foldAll || size < options.getAggregateBelowSize() || !isAmongLargest(size)) {
+      files++;
+      bytes += size;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Prüft, ob eine Datei noch zu den größten Kindern gehören kann. Bei gleicher Größe entscheidet
+   * später der Name, solche Dateien werden daher behalten.
+   */
+  private boolean isAmongLargest(long size) {
+    if (largestFiles == null) {
+      return true;
+    }
+    if (largestFiles.size() < options.getMaxChildren()) {
+      largestFiles.add(size);
+      return true;
+    }
+    long smallest = largestFiles.peek();
+    if (size < smallest) {
+      return false;
+    }
+    if (size > smallest) {
+      largestFiles.poll();
+      largestFiles.add(size);
+    }
+    return true;
+  }
+
+  /**
+   * Übernimmt das Ergebnis eines Unterverzeichnisses: Auf {@link ScanOptions#getMaxDepth()} wird
+   * es zusammengefasst, sonst als Kind angehängt.
+   *
+   * @param node         Knoten dieses Verzeichnisses
+   * @param subdirectory gescanntes Unterverzeichnis
+   */
+  void addSubdirectory(FileNode node, FileNode subdirectory) {
+    if (foldAll) {
+      fold(subdirectory);
+    } else {
+      node.addChild(subdirectory);
+    }
+  }
+
+  /**
+   * Schließt das Verzeichnis ab, nachdem alle Einträge verarbeitet wurden: Kinder nach den größten
+   * {@link ScanOptions#getMaxChildren()} werden zusammengefasst und der Sammelknoten wird
+   * angehängt.
+   *
+   * @param node Knoten dieses Verzeichnisses
+   * @return angehängter Sammelknoten oder null, wenn nichts zusammengefasst wurde
+   */
+  AggregateNode finish(FileNode node) {
+    if (options.getMaxChildren() > 0) {
+      for (FileNode removed : node.retainLargestChildren(options.getMaxChildren())) {
+        fold(removed);
+      }
+    }
+    if (files == 0 && directories == 0) {
+      return null;
+    }
+    AggregateNode aggregate = new AggregateNode(directory, files, directories, bytes);
+    node.addChild(aggregate);
+    return aggregate;
+  }
+
+  /**
+   * Gibt an, ob Einträge direkt unter der Wurzel schon während des Scans gemeldet werden können
+   * ({@link ScanProgress#subtreeCompleted(FileNode)}). Mit {@link ScanOptions#getMaxChildren()}
+   * stehen sie erst fest, wenn die Wurzel abgeschlossen ist.
+   *
+   * @param options Scan-Optionen
+   * @return true wenn Teilbäume sofort gemeldet werden
+   */
+  static boolean reportsSubtreesEarly(ScanOptions options) {
+    return options.getMaxChildren() == 0;
+  }
+
+  /**
+   * Meldet nach {@link #finish(FileNode)} der Wurzel die Teilbäume, die noch nicht gemeldet
+   * wurden: den Sammelknoten oder, wenn Teilbäume erst am Ende feststehen, alle Kinder.
+   *
+   * @param root      Wurzel
+   * @param aggregate Sammelknoten der Wurzel oder null
+   * @param progress  Fortschritt
+   */
+  void reportRoot(FileNode root, AggregateNode aggregate, ScanProgress progress) {
+    if (!reportsSubtreesEarly(options)) {
+      for (FileNode child : root.getChildren()) {
+        progress.subtreeCompleted(child);
+      }
+    } else if (aggregate != null) {
+      progress.subtreeCompleted(aggregate);
+    }
+  }
+
+  private void fold(FileNode folded) {
+    bytes += folded.getSize();
+    count(folded);
+  }
+
+  private void count(FileNode folded) {
+    if (folded instanceof AggregateNode aggregate) {
+      files += aggregate.getFileCount();
+      directories += aggregate.getDirectoryCount();
+    } else if (!folded.isDirectory() || folded instanceof ArchiveNode) {
+      // Archive sind auf dem Datenträger Dateien
+      files++;
+    } else {
+      directories++;
+      for (FileNode child : folded.getChildren()) {
+        count(child);
+      }
+    }
+  }
+}
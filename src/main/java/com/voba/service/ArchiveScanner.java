@@ -0,0 +1,138 @@
+package com.voba.service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.ProviderNotFoundException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Locale;
+import java.util.Map;
+
+import com.voba.model.ArchiveNode;
+import com.voba.model.FileNode;
+import com.voba.model.ScanOptions;
+
+/**
+ * Liest den Inhalt von ZIP- und JAR-Archiven über das ZIP-Dateisystem des JDK.
+ *
+ * <p>
+ * Das ZIP-Dateisystem liest beim Öffnen nur das zentrale Verzeichnis am Ende des Archivs; Einträge
+ * werden nie entpackt. Komprimierte und unkomprimierte Größe jedes Eintrags stammen aus der
+ * "zip"-Attributsicht. Archive innerhalb von Archiven werden nicht geöffnet.
+ */
+final class ArchiveScanner {
+
+  private static final String ZIP_ATTRIBUTES = "zip:isDirectory,size,compressedSize,lastModifiedTime";
+
+  private ArchiveScanner() {
+  }
+
+  /**
+   * Prüft anhand der Endung, ob eine Datei ein unterstütztes Archiv ist.
+   *
+   * @param file zu prüfende Datei
+   * @return true für .zip- und .jar-Dateien
+   */
+  static boolean isArchive(Path file) {
+    Path fileName = file.getFileName();
+    if (fileName == null) {
+      return false;
+    }
+    String name = fileName.toString().toLowerCase(Locale.ROOT);
+    return name.endsWith(".zip") || name.endsWith(".jar");
+  }
+
+  /**
+   * Liest ein Archiv als Teilbaum.
+   *
+   * @param archive    Pfad des Archivs
+   * @param attributes bereits gelesene Attribute des Archivs
+   * @param options    Scan-Optionen (für versteckte Einträge)
+   * @param progress   Fortschritt (nur für Abbruch-Prüfungen verwendet)
+   * @return Knoten des Archivs oder null, wenn es kein gültiges Archiv ist
+   */
+  static ArchiveNode scan(
+      Path archive, BasicFileAttributes attributes, ScanOptions options, ScanProgress progress) {
+    ArchiveNode node = new ArchiveNode(archive, true, true);
+    try (FileSystem zip = FileSystems.newFileSystem(archive)) {
+      for (Path root : zip.getRootDirectories()) {
+        addEntries(root, root, archive, node, options, progress);
+      }
+    } catch (IOException | DirectoryIteratorException | ProviderNotFoundException
+        | UnsupportedOperationException exception) {
+      // Beschädigtes oder verschlüsseltes Archiv: als gewöhnliche Datei behandeln
+      return null;
+    }
+    node.setSize(attributes.size());
+    node.setLastModified(attributes.lastModifiedTime().toMillis());
+    return node;
+  }
+
+  private static void addEntries(Path root, Path directory, Path archive, ArchiveNode parent,
+      ScanOptions options, ScanProgress progress) throws IOException {
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+      for (Path entry : stream) {
+        progress.checkCancelled();
+        Path fileName = entry.getFileName();
+        if (fileName != null && fileName.toString().startsWith(".")
+            && !options.isIncludeHiddenFiles()) {
+          continue;
+        }
+
+        Map<String, Object> attributes = Files.readAttributes(entry, ZIP_ATTRIBUTES);
+        boolean isDirectory = Boolean.TRUE.equals(attributes.get("isDirectory"));
+        ArchiveNode child = new ArchiveNode(
+            archive.resolve(root.relativize(entry).toString()), isDirectory, false);
+        if (attributes.get("lastModifiedTime") instanceof FileTime lastModified) {
+          child.setLastModified(lastModified.toMillis());
+        }
+        if (isDirectory) {
+          addEntries(root, entry, archive, child, options, progress);
+        } else {
+          child.setSize(((Number) attributes.get("compressedSize")).longValue());
+          child.setUncompressedSize(((Number) attributes.get("size")).longValue());
+        }
+        parent.addChild(child);
+      }
+    }
+  }
+
+  /**
+   * Erzeugt den Knoten für eine Datei; Archive werden bei aktivierter Option als Teilbaum gelesen.
+   *
+   * @param file       Pfad der Datei
+   * @param attributes bereits gelesene Attribute der Datei
+   * @param options    Scan-Optionen
+   * @param progress   Fortschritt (nur für Abbruch-Prüfungen verwendet)
+   * @return Knoten der Datei bzw. des Archivs
+   */
+  static FileNode fileNode(
+      Path file, BasicFileAttributes attributes, ScanOptions options, ScanProgress progress) {
+    if (options.isScanArchives() && attributes.isRegularFile() && isArchive(file)) {
+      ArchiveNode archive = scan(file, attributes, options, progress);
+      if (archive != null) {
+        return archive;
+      }
+    }
+    FileNode fileNode = new FileNode(file, false);
+    fileNode.setSize(fileSize(attributes));
+    fileNode.setLastModified(attributes.lastModifiedTime().toMillis());
+    return fileNode;
+  }
+
+  /**
+   * Ermittelt die Größe, mit der eine Datei in den Baum eingeht; Gerätedateien, Sockets und
+   * Pipes zählen mit 0.
+   *
+   * @param attributes Attribute der Datei
+   * @return Größe in Bytes
+   */
+  static long fileSize(BasicFileAttributes attributes) {
+    return attributes.isOther() ? 0 : attributes.size();
+  }
+}
@@ -0,0 +1,110 @@
+package com.voba.service;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import com.voba.model.CompactFileTree;
+import com.voba.model.ScanOptions;
+
+/**
+ * Scannt ein Verzeichnis über {@link Files#walkFileTree(Path, java.nio.file.FileVisitor)} direkt in
+ * einen {@link CompactFileTree}, ohne {@link com.voba.model.FileNode}-Objekte zu erzeugen.
+ *
+ * <p>
+ * walkFileTree liest die Attribute jedes Eintrags genau einmal und folgt ohne explizite Option
+ * keinen Symlinks. Der Scan läuft sequentiell, da der Builder Knoten in Scan-Reihenfolge anhängt.
+ */
+final class CompactTreeScanner extends SimpleFileVisitor<Path> {
+  private final ScanOptions options;
+  private final ScanProgress progress;
+  private final CompactFileTree.Builder builder;
+  private final Deque<Integer> directories = new ArrayDeque<>();
+  private final Deque<long[]> directoryTotals = new ArrayDeque<>();
+
+  private CompactTreeScanner(Path root, ScanOptions options, ScanProgress progress) {
+    this.options = options;
+    this.progress = progress;
+    this.builder = CompactFileTree.builder(root);
+  }
+
+  /**
+   * Scannt ein Verzeichnis in einen kompakten Baum.
+   *
+   * @param root    Wurzelverzeichnis
+   * @param options  Scan-Optionen
+   * @param progress Fortschritt, der während des Scans aktualisiert wird
+   * @return aufgebauter, noch unsortierter Baum
+   * @throws IOException wenn das Wurzelverzeichnis nicht gelesen werden kann
+   */
+  static CompactFileTree scan(Path root, ScanOptions options, ScanProgress progress)
+      throws IOException {
+    CompactTreeScanner scanner = new CompactTreeScanner(root, options, progress);
+    Files.walkFileTree(root, scanner);
+    return scanner.builder.build();
+  }
+
+  @Override
+  public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) {
+    progress.checkCancelled();
+    if (directories.isEmpty()) {
+      directories.push(0);
+    } else if (shouldProcess(directory, attributes)) {
+      directories.push(builder.addDirectory(directories.peek(), fileName(directory)));
+    } else {
+      progress.entrySkipped();
+      return FileVisitResult.SKIP_SUBTREE;
+    }
+    directoryTotals.push(new long[2]);
+    return FileVisitResult.CONTINUE;
+  }
+
+  @Override
+  public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+    progress.checkCancelled();
+    if (shouldProcess(file, attributes)) {
+      long size = attributes.isOther() ? 0 : attributes.size();
+      builder.addFile(directories.peek(), fileName(file), size);
+      long[] totals = directoryTotals.peek();
+      totals[0]++;
+      totals[1] += size;
+    } else {
+      progress.entrySkipped();
+    }
+    return FileVisitResult.CONTINUE;
+  }
+
+  @Override
+  public FileVisitResult visitFileFailed(Path file, IOException exception) {
+    // Bei Fehler (z.B. Permission denied) Eintrag überspringen
+    progress.entryUnreadable();
+    return FileVisitResult.CONTINUE;
+  }
+
+  @Override
+  public FileVisitResult postVisitDirectory(Path directory, IOException exception) {
+    if (exception != null) {
+      progress.entryUnreadable();
+    }
+    directories.pop();
+    long[] totals = directoryTotals.pop();
+    progress.directoryCompleted(totals[0], totals[1]);
+    return FileVisitResult.CONTINUE;
+  }
+
+  private boolean shouldProcess(Path entry, BasicFileAttributes attributes) {
+    if (attributes.isSymbolicLink()) {
+      return false;
+    }
+    return options.isIncludeHiddenFiles() || !NioDirectoryScanTask.isHidden(entry, attributes);
+  }
+
+  private static String fileName(Path entry) {
+    return entry.getFileName().toString();
+  }
+}
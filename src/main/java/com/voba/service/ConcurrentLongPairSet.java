@@ -0,0 +1,163 @@
+package com.voba.service;
+
+/**
+ * Thread-sichere Menge von Paaren primitiver {@code long}-Werte, z.B. Geräte- und Inode-Nummer
+ * bereits gezählter Hardlinks während eines parallelen Scans.
+ *
+ * <p>
+ * Beide Werte eines Paars liegen ohne Boxing nebeneinander in {@code long}-Arrays mit offener
+ * Adressierung (lineares Sondieren, höchstens zu drei Vierteln gefüllt), also mit etwa 21 bis 43
+ * Bytes je Paar statt eines eigenen Objekts und eines Map-Eintrags bei
+ * {@code ConcurrentHashMap.newKeySet()}. Die Menge ist nach den oberen Bits des Hashs in Segmente
+ * mit eigener Sperre und Tabelle aufgeteilt; parallele Tasks warten nur aufeinander, wenn sie
+ * dasselbe Segment treffen. Entfernen wird nicht unterstützt.
+ */
+final class ConcurrentLongPairSet {
+
+  private static final int SEGMENT_BITS = 6;
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final Segment[] segments = new Segment[1 << SEGMENT_BITS];
+
+  /** Konstruktor für eine leere Menge. */
+  ConcurrentLongPairSet() {
+    for (int i = 0; i < segments.length; i++) {
+      segments[i] = new Segment();
+    }
+  }
+
+  /**
+   * Fügt ein Paar hinzu.
+   *
+   * @param first  erster Wert
+   * @param second zweiter Wert
+   * @return true, wenn das Paar noch nicht enthalten war
+   */
+  boolean add(long first, long second) {
+    long hash = hash(first, second);
+    return segment(hash).add(first, second, hash);
+  }
+
+  /**
+   * Prüft, ob ein Paar enthalten ist.
+   *
+   * @param first  erster Wert
+   * @param second zweiter Wert
+   * @return true, wenn das Paar enthalten ist
+   */
+  boolean contains(long first, long second) {
+    long hash = hash(first, second);
+    return segment(hash).contains(first, second, hash);
+  }
+
+  /**
+   * Gibt die Anzahl der Paare zurück. Bei gleichzeitigem Hinzufügen ist das Ergebnis nur eine
+   * Momentaufnahme.
+   *
+   * @return Anzahl der Paare
+   */
+  long size() {
+    long size = 0;
+    for (Segment segment : segments) {
+      size += segment.size();
+    }
+    return size;
+  }
+
+  private Segment segment(long hash) {
+    return segments[(int) (hash >>> (Long.SIZE - SEGMENT_BITS))];
+  }
+
+  private static long hash(long first, long second) {
+    return mix(second ^ mix(first));
+  }
+
+  /** Verteilt auch fortlaufende Werte (z.B. Inode-Nummern) gleichmäßig (Finalizer von Murmur3). */
+  private static long mix(long value) {
+    long hash = value;
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+  /**
+   * Segment mit eigener Tabelle, das Paar eines Platzes steht an den Indizes {@code 2 * slot} und
+   * {@code 2 * slot + 1}. Das Paar (0, 0) markiert freie Plätze und wird daher gesondert vermerkt.
+   */
+  private static final class Segment {
+
+    private long[] table = new long[INITIAL_CAPACITY * 2];
+    private int size;
+    private boolean containsZero;
+
+    synchronized boolean add(long first, long second, long hash) {
+      if (first == 0 && second == 0) {
+        if (containsZero) {
+          return false;
+        }
+        containsZero = true;
+        size++;
+        return true;
+      }
+      int mask = table.length / 2 - 1;
+      for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+        long currentFirst = table[2 * slot];
+        long currentSecond = table[2 * slot + 1];
+        if (currentFirst == first && currentSecond == second) {
+          return false;
+        }
+        if (currentFirst == 0 && currentSecond == 0) {
+          table[2 * slot] = first;
+          table[2 * slot + 1] = second;
+          size++;
+          if (size * 4L > table.length / 2 * 3L) {
+            resize();
+          }
+          return true;
+        }
+      }
+    }
+
+    synchronized boolean contains(long first, long second, long hash) {
+      if (first == 0 && second == 0) {
+        return containsZero;
+      }
+      int mask = table.length / 2 - 1;
+      for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+        long currentFirst = table[2 * slot];
+        long currentSecond = table[2 * slot + 1];
+        if (currentFirst == first && currentSecond == second) {
+          return true;
+        }
+        if (currentFirst == 0 && currentSecond == 0) {
+          return false;
+        }
+      }
+    }
+
+    synchronized int size() {
+      return size;
+    }
+
+    private void resize() {
+      long[] previous = table;
+      table = new long[previous.length * 2];
+      int mask = table.length / 2 - 1;
+      for (int i = 0; i < previous.length; i += 2) {
+        long first = previous[i];
+        long second = previous[i + 1];
+        if (first != 0 || second != 0) {
+          int slot = (int) hash(first, second) & mask;
+          while (table[2 * slot] != 0 || table[2 * slot + 1] != 0) {
+            slot = (slot + 1) & mask;
+          }
+          table[2 * slot] = first;
+          table[2 * slot + 1] = second;
+        }
+      }
+    }
+  }
+}
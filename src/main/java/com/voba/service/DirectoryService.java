@@ -1,15 +1,25 @@
 package com.voba.service;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.RecursiveTask;
 
+import com.voba.model.CompactFileTree;
+import com.voba.model.DirectoryStatistics;
 import com.voba.model.FileNode;
+import com.voba.model.ScanEngine;
 import com.voba.model.ScanOptions;
+import com.voba.model.TopEntries;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 /**
@@ -24,12 +34,17 @@ import org.springframework.stereotype.Service;
  *
  * <p>
  * Die Anzahl der verwendeten Threads ist konfigurierbar, um die Systemlast zu
- * begrenzen.
+ * begrenzen. Alle Scans laufen über den anwendungsweiten {@link ScanExecutor}, der die Anzahl
+ * gleichzeitiger Scans und ihre Threads begrenzt.
  */
 @Service
 public class DirectoryService {
 
-  private static final int MIN_PARALLEL_SIZE = 100; // Minimum files for parallel processing
+  private static final Logger logger = LoggerFactory.getLogger(DirectoryService.class);
+  @Autowired
+  private ScanExecutor scanExecutor;
+  @Autowired
+  private ScanMetrics scanMetrics;
 
   /**
    * Scannt ein Verzeichnis mit Standard-Optionen (sequentiell, ohne versteckte
@@ -52,7 +67,11 @@ public class DirectoryService {
    * <ul>
    * <li>Konfiguration, ob versteckte Dateien inkludiert werden sollen
    * <li>Aktivierung/Deaktivierung der Parallelverarbeitung
+   * <li>Lesen auf virtuellen Threads mit begrenzter Anzahl gleichzeitiger Zugriffe
    * <li>Begrenzung der Anzahl verwendeter Threads
+   * <li>Auswahl der Scan-Engine (NIO oder java.io.File)
+   * <li>Speicherung als kompakter, spaltenorientierter Baum
+   * <li>Durchsuchen von ZIP- und JAR-Archiven (nur zentrales Verzeichnis, ohne Entpacken)
    * </ul>
    *
    * @param rootPath Pfad zum Wurzelverzeichnis
@@ -61,28 +80,179 @@ public class DirectoryService {
    * @throws IllegalArgumentException wenn der Pfad ungültig ist
    */
   public FileNode scanDirectory(String rootPath, ScanOptions options) {
-    File rootFile = new File(rootPath);
-    if (!rootFile.exists() || !rootFile.isDirectory()) {
-      throw new IllegalArgumentException("Invalid directory path: " + rootPath);
+    return scanDirectory(rootPath, options, new ScanProgress());
+  }
+
+  /**
+   * Scannt ein Verzeichnis mit angegebenen Optionen und meldet dabei den Fortschritt.
+   *
+   * <p>
+   * Die Zähler des {@link ScanProgress} werden von allen Engines gepflegt; fertige Teilbäume und
+   * Zugriffsdauern melden nur die NIO-Engine und der Scan auf virtuellen Threads. Alle Engines
+   * beenden sich nach {@link ScanProgress#cancel()} mit einer
+   * {@link java.util.concurrent.CancellationException}.
+   *
+   * @param rootPath Pfad zum Wurzelverzeichnis
+   * @param options  Scan-Optionen (null = Standard-Optionen)
+   * @param progress Fortschritt, der während des Scans aktualisiert wird
+   * @return FileNode-Objekt mit der Verzeichnisstruktur
+   * @throws IllegalArgumentException wenn der Pfad ungültig ist
+   * @throws ScanRejectedException    wenn der {@link ScanExecutor} den Scan nicht annimmt
+   */
+  public FileNode scanDirectory(String rootPath, ScanOptions options, ScanProgress progress) {
+    validateDirectory(rootPath);
+    return scanDirectory(new File(rootPath).toPath(), options, progress);
+  }
+
+  /**
+   * Scannt ein Verzeichnis auf einem beliebigen {@link java.nio.file.FileSystem}, z.B. einem
+   * ZIP-Dateisystem oder einem Dateisystem im Speicher.
+   *
+   * <p>
+   * Alle Engines außer FILE_IO arbeiten nur mit {@link Path} und dem zugehörigen
+   * {@link java.nio.file.spi.FileSystemProvider}; FILE_IO unterstützt nur das Standard-Dateisystem.
+   *
+   * @param root     Wurzelverzeichnis
+   * @param options  Scan-Optionen (null = Standard-Optionen)
+   * @param progress Fortschritt, der während des Scans aktualisiert wird
+   * @return FileNode-Objekt mit der Verzeichnisstruktur
+   * @throws IllegalArgumentException wenn der Pfad kein Verzeichnis ist, die Engine das
+   *                                  Dateisystem nicht unterstützt, ein kompakter Baum
+   *                                  zusammengefasst werden soll oder der belegte Speicherplatz
+   *                                  mit FILE_IO oder als kompakter Baum abgerechnet werden soll
+   * @throws ScanRejectedException    wenn der {@link ScanExecutor} den Scan nicht annimmt
+   */
+  public FileNode scanDirectory(Path root, ScanOptions options, ScanProgress progress) {
+    if (!Files.isDirectory(root)) {
+      throw new IllegalArgumentException("Invalid directory path: " + root);
+    }
+    ScanOptions effectiveOptions = options != null ? options : new ScanOptions();
+    if (effectiveOptions.getEngine() == ScanEngine.FILE_IO
+        && root.getFileSystem() != FileSystems.getDefault()) {
+      throw new IllegalArgumentException(
+          "The FILE_IO engine only supports the default file system: " + root);
+    }
+    if (effectiveOptions.isCompactTree() && effectiveOptions.isAggregating()) {
+      throw new IllegalArgumentException("Compact trees do not support aggregation");
+    }
+    if (effectiveOptions.isDiskUsage()
+        && (effectiveOptions.isCompactTree() || effectiveOptions.getEngine() != ScanEngine.NIO)) {
+      throw new IllegalArgumentException(
+          "Disk usage accounting requires the NIO engine and an object tree (compact=false)");
+    }
+    return scanExecutor.execute(effectiveOptions, pool -> scanMetrics.record(
+        root, ScanMetrics.mode(effectiveOptions), progress,
+        () -> scan(root, effectiveOptions, progress, pool)));
+  }
+
+  private FileNode scan(Path root, ScanOptions options, ScanProgress progress, ForkJoinPool pool) {
+    if (options.isCompactTree()) {
+      return scanCompact(root, options, progress).root();
     }
 
+    if (options.isUseVirtualThreads()) {
+      FileNode result = VirtualThreadDirectoryScanner.scan(root, options, progress);
+      result.sortChildren();
+      return result;
+    }
+
+    RecursiveTask<FileNode> task = options.getEngine() == ScanEngine.NIO
+        ? new NioDirectoryScanTask(root, options, progress)
+        : new DirectoryScanTask(root.toFile(), options, progress);
+    return run(task, options, pool);
+  }
+
+  /**
+   * Scannt ein Verzeichnis erneut und nutzt dabei ein vorheriges Ergebnis.
+   *
+   * <p>
+   * Verzeichnisse, deren Änderungszeitpunkt sich seit dem vorherigen Scan nicht geändert hat, werden
+   * nicht gelistet; nur ihre bekannten Einträge werden erneut gelesen, damit geänderte Dateigrößen
+   * trotzdem erkannt werden. Wie viele Verzeichnisse so übernommen bzw. neu gelistet wurden, zeigt
+   * {@link ScanProgress#getReusedDirectories()} und {@link ScanProgress#getRelistedDirectories()}.
+   * Der vorherige Baum wird nicht verändert.
+   *
+   * <p>
+   * Ohne vorheriges Ergebnis, für kompakte Bäume, mit zusammengefassten Einträgen (die sich nicht
+   * erneut einzeln lesen lassen) und mit der FILE_IO-Engine entspricht der Aufruf
+   * {@link #scanDirectory(String, ScanOptions, ScanProgress)}.
+   *
+   * @param rootPath Pfad zum Wurzelverzeichnis
+   * @param options  Scan-Optionen (null = Standard-Optionen)
+   * @param previous vorheriges Ergebnis mit derselben Ergebnis-Signatur oder null
+   * @param progress Fortschritt, der während des Scans aktualisiert wird
+   * @return FileNode-Objekt mit der Verzeichnisstruktur
+   * @throws IllegalArgumentException wenn der Pfad ungültig ist
+   */
+  public FileNode scanIncremental(
+      String rootPath, ScanOptions options, FileNode previous, ScanProgress progress) {
     if (options == null) {
       options = new ScanOptions();
     }
+    if (previous == null
+        || options.isCompactTree()
+        || options.isAggregating()
+        || options.getEngine() != ScanEngine.NIO) {
+      return scanDirectory(rootPath, options, progress);
+    }
 
-    FileNode result;
+    validateDirectory(rootPath);
+    Path root = new File(rootPath).toPath();
+    ScanOptions effectiveOptions = options;
+    FileNode result = scanExecutor.execute(options, pool -> scanMetrics.record(
+        root, "incremental", progress, () -> run(
+            new NioDirectoryScanTask(root, effectiveOptions, progress, previous),
+            effectiveOptions, pool)));
+    logger.debug("Incremental scan of {}: {} directories reused, {} re-listed", rootPath,
+        progress.getReusedDirectories(), progress.getRelistedDirectories());
+    return result;
+  }
+
+  /**
+   * Ermittelt die größten Dateien und Verzeichnisse eines Verzeichnisses, ohne einen Baum im Speicher
+   * aufzubauen ({@link NioTopScanTask}). Gelesen wird immer über NIO; Kompakt-, Engine- und
+   * Zusammenfassungs-Optionen haben keine Wirkung, versteckte Dateien und Parallelverarbeitung
+   * werden beachtet.
+   *
+   * @param rootPath Pfad zum Wurzelverzeichnis
+   * @param options  Scan-Optionen (null = Standard-Optionen)
+   * @param limit    max. Anzahl der Einträge je Liste
+   * @param progress Fortschritt, der während des Scans aktualisiert wird
+   * @return größte Einträge unterhalb der Wurzel
+   * @throws IllegalArgumentException wenn der Pfad ungültig oder limit kleiner als 1 ist
+   * @throws ScanRejectedException    wenn der {@link ScanExecutor} den Scan nicht annimmt
+   */
+  public TopEntries scanTop(String rootPath, ScanOptions options, int limit, ScanProgress progress) {
+    validateDirectory(rootPath);
+    if (limit < 1) {
+      throw new IllegalArgumentException("Limit must be positive: " + limit);
+    }
+    Path root = new File(rootPath).toPath();
+    ScanOptions effectiveOptions = options != null ? options : new ScanOptions();
+    return scanExecutor.execute(effectiveOptions, pool -> scanMetrics.record(
+        root, "top", progress, () -> {
+          NioTopScanTask task = new NioTopScanTask(root, effectiveOptions, progress, limit);
+          return effectiveOptions.isUseParallelProcessing() ? pool.invoke(task) : task.invoke();
+        }));
+  }
 
+  /**
+   * Führt eine Scan-Task sequentiell oder im Pool des {@link ScanExecutor} aus und sortiert das
+   * Ergebnis.
+   *
+   * @param task    auszuführende Task
+   * @param options Scan-Optionen
+   * @param pool    vom {@link ScanExecutor} zugeteilter Pool
+   * @return sortierter Baum
+   */
+  private FileNode run(RecursiveTask<FileNode> task, ScanOptions options, ForkJoinPool pool) {
+    FileNode result;
     if (options.isUseParallelProcessing()) {
-      // Parallele Verarbeitung mit Thread-Limit
-      ForkJoinPool pool = new ForkJoinPool(options.getMaxThreads());
-      try {
-        result = pool.invoke(new DirectoryScanTask(rootFile, options));
-      } finally {
-        pool.shutdown();
-      }
+      // Parallele Verarbeitung im geteilten Pool; dessen Parallelität begrenzt der ScanExecutor
+      result = pool.invoke(task);
     } else {
       // Sequentielle Verarbeitung (einfacher, deterministischer, testbarer)
-      result = new DirectoryScanTask(rootFile, options).compute();
+      result = task.invoke();
     }
 
     result.sortChildren();
@@ -90,30 +260,73 @@ public class DirectoryService {
   }
 
   /**
-   * Rekursive Task-Klasse für das Scannen von Verzeichnissen.
+   * Prüft, ob ein Pfad auf ein existierendes Verzeichnis zeigt.
+   *
+   * @param rootPath zu prüfender Pfad
+   * @throws IllegalArgumentException wenn der Pfad ungültig ist
+   */
+  public void validateDirectory(String rootPath) {
+    File rootFile = new File(rootPath);
+    if (!rootFile.exists() || !rootFile.isDirectory()) {
+      throw new IllegalArgumentException("Invalid directory path: " + rootPath);
+    }
+  }
+
+  /**
+   * Scannt ein Verzeichnis direkt in einen spaltenorientierten {@link CompactFileTree}.
+   *
+   * @param rootPath Pfad zum Wurzelverzeichnis
+   * @param options  Scan-Optionen
+   * @param progress Fortschritt, der während des Scans aktualisiert wird
+   * @return sortierter kompakter Baum
+   * @throws IllegalArgumentException wenn das Verzeichnis nicht gelesen werden kann
+   */
+  public CompactFileTree scanCompact(Path rootPath, ScanOptions options, ScanProgress progress) {
+    try {
+      CompactFileTree tree = CompactTreeScanner.scan(rootPath, options, progress);
+      tree.sortChildren(0);
+      return tree;
+    } catch (IOException exception) {
+      throw new IllegalArgumentException("Invalid directory path: " + rootPath, exception);
+    }
+  }
+
+  /**
+   * Rekursive Task-Klasse für das Scannen von Verzeichnissen über {@link File}
+   * ({@link ScanEngine#FILE_IO}).
    *
    * <p>
    * Kann sowohl sequentiell als auch parallel (via Fork/Join-Framework)
-   * ausgeführt werden.
+   * ausgeführt werden; Unterverzeichnisse werden über den {@link AdaptiveSplitter} verteilt.
    * Respektiert die übergebenen ScanOptions.
    */
   private static class DirectoryScanTask extends RecursiveTask<FileNode> {
     private final File file;
     private final ScanOptions options;
+    private final ScanProgress progress;
+    private final int depth;
 
     /**
      * Konstruktor für eine Verzeichnis-Scan-Aufgabe.
      *
-     * @param file    Zu scannende Datei oder Verzeichnis
-     * @param options Scan-Optionen
+     * @param file     Zu scannende Datei oder Verzeichnis
+     * @param options  Scan-Optionen
+     * @param progress Fortschritt (Verzeichnis-Zähler und Abbruch-Prüfungen)
      */
-    public DirectoryScanTask(File file, ScanOptions options) {
+    public DirectoryScanTask(File file, ScanOptions options, ScanProgress progress) {
+      this(file, options, progress, 0);
+    }
+
+    private DirectoryScanTask(File file, ScanOptions options, ScanProgress progress, int depth) {
       this.file = file;
       this.options = options;
+      this.progress = progress;
+      this.depth = depth;
     }
 
     @Override
     protected FileNode compute() {
+      progress.checkCancelled();
       FileNode node = new FileNode(file.toPath(), file.isDirectory());
 
       if (file.isFile()) {
@@ -123,49 +336,44 @@ public class DirectoryService {
 
       if (file.isDirectory()) {
         File[] children = file.listFiles();
-        if (children != null && children.length > 0) {
-          // Entscheide ob parallel oder sequentiell verarbeitet werden soll
-          boolean shouldParallelize = options.isUseParallelProcessing() && children.length >= MIN_PARALLEL_SIZE;
-
-          if (shouldParallelize) {
-            // Parallele Verarbeitung für große Verzeichnisse
-            invokeAll(createSubtasks(children)).stream()
-                .map(ForkJoinTask::join)
-                .filter(childNode -> childNode != null)
-                .forEach(node::addChild);
-          } else {
-            // Sequentielle Verarbeitung für kleine Verzeichnisse oder wenn deaktiviert
-            for (File child : children) {
-              if (shouldProcess(child)) {
-                FileNode childNode = new DirectoryScanTask(child, options).compute();
-                if (childNode != null) {
-                  node.addChild(childNode);
-                }
+        if (children == null) {
+          progress.entryUnreadable();
+        } else {
+          // Dateien direkt verarbeiten, Unterverzeichnisse je nach Auslastung abspalten
+          List<DirectoryScanTask> subdirectories = new ArrayList<>();
+          Aggregation aggregation = new Aggregation(file.toPath(), options, depth);
+          long fileCount = 0;
+          long byteCount = 0;
+          for (File child : children) {
+            progress.checkCancelled();
+            if (!shouldProcess(child)) {
+              progress.entrySkipped();
+              continue;
+            }
+            if (child.isDirectory()) {
+              subdirectories.add(new DirectoryScanTask(child, options, progress, depth + 1));
+            } else {
+              long size = child.length();
+              fileCount++;
+              byteCount += size;
+              if (!aggregation.foldFile(size)) {
+                FileNode childNode = new FileNode(child.toPath(), false);
+                childNode.setSize(size);
+                node.addChild(childNode);
               }
             }
           }
+          progress.directoryCompleted(fileCount, byteCount);
+          AdaptiveSplitter.invokeAll(subdirectories, options.isUseParallelProcessing(),
+              subdirectory -> aggregation.addSubdirectory(node, subdirectory));
+          aggregation.finish(node);
+          node.setStatistics(DirectoryStatistics.compute(node, progress.getExtensions()));
         }
       }
 
       return node;
     }
 
-    /**
-     * Erstellt Subtasks für parallele Verarbeitung.
-     *
-     * @param children Array von zu verarbeitenden Dateien
-     * @return Liste von DirectoryScanTask für jede zu verarbeitende Datei
-     */
-    private java.util.List<DirectoryScanTask> createSubtasks(File[] children) {
-      java.util.List<DirectoryScanTask> tasks = new java.util.ArrayList<>();
-      for (File child : children) {
-        if (shouldProcess(child)) {
-          tasks.add(new DirectoryScanTask(child, options));
-        }
-      }
-      return tasks;
-    }
-
     /**
      * Prüft, ob eine Datei verarbeitet werden soll.
      *
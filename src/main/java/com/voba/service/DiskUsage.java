@@ -0,0 +1,116 @@
+package com.voba.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+
+import com.voba.model.DiskUsageNode;
+import com.voba.model.FileNode;
+import com.voba.model.ScanOptions;
+
+/**
+ * Abrechnung des belegten Speicherplatzes für einen Scan
+ * ({@link ScanOptions#setDiskUsage(boolean)}). Eine Instanz gehört zu genau einem Scan und wird von
+ * allen seinen Tasks geteilt.
+ *
+ * <p>
+ * Die Anzahl belegter Blöcke einer Datei ist in Java nicht lesbar ({@code st_blocks} fehlt auch in
+ * der "unix"-Attributsicht). Der belegte Platz wird daher aus der Dateigröße geschätzt, aufgerundet
+ * auf die Blockgröße des Dateisystems der Wurzel ({@link java.nio.file.FileStore#getBlockSize()}).
+ * Sparse-Dateien, komprimierende Dateisysteme und sehr kleine, in den Metadaten abgelegte Dateien
+ * werden damit nicht erkannt; liefert das Dateisystem keine Blockgröße, wird nicht gerundet.
+ *
+ * <p>
+ * Hardlinks werden über die "unix"-Attributsicht erkannt: Für nicht leere reguläre Dateien werden
+ * {@code nlink}, {@code dev} und {@code ino} mit einem zusätzlichen Aufruf gelesen. Nur Dateien mit
+ * mehr als einem Link werden mit dem vollständigen Paar aus Gerät und Inode in einer
+ * {@link ConcurrentLongPairSet} vermerkt; der erste gefundene Link zählt mit seinem belegten Platz,
+ * alle weiteren mit 0. Welcher Link das ist, hängt bei paralleler Verarbeitung von der Reihenfolge
+ * ab, die Summe nicht. Ohne "unix"-Sicht (z.B. unter Windows) werden Hardlinks nicht erkannt.
+ */
+final class DiskUsage {
+
+  private static final String LINK_ATTRIBUTES = "unix:nlink,dev,ino";
+
+  private final long blockSize;
+  private final boolean unixAttributes;
+  private final ConcurrentLongPairSet linkedFiles = new ConcurrentLongPairSet();
+
+  /**
+   * Konstruktor.
+   *
+   * @param root Wurzel des Scans
+   */
+  DiskUsage(Path root) {
+    this.blockSize = readBlockSize(root);
+    this.unixAttributes = root.getFileSystem().supportedFileAttributeViews().contains("unix");
+  }
+
+  private static long readBlockSize(Path root) {
+    try {
+      return Math.max(1, Files.getFileStore(root).getBlockSize());
+    } catch (IOException | UnsupportedOperationException exception) {
+      return 1;
+    }
+  }
+
+  /**
+   * Ermittelt den belegten Platz einer Datei und vermerkt sie, wenn sie mehrfach verlinkt ist.
+   *
+   * @param file       Pfad der Datei
+   * @param attributes bereits gelesene Attribute der Datei
+   * @return belegter Platz in Bytes, 0 für einen bereits gezählten Hardlink
+   */
+  long diskSize(Path file, BasicFileAttributes attributes) {
+    long size = ArchiveScanner.fileSize(attributes);
+    if (size == 0) {
+      return 0;
+    }
+    if (unixAttributes && attributes.isRegularFile() && isRepeatedLink(file)) {
+      return 0;
+    }
+    long blocks = (size + blockSize - 1) / blockSize;
+    return blocks * blockSize;
+  }
+
+  /**
+   * Erzeugt den Knoten einer Datei.
+   *
+   * @param file       Pfad der Datei
+   * @param attributes bereits gelesene Attribute der Datei
+   * @param diskSize   über {@link #diskSize(Path, BasicFileAttributes)} ermittelter Platz
+   * @return Knoten mit belegtem Platz als Größe und der Dateigröße als scheinbarer Größe
+   */
+  FileNode fileNode(Path file, BasicFileAttributes attributes, long diskSize) {
+    DiskUsageNode fileNode = new DiskUsageNode(file, false);
+    fileNode.setSize(diskSize);
+    fileNode.setApparentSize(ArchiveScanner.fileSize(attributes));
+    fileNode.setLastModified(attributes.lastModifiedTime().toMillis());
+    return fileNode;
+  }
+
+  /**
+   * Liest Link-Anzahl, Gerät und Inode einer Datei und vermerkt mehrfach verlinkte Dateien.
+   *
+   * @param file Pfad der Datei
+   * @return true, wenn ein anderer Link auf dieselbe Datei bereits gezählt wurde
+   */
+  private boolean isRepeatedLink(Path file) {
+    Map<String, Object> attributes;
+    try {
+      attributes = Files.readAttributes(file, LINK_ATTRIBUTES, LinkOption.NOFOLLOW_LINKS);
+    } catch (IOException | UnsupportedOperationException | IllegalArgumentException exception) {
+      // z.B. zwischenzeitlich gelöscht: wie eine Datei mit einem Link zählen
+      return false;
+    }
+    if (((Number) attributes.get("nlink")).intValue() <= 1) {
+      return false;
+    }
+    long device = ((Number) attributes.get("dev")).longValue();
+    long inode = ((Number) attributes.get("ino")).longValue();
+    return !linkedFiles.add(device, inode);
+  }
+}
@@ -0,0 +1,467 @@
+package com.voba.service;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import com.voba.model.AggregateNode;
+import com.voba.model.ArchiveNode;
+import com.voba.model.DiskUsageNode;
+import com.voba.model.DuplicateReport;
+import com.voba.model.FileNode;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Sucht inhaltsgleiche Dateien in einem gescannten Baum.
+ *
+ * <p>
+ * Die Suche verwirft in Stufen möglichst früh alle Dateien, die kein Duplikat sein können:
+ *
+ * <ol>
+ * <li>Gruppieren nach Größe aus dem Baum, ohne Zugriff auf den Datenträger; Dateien mit
+ * einmaliger Größe scheiden aus. In Bäumen mit Abrechnung des belegten Speicherplatzes zählt die
+ * scheinbare Größe ({@link DiskUsageNode#getApparentSize()}), auch für den einsparbaren Platz
+ * <li>Teil-Hash (SHA-256) über die ersten und letzten {@value #PARTIAL_BYTES} Bytes; kleinere
+ * Dateien werden dabei vollständig gelesen
+ * <li>vollständiger Hash nur für Dateien, deren Teil-Hash mit dem einer gleich großen Datei
+ * übereinstimmt
+ * </ol>
+ *
+ * <p>
+ * Gelesen wird auf einem eigenen Pool mit fester Thread-Anzahl, damit parallele Suchen den
+ * Datenträger nicht überlasten und Scans nicht verdrängen. Vollständige Hashes lesen über einen
+ * {@link FileChannel} in einen großen direkten Puffer je Thread; auf Memory-Mapping wird
+ * verzichtet, da gemappte Dateien unter Windows bis zur Garbage Collection gesperrt bleiben.
+ *
+ * <p>
+ * Berechnete Hashes werden nach Pfad, Größe und Änderungszeit gecacht (LRU), sodass eine erneute
+ * Suche nur geänderte Dateien liest. Vor dem Lesen wird jede Datei erneut abgefragt; hat sich ihre
+ * Größe seit dem Scan geändert oder ist sie nicht lesbar, wird sie übersprungen. Mehrere Hardlinks
+ * auf dieselbe Datei (gleicher {@link BasicFileAttributes#fileKey()}) zählen nur einmal, mit dem
+ * kleinsten Pfad; ohne fileKey (z.B. unter Windows) werden sie nicht erkannt. Archive zählen wie
+ * auf dem Datenträger als Dateien, ihr Inhalt wird nicht durchsucht; zusammengefasste Einträge
+ * ({@link AggregateNode}) werden übersprungen.
+ */
+@Service
+public class DuplicateFinderService {
+
+  private static final Logger logger = LoggerFactory.getLogger(DuplicateFinderService.class);
+
+  /** Bytes, die für den Teil-Hash am Anfang und am Ende einer Datei gelesen werden. */
+  static final int PARTIAL_BYTES = 4096;
+
+  private static final int BUFFER_BYTES = 1 << 20;
+
+  private static final Comparator<DuplicateReport.Group> GROUP_ORDER = Comparator
+      .comparingLong(DuplicateReport.Group::reclaimableBytes).reversed()
+      .thenComparing(group -> group.paths().get(0));
+
+  private static final Comparator<DuplicateReport.DirectoryEntry> DIRECTORY_ORDER = Comparator
+      .comparingLong(DuplicateReport.DirectoryEntry::reclaimableBytes).reversed()
+      .thenComparing(DuplicateReport.DirectoryEntry::path);
+
+  private final ExecutorService ioPool;
+  private final int maxCacheEntries;
+  private final LinkedHashMap<HashKey, Hashes> hashes = new LinkedHashMap<>(16, 0.75f, true);
+  private final ThreadLocal<ByteBuffer> buffers =
+      ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_BYTES));
+
+  /**
+   * Konstruktor mit Konfiguration.
+   *
+   * @param ioThreads       Threads zum Lesen der Dateien für alle Suchen zusammen
+   * @param maxCacheEntries max. Anzahl gecachter Hashes
+   */
+  public DuplicateFinderService(
+      @Value("${drivevisualizer.duplicates.io-threads:4}") int ioThreads,
+      @Value("${drivevisualizer.duplicates.hash-cache-entries:100000}") int maxCacheEntries) {
+    if (ioThreads < 1 || maxCacheEntries < 0) {
+      throw new IllegalArgumentException(
+          "Invalid duplicate finder configuration: " + ioThreads + " threads, "
+              + maxCacheEntries + " cache entries");
+    }
+    this.maxCacheEntries = maxCacheEntries;
+    AtomicInteger threadNumber = new AtomicInteger();
+    this.ioPool = Executors.newFixedThreadPool(ioThreads, runnable -> {
+      Thread thread = new Thread(runnable, "duplicate-io-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Sucht Duplikate unterhalb eines Knotens.
+   *
+   * @param root    Wurzel der Suche
+   * @param minSize Mindestgröße einer Datei in Bytes
+   * @param limit   max. Anzahl der ausgegebenen Gruppen und Verzeichnisse
+   * @return Duplikatgruppen und einsparbarer Platz
+   * @throws IllegalArgumentException wenn minSize oder limit kleiner als 1 ist
+   */
+  public DuplicateReport find(FileNode root, long minSize, int limit) {
+    if (minSize < 1) {
+      throw new IllegalArgumentException("Minimum size must be positive: " + minSize);
+    }
+    if (limit < 1) {
+      throw new IllegalArgumentException("Limit must be positive: " + limit);
+    }
+    long startNanos = System.nanoTime();
+    Counters counters = new Counters();
+
+    // Stufe 1: erst nur Größen zählen, damit Pfade nur für Kandidaten erzeugt werden
+    Map<Long, Integer> sizeCounts = new HashMap<>();
+    long fileCount = countSizes(root, minSize, sizeCounts);
+    List<Candidate> candidates = new ArrayList<>();
+    collectCandidates(root, minSize, sizeCounts, candidates);
+
+    // Stufe 2: Teil-Hashes
+    List<Callable<Hashed>> partialTasks = new ArrayList<>(candidates.size());
+    for (Candidate candidate : candidates) {
+      partialTasks.add(() -> hashPartial(candidate, counters));
+    }
+    List<List<Hashed>> partialGroups =
+        groupsOf(withoutHardLinks(invokeAll(partialTasks)), Hashed::partial);
+
+    // Stufe 3: vollständige Hashes, soweit der Teil-Hash nicht schon die ganze Datei abdeckt
+    List<Callable<Hashed>> fullTasks = new ArrayList<>();
+    for (List<Hashed> group : partialGroups) {
+      for (Hashed hashed : group) {
+        fullTasks.add(() -> hashFull(hashed, counters));
+      }
+    }
+    List<List<Hashed>> duplicateGroups = groupsOf(invokeAll(fullTasks), Hashed::full);
+
+    DuplicateReport report = report(
+        root, fileCount, candidates.size(), counters, duplicateGroups, limit);
+    logger.debug("Duplicate search in {}: {} candidates, {} groups in {} ms", root.getPath(),
+        candidates.size(), report.groupCount(), (System.nanoTime() - startNanos) / 1_000_000);
+    return report;
+  }
+
+  private static long countSizes(FileNode directory, long minSize, Map<Long, Integer> counts) {
+    long fileCount = 0;
+    for (FileNode child : directory.getChildren()) {
+      if (child instanceof AggregateNode) {
+        continue;
+      }
+      if (child.isDirectory() && !(child instanceof ArchiveNode)) {
+        fileCount += countSizes(child, minSize, counts);
+      } else if (length(child) >= minSize) {
+        counts.merge(length(child), 1, Integer::sum);
+        fileCount++;
+      }
+    }
+    return fileCount;
+  }
+
+  private static void collectCandidates(FileNode directory, long minSize,
+      Map<Long, Integer> counts, List<Candidate> candidates) {
+    for (FileNode child : directory.getChildren()) {
+      if (child instanceof AggregateNode) {
+        continue;
+      }
+      if (child.isDirectory() && !(child instanceof ArchiveNode)) {
+        collectCandidates(child, minSize, counts, candidates);
+      } else if (length(child) >= minSize && counts.getOrDefault(length(child), 0) > 1) {
+        candidates.add(new Candidate(child.getPathObject(), length(child)));
+      }
+    }
+  }
+
+  /**
+   * Gibt die Länge einer Datei zurück. Bei der Abrechnung des belegten Speicherplatzes ist die
+   * Größe des Knotens auf Blöcke gerundet bzw. für weitere Hardlinks 0; verglichen wird aber die
+   * Dateilänge.
+   */
+  private static long length(FileNode file) {
+    return file instanceof DiskUsageNode diskUsageNode
+        ? diskUsageNode.getApparentSize()
+        : file.getSize();
+  }
+
+  /** Gruppiert nach Größe und Hash und behält nur Gruppen mit mindestens zwei Dateien. */
+  private static List<List<Hashed>> groupsOf(
+      List<Hashed> hashed, Function<Hashed, String> hash) {
+    Map<GroupKey, List<Hashed>> groups = new HashMap<>();
+    for (Hashed entry : hashed) {
+      groups.computeIfAbsent(new GroupKey(entry.key().size(), hash.apply(entry)),
+          key -> new ArrayList<>()).add(entry);
+    }
+    List<List<Hashed>> result = new ArrayList<>();
+    for (List<Hashed> group : groups.values()) {
+      if (group.size() > 1) {
+        result.add(group);
+      }
+    }
+    return result;
+  }
+
+  private Hashed hashPartial(Candidate candidate, Counters counters) {
+    try {
+      BasicFileAttributes attributes = Files.readAttributes(
+          candidate.path(), BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+      if (!attributes.isRegularFile() || attributes.size() != candidate.size()) {
+        counters.skipped.increment();
+        return null;
+      }
+      HashKey key = new HashKey(
+          candidate.path(), candidate.size(), attributes.lastModifiedTime().toMillis());
+      Hashes cached = cached(key);
+      if (cached != null) {
+        counters.cacheHits.increment();
+        return new Hashed(key, cached, true, attributes.fileKey());
+      }
+
+      Hashes computed;
+      try (FileChannel channel = FileChannel.open(candidate.path(), StandardOpenOption.READ)) {
+        MessageDigest digest = sha256();
+        if (candidate.size() <= 2L * PARTIAL_BYTES) {
+          ByteBuffer buffer = ByteBuffer.allocate((int) candidate.size());
+          readFully(channel, buffer, 0);
+          String hash = HexFormat.of().formatHex(digest.digest(buffer.array()));
+          computed = new Hashes(hash, hash);
+        } else {
+          ByteBuffer buffer = ByteBuffer.allocate(2 * PARTIAL_BYTES);
+          readFully(channel, buffer.limit(PARTIAL_BYTES), 0);
+          readFully(channel, buffer.limit(2 * PARTIAL_BYTES), candidate.size() - PARTIAL_BYTES);
+          computed = new Hashes(HexFormat.of().formatHex(digest.digest(buffer.array())), null);
+        }
+      }
+      counters.partialHashes.increment();
+      cache(key, computed);
+      return new Hashed(key, computed, false, attributes.fileKey());
+    } catch (IOException exception) {
+      counters.skipped.increment();
+      return null;
+    }
+  }
+
+  /**
+   * Behält je Datei ({@link BasicFileAttributes#fileKey()}) nur den Link mit dem kleinsten Pfad.
+   * Hardlinks auf dieselbe Datei sind keine Duplikate: Das Löschen eines Links gibt keinen Platz
+   * frei.
+   */
+  private static List<Hashed> withoutHardLinks(List<Hashed> hashed) {
+    List<Hashed> result = new ArrayList<>(hashed.size());
+    Map<Object, Hashed> files = new HashMap<>();
+    for (Hashed entry : hashed) {
+      if (entry.fileKey() == null) {
+        result.add(entry);
+      } else {
+        files.merge(entry.fileKey(), entry, (first, second) ->
+            first.key().path().toString().compareTo(second.key().path().toString()) <= 0
+                ? first
+                : second);
+      }
+    }
+    result.addAll(files.values());
+    return result;
+  }
+
+  private Hashed hashFull(Hashed hashed, Counters counters) {
+    if (hashed.hashes().full() != null) {
+      // Kleine Dateien sind mit dem Teil-Hash schon vollständig gelesen
+      if (hashed.cached() && hashed.key().size() > 2L * PARTIAL_BYTES) {
+        counters.cacheHits.increment();
+      }
+      return hashed;
+    }
+    try (FileChannel channel = FileChannel.open(hashed.key().path(), StandardOpenOption.READ)) {
+      MessageDigest digest = sha256();
+      ByteBuffer buffer = buffers.get();
+      long total = 0;
+      buffer.clear();
+      while (channel.read(buffer) >= 0) {
+        buffer.flip();
+        total += buffer.remaining();
+        digest.update(buffer);
+        buffer.clear();
+      }
+      if (total != hashed.key().size()) {
+        // Während der Suche geändert
+        counters.skipped.increment();
+        return null;
+      }
+      Hashes hashes = new Hashes(
+          hashed.hashes().partial(), HexFormat.of().formatHex(digest.digest()));
+      counters.fullHashes.increment();
+      cache(hashed.key(), hashes);
+      return new Hashed(hashed.key(), hashes, hashed.cached(), hashed.fileKey());
+    } catch (IOException exception) {
+      counters.skipped.increment();
+      return null;
+    }
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long position)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position);
+      if (read < 0) {
+        throw new EOFException("File shrank while reading");
+      }
+      position += read;
+    }
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException exception) {
+      throw new IllegalStateException("SHA-256 not available", exception);
+    }
+  }
+
+  private <T> List<T> invokeAll(List<Callable<T>> tasks) {
+    try {
+      List<T> results = new ArrayList<>(tasks.size());
+      for (Future<T> future : ioPool.invokeAll(tasks)) {
+        T result = future.get();
+        if (result != null) {
+          results.add(result);
+        }
+      }
+      return results;
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new CancellationException("Duplicate search interrupted");
+    } catch (ExecutionException exception) {
+      throw new IllegalStateException("Duplicate search failed", exception.getCause());
+    }
+  }
+
+  private static DuplicateReport report(FileNode root, long fileCount, long candidateCount,
+      Counters counters, List<List<Hashed>> duplicateGroups, int limit) {
+    List<DuplicateReport.Group> groups = new ArrayList<>(duplicateGroups.size());
+    Map<String, long[]> directories = new HashMap<>();
+    long duplicateCount = 0;
+    long reclaimableBytes = 0;
+    for (List<Hashed> group : duplicateGroups) {
+      group.sort(Comparator.comparing(hashed -> hashed.key().path().toString()));
+      long size = group.get(0).key().size();
+      List<String> paths = new ArrayList<>(group.size());
+      for (int i = 0; i < group.size(); i++) {
+        Path path = group.get(i).key().path();
+        paths.add(path.toString());
+        if (i > 0) {
+          // Die erste Datei bleibt, jede weitere Kopie zählt für ihr Verzeichnis
+          long[] directory = directories.computeIfAbsent(
+              String.valueOf(path.getParent()), key -> new long[2]);
+          directory[0]++;
+          directory[1] += size;
+        }
+      }
+      long reclaimable = size * (group.size() - 1);
+      groups.add(new DuplicateReport.Group(size, group.get(0).hashes().full(), paths, reclaimable));
+      duplicateCount += group.size() - 1;
+      reclaimableBytes += reclaimable;
+    }
+    groups.sort(GROUP_ORDER);
+
+    List<DuplicateReport.DirectoryEntry> directoryEntries = new ArrayList<>(directories.size());
+    directories.forEach((path, totals) ->
+        directoryEntries.add(new DuplicateReport.DirectoryEntry(path, totals[0], totals[1])));
+    directoryEntries.sort(DIRECTORY_ORDER);
+
+    return new DuplicateReport(root.getPath(), fileCount, candidateCount,
+        counters.partialHashes.sum(), counters.fullHashes.sum(), counters.cacheHits.sum(),
+        counters.skipped.sum(), groups.size(), duplicateCount, reclaimableBytes,
+        List.copyOf(groups.subList(0, Math.min(limit, groups.size()))),
+        List.copyOf(directoryEntries.subList(0, Math.min(limit, directoryEntries.size()))));
+  }
+
+  private synchronized Hashes cached(HashKey key) {
+    return hashes.get(key);
+  }
+
+  private synchronized void cache(HashKey key, Hashes value) {
+    if (maxCacheEntries == 0) {
+      return;
+    }
+    hashes.put(key, value);
+    Iterator<Hashes> eldest = hashes.values().iterator();
+    while (hashes.size() > maxCacheEntries && eldest.hasNext()) {
+      eldest.next();
+      eldest.remove();
+    }
+  }
+
+  /**
+   * Verwirft alle gecachten Hashes.
+   */
+  public synchronized void clearCache() {
+    hashes.clear();
+  }
+
+  /**
+   * Beendet den Lese-Pool beim Herunterfahren.
+   */
+  @PreDestroy
+  public void shutdown() {
+    ioPool.shutdownNow();
+  }
+
+  private record Candidate(Path path, long size) {
+  }
+
+  /** Schlüssel des Hash-Caches; eine geänderte Datei erhält einen neuen Schlüssel. */
+  private record HashKey(Path path, long size, long lastModified) {
+  }
+
+  /** Teil-Hash und vollständiger Hash, letzterer null, solange er nicht berechnet wurde. */
+  private record Hashes(String partial, String full) {
+  }
+
+  /** Gehashte Datei; fileKey identifiziert die Datei unabhängig vom Link (null = unbekannt). */
+  private record Hashed(HashKey key, Hashes hashes, boolean cached, Object fileKey) {
+
+    String partial() {
+      return hashes.partial();
+    }
+
+    String full() {
+      return hashes.full();
+    }
+  }
+
+  private record GroupKey(long size, String hash) {
+  }
+
+  private static final class Counters {
+    private final LongAdder partialHashes = new LongAdder();
+    private final LongAdder fullHashes = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+  }
+}
@@ -0,0 +1,78 @@
+package com.voba.service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import com.voba.model.FileNode;
+import com.voba.model.NameIndex;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Baut {@link NameIndex Namensindizes} für Knoten gehaltener Bäume auf und hält die zuletzt
+ * verwendeten vor.
+ *
+ * <p>
+ * Der Index eines Knotens wird bei der ersten Suche aufgebaut; weitere Suchen im selben Baum
+ * verwenden ihn, ohne den Baum erneut zu durchlaufen. Indizes liegen in einem {@link NodeCache} je
+ * Knoten und Änderungsstand. Gleichzeitige Suchen im selben Baum warten auf denselben Aufbau.
+ */
+@Service
+public class NameIndexService {
+
+  private static final Logger logger = LoggerFactory.getLogger(NameIndexService.class);
+
+  private final NodeCache<CompletableFuture<NameIndex>> indexes;
+
+  /**
+   * Konstruktor mit Konfiguration.
+   *
+   * @param maxEntries        max. Anzahl vorgehaltener Indizes
+   * @param timeToLiveSeconds Gültigkeit eines Index in Sekunden
+   */
+  public NameIndexService(
+      @Value("${drivevisualizer.search.cache-entries:4}") int maxEntries,
+      @Value("${drivevisualizer.cache.ttl-seconds:300}") long timeToLiveSeconds) {
+    this.indexes = new NodeCache<>(maxEntries, Duration.ofSeconds(timeToLiveSeconds));
+  }
+
+  /**
+   * Liefert den Index eines Knotens aus dem Cache oder baut ihn auf.
+   *
+   * @param node Wurzel des Index
+   * @return Index
+   */
+  public NameIndex index(FileNode node) {
+    NodeCache.Key key = NodeCache.key(node, null);
+    CompletableFuture<NameIndex> created = new CompletableFuture<>();
+    CompletableFuture<NameIndex> existing = indexes.putIfAbsent(key, created);
+    CompletableFuture<NameIndex> future = existing != null ? existing : created;
+
+    if (existing == null) {
+      // Außerhalb der Sperre aufbauen; Suchen in anderen Bäumen laufen weiter
+      try {
+        long startNanos = System.nanoTime();
+        NameIndex index = NameIndex.build(node);
+        logger.debug("Name index for {}: {} entries, {} names in {} ms", node.getPath(),
+            index.getEntryCount(), index.getNameCount(),
+            (System.nanoTime() - startNanos) / 1_000_000);
+        future.complete(index);
+      } catch (RuntimeException | Error exception) {
+        indexes.remove(key);
+        future.completeExceptionally(exception);
+      }
+    }
+    try {
+      return future.join();
+    } catch (CompletionException exception) {
+      if (exception.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw exception;
+    }
+  }
+}
@@ -0,0 +1,353 @@
+package com.voba.service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.DosFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RecursiveTask;
+
+import com.voba.model.AggregateNode;
+import com.voba.model.ArchiveNode;
+import com.voba.model.DirectoryStatistics;
+import com.voba.model.DiskUsageNode;
+import com.voba.model.FileNode;
+import com.voba.model.ScanOptions;
+
+/**
+ * Rekursive Task für das Scannen eines Verzeichnisses über {@link DirectoryStream}.
+ *
+ * <p>
+ * Im Gegensatz zum {@link java.io.File}-basierten Scan wird ein Verzeichnis nie vollständig in ein
+ * Array geladen, sondern als Stream durchlaufen. Für jeden Eintrag erfolgt genau ein
+ * {@link Files#readAttributes(Path, Class, LinkOption...)}-Aufruf ohne Auflösen von Symlinks; Typ,
+ * Größe, Symlink- und (unter Windows) Hidden-Status stammen aus diesem einen Ergebnis.
+ *
+ * <p>
+ * Dateien werden direkt im aktuellen Task verarbeitet, nur Unterverzeichnisse werden bei
+ * aktivierter Parallelverarbeitung als eigene Tasks abgespalten, solange die Warteschlange des
+ * Threads kurz ist ({@link AdaptiveSplitter}).
+ *
+ * <p>
+ * Optional kann ein vorheriges Ergebnis für dasselbe Verzeichnis übergeben werden (inkrementeller
+ * Scan). Stimmt der Änderungszeitpunkt eines Verzeichnisses mit dem vorherigen überein, wurden seit
+ * dem letzten Scan keine Einträge angelegt, gelöscht oder umbenannt: Das Verzeichnis wird dann nicht
+ * gelistet, sondern nur die bekannten Einträge werden erneut gelesen. Fehlt dabei ein Eintrag oder
+ * hat er seinen Typ gewechselt, wird das Verzeichnis doch gelistet. Unterverzeichnisse werden in
+ * jedem Fall besucht, da Änderungen tiefer im Baum den Zeitstempel des Elternverzeichnisses nicht
+ * verändern.
+ *
+ * <p>
+ * Sind in den Optionen Regeln zum Zusammenfassen gesetzt, entscheidet eine {@link Aggregation} je
+ * Datei, bevor ihr Knoten angelegt wird. Ist ein Verzeichnis fertig, wird seine
+ * {@link DirectoryStatistics} aus den Kindern berechnet.
+ *
+ * <p>
+ * Mit Speicherplatz-Abrechnung ({@link ScanOptions#isDiskUsage()}) teilen sich alle Tasks eines
+ * Scans eine {@link DiskUsage}; Knoten sind dann {@link DiskUsageNode}s.
+ */
+final class NioDirectoryScanTask extends RecursiveTask<FileNode> {
+
+  private final Path directory;
+  private final ScanOptions options;
+  private final ScanProgress progress;
+  private final int depth;
+  private final boolean dosAttributes;
+  private final FileNode previous;
+  private final long lastModified;
+  private final DiskUsage diskUsage;
+  private long statNanos; // Dauer der stat-Aufrufe beim aktuellen Listen, nur mit IoObserver
+
+  /**
+   * Konstruktor für eine Verzeichnis-Scan-Aufgabe.
+   *
+   * @param directory Zu scannendes Verzeichnis
+   * @param options   Scan-Optionen
+   * @param progress  Fortschritt, der während des Scans aktualisiert wird
+   */
+  NioDirectoryScanTask(Path directory, ScanOptions options, ScanProgress progress) {
+    this(directory, options, progress, null);
+  }
+
+  /**
+   * Konstruktor für einen inkrementellen Scan auf Basis eines vorherigen Ergebnisses.
+   *
+   * @param directory Zu scannendes Verzeichnis
+   * @param options   Scan-Optionen (müssen dieselbe Ergebnis-Signatur haben wie beim vorherigen Scan)
+   * @param progress  Fortschritt, der während des Scans aktualisiert wird
+   * @param previous  vorheriges Ergebnis für dieses Verzeichnis oder null
+   */
+  NioDirectoryScanTask(Path directory, ScanOptions options, ScanProgress progress, FileNode previous) {
+    this(directory, options, progress, 0, supportsDosAttributes(directory), previous,
+        readLastModified(directory), options.isDiskUsage() ? new DiskUsage(directory) : null);
+  }
+
+  private NioDirectoryScanTask(Path directory, ScanOptions options, ScanProgress progress, int depth,
+      boolean dosAttributes, FileNode previous, long lastModified, DiskUsage diskUsage) {
+    this.directory = directory;
+    this.options = options;
+    this.progress = progress;
+    this.depth = depth;
+    this.dosAttributes = dosAttributes;
+    this.previous = previous;
+    this.lastModified = lastModified;
+    this.diskUsage = diskUsage;
+  }
+
+  @Override
+  protected FileNode compute() {
+    progress.checkCancelled();
+    FileNode node = diskUsage != null
+        ? new DiskUsageNode(directory, true)
+        : new FileNode(directory, true);
+    node.setLastModified(lastModified);
+    List<NioDirectoryScanTask> subdirectories = new ArrayList<>();
+    Aggregation aggregation = new Aggregation(directory, options, depth);
+    boolean reportEarly = Aggregation.reportsSubtreesEarly(options);
+    long fileCount = 0;
+    long byteCount = 0;
+
+    List<Entry> entries = new ArrayList<>();
+    boolean reused = isUnchanged() && restatKnownEntries(entries);
+    if (!reused) {
+      listEntries(entries);
+    }
+
+    for (Entry entry : entries) {
+      if (entry.attributes.isDirectory()) {
+        subdirectories.add(new NioDirectoryScanTask(entry.path, options, progress, depth + 1,
+            dosAttributes, entry.previous, entry.attributes.lastModifiedTime().toMillis(),
+            diskUsage));
+        continue;
+      }
+      long size = diskUsage != null
+          ? diskUsage.diskSize(entry.path, entry.attributes)
+          : ArchiveScanner.fileSize(entry.attributes);
+      fileCount++;
+      byteCount += size;
+      if (aggregation.foldFile(size)) {
+        continue;
+      }
+      FileNode fileNode = diskUsage != null
+          ? diskUsage.fileNode(entry.path, entry.attributes, size)
+          : ArchiveScanner.fileNode(entry.path, entry.attributes, options, progress);
+      node.addChild(fileNode);
+      if (depth == 0 && reportEarly) {
+        progress.subtreeCompleted(fileNode);
+      }
+    }
+    if (reused) {
+      progress.directoryReused(fileCount, byteCount);
+    } else {
+      progress.directoryCompleted(fileCount, byteCount);
+    }
+
+    AdaptiveSplitter.invokeAll(subdirectories, options.isUseParallelProcessing(),
+        subdirectory -> aggregation.addSubdirectory(node, subdirectory));
+    AggregateNode aggregate = aggregation.finish(node);
+    node.setStatistics(DirectoryStatistics.compute(node, progress.getExtensions()));
+
+    if (depth == 0) {
+      aggregation.reportRoot(node, aggregate, progress);
+    } else if (depth == 1 && reportEarly) {
+      progress.subtreeCompleted(node);
+    }
+    return node;
+  }
+
+  /**
+   * Prüft, ob das Verzeichnis seit dem vorherigen Scan unverändert ist.
+   *
+   * @return true wenn ein vorheriges Ergebnis mit gleichem Änderungszeitpunkt vorliegt
+   */
+  private boolean isUnchanged() {
+    return previous != null
+        && previous.isDirectory()
+        && lastModified != 0
+        && previous.getLastModified() == lastModified;
+  }
+
+  /**
+   * Liest die Attribute aller Einträge des vorherigen Ergebnisses erneut, ohne das Verzeichnis zu
+   * listen.
+   *
+   * @param entries Liste, die mit den gelesenen Einträgen gefüllt wird
+   * @return false, wenn ein bekannter Eintrag fehlt, seinen Typ gewechselt hat oder nicht mehr
+   *     verarbeitet werden soll; das Verzeichnis muss dann gelistet werden
+   */
+  private boolean restatKnownEntries(List<Entry> entries) {
+    for (FileNode known : previous.getChildren()) {
+      progress.checkCancelled();
+      Path entry = directory.resolve(known.getName());
+      BasicFileAttributes attributes = readAttributes(entry);
+      // Archive sind im Baum Verzeichnisse, auf dem Datenträger aber Dateien
+      boolean knownDirectory = known.isDirectory() && !(known instanceof ArchiveNode);
+      if (attributes == null
+          || attributes.isDirectory() != knownDirectory
+          || !shouldProcess(entry, attributes)) {
+        entries.clear();
+        return false;
+      }
+      entries.add(new Entry(entry, attributes, known));
+    }
+    return true;
+  }
+
+  /**
+   * Listet das Verzeichnis und liest die Attribute jedes Eintrags.
+   *
+   * @param entries Liste, die mit den zu verarbeitenden Einträgen gefüllt wird
+   */
+  private void listEntries(List<Entry> entries) {
+    Map<String, FileNode> known = new HashMap<>();
+    if (previous != null) {
+      for (FileNode child : previous.getChildren()) {
+        if (child.isDirectory()) {
+          known.put(child.getName(), child);
+        }
+      }
+    }
+
+    ScanProgress.IoObserver observer = progress.getIoObserver();
+    long listStart = observer != null ? System.nanoTime() : 0;
+    statNanos = 0;
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+      for (Path entry : stream) {
+        progress.checkCancelled();
+        BasicFileAttributes attributes = readAttributes(entry);
+        if (attributes == null) {
+          progress.entryUnreadable();
+          continue;
+        }
+        if (!shouldProcess(entry, attributes)) {
+          progress.entrySkipped();
+          continue;
+        }
+        FileNode knownChild = attributes.isDirectory()
+            ? known.get(entry.getFileName().toString())
+            : null;
+        entries.add(new Entry(entry, attributes, knownChild));
+      }
+    } catch (IOException | DirectoryIteratorException exception) {
+      // Verzeichnis nicht lesbar (z.B. Permission denied): bisher gelesene Einträge behalten
+      progress.entryUnreadable();
+    }
+    if (observer != null) {
+      observer.directoryListed(System.nanoTime() - listStart - statNanos);
+    }
+  }
+
+  /**
+   * Liest die Attribute eines Eintrags mit der zum Dateisystem passenden Sicht und misst die Dauer,
+   * wenn ein {@link ScanProgress.IoObserver} registriert ist.
+   */
+  private BasicFileAttributes readAttributes(Path entry) {
+    ScanProgress.IoObserver observer = progress.getIoObserver();
+    if (observer == null) {
+      return readAttributes(entry, dosAttributes);
+    }
+    long start = System.nanoTime();
+    BasicFileAttributes attributes = readAttributes(entry, dosAttributes);
+    long nanos = System.nanoTime() - start;
+    statNanos += nanos;
+    observer.attributesRead(nanos);
+    return attributes;
+  }
+
+  /**
+   * Liest die Attribute eines Eintrags mit einem einzigen Systemaufruf.
+   *
+   * @param entry         Zu lesender Eintrag
+   * @param dosAttributes ob DOS-Attribute (Hidden-Status) gelesen werden sollen
+   * @return Attribute oder null, wenn der Eintrag nicht gelesen werden kann
+   */
+  static BasicFileAttributes readAttributes(Path entry, boolean dosAttributes) {
+    try {
+      Class<? extends BasicFileAttributes> type = dosAttributes
+          ? DosFileAttributes.class
+          : BasicFileAttributes.class;
+      return Files.readAttributes(entry, type, LinkOption.NOFOLLOW_LINKS);
+    } catch (IOException | UnsupportedOperationException exception) {
+      // Bei Fehler (z.B. Permission denied oder zwischenzeitlich gelöscht) ignorieren
+      return null;
+    }
+  }
+
+  /** Prüft einen Eintrag anhand der Optionen dieses Scans. */
+  private boolean shouldProcess(Path entry, BasicFileAttributes attributes) {
+    return shouldProcess(entry, attributes, options);
+  }
+
+  /**
+   * Prüft anhand der bereits gelesenen Attribute, ob ein Eintrag verarbeitet werden soll.
+   *
+   * @param entry      Zu prüfender Eintrag
+   * @param attributes Attribute des Eintrags
+   * @param options    Scan-Optionen
+   * @return true wenn der Eintrag verarbeitet werden soll, false sonst
+   */
+  static boolean shouldProcess(Path entry, BasicFileAttributes attributes, ScanOptions options) {
+    // Symlinks immer ausschließen (vermeidet Endlosschleifen)
+    if (attributes.isSymbolicLink()) {
+      return false;
+    }
+
+    // Versteckte Dateien nur verarbeiten, wenn explizit aktiviert
+    return options.isIncludeHiddenFiles() || !isHidden(entry, attributes);
+  }
+
+  /**
+   * Ermittelt den Hidden-Status ohne zusätzlichen Systemaufruf.
+   *
+   * @param entry      Zu prüfender Eintrag
+   * @param attributes Attribute des Eintrags
+   * @return true wenn der Eintrag versteckt ist
+   */
+  static boolean isHidden(Path entry, BasicFileAttributes attributes) {
+    if (attributes instanceof DosFileAttributes dos) {
+      return dos.isHidden();
+    }
+    Path fileName = entry.getFileName();
+    return fileName != null && fileName.toString().startsWith(".");
+  }
+
+  /**
+   * Prüft, ob der Hidden-Status über DOS-Attribute ermittelt werden muss. Unter Linux wird die
+   * "dos"-View zwar ebenfalls angeboten, dort aber über Extended Attributes emuliert, was zusätzliche
+   * Systemaufrufe kosten würde; POSIX-Dateisysteme verwenden daher die Namenskonvention.
+   *
+   * @param path Pfad auf dem zu scannenden Dateisystem
+   * @return true wenn DOS-Attribute gelesen werden sollen
+   */
+  static boolean supportsDosAttributes(Path path) {
+    Set<String> views = path.getFileSystem().supportedFileAttributeViews();
+    return views.contains("dos") && !views.contains("posix");
+  }
+
+  /**
+   * Liest den Änderungszeitpunkt des Wurzelverzeichnisses; für alle anderen Verzeichnisse stammt er
+   * aus den beim Listen des Elternverzeichnisses gelesenen Attributen.
+   *
+   * @param directory Verzeichnis
+   * @return Änderungszeitpunkt in Millisekunden oder 0, wenn er nicht gelesen werden kann
+   */
+  private static long readLastModified(Path directory) {
+    try {
+      return Files.getLastModifiedTime(directory, LinkOption.NOFOLLOW_LINKS).toMillis();
+    } catch (IOException exception) {
+      return 0;
+    }
+  }
+
+  /** Ein zu verarbeitender Eintrag mit seinen Attributen und ggf. dem vorherigen Ergebnis. */
+  private record Entry(Path path, BasicFileAttributes attributes, FileNode previous) {
+  }
+}
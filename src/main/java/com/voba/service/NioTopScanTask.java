@@ -0,0 +1,102 @@
+package com.voba.service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+import com.voba.model.ScanOptions;
+import com.voba.model.TopEntries;
+
+/**
+ * Rekursive Task, die nur die größten Dateien und Verzeichnisse eines Verzeichnisses ermittelt,
+ * ohne einen {@link com.voba.model.FileNode}-Baum aufzubauen.
+ *
+ * <p>
+ * Gelesen wird wie bei {@link NioDirectoryScanTask}: ein Stream je Verzeichnis, ein stat je Eintrag,
+ * Symlinks und (je nach Optionen) versteckte Einträge werden übersprungen. Jede Task hält eigene
+ * begrenzte Heaps ({@link TopEntries}); die Ergebnisse der Unterverzeichnisse werden nach dem Join
+ * übernommen (und dabei geleert) und das Unterverzeichnis selbst mit seiner Gesamtgröße angeboten.
+ * Archive werden nicht durchsucht. Im Speicher bleiben so höchstens {@code limit} Einträge je Liste
+ * für jede laufende Task.
+ */
+final class NioTopScanTask extends RecursiveTask<TopEntries> {
+
+  private final Path directory;
+  private final ScanOptions options;
+  private final ScanProgress progress;
+  private final int limit;
+  private final boolean dosAttributes;
+
+  /**
+   * Konstruktor für die Wurzel.
+   *
+   * @param directory Zu scannendes Verzeichnis
+   * @param options   Scan-Optionen
+   * @param progress  Fortschritt, der während des Scans aktualisiert wird
+   * @param limit     max. Anzahl der Einträge je Liste
+   */
+  NioTopScanTask(Path directory, ScanOptions options, ScanProgress progress, int limit) {
+    this(directory, options, progress, limit, NioDirectoryScanTask.supportsDosAttributes(directory));
+  }
+
+  private NioTopScanTask(Path directory, ScanOptions options, ScanProgress progress, int limit,
+      boolean dosAttributes) {
+    this.directory = directory;
+    this.options = options;
+    this.progress = progress;
+    this.limit = limit;
+    this.dosAttributes = dosAttributes;
+  }
+
+  @Override
+  protected TopEntries compute() {
+    progress.checkCancelled();
+    TopEntries top = new TopEntries(directory, limit);
+    List<NioTopScanTask> subdirectories = new ArrayList<>();
+    long fileCount = 0;
+    long byteCount = 0;
+
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+      for (Path entry : stream) {
+        progress.checkCancelled();
+        BasicFileAttributes attributes = NioDirectoryScanTask.readAttributes(entry, dosAttributes);
+        if (attributes == null) {
+          progress.entryUnreadable();
+          continue;
+        }
+        if (!NioDirectoryScanTask.shouldProcess(entry, attributes, options)) {
+          progress.entrySkipped();
+          continue;
+        }
+        if (attributes.isDirectory()) {
+          subdirectories.add(
+              new NioTopScanTask(entry, options, progress, limit, dosAttributes));
+          continue;
+        }
+        long size = ArchiveScanner.fileSize(attributes);
+        fileCount++;
+        byteCount += size;
+        top.offerFile(entry, size);
+      }
+    } catch (IOException | DirectoryIteratorException exception) {
+      // Verzeichnis nicht lesbar (z.B. Permission denied): bisher gelesene Einträge behalten
+      progress.entryUnreadable();
+    }
+    progress.directoryCompleted(fileCount, byteCount);
+
+    top.setSize(byteCount);
+    AdaptiveSplitter.invokeAll(subdirectories, options.isUseParallelProcessing(), subdirectory -> {
+      // Unterverzeichnisse kennen erst nach dem Join ihre Gesamtgröße
+      top.offerDirectory(subdirectory.getRoot(), subdirectory.getSize());
+      top.setSize(top.getSize() + subdirectory.getSize());
+      top.merge(subdirectory);
+    });
+    return top;
+  }
+}
@@ -0,0 +1,165 @@
+package com.voba.service;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.ToLongFunction;
+
+import com.voba.model.FileNode;
+
+/**
+ * LRU-Cache für Werte, die aus einem Knoten eines gehaltenen Baums berechnet werden (Layouts,
+ * Namensindizes, Abfrageergebnisse).
+ *
+ * <p>
+ * Schlüssel ist der Knoten (bei kompakten Bäumen und Snapshots Baum und Index) zusammen mit seinem
+ * Änderungsstand ({@link FileNode#getVersion()}) und den übrigen Parametern der Berechnung. Ein
+ * neuer Scan oder ein geladener Snapshot liefert neue Knoten, eine Änderung im Watch-Modus einen
+ * neuen Änderungsstand; beides führt zu neuen Schlüsseln. Der Schlüssel wird vor der Berechnung
+ * gebildet, sodass ein während der Berechnung geänderter Baum nicht unter dem neuen Stand
+ * abgelegt wird. Einträge werden nach LRU verdrängt, sobald ihre Anzahl oder ihr geschätzter
+ * Speicherverbrauch die Grenze überschreitet, und laufen nach der Gültigkeitsdauer ab, damit der
+ * Cache ersetzte Bäume nicht dauerhaft erreichbar hält. Alle Methoden sind synchronisiert.
+ *
+ * @param <V> Typ der vorgehaltenen Werte
+ */
+final class NodeCache<V> {
+
+  private final int maxEntries;
+  private final long maxBytes;
+  private final ToLongFunction<V> sizeEstimator;
+  private final long timeToLiveNanos;
+  private final LinkedHashMap<Key, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long totalBytes;
+
+  /**
+   * Konstruktor für Werte, deren Speicherverbrauch nicht begrenzt wird.
+   *
+   * @param maxEntries max. Anzahl vorgehaltener Werte
+   * @param timeToLive Gültigkeit eines Werts
+   */
+  NodeCache(int maxEntries, Duration timeToLive) {
+    this(maxEntries, Long.MAX_VALUE, value -> 0, timeToLive);
+  }
+
+  /**
+   * Konstruktor mit Speicherbudget.
+   *
+   * @param maxEntries    max. Anzahl vorgehaltener Werte
+   * @param maxBytes      Speicherbudget für alle Werte in Bytes; größere Werte werden nicht
+   *                      abgelegt
+   * @param sizeEstimator schätzt den Speicherverbrauch eines Werts in Bytes
+   * @param timeToLive    Gültigkeit eines Werts
+   */
+  NodeCache(int maxEntries, long maxBytes, ToLongFunction<V> sizeEstimator, Duration timeToLive) {
+    this.maxEntries = maxEntries;
+    this.maxBytes = maxBytes;
+    this.sizeEstimator = sizeEstimator;
+    this.timeToLiveNanos = timeToLive.toNanos();
+  }
+
+  /**
+   * Bildet den Schlüssel für den aktuellen Stand eines Knotens.
+   *
+   * @param node       Knoten, aus dem der Wert berechnet wird
+   * @param parameters übrige Parameter der Berechnung (mit equals/hashCode) oder null
+   * @return Schlüssel
+   */
+  static Key key(FileNode node, Object parameters) {
+    return new Key(node, node.getVersion(), parameters);
+  }
+
+  /**
+   * Liefert einen vorgehaltenen Wert.
+   *
+   * @param key Schlüssel
+   * @return Wert oder null, wenn keiner (mehr) vorliegt
+   */
+  synchronized V get(Key key) {
+    removeExpired();
+    Entry<V> entry = entries.get(key);
+    return entry != null ? entry.value() : null;
+  }
+
+  /**
+   * Legt einen Wert ab, sofern für den Schlüssel noch keiner vorliegt.
+   *
+   * @param key   Schlüssel
+   * @param value Wert
+   * @return bereits vorliegender Wert oder null, wenn der übergebene abgelegt wurde
+   */
+  synchronized V putIfAbsent(Key key, V value) {
+    V existing = get(key);
+    if (existing == null) {
+      put(key, value);
+    }
+    return existing;
+  }
+
+  /**
+   * Legt einen Wert ab und verdrängt dafür die am längsten nicht verwendeten. Ein Wert, der allein
+   * das Speicherbudget überschreitet, wird nicht abgelegt.
+   *
+   * @param key   Schlüssel
+   * @param value Wert
+   */
+  synchronized void put(Key key, V value) {
+    long bytes = sizeEstimator.applyAsLong(value);
+    if (bytes > maxBytes) {
+      return;
+    }
+    Entry<V> replaced = entries.put(key, new Entry<>(value, bytes, System.nanoTime()));
+    totalBytes += bytes - (replaced != null ? replaced.bytes() : 0);
+    Iterator<Entry<V>> eldest = entries.values().iterator();
+    while ((entries.size() > maxEntries || totalBytes > maxBytes) && eldest.hasNext()) {
+      totalBytes -= eldest.next().bytes();
+      eldest.remove();
+    }
+  }
+
+  /**
+   * Entfernt einen Wert, z.B. nach einer fehlgeschlagenen Berechnung.
+   *
+   * @param key Schlüssel
+   */
+  synchronized void remove(Key key) {
+    Entry<V> removed = entries.remove(key);
+    if (removed != null) {
+      totalBytes -= removed.bytes();
+    }
+  }
+
+  /**
+   * Gibt den geschätzten Speicherverbrauch aller vorgehaltenen Werte zurück.
+   *
+   * @return Speicherverbrauch in Bytes
+   */
+  synchronized long estimatedBytes() {
+    return totalBytes;
+  }
+
+  private void removeExpired() {
+    long now = System.nanoTime();
+    Iterator<Entry<V>> iterator = entries.values().iterator();
+    while (iterator.hasNext()) {
+      Entry<V> entry = iterator.next();
+      if (now - entry.createdNanos() > timeToLiveNanos) {
+        totalBytes -= entry.bytes();
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * Schlüssel eines Werts.
+   *
+   * @param node       Knoten
+   * @param version    Änderungsstand des Knotens beim Bilden des Schlüssels
+   * @param parameters übrige Parameter der Berechnung
+   */
+  record Key(FileNode node, long version, Object parameters) {
+  }
+
+  private record Entry<V>(V value, long bytes, long createdNanos) {
+  }
+}
@@ -0,0 +1,410 @@
+package com.voba.service;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.voba.model.FileNode;
+import com.voba.model.ScanOptions;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Cache für Scan-Ergebnisse vor dem {@link DirectoryService}.
+ *
+ * <p>
+ * Schlüssel ist der normalisierte absolute Pfad zusammen mit der
+ * {@link ScanOptions#resultSignature() Ergebnis-Signatur} der Optionen. Der Cache hat ein
+ * Speicherbudget: Einträge werden mit ihrer geschätzten Baumgröße verbucht und nach LRU verdrängt,
+ * sobald das Budget überschritten ist. Unterpfade eines gecachten Verzeichnisses werden direkt aus
+ * dem vorhandenen Baum beantwortet.
+ *
+ * <p>
+ * Gleichzeitige identische Anfragen werden zu einem einzigen Scan zusammengefasst
+ * (Single-Flight); alle Aufrufer erhalten dasselbe Ergebnis bzw. dieselbe Exception. Bricht der
+ * führende Aufrufer seinen Scan ab, scannt einer der wartenden Aufrufer neu.
+ *
+ * <p>
+ * Bäume, die im Watch-Modus laufend aktualisiert werden, sind angeheftet ({@link #pin}): Sie laufen
+ * nicht ab, werden nicht verdrängt und weder durch {@link #put}, {@link #invalidate} noch
+ * {@link #clear} ersetzt oder entfernt.
+ */
+@Service
+public class ScanCacheService {
+
+  @Autowired
+  private DirectoryService directoryService;
+
+  private final long maxBytes;
+  private final Duration timeToLive;
+  private final LinkedHashMap<CacheKey, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private final Map<CacheKey, CompletableFuture<FileNode>> inFlight = new ConcurrentHashMap<>();
+  private long totalBytes;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder subPathHits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * Konstruktor mit Konfiguration.
+   *
+   * @param maxBytes          Speicherbudget für alle gecachten Bäume in Bytes
+   * @param timeToLiveSeconds Gültigkeit eines Eintrags in Sekunden
+   */
+  public ScanCacheService(
+      @Value("${drivevisualizer.cache.max-bytes:268435456}") long maxBytes,
+      @Value("${drivevisualizer.cache.ttl-seconds:300}") long timeToLiveSeconds) {
+    this.maxBytes = maxBytes;
+    this.timeToLive = Duration.ofSeconds(timeToLiveSeconds);
+  }
+
+  /**
+   * Liefert den Baum eines Verzeichnisses aus dem Cache oder scannt es.
+   *
+   * @param path    Pfad zum Verzeichnis
+   * @param options Scan-Optionen
+   * @return FileNode-Objekt mit der Verzeichnisstruktur
+   * @throws IllegalArgumentException wenn der Pfad ungültig ist
+   */
+  public FileNode scan(String path, ScanOptions options) {
+    return scan(path, options, null).root();
+  }
+
+  /**
+   * Liefert den Baum eines Verzeichnisses aus dem Cache oder scannt es und meldet dabei den
+   * Fortschritt. Läuft bereits ein identischer Scan, wird wie bei
+   * {@link #scan(String, ScanOptions)} auf dessen Ergebnis gewartet; der Fortschritt bleibt dann
+   * unverändert, und der Aufrufer muss die Teilbäume selbst aus dem Ergebnis lesen
+   * ({@link ScanResult#scanned()}).
+   *
+   * @param path     Pfad zum Verzeichnis
+   * @param options  Scan-Optionen
+   * @param progress Fortschritt, der während eines eigenen Scans aktualisiert wird (null = keiner)
+   * @return Baum und ob dieser Aufruf ihn selbst gescannt hat
+   * @throws IllegalArgumentException wenn der Pfad ungültig ist
+   */
+  public ScanResult scan(String path, ScanOptions options, ScanProgress progress) {
+    ScanOptions effectiveOptions = options != null ? options : new ScanOptions();
+    FileNode cached = getIfPresent(path, effectiveOptions);
+    if (cached != null) {
+      return new ScanResult(cached, false);
+    }
+
+    misses.increment();
+    CacheKey key = new CacheKey(normalize(path), effectiveOptions.resultSignature());
+    CompletableFuture<FileNode> future = new CompletableFuture<>();
+    CompletableFuture<FileNode> existing;
+    while ((existing = inFlight.putIfAbsent(key, future)) != null) {
+      coalesced.increment();
+      try {
+        return new ScanResult(await(existing), false);
+      } catch (UncheckedIOException | CancellationException abandoned) {
+        // Der führende Aufrufer hat seinen Scan abgebrochen (z.B. Client getrennt), nicht der Pfad
+        // ist fehlerhaft: erneut anschließen oder selbst scannen
+      }
+    }
+
+    try {
+      FileNode result = progress != null
+          ? directoryService.scanDirectory(path, effectiveOptions, progress)
+          : directoryService.scanDirectory(path, effectiveOptions);
+      put(path, effectiveOptions, result);
+      inFlight.remove(key, future);
+      future.complete(result);
+      return new ScanResult(result, true);
+    } catch (RuntimeException exception) {
+      // Erst austragen, damit erneut wartende Aufrufer nicht dasselbe Ergebnis erhalten
+      inFlight.remove(key, future);
+      future.completeExceptionally(exception);
+      throw exception;
+    }
+  }
+
+  /**
+   * Scannt ein Verzeichnis neu und ersetzt das gecachte Ergebnis. Mit
+   * {@link ScanOptions#isIncremental()} dient ein vorhandenes Ergebnis (auch als Teilbaum eines
+   * größeren Eintrags) als Grundlage für {@link DirectoryService#scanIncremental}.
+   *
+   * @param path     Pfad zum Verzeichnis
+   * @param options  Scan-Optionen
+   * @param progress Fortschritt, der während des Scans aktualisiert wird
+   * @return neu gescannter Baum
+   * @throws IllegalArgumentException wenn der Pfad ungültig ist
+   */
+  public FileNode refresh(String path, ScanOptions options, ScanProgress progress) {
+    ScanOptions effectiveOptions = options != null ? options : new ScanOptions();
+    FileNode previous = effectiveOptions.isIncremental()
+        ? find(normalize(path), effectiveOptions.resultSignature(), false)
+        : null;
+    invalidate(path);
+
+    FileNode result = previous != null
+        ? directoryService.scanIncremental(path, effectiveOptions, previous, progress)
+        : directoryService.scanDirectory(path, effectiveOptions, progress);
+    put(path, effectiveOptions, result);
+    return result;
+  }
+
+  /**
+   * Sucht einen Baum im Cache, ohne bei Fehlschlag zu scannen. Unterpfade gecachter Verzeichnisse
+   * werden aus dem vorhandenen Baum herausgesucht.
+   *
+   * @param path    Pfad zum Verzeichnis
+   * @param options Scan-Optionen
+   * @return gecachter Knoten oder null
+   */
+  public FileNode getIfPresent(String path, ScanOptions options) {
+    return find(normalize(path), options.resultSignature(), true);
+  }
+
+  private synchronized FileNode find(Path normalized, String signature, boolean countHits) {
+    removeExpired();
+    CacheEntry exact = entries.get(new CacheKey(normalized, signature));
+    if (exact != null) {
+      if (countHits) {
+        hits.increment();
+      }
+      return exact.root;
+    }
+
+    for (CacheEntry entry : entries.values()) {
+      if (entry.key.signature.equals(signature) && normalized.startsWith(entry.key.root)) {
+        FileNode node = findDescendant(entry.root, entry.key.root.relativize(normalized));
+        if (node != null && node.isDirectory()) {
+          if (countHits) {
+            subPathHits.increment();
+          }
+          return node;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Legt ein Scan-Ergebnis im Cache ab. Ergebnisse, die allein das Budget übersteigen, werden
+   * nicht gecacht.
+   *
+   * @param path    Pfad zum Verzeichnis
+   * @param options Scan-Optionen
+   * @param root    Wurzel des gescannten Baums
+   */
+  public void put(String path, ScanOptions options, FileNode root) {
+    long estimatedBytes = root.estimateMemoryBytes();
+    if (estimatedBytes > maxBytes) {
+      return;
+    }
+
+    CacheKey key = new CacheKey(normalize(path), options.resultSignature());
+    synchronized (this) {
+      CacheEntry previous = entries.get(key);
+      if (previous != null && previous.pinned) {
+        return;
+      }
+      store(new CacheEntry(key, root, estimatedBytes, false));
+      evictOverBudget();
+    }
+  }
+
+  /**
+   * Heftet einen Baum an, der von außen laufend aktualisiert wird. Überlappende Einträge werden
+   * entfernt, da sie den angehefteten Teilbaum sonst in veraltetem Zustand enthalten könnten.
+   *
+   * @param path    Pfad zum Verzeichnis
+   * @param options Scan-Optionen
+   * @param root    Wurzel des angehefteten Baums
+   */
+  public synchronized void pin(String path, ScanOptions options, FileNode root) {
+    invalidate(path);
+    store(new CacheEntry(
+        new CacheKey(normalize(path), options.resultSignature()), root, root.estimateMemoryBytes(), true));
+  }
+
+  /**
+   * Löst das Anheften eines Baums. Der Eintrag bleibt als gewöhnlicher Eintrag im Cache.
+   *
+   * @param path    Pfad zum Verzeichnis
+   * @param options Scan-Optionen
+   */
+  public synchronized void unpin(String path, ScanOptions options) {
+    CacheKey key = new CacheKey(normalize(path), options.resultSignature());
+    CacheEntry entry = entries.get(key);
+    if (entry != null && entry.pinned) {
+      store(new CacheEntry(key, entry.root, entry.root.estimateMemoryBytes(), false));
+      evictOverBudget();
+    }
+  }
+
+  private void store(CacheEntry entry) {
+    CacheEntry previous = entries.put(entry.key, entry);
+    if (previous != null) {
+      totalBytes -= previous.estimatedBytes;
+    }
+    totalBytes += entry.estimatedBytes;
+  }
+
+  private void evictOverBudget() {
+    Iterator<CacheEntry> eldest = entries.values().iterator();
+    while (totalBytes > maxBytes && eldest.hasNext()) {
+      CacheEntry candidate = eldest.next();
+      if (!candidate.pinned) {
+        eldest.remove();
+        totalBytes -= candidate.estimatedBytes;
+        evictions.increment();
+      }
+    }
+  }
+
+  /**
+   * Entfernt alle nicht angehefteten Einträge, deren Wurzel der Pfad ist oder innerhalb des Pfads
+   * liegt, sowie Einträge, die den Pfad enthalten.
+   *
+   * @param path betroffener Pfad
+   */
+  public synchronized void invalidate(String path) {
+    Path normalized = normalize(path);
+    entries.values().removeIf(entry -> {
+      boolean affected = !entry.pinned
+          && (entry.key.root.startsWith(normalized) || normalized.startsWith(entry.key.root));
+      if (affected) {
+        totalBytes -= entry.estimatedBytes;
+      }
+      return affected;
+    });
+  }
+
+  /** Entfernt alle nicht angehefteten Einträge. */
+  public synchronized void clear() {
+    entries.values().removeIf(entry -> {
+      if (!entry.pinned) {
+        totalBytes -= entry.estimatedBytes;
+      }
+      return !entry.pinned;
+    });
+  }
+
+  /**
+   * Gibt die Zähler und den aktuellen Füllstand des Caches zurück.
+   *
+   * @return Statistik als geordnete Map
+   */
+  public synchronized Map<String, Object> getStats() {
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("hits", hits.sum());
+    stats.put("subPathHits", subPathHits.sum());
+    stats.put("misses", misses.sum());
+    stats.put("coalesced", coalesced.sum());
+    stats.put("evictions", evictions.sum());
+    stats.put("entries", entries.size());
+    stats.put("pinned", entries.values().stream().filter(entry -> entry.pinned).count());
+    stats.put("estimatedBytes", totalBytes);
+    stats.put("maxBytes", maxBytes);
+    List<String> roots = new ArrayList<>();
+    entries.keySet().forEach(key -> roots.add(key.root.toString()));
+    stats.put("roots", roots);
+    return stats;
+  }
+
+  private void removeExpired() {
+    long now = System.nanoTime();
+    entries.values().removeIf(entry -> {
+      boolean expired = !entry.pinned && now - entry.createdNanos > timeToLive.toNanos();
+      if (expired) {
+        totalBytes -= entry.estimatedBytes;
+      }
+      return expired;
+    });
+  }
+
+  private FileNode await(CompletableFuture<FileNode> future) {
+    try {
+      return future.join();
+    } catch (CompletionException exception) {
+      if (exception.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw exception;
+    }
+  }
+
+  /**
+   * Sucht einen Nachfahren anhand der Namenssegmente eines relativen Pfads.
+   *
+   * @param root     Startknoten
+   * @param relative relativer Pfad unterhalb des Startknotens
+   * @return gefundener Knoten oder null
+   */
+  static FileNode findDescendant(FileNode root, Path relative) {
+    FileNode current = root;
+    if (relative.toString().isEmpty()) {
+      return current;
+    }
+    for (Path segment : relative) {
+      String name = segment.toString();
+      FileNode next = null;
+      for (FileNode child : current.getChildren()) {
+        if (child.getName().equals(name)) {
+          next = child;
+          break;
+        }
+      }
+      if (next == null) {
+        return null;
+      }
+      current = next;
+    }
+    return current;
+  }
+
+  static Path normalize(String path) {
+    return Paths.get(path).toAbsolutePath().normalize();
+  }
+
+  /**
+   * Ergebnis von {@link #scan(String, ScanOptions, ScanProgress)}.
+   *
+   * @param root    Wurzel des Baums
+   * @param scanned true, wenn dieser Aufruf den Scan ausgeführt hat; false, wenn der Baum aus dem
+   *                Cache oder von einem gleichzeitigen identischen Scan stammt
+   */
+  public record ScanResult(FileNode root, boolean scanned) {
+  }
+
+  private record CacheKey(Path root, String signature) {
+    CacheKey {
+      Objects.requireNonNull(root);
+      Objects.requireNonNull(signature);
+    }
+  }
+
+  private static final class CacheEntry {
+    private final CacheKey key;
+    private final FileNode root;
+    private final long estimatedBytes;
+    private final boolean pinned;
+    private final long createdNanos = System.nanoTime();
+
+    CacheEntry(CacheKey key, FileNode root, long estimatedBytes, boolean pinned) {
+      this.key = key;
+      this.root = root;
+      this.estimatedBytes = estimatedBytes;
+      this.pinned = pinned;
+    }
+  }
+}
@@ -0,0 +1,244 @@
+package com.voba.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import com.voba.model.ScanOptions;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Anwendungsweiter Ausführungsrahmen für Scans mit Zulassungskontrolle.
+ *
+ * <p>
+ * Statt pro Anfrage einen eigenen {@link ForkJoinPool} anzulegen, hält der Executor eine feste
+ * Anzahl von Plätzen mit je einem langlebigen Pool. Das globale Thread-Budget wird gleichmäßig auf
+ * die Plätze verteilt; ein Scan erhält höchstens diesen Anteil, auch wenn er über
+ * {@link ScanOptions#getMaxThreads()} mehr verlangt. Sind alle Plätze belegt, wartet ein Scan in
+ * einer Warteschlange begrenzter Tiefe. Ist auch diese voll, wird er sofort mit
+ * {@link ScanRejectedException.Reason#QUEUE_FULL} abgelehnt; wartet er länger als die konfigurierte
+ * Zeit, mit {@link ScanRejectedException.Reason#TIMEOUT}.
+ *
+ * <p>
+ * Alle Scans belegen einen Platz, auch sequentielle, kompakte und solche auf virtuellen Threads;
+ * nur parallele Fork/Join-Scans nutzen den Pool des Platzes.
+ *
+ * <p>
+ * Auslastung und Wartezeiten werden zusätzlich als Micrometer-Metriken
+ * ({@code drivevisualizer.executor.*}) veröffentlicht.
+ */
+@Service
+public class ScanExecutor implements MeterBinder {
+
+  private static final Logger logger = LoggerFactory.getLogger(ScanExecutor.class);
+
+  private final int threadBudget;
+  private final int maxConcurrentScans;
+  private final int parallelismPerScan;
+  private final int queueDepth;
+  private final Duration queueTimeout;
+  private final Semaphore slots;
+  private final Queue<ForkJoinPool> idlePools = new ConcurrentLinkedQueue<>();
+  private final List<ForkJoinPool> pools = new ArrayList<>();
+  private final AtomicInteger queued = new AtomicInteger();
+  private final AtomicInteger active = new AtomicInteger();
+  private volatile boolean shutdown;
+
+  private final LongAdder completed = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder timedOut = new LongAdder();
+  private final LongAdder totalQueueNanos = new LongAdder();
+  private final AtomicLong maxQueueNanos = new AtomicLong();
+
+  /**
+   * Konstruktor mit Konfiguration.
+   *
+   * @param threadBudget        Threads für alle parallelen Scans zusammen (0 = Anzahl CPU-Kerne)
+   * @param maxConcurrentScans  max. Anzahl gleichzeitig laufender Scans
+   * @param queueDepth          max. Anzahl wartender Scans
+   * @param queueTimeoutSeconds max. Wartezeit eines Scans in der Warteschlange in Sekunden
+   */
+  public ScanExecutor(
+      @Value("${drivevisualizer.scan.thread-budget:0}") int threadBudget,
+      @Value("${drivevisualizer.scan.max-concurrent:2}") int maxConcurrentScans,
+      @Value("${drivevisualizer.scan.queue-depth:16}") int queueDepth,
+      @Value("${drivevisualizer.scan.queue-timeout-seconds:60}") long queueTimeoutSeconds) {
+    if (maxConcurrentScans < 1 || queueDepth < 0) {
+      throw new IllegalArgumentException("max-concurrent must be at least 1, queue-depth at least 0");
+    }
+    this.threadBudget = threadBudget > 0 ? threadBudget : Runtime.getRuntime().availableProcessors();
+    this.maxConcurrentScans = maxConcurrentScans;
+    this.parallelismPerScan = Math.max(1, this.threadBudget / maxConcurrentScans);
+    this.queueDepth = queueDepth;
+    this.queueTimeout = Duration.ofSeconds(queueTimeoutSeconds);
+    this.slots = new Semaphore(maxConcurrentScans, true);
+    for (int i = 0; i < maxConcurrentScans; i++) {
+      ForkJoinPool pool = new ForkJoinPool(parallelismPerScan);
+      pools.add(pool);
+      idlePools.add(pool);
+    }
+  }
+
+  /**
+   * Führt einen Scan aus, sobald ein Platz frei ist. Der Scan läuft auf dem aufrufenden Thread und
+   * erhält den Pool des Platzes, dessen Parallelität auf den Anteil des Scans begrenzt ist.
+   *
+   * @param options Scan-Optionen (für die gewünschte Thread-Anzahl)
+   * @param scan    auszuführender Scan
+   * @param <T>     Ergebnistyp
+   * @return Ergebnis des Scans
+   * @throws ScanRejectedException wenn der Scan nicht angenommen wird
+   */
+  public <T> T execute(ScanOptions options, Function<ForkJoinPool, T> scan) {
+    long queuedAt = System.nanoTime();
+    acquireSlot();
+    long queueNanos = System.nanoTime() - queuedAt;
+    totalQueueNanos.add(queueNanos);
+    maxQueueNanos.accumulateAndGet(queueNanos, Math::max);
+
+    ForkJoinPool pool = idlePools.poll();
+    active.incrementAndGet();
+    try {
+      pool.setParallelism(Math.min(options.getMaxThreads(), parallelismPerScan));
+      return scan.apply(pool);
+    } finally {
+      // Nach einem Abbruch können noch abgespaltene Tasks laufen; sie enden beim nächsten
+      // checkCancelled() und sollen den nächsten Scan auf diesem Platz nicht ausbremsen
+      pool.awaitQuiescence(1, TimeUnit.SECONDS);
+      active.decrementAndGet();
+      completed.increment();
+      idlePools.add(pool);
+      slots.release();
+    }
+  }
+
+  private void acquireSlot() {
+    if (shutdown) {
+      throw new ScanRejectedException(ScanRejectedException.Reason.SHUTDOWN, "Scan executor is shut down");
+    }
+    try {
+      // Mit Timeout 0 respektiert auch der sofortige Versuch die Reihenfolge der Wartenden
+      if (slots.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+        return;
+      }
+      if (queued.incrementAndGet() > queueDepth) {
+        queued.decrementAndGet();
+        rejected.increment();
+        throw new ScanRejectedException(ScanRejectedException.Reason.QUEUE_FULL,
+            "Too many scans: " + maxConcurrentScans + " running, " + queueDepth + " waiting");
+      }
+      try {
+        if (!slots.tryAcquire(queueTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+          timedOut.increment();
+          throw new ScanRejectedException(ScanRejectedException.Reason.TIMEOUT,
+              "Scan waited longer than " + queueTimeout.toSeconds() + " s for a free slot");
+        }
+      } finally {
+        queued.decrementAndGet();
+      }
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new CancellationException("Interrupted while waiting for a scan slot");
+    }
+  }
+
+  /**
+   * Prüft, ob ein neuer Scan sofort abgelehnt würde, weil alle Plätze belegt sind und die
+   * Warteschlange voll ist.
+   *
+   * @return true, wenn keine weiteren Scans angenommen werden
+   */
+  public boolean isSaturated() {
+    return shutdown || (slots.availablePermits() == 0 && queued.get() >= queueDepth);
+  }
+
+  /**
+   * Gibt Konfiguration, Auslastung und Wartezeiten zurück.
+   *
+   * @return Statistik als geordnete Map
+   */
+  public Map<String, Object> getStats() {
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("threadBudget", threadBudget);
+    stats.put("maxConcurrentScans", maxConcurrentScans);
+    stats.put("parallelismPerScan", parallelismPerScan);
+    stats.put("queueDepth", queueDepth);
+    stats.put("activeScans", active.get());
+    stats.put("queuedScans", queued.get());
+    stats.put("completedScans", completed.sum());
+    stats.put("rejectedScans", rejected.sum());
+    stats.put("timedOutScans", timedOut.sum());
+    long admitted = completed.sum() + active.get();
+    stats.put("averageQueueMillis", admitted > 0
+        ? TimeUnit.NANOSECONDS.toMillis(totalQueueNanos.sum() / admitted)
+        : 0);
+    stats.put("maxQueueMillis", TimeUnit.NANOSECONDS.toMillis(maxQueueNanos.get()));
+    stats.put("poolThreads", pools.stream().mapToInt(ForkJoinPool::getPoolSize).sum());
+    return stats;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("drivevisualizer.executor.scans.active", active, AtomicInteger::get)
+        .description("Scans currently holding a slot")
+        .register(registry);
+    Gauge.builder("drivevisualizer.executor.scans.queued", queued, AtomicInteger::get)
+        .description("Scans waiting for a slot")
+        .register(registry);
+    Gauge.builder("drivevisualizer.executor.pool.active", this,
+            executor -> executor.pools.stream().mapToInt(ForkJoinPool::getActiveThreadCount).sum())
+        .description("Pool threads currently scanning or stealing work")
+        .register(registry);
+    Gauge.builder("drivevisualizer.executor.pool.size", this,
+            executor -> executor.pools.stream().mapToInt(ForkJoinPool::getPoolSize).sum())
+        .description("Threads started in all scan pools")
+        .register(registry);
+    Gauge.builder("drivevisualizer.executor.pool.capacity",
+            () -> parallelismPerScan * maxConcurrentScans)
+        .description("Thread budget for all parallel scans")
+        .register(registry);
+    FunctionCounter.builder("drivevisualizer.executor.scans.rejected", rejected, LongAdder::sum)
+        .description("Scans rejected because the queue was full")
+        .register(registry);
+    FunctionCounter.builder("drivevisualizer.executor.scans.timedout", timedOut, LongAdder::sum)
+        .description("Scans that waited too long for a slot")
+        .register(registry);
+    FunctionTimer.builder("drivevisualizer.executor.queue.wait", this,
+            executor -> executor.completed.sum() + executor.active.get(),
+            executor -> executor.totalQueueNanos.sum(), TimeUnit.NANOSECONDS)
+        .description("Time admitted scans waited for a slot")
+        .register(registry);
+  }
+
+  /** Beendet beim Herunterfahren alle Pools; wartende Scans werden abgelehnt. */
+  @PreDestroy
+  public void shutdown() {
+    shutdown = true;
+    pools.forEach(ForkJoinPool::shutdownNow);
+    logger.debug("Scan executor shut down after {} scans", completed.sum());
+  }
+}
@@ -0,0 +1,186 @@
+package com.voba.service;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.Future;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.voba.model.FileNode;
+import com.voba.model.ScanOptions;
+
+/**
+ * Ein asynchron ausgeführter Scan mit Status, Fortschritt und (nach Abschluss) Ergebnis.
+ *
+ * <p>
+ * Wird als JSON-Statusobjekt ausgeliefert; das Ergebnis selbst ist nur über
+ * {@link ScanJobService#getResult(String)} abrufbar.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ScanJob {
+
+  /** Lebenszyklus eines Scan-Jobs. */
+  public enum Status {
+    QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED;
+
+    public boolean isFinished() {
+      return this == COMPLETED || this == FAILED || this == CANCELLED;
+    }
+  }
+
+  private final String id = UUID.randomUUID().toString();
+  private final String path;
+  private final ScanOptions options;
+  private final ScanProgress progress = new ScanProgress();
+  private final long expectedBytes;
+  private final Instant createdAt = Instant.now();
+
+  private volatile Status status = Status.QUEUED;
+  private volatile Instant startedAt;
+  private volatile Instant finishedAt;
+  private volatile String error;
+  private volatile FileNode result;
+  private volatile Future<?> future;
+
+  /**
+   * Konstruktor für einen neuen Job.
+   *
+   * @param path          Pfad zum zu scannenden Verzeichnis
+   * @param options       Scan-Optionen
+   * @param expectedBytes erwartete Gesamtgröße für die Restzeit-Schätzung (0 = unbekannt)
+   */
+  ScanJob(String path, ScanOptions options, long expectedBytes) {
+    this.path = path;
+    this.options = options;
+    this.expectedBytes = expectedBytes;
+  }
+
+  synchronized void markRunning() {
+    if (status == Status.QUEUED) {
+      status = Status.RUNNING;
+      startedAt = Instant.now();
+    }
+  }
+
+  synchronized void markCompleted(FileNode result) {
+    this.result = result;
+    finish(Status.COMPLETED);
+  }
+
+  synchronized void markFailed(String error) {
+    this.error = error;
+    finish(Status.FAILED);
+  }
+
+  synchronized void markCancelled() {
+    finish(Status.CANCELLED);
+  }
+
+  private void finish(Status finalStatus) {
+    if (!status.isFinished()) {
+      status = finalStatus;
+      finishedAt = Instant.now();
+      future = null;
+    }
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public String getPath() {
+    return path;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  public Instant getStartedAt() {
+    return startedAt;
+  }
+
+  public Instant getFinishedAt() {
+    return finishedAt;
+  }
+
+  public String getError() {
+    return error;
+  }
+
+  public long getDirectories() {
+    return progress.getDirectories();
+  }
+
+  public long getFiles() {
+    return progress.getFiles();
+  }
+
+  public long getBytes() {
+    return progress.getBytes();
+  }
+
+  public long getReusedDirectories() {
+    return progress.getReusedDirectories();
+  }
+
+  /**
+   * Gibt die Laufzeit des Jobs zurück.
+   *
+   * @return Laufzeit in Millisekunden oder null, wenn der Job noch nicht gestartet ist
+   */
+  public Long getElapsedMillis() {
+    Instant start = startedAt;
+    if (start == null) {
+      return null;
+    }
+    Instant end = finishedAt != null ? finishedAt : Instant.now();
+    return end.toEpochMilli() - start.toEpochMilli();
+  }
+
+  /**
+   * Schätzt die Restlaufzeit anhand der bisher gelesenen Bytes. Nur verfügbar, wenn die erwartete
+   * Gesamtgröße bekannt ist (Scan eines kompletten Laufwerks).
+   *
+   * @return geschätzte Restlaufzeit in Millisekunden oder null, wenn keine Schätzung möglich ist
+   */
+  public Long getEstimatedRemainingMillis() {
+    Long elapsed = getElapsedMillis();
+    long bytes = getBytes();
+    if (status != Status.RUNNING || elapsed == null || expectedBytes <= 0 || bytes <= 0) {
+      return null;
+    }
+    long remainingBytes = Math.max(0, expectedBytes - bytes);
+    return (long) (elapsed * ((double) remainingBytes / bytes));
+  }
+
+  @JsonIgnore
+  public ScanOptions getOptions() {
+    return options;
+  }
+
+  @JsonIgnore
+  ScanProgress getProgress() {
+    return progress;
+  }
+
+  @JsonIgnore
+  FileNode getResult() {
+    return result;
+  }
+
+  @JsonIgnore
+  Future<?> getFuture() {
+    return future;
+  }
+
+  synchronized void setFuture(Future<?> future) {
+    if (!status.isFinished()) {
+      this.future = future;
+    }
+  }
+}
@@ -0,0 +1,206 @@
+package com.voba.service;
+
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.voba.model.FileNode;
+import com.voba.model.ScanOptions;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service für asynchron ausgeführte Scans.
+ *
+ * <p>
+ * Jobs laufen auf einem eigenen, in der Größe begrenzten Thread-Pool statt auf dem
+ * Servlet-Request-Thread. Laufende Jobs können jederzeit abgebrochen werden; der Abbruch wird über
+ * {@link ScanProgress#cancel()} bis in die Fork/Join-Tasks weitergereicht. Abgeschlossene Jobs
+ * bleiben samt Ergebnis in einer begrenzten Registry abrufbar, die ältesten werden verdrängt.
+ * Jobs scannen immer neu ({@link ScanCacheService#refresh}) und legen ihr Ergebnis im Cache ab;
+ * mit {@link com.voba.model.ScanOptions#isIncremental()} dient ein gecachtes Ergebnis als Grundlage.
+ */
+@Service
+public class ScanJobService {
+
+  private static final Logger logger = LoggerFactory.getLogger(ScanJobService.class);
+
+  @Autowired
+  private DirectoryService directoryService;
+
+  @Autowired
+  private ScanCacheService scanCacheService;
+
+  private final int maxFinishedJobs;
+  private final ExecutorService executor;
+  private final Map<String, ScanJob> activeJobs = new ConcurrentHashMap<>();
+  private final Map<String, ScanJob> finishedJobs;
+
+  /**
+   * Konstruktor mit Konfiguration.
+   *
+   * @param maxConcurrentJobs max. Anzahl gleichzeitig laufender Jobs
+   * @param maxFinishedJobs   max. Anzahl aufbewahrter abgeschlossener Jobs
+   */
+  public ScanJobService(
+      @Value("${drivevisualizer.jobs.max-concurrent:2}") int maxConcurrentJobs,
+      @Value("${drivevisualizer.jobs.max-finished:20}") int maxFinishedJobs) {
+    this.maxFinishedJobs = maxFinishedJobs;
+    this.finishedJobs = Collections.synchronizedMap(
+        new LinkedHashMap<String, ScanJob>(16, 0.75f, false) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, ScanJob> eldest) {
+            return size() > ScanJobService.this.maxFinishedJobs;
+          }
+        });
+    AtomicInteger threadNumber = new AtomicInteger();
+    this.executor = Executors.newFixedThreadPool(maxConcurrentJobs, runnable -> {
+      Thread thread = new Thread(runnable, "scan-job-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Startet einen neuen Scan-Job.
+   *
+   * @param path    Pfad zum zu scannenden Verzeichnis
+   * @param options Scan-Optionen
+   * @return der angelegte Job (Status QUEUED oder bereits RUNNING)
+   * @throws IllegalArgumentException wenn der Pfad ungültig ist
+   */
+  public ScanJob startJob(String path, ScanOptions options) {
+    directoryService.validateDirectory(path);
+
+    ScanJob job = new ScanJob(path, options, expectedBytes(path));
+    activeJobs.put(job.getId(), job);
+    job.setFuture(executor.submit(() -> run(job)));
+    return job;
+  }
+
+  /**
+   * Sucht einen laufenden oder abgeschlossenen Job.
+   *
+   * @param id ID des Jobs
+   * @return der Job oder null, wenn er unbekannt oder bereits verdrängt ist
+   */
+  public ScanJob getJob(String id) {
+    ScanJob job = activeJobs.get(id);
+    return job != null ? job : finishedJobs.get(id);
+  }
+
+  /**
+   * Gibt alle laufenden und aufbewahrten Jobs zurück.
+   *
+   * @return Liste der Jobs (laufende zuerst)
+   */
+  public List<ScanJob> getJobs() {
+    List<ScanJob> jobs = new ArrayList<>(activeJobs.values());
+    synchronized (finishedJobs) {
+      jobs.addAll(finishedJobs.values());
+    }
+    return jobs;
+  }
+
+  /**
+   * Gibt das Ergebnis eines abgeschlossenen Jobs zurück.
+   *
+   * @param id ID des Jobs
+   * @return Wurzel des gescannten Baums oder null, wenn der Job unbekannt oder nicht erfolgreich
+   *         abgeschlossen ist
+   */
+  public FileNode getResult(String id) {
+    ScanJob job = getJob(id);
+    return job != null ? job.getResult() : null;
+  }
+
+  /**
+   * Bricht einen Job ab. Wartende Jobs werden nicht mehr gestartet, laufende Scan-Tasks beenden
+   * sich beim nächsten Eintrag.
+   *
+   * @param id ID des Jobs
+   * @return der Job oder null, wenn er unbekannt ist
+   */
+  public ScanJob cancelJob(String id) {
+    ScanJob job = getJob(id);
+    if (job == null || job.getStatus().isFinished()) {
+      return job;
+    }
+
+    job.getProgress().cancel();
+    if (job.getStatus() == ScanJob.Status.QUEUED && job.getFuture() != null
+        && job.getFuture().cancel(false)) {
+      // Job wurde nie gestartet, run() räumt daher nicht selbst auf
+      job.markCancelled();
+      retire(job);
+    }
+    return job;
+  }
+
+  /** Bricht beim Herunterfahren alle laufenden Jobs ab. */
+  @PreDestroy
+  public void shutdown() {
+    activeJobs.values().forEach(job -> job.getProgress().cancel());
+    executor.shutdownNow();
+  }
+
+  private void run(ScanJob job) {
+    job.markRunning();
+    try {
+      job.getProgress().checkCancelled();
+      FileNode result = scanCacheService.refresh(job.getPath(), job.getOptions(), job.getProgress());
+      job.markCompleted(result);
+    } catch (CancellationException exception) {
+      job.markCancelled();
+    } catch (RuntimeException exception) {
+      logger.warn("Scan-Job {} für {} fehlgeschlagen", job.getId(), job.getPath(), exception);
+      job.markFailed(exception.getMessage());
+    } finally {
+      retire(job);
+    }
+  }
+
+  private void retire(ScanJob job) {
+    finishedJobs.put(job.getId(), job);
+    activeJobs.remove(job.getId());
+  }
+
+  /**
+   * Ermittelt die belegte Größe des Laufwerks, wenn der Pfad dessen Wurzel ist. Nur dann ist die
+   * belegte Größe eine sinnvolle Obergrenze für die Restzeit-Schätzung.
+   *
+   * @param path Pfad des zu scannenden Verzeichnisses
+   * @return belegte Bytes des Laufwerks oder 0, wenn unbekannt
+   */
+  private long expectedBytes(String path) {
+    try {
+      Path root = Paths.get(path).toAbsolutePath().normalize();
+      FileStore store = Files.getFileStore(root);
+      Path parent = root.getParent();
+      if (parent != null && store.equals(Files.getFileStore(parent))) {
+        return 0;
+      }
+      return store.getTotalSpace() - store.getUnallocatedSpace();
+    } catch (IOException | RuntimeException exception) {
+      return 0;
+    }
+  }
+}
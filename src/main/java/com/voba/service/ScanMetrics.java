@@ -0,0 +1,169 @@
+package com.voba.service;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.voba.model.ScanEngine;
+import com.voba.model.ScanOptions;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Micrometer-Metriken für Scans.
+ *
+ * <p>
+ * Jeder Scan wird mit den Tags {@code root} (Wurzelpfad, gekürzt auf die ersten
+ * {@code drivevisualizer.metrics.root-tag-depth} Ebenen, um die Anzahl der Zeitreihen zu begrenzen)
+ * und {@code mode} (sequential, parallel, virtual, compact, file_io, incremental) erfasst:
+ *
+ * <ul>
+ * <li>{@code drivevisualizer.scan.duration}: Dauer mit Histogramm, zusätzlich getaggt mit
+ * {@code outcome} (success, cancelled, error); die Wartezeit im {@link ScanExecutor} zählt nicht
+ * dazu
+ * <li>{@code drivevisualizer.scan.entries}, {@code drivevisualizer.scan.directories.listed},
+ * {@code drivevisualizer.scan.entries.skipped}, {@code drivevisualizer.scan.entries.unreadable}:
+ * Zähler, deren Rate z.B. Einträge pro Sekunde ergibt
+ * <li>{@code drivevisualizer.scan.stat.latency} und {@code drivevisualizer.scan.readdir.latency}:
+ * Histogramme der Dauer einzelner Zugriffe; stat-Aufrufe werden stichprobenartig (jeder
+ * {@value #STAT_SAMPLE_RATE}.) erfasst, damit die Messung den Scan nicht bremst
+ * </ul>
+ */
+@Component
+public class ScanMetrics {
+
+  /** Nur jeder n-te stat-Aufruf wird in das Histogramm übernommen. */
+  static final int STAT_SAMPLE_RATE = 16;
+
+  private final MeterRegistry registry;
+  private final int rootTagDepth;
+
+  /**
+   * Konstruktor mit Registry und Konfiguration.
+   *
+   * @param registry     Registry, in der die Metriken angelegt werden
+   * @param rootTagDepth Anzahl der Pfadebenen im Tag {@code root}
+   */
+  public ScanMetrics(
+      MeterRegistry registry,
+      @Value("${drivevisualizer.metrics.root-tag-depth:2}") int rootTagDepth) {
+    this.registry = registry;
+    this.rootTagDepth = rootTagDepth;
+  }
+
+  /**
+   * Führt einen Scan aus und erfasst dabei seine Metriken.
+   *
+   * @param root     Wurzelverzeichnis
+   * @param mode     Modus für das Tag {@code mode}, siehe {@link #mode(ScanOptions)}
+   * @param progress Fortschritt des Scans (liefert die Zähler)
+   * @param scan     auszuführender Scan
+   * @param <T>      Ergebnistyp
+   * @return Ergebnis des Scans
+   */
+  public <T> T record(Path root, String mode, ScanProgress progress, Supplier<T> scan) {
+    Tags tags = Tags.of("root", rootTag(root), "mode", mode);
+    Timer statLatency = Timer.builder("drivevisualizer.scan.stat.latency")
+        .description("Duration of reading the attributes of one entry (sampled)")
+        .tags(tags)
+        .publishPercentileHistogram()
+        .register(registry);
+    Timer readdirLatency = Timer.builder("drivevisualizer.scan.readdir.latency")
+        .description("Duration of listing one directory, excluding attribute reads")
+        .tags(tags)
+        .publishPercentileHistogram()
+        .register(registry);
+    progress.onIo(new ScanProgress.IoObserver() {
+      @Override
+      public void attributesRead(long nanos) {
+        if (ThreadLocalRandom.current().nextInt(STAT_SAMPLE_RATE) == 0) {
+          statLatency.record(nanos, TimeUnit.NANOSECONDS);
+        }
+      }
+
+      @Override
+      public void directoryListed(long nanos) {
+        readdirLatency.record(nanos, TimeUnit.NANOSECONDS);
+      }
+    });
+
+    long start = System.nanoTime();
+    String outcome = "error";
+    try {
+      T result = scan.get();
+      outcome = "success";
+      return result;
+    } catch (CancellationException exception) {
+      outcome = "cancelled";
+      throw exception;
+    } finally {
+      Timer.builder("drivevisualizer.scan.duration")
+          .description("Duration of a scan")
+          .tags(tags.and("outcome", outcome))
+          .publishPercentileHistogram()
+          .minimumExpectedValue(Duration.ofMillis(1))
+          .maximumExpectedValue(Duration.ofHours(1))
+          .register(registry)
+          .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      count("drivevisualizer.scan.entries", "Files and directories read", tags,
+          progress.getFiles() + progress.getDirectories());
+      count("drivevisualizer.scan.directories.listed", "Directories listed (not reused)", tags,
+          progress.getRelistedDirectories());
+      count("drivevisualizer.scan.entries.skipped", "Entries skipped (symlinks, hidden)", tags,
+          progress.getSkippedEntries());
+      count("drivevisualizer.scan.entries.unreadable",
+          "Entries and directories that could not be read, e.g. permission denied", tags,
+          progress.getUnreadableEntries());
+    }
+  }
+
+  private void count(String name, String description, Tags tags, long amount) {
+    Counter.builder(name).description(description).tags(tags).register(registry).increment(amount);
+  }
+
+  /**
+   * Ermittelt das Tag {@code mode} für einen Scan mit den angegebenen Optionen.
+   *
+   * @param options Scan-Optionen
+   * @return Name des Modus
+   */
+  public static String mode(ScanOptions options) {
+    if (options.isCompactTree()) {
+      return "compact";
+    }
+    if (options.isUseVirtualThreads()) {
+      return "virtual";
+    }
+    if (options.getEngine() == ScanEngine.FILE_IO) {
+      return "file_io";
+    }
+    return options.isUseParallelProcessing() ? "parallel" : "sequential";
+  }
+
+  /**
+   * Kürzt einen Wurzelpfad auf die konfigurierte Anzahl Ebenen, z.B. {@code /home/user/Music} auf
+   * {@code /home/user}.
+   *
+   * @param root Wurzelpfad
+   * @return Wert für das Tag {@code root}
+   */
+  String rootTag(Path root) {
+    Path absolute = root.toAbsolutePath().normalize();
+    Path prefix = absolute.getRoot();
+    int depth = Math.min(rootTagDepth, absolute.getNameCount());
+    if (depth == 0) {
+      return prefix != null ? prefix.toString() : absolute.toString();
+    }
+    Path names = absolute.subpath(0, depth);
+    return prefix != null ? prefix.resolve(names).toString() : names.toString();
+  }
+}
@@ -0,0 +1,234 @@
+package com.voba.service;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import com.voba.model.ExtensionDictionary;
+import com.voba.model.FileNode;
+
+/**
+ * Fortschritt eines laufenden Scans.
+ *
+ * <p>
+ * Die Zähler werden von den Scan-Tasks einmal pro abgeschlossenem Verzeichnis erhöht und können
+ * jederzeit aus anderen Threads gelesen werden. Optional können Listener registriert werden, die
+ * über fertige Teilbäume der obersten Ebene und (gedrosselt) über den Fortschritt informiert
+ * werden. Listener werden aus den Scan-Threads aufgerufen und müssen daher thread-sicher sein;
+ * wirft ein Listener eine Exception, bricht der Scan ab.
+ *
+ * <p>
+ * Über {@link #cancel()} kann ein laufender Scan aus einem beliebigen Thread abgebrochen werden.
+ * Die Scan-Tasks prüfen das Flag vor jedem Eintrag und beenden sich dann mit einer
+ * {@link CancellationException}.
+ */
+public class ScanProgress {
+
+  private final LongAdder directories = new LongAdder();
+  private final LongAdder reusedDirectories = new LongAdder();
+  private final LongAdder files = new LongAdder();
+  private final LongAdder bytes = new LongAdder();
+  private final LongAdder skippedEntries = new LongAdder();
+  private final LongAdder unreadableEntries = new LongAdder();
+  private final AtomicLong lastProgressNanos = new AtomicLong(System.nanoTime());
+  private final ExtensionDictionary extensions = new ExtensionDictionary();
+  private volatile boolean cancelled;
+
+  private Consumer<FileNode> subtreeListener;
+  private Consumer<ScanProgress> progressListener;
+  private long progressIntervalNanos;
+  private IoObserver ioObserver;
+
+  /**
+   * Empfänger für die Dauer einzelner Dateisystem-Zugriffe (z.B. für Latenz-Histogramme). Wird aus
+   * den Scan-Threads aufgerufen und muss daher thread-sicher und schnell sein.
+   */
+  public interface IoObserver {
+
+    /**
+     * Meldet das Lesen der Attribute eines Eintrags (stat).
+     *
+     * @param nanos Dauer in Nanosekunden
+     */
+    void attributesRead(long nanos);
+
+    /**
+     * Meldet das Listen eines Verzeichnisses (readdir), ohne das Lesen der Attribute.
+     *
+     * @param nanos Dauer in Nanosekunden
+     */
+    void directoryListed(long nanos);
+  }
+
+  /**
+   * Registriert einen Listener für fertig gescannte Einträge direkt unterhalb der Wurzel. Die
+   * übergebenen Teilbäume sind vollständig und bereits sortiert.
+   *
+   * @param listener Listener für fertige Teilbäume
+   * @return diese ScanProgress-Instanz für Method-Chaining
+   */
+  public ScanProgress onSubtreeCompleted(Consumer<FileNode> listener) {
+    this.subtreeListener = listener;
+    return this;
+  }
+
+  /**
+   * Registriert einen Listener, der höchstens einmal pro Intervall mit dem aktuellen Stand
+   * aufgerufen wird.
+   *
+   * @param listener       Listener für Fortschrittsmeldungen
+   * @param intervalMillis minimaler Abstand zwischen zwei Meldungen in Millisekunden
+   * @return diese ScanProgress-Instanz für Method-Chaining
+   */
+  public ScanProgress onProgress(Consumer<ScanProgress> listener, long intervalMillis) {
+    this.progressListener = listener;
+    this.progressIntervalNanos = intervalMillis * 1_000_000L;
+    return this;
+  }
+
+  /**
+   * Registriert einen Empfänger für die Dauer einzelner Dateisystem-Zugriffe. Die NIO-Engine und
+   * der Scan auf virtuellen Threads messen Zugriffe nur, wenn ein Empfänger registriert ist.
+   *
+   * @param observer Empfänger für Zugriffsdauern
+   * @return diese ScanProgress-Instanz für Method-Chaining
+   */
+  public ScanProgress onIo(IoObserver observer) {
+    this.ioObserver = observer;
+    return this;
+  }
+
+  /**
+   * Gibt den Empfänger für Zugriffsdauern zurück.
+   *
+   * @return Empfänger oder null, wenn Zugriffe nicht gemessen werden
+   */
+  IoObserver getIoObserver() {
+    return ioObserver;
+  }
+
+  /** Meldet einen Eintrag, der nach den Optionen übersprungen wurde (Symlink, versteckt). */
+  public void entrySkipped() {
+    skippedEntries.increment();
+  }
+
+  /** Meldet einen Eintrag oder ein Verzeichnis, das nicht gelesen werden konnte. */
+  public void entryUnreadable() {
+    unreadableEntries.increment();
+  }
+
+  /**
+   * Meldet ein vollständig gelesenes Verzeichnis. Wird von den Scan-Tasks aufgerufen.
+   *
+   * @param fileCount Anzahl der darin enthaltenen Dateien (ohne Unterverzeichnisse)
+   * @param byteCount Summe der Dateigrößen (ohne Unterverzeichnisse)
+   */
+  public void directoryCompleted(long fileCount, long byteCount) {
+    directories.increment();
+    files.add(fileCount);
+    bytes.add(byteCount);
+
+    if (progressListener != null) {
+      long now = System.nanoTime();
+      long last = lastProgressNanos.get();
+      if (now - last >= progressIntervalNanos && lastProgressNanos.compareAndSet(last, now)) {
+        progressListener.accept(this);
+      }
+    }
+  }
+
+  /**
+   * Meldet ein Verzeichnis, dessen Einträge beim inkrementellen Scan aus dem vorherigen Ergebnis
+   * übernommen wurden, ohne es erneut zu listen. Zählt zusätzlich als gelesenes Verzeichnis.
+   *
+   * @param fileCount Anzahl der darin enthaltenen Dateien (ohne Unterverzeichnisse)
+   * @param byteCount Summe der Dateigrößen (ohne Unterverzeichnisse)
+   */
+  public void directoryReused(long fileCount, long byteCount) {
+    reusedDirectories.increment();
+    directoryCompleted(fileCount, byteCount);
+  }
+
+  /**
+   * Meldet einen fertigen Teilbaum direkt unterhalb der Wurzel. Wird von den Scan-Tasks
+   * aufgerufen.
+   *
+   * @param subtree fertiger Teilbaum
+   */
+  public void subtreeCompleted(FileNode subtree) {
+    if (subtreeListener != null) {
+      subtree.sortChildren();
+      subtreeListener.accept(subtree);
+    }
+  }
+
+  /**
+   * Gibt das Wörterbuch zurück, über das die Scan-Tasks die Erweiterungen in den
+   * {@link com.voba.model.DirectoryStatistics} dieses Scans abbilden.
+   *
+   * @return Wörterbuch der Erweiterungen
+   */
+  public ExtensionDictionary getExtensions() {
+    return extensions;
+  }
+
+  /** Fordert den Abbruch des Scans an. */
+  public void cancel() {
+    cancelled = true;
+  }
+
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  /**
+   * Bricht die aufrufende Scan-Task ab, wenn der Scan abgebrochen wurde.
+   *
+   * @throws CancellationException wenn {@link #cancel()} aufgerufen wurde
+   */
+  public void checkCancelled() {
+    if (cancelled) {
+      throw new CancellationException("Scan cancelled");
+    }
+  }
+
+  public long getDirectories() {
+    return directories.sum();
+  }
+
+  public long getReusedDirectories() {
+    return reusedDirectories.sum();
+  }
+
+  /**
+   * Gibt die Anzahl der Verzeichnisse zurück, die tatsächlich gelistet wurden.
+   *
+   * @return gelesene minus übernommene Verzeichnisse
+   */
+  public long getRelistedDirectories() {
+    return getDirectories() - getReusedDirectories();
+  }
+
+  public long getFiles() {
+    return files.sum();
+  }
+
+  public long getBytes() {
+    return bytes.sum();
+  }
+
+  public long getSkippedEntries() {
+    return skippedEntries.sum();
+  }
+
+  /**
+   * Gibt die Anzahl der Einträge und Verzeichnisse zurück, die nicht gelesen werden konnten (z.B.
+   * wegen fehlender Berechtigung oder weil sie während des Scans gelöscht wurden).
+   *
+   * @return Anzahl nicht lesbarer Einträge
+   */
+  public long getUnreadableEntries() {
+    return unreadableEntries.sum();
+  }
+}
@@ -0,0 +1,32 @@
+package com.voba.service;
+
+/** Wird geworfen, wenn der {@link ScanExecutor} einen Scan nicht annimmt. */
+public class ScanRejectedException extends RuntimeException {
+
+  /** Grund der Ablehnung. */
+  public enum Reason {
+    /** Alle Plätze belegt und die Warteschlange ist voll; später erneut versuchen. */
+    QUEUE_FULL,
+    /** Der Scan hat zu lange in der Warteschlange gewartet. */
+    TIMEOUT,
+    /** Die Anwendung wird heruntergefahren. */
+    SHUTDOWN
+  }
+
+  private final Reason reason;
+
+  /**
+   * Konstruktor mit Grund und Meldung.
+   *
+   * @param reason  Grund der Ablehnung
+   * @param message Fehlermeldung
+   */
+  public ScanRejectedException(Reason reason, String message) {
+    super(message);
+    this.reason = reason;
+  }
+
+  public Reason getReason() {
+    return reason;
+  }
+}
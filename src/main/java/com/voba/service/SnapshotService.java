@@ -0,0 +1,167 @@
+package com.voba.service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import com.voba.model.FileNode;
+import com.voba.model.MappedFileTree;
+import com.voba.model.ScanOptions;
+import com.voba.model.SnapshotInfo;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service für dauerhaft gespeicherte Scan-Ergebnisse.
+ *
+ * <p>
+ * Snapshots werden im Binärformat des {@link MappedFileTree} im Snapshot-Verzeichnis abgelegt
+ * (Standard: {@code ~/.drivevisualizer/snapshots}, neben den Farbzuordnungen). Beim Laden wird die
+ * Datei nur eingeblendet und der Baum sofort im {@link ScanCacheService} abgelegt, sodass
+ * {@code /api/scan} und {@code /api/node} ihn ohne erneuten Scan ausliefern.
+ */
+@Service
+public class SnapshotService {
+
+  private static final Logger logger = LoggerFactory.getLogger(SnapshotService.class);
+  private static final String FILE_EXTENSION = ".dvs";
+  private static final Pattern ID_PATTERN = Pattern.compile("[A-Za-z0-9-]+");
+
+  @Autowired
+  private ScanCacheService scanCacheService;
+
+  private final Path directory;
+
+  /**
+   * Konstruktor mit Konfiguration.
+   *
+   * @param directory Verzeichnis, in dem Snapshots abgelegt werden
+   */
+  public SnapshotService(
+      @Value("${drivevisualizer.snapshots.dir:${user.home}/.drivevisualizer/snapshots}")
+      String directory) {
+    this.directory = Paths.get(directory);
+  }
+
+  /**
+   * Speichert das Scan-Ergebnis eines Verzeichnisses als Snapshot. Liegt es bereits im Cache, wird
+   * nicht erneut gescannt.
+   *
+   * @param path    Pfad zum Verzeichnis
+   * @param options Scan-Optionen
+   * @return Beschreibung des neuen Snapshots
+   * @throws IllegalArgumentException wenn der Pfad ungültig ist
+   * @throws IOException              wenn die Datei nicht geschrieben werden kann
+   */
+  public SnapshotInfo save(String path, ScanOptions options) throws IOException {
+    FileNode root = scanCacheService.scan(path, options);
+    Files.createDirectories(directory);
+
+    String id = UUID.randomUUID().toString();
+    Path file = file(id);
+    MappedFileTree.Header header = MappedFileTree.write(
+        root, options.isIncludeHiddenFiles(), System.currentTimeMillis(), file);
+    logger.info("Snapshot {} von {} gespeichert ({} Einträge)", id, path, header.nodeCount());
+    return new SnapshotInfo(id, header, Files.size(file));
+  }
+
+  /**
+   * Listet alle gespeicherten Snapshots, die neuesten zuerst. Unlesbare Dateien werden übersprungen.
+   *
+   * @return Liste der Snapshots
+   * @throws IOException wenn das Snapshot-Verzeichnis nicht gelesen werden kann
+   */
+  public List<SnapshotInfo> getSnapshots() throws IOException {
+    List<SnapshotInfo> snapshots = new ArrayList<>();
+    if (!Files.isDirectory(directory)) {
+      return snapshots;
+    }
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_EXTENSION)) {
+      for (Path file : files) {
+        String fileName = file.getFileName().toString();
+        SnapshotInfo info = describe(fileName.substring(0, fileName.length() - FILE_EXTENSION.length()));
+        if (info != null) {
+          snapshots.add(info);
+        }
+      }
+    }
+    snapshots.sort(Comparator.comparing(SnapshotInfo::getCreatedAt).reversed());
+    return snapshots;
+  }
+
+  /**
+   * Sucht einen Snapshot.
+   *
+   * @param id ID des Snapshots
+   * @return Beschreibung oder null, wenn der Snapshot unbekannt ist
+   */
+  public SnapshotInfo getSnapshot(String id) {
+    return isValidId(id) ? describe(id) : null;
+  }
+
+  /**
+   * Blendet einen Snapshot ein und legt ihn im Cache ab. Vorhandene Einträge für den Pfad werden
+   * dabei ersetzt.
+   *
+   * @param id ID des Snapshots
+   * @return Beschreibung oder null, wenn der Snapshot unbekannt ist
+   * @throws IOException wenn die Datei kein gültiger Snapshot ist
+   */
+  public SnapshotInfo load(String id) throws IOException {
+    if (!isValidId(id) || !Files.isRegularFile(file(id))) {
+      return null;
+    }
+    MappedFileTree tree = MappedFileTree.open(file(id));
+    MappedFileTree.Header header = tree.getHeader();
+    String path = header.rootPath().toString();
+    ScanOptions options = new ScanOptions().setIncludeHiddenFiles(header.includeHidden());
+
+    scanCacheService.invalidate(path);
+    scanCacheService.put(path, options, tree.root());
+    return new SnapshotInfo(id, header, Files.size(file(id)));
+  }
+
+  /**
+   * Löscht einen Snapshot. Bereits geladene Bäume bleiben bis zu ihrer Verdrängung aus dem Cache
+   * lesbar, sofern das Betriebssystem das Löschen eingeblendeter Dateien erlaubt.
+   *
+   * @param id ID des Snapshots
+   * @return true, wenn der Snapshot existierte
+   * @throws IOException wenn die Datei nicht gelöscht werden kann
+   */
+  public boolean delete(String id) throws IOException {
+    return isValidId(id) && Files.deleteIfExists(file(id));
+  }
+
+  private SnapshotInfo describe(String id) {
+    Path file = file(id);
+    if (!Files.isRegularFile(file)) {
+      return null;
+    }
+    try {
+      return new SnapshotInfo(id, MappedFileTree.readHeader(file), Files.size(file));
+    } catch (IOException exception) {
+      logger.warn("Snapshot {} kann nicht gelesen werden: {}", file, exception.getMessage());
+      return null;
+    }
+  }
+
+  private Path file(String id) {
+    return directory.resolve(id + FILE_EXTENSION);
+  }
+
+  private static boolean isValidId(String id) {
+    return id != null && ID_PATTERN.matcher(id).matches();
+  }
+}
@@ -0,0 +1,78 @@
+package com.voba.service;
+
+import java.time.Duration;
+
+import com.voba.model.FileNode;
+import com.voba.model.ScanOptions;
+import com.voba.model.TreeQuery;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Wendet {@link TreeQuery Abfragen} auf gehaltene Bäume an und hält die zuletzt berechneten
+ * Ergebnisse vor.
+ *
+ * <p>
+ * Ausgewertet wird mit {@link TreeQueryTask} im Pool des {@link ScanExecutor}; Abfragen belegen wie
+ * Scans einen Platz. Das Ergebnis ist ein eigenständiger, nach Größe sortierter Baum, der wie ein
+ * Scan-Ergebnis ausgeliefert werden kann. Ergebnisse liegen in einem {@link NodeCache} je Knoten,
+ * Änderungsstand und Abfrage, begrenzt durch die Anzahl und ihren geschätzten Speicherverbrauch
+ * ({@link FileNode#estimateMemoryBytes()}), da jedes Ergebnis eine Kopie des passenden Teilbaums
+ * ist.
+ */
+@Service
+public class TreeQueryService {
+
+  @Autowired
+  private ScanExecutor scanExecutor;
+
+  private final NodeCache<FileNode> results;
+
+  /**
+   * Konstruktor mit Konfiguration.
+   *
+   * @param maxEntries        max. Anzahl vorgehaltener Ergebnisse
+   * @param maxBytes          Speicherbudget für alle vorgehaltenen Ergebnisse in Bytes
+   * @param timeToLiveSeconds Gültigkeit eines Ergebnisses in Sekunden
+   */
+  public TreeQueryService(
+      @Value("${drivevisualizer.query.cache-entries:16}") int maxEntries,
+      @Value("${drivevisualizer.query.cache-bytes:67108864}") long maxBytes,
+      @Value("${drivevisualizer.cache.ttl-seconds:300}") long timeToLiveSeconds) {
+    this.results = new NodeCache<>(maxEntries, maxBytes, FileNode::estimateMemoryBytes,
+        Duration.ofSeconds(timeToLiveSeconds));
+  }
+
+  /**
+   * Liefert das Ergebnis einer Abfrage aus dem Cache oder wertet sie aus.
+   *
+   * @param node    Wurzel der Abfrage
+   * @param query   Abfrage
+   * @param options Optionen für die Auswertung (parallele Verarbeitung, Anzahl Threads)
+   * @return beschnittener Baum mit neu aufsummierten Größen; ohne Treffer nur die Wurzel
+   * @throws ScanRejectedException wenn kein Platz im {@link ScanExecutor} frei wird
+   */
+  public FileNode query(FileNode node, TreeQuery query, ScanOptions options) {
+    NodeCache.Key key = NodeCache.key(node, query);
+    FileNode cached = results.get(key);
+    if (cached != null) {
+      return cached;
+    }
+
+    // Außerhalb der Sperre auswerten; gleichzeitige Anfragen rechnen im Zweifel doppelt
+    TreeQueryTask task = new TreeQueryTask(
+        node, query.evaluator(System.currentTimeMillis()), 0, options.isUseParallelProcessing());
+    FileNode result = scanExecutor.execute(options,
+        pool -> options.isUseParallelProcessing() ? pool.invoke(task) : task.invoke());
+    if (result == null) {
+      result = new FileNode(node.getPathObject(), true);
+      result.setLastModified(node.getLastModified());
+    }
+    result.sortChildren();
+
+    results.put(key, result);
+    return result;
+  }
+}
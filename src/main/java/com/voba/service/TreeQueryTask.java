@@ -0,0 +1,80 @@
+package com.voba.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+import com.voba.model.AggregateNode;
+import com.voba.model.ArchiveNode;
+import com.voba.model.FileNode;
+import com.voba.model.TreeQuery;
+
+/**
+ * Rekursive Task, die eine {@link TreeQuery} auf ein Verzeichnis eines gehaltenen Baums anwendet.
+ *
+ * <p>
+ * Das Ergebnis ist ein neuer, beschnittener Baum: Er enthält Kopien der passenden Dateien und der
+ * Verzeichnisse, in denen sie liegen; die Größe jedes Verzeichnisses ist die Summe der passenden
+ * Dateien darunter. Unterverzeichnisse werden wie beim Scan über den {@link AdaptiveSplitter}
+ * parallel ausgewertet. Der ursprüngliche Baum wird nur gelesen. Archive werden als Dateien
+ * übernommen, ohne ihren Inhalt; zusammengefasste Einträge ({@link AggregateNode}) werden
+ * übersprungen, da sich die Bedingungen auf sie nicht anwenden lassen.
+ */
+final class TreeQueryTask extends RecursiveTask<FileNode> {
+
+  private final FileNode directory;
+  private final TreeQuery.Evaluator evaluator;
+  private final int depth;
+  private final boolean parallel;
+
+  /**
+   * Konstruktor.
+   *
+   * @param directory Verzeichnis des gehaltenen Baums
+   * @param evaluator vorbereitete Abfrage
+   * @param depth     Tiefe des Verzeichnisses, 0 für die Wurzel der Abfrage
+   * @param parallel  false, um Unterverzeichnisse sequentiell auszuwerten
+   */
+  TreeQueryTask(FileNode directory, TreeQuery.Evaluator evaluator, int depth, boolean parallel) {
+    this.directory = directory;
+    this.evaluator = evaluator;
+    this.depth = depth;
+    this.parallel = parallel;
+  }
+
+  /**
+   * Wertet das Verzeichnis aus.
+   *
+   * @return beschnittenes Verzeichnis oder null, wenn darin keine Datei passt
+   */
+  @Override
+  protected FileNode compute() {
+    FileNode result = new FileNode(directory.getPathObject(), true);
+    result.setLastModified(directory.getLastModified());
+    List<TreeQueryTask> subdirectories = new ArrayList<>();
+    int childDepth = depth + 1;
+
+    for (FileNode child : directory.getChildren()) {
+      if (child instanceof AggregateNode) {
+        continue;
+      }
+      if (child.isDirectory() && !(child instanceof ArchiveNode)) {
+        if (evaluator.descends(childDepth)) {
+          subdirectories.add(new TreeQueryTask(child, evaluator, childDepth, parallel));
+        }
+      } else if (evaluator.matches(child, childDepth)) {
+        FileNode copy = new FileNode(child.getPathObject(), false);
+        copy.setSize(child.getSize());
+        copy.setLastModified(child.getLastModified());
+        result.addChild(copy);
+      }
+    }
+
+    AdaptiveSplitter.invokeAll(subdirectories, parallel, subdirectory -> {
+      if (subdirectory != null) {
+        result.addChild(subdirectory);
+      }
+    });
+    return result.getChildren().isEmpty() ? null : result;
+  }
+}
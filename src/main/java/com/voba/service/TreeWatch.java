@@ -0,0 +1,416 @@
+package com.voba.service;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.DosFileAttributes;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.voba.model.ArchiveNode;
+import com.voba.model.FileNode;
+import com.voba.model.ScanOptions;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hält einen gescannten Baum über {@link WatchService} mit dem Dateisystem synchron.
+ *
+ * <p>
+ * Alle Verzeichnisse des Baums werden registriert. Ereignisse werden gesammelt, bis für die
+ * Debounce-Zeit keine weiteren eintreffen (höchstens jedoch für das Zehnfache), und je Pfad nur
+ * einmal angewendet: Der Pfad wird neu gelesen und der Knoten entsprechend angelegt, entfernt oder in
+ * Größe und Änderungszeit angepasst; die Änderungszeit des Verzeichnisses wird mitgelesen.
+ * Größenänderungen werden nur entlang der Vorfahren weitergereicht, die dabei jeweils nur das
+ * geänderte Kind neu einsortieren. Bei OVERFLOW wird nur das betroffene Verzeichnis neu gescannt.
+ *
+ * <p>
+ * Ereignisse werden in einem eigenen Thread verarbeitet, der den Baum als einziger verändert.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TreeWatch {
+
+  private static final Logger logger = LoggerFactory.getLogger(TreeWatch.class);
+
+  private final String id = UUID.randomUUID().toString();
+  private final FileNode root;
+  private final Path rootPath;
+  private final ScanOptions options;
+  private final boolean dosAttributes;
+  private final long debounceNanos;
+  private final Instant startedAt = Instant.now();
+
+  private final WatchService watchService;
+  private final Map<WatchKey, Path> watchedDirectories = new ConcurrentHashMap<>();
+  private final Set<Path> pendingPaths = new LinkedHashSet<>();
+  private final Set<Path> pendingOverflows = new LinkedHashSet<>();
+  private long firstPendingNanos;
+  private Thread thread;
+
+  private final LongAdder events = new LongAdder();
+  private final LongAdder appliedChanges = new LongAdder();
+  private final LongAdder subtreeRescans = new LongAdder();
+  private final LongAdder unwatchedDirectories = new LongAdder();
+  private volatile Instant lastChange;
+
+  /**
+   * Konstruktor für eine neue Überwachung.
+   *
+   * @param root           Wurzel des zu aktualisierenden Baums (FileNode-Objekte, sortiert)
+   * @param options        Optionen des ursprünglichen Scans
+   * @param debounceMillis Ruhezeit, nach der gesammelte Ereignisse angewendet werden
+   * @throws IOException wenn kein WatchService erzeugt werden kann
+   */
+  TreeWatch(FileNode root, ScanOptions options, long debounceMillis) throws IOException {
+    this.root = root;
+    this.rootPath = root.getPathObject();
+    // Teilbäume werden im Watch-Thread sequentiell nachgescannt; alle anderen Optionen, die das
+    // Ergebnis beeinflussen, lehnt der TreeWatchService ab
+    this.options = new ScanOptions()
+        .setIncludeHiddenFiles(options.isIncludeHiddenFiles())
+        .setUseParallelProcessing(false);
+    this.dosAttributes = NioDirectoryScanTask.supportsDosAttributes(rootPath);
+    this.debounceNanos = TimeUnit.MILLISECONDS.toNanos(debounceMillis);
+    this.watchService = rootPath.getFileSystem().newWatchService();
+  }
+
+  /** Registriert alle Verzeichnisse und startet den Watch-Thread. */
+  void start() {
+    register(root);
+    thread = new Thread(this::run, "tree-watch-" + id.substring(0, 8));
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /** Beendet die Überwachung. Der Baum bleibt im zuletzt bekannten Zustand erhalten. */
+  void stop() {
+    try {
+      watchService.close();
+    } catch (IOException exception) {
+      logger.debug("WatchService für {} konnte nicht geschlossen werden", rootPath, exception);
+    }
+    if (thread != null) {
+      thread.interrupt();
+    }
+  }
+
+  private void run() {
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        WatchKey key = hasPending()
+            ? watchService.poll(debounceNanos, TimeUnit.NANOSECONDS)
+            : watchService.take();
+        if (key != null) {
+          collect(key);
+        }
+        if (hasPending() && (key == null || System.nanoTime() - firstPendingNanos >= 10 * debounceNanos)) {
+          flush();
+        }
+      }
+    } catch (InterruptedException | ClosedWatchServiceException exception) {
+      // Überwachung beendet
+    }
+  }
+
+  private boolean hasPending() {
+    return !pendingPaths.isEmpty() || !pendingOverflows.isEmpty();
+  }
+
+  private void collect(WatchKey key) {
+    Path directory = watchedDirectories.get(key);
+    for (WatchEvent<?> event : key.pollEvents()) {
+      if (directory == null) {
+        continue;
+      }
+      if (!hasPending()) {
+        firstPendingNanos = System.nanoTime();
+      }
+      events.increment();
+      if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+        pendingOverflows.add(directory);
+      } else {
+        pendingPaths.add(directory.resolve((Path) event.context()));
+      }
+    }
+    if (!key.reset()) {
+      // Verzeichnis existiert nicht mehr
+      watchedDirectories.remove(key);
+    }
+  }
+
+  /** Wendet alle gesammelten Änderungen an, übergeordnete Pfade zuerst. */
+  private void flush() {
+    List<Path> rescanned = new ArrayList<>(pendingOverflows);
+    rescanned.sort(Comparator.comparingInt(Path::getNameCount));
+    List<Path> changed = new ArrayList<>(pendingPaths);
+    changed.sort(Comparator.comparingInt(Path::getNameCount));
+    pendingOverflows.clear();
+    pendingPaths.clear();
+
+    for (Path directory : rescanned) {
+      applySafely(directory, true);
+    }
+    for (Path path : changed) {
+      if (rescanned.stream().noneMatch(path::startsWith)) {
+        applySafely(path, false);
+      }
+    }
+  }
+
+  private void applySafely(Path path, boolean overflow) {
+    try {
+      boolean modified = overflow ? rescan(path) : apply(path);
+      if (modified) {
+        appliedChanges.increment();
+        lastChange = Instant.now();
+      }
+    } catch (RuntimeException exception) {
+      logger.warn("Änderung an {} konnte nicht übernommen werden", path, exception);
+    }
+  }
+
+  /**
+   * Gleicht einen einzelnen Eintrag mit dem Dateisystem ab.
+   *
+   * @param changed geänderter Pfad
+   * @return true, wenn der Baum verändert wurde
+   */
+  boolean apply(Path changed) {
+    Path parentPath = changed.getParent();
+    List<FileNode> ancestors = parentPath != null ? ancestorsOf(parentPath) : null;
+    if (ancestors == null || changed.equals(rootPath)) {
+      return false;
+    }
+
+    FileNode parent = ancestors.get(ancestors.size() - 1);
+    long sizeBefore = parent.getSize();
+    FileNode existing = parent.getChild(changed.getFileName().toString());
+    BasicFileAttributes attributes = readAttributes(changed);
+
+    if (attributes == null || !shouldInclude(changed, attributes)) {
+      if (existing == null) {
+        return false;
+      }
+      parent.removeChild(existing);
+    } else if (attributes.isDirectory()) {
+      if (existing != null && existing.isDirectory()) {
+        // Änderungen im Verzeichnis selbst melden dessen Einträge über eigene Ereignisse
+        return false;
+      }
+      FileNode subtree = scanSubtree(changed);
+      if (existing != null) {
+        parent.removeChild(existing);
+      }
+      parent.insertChildSorted(subtree);
+      register(subtree);
+    } else {
+      long size = attributes.isOther() ? 0 : attributes.size();
+      long lastModified = attributes.lastModifiedTime().toMillis();
+      if (existing != null && !existing.isDirectory()) {
+        if (existing.getSize() == size && existing.getLastModified() == lastModified) {
+          return false;
+        }
+        // Auch bei gleicher Größe geändert: Abfragen nach Alter lesen die Änderungszeit
+        existing.setLastModified(lastModified);
+        if (existing.getSize() != size) {
+          parent.setSize(parent.getSize() + size - existing.getSize());
+          existing.setSize(size);
+          parent.repositionChild(existing);
+        }
+      } else {
+        if (existing != null) {
+          parent.removeChild(existing);
+        }
+        // Neue Datei oder geändertes Archiv (im Baum ein Verzeichnis): Knoten neu erzeugen
+        parent.insertChildSorted(
+            ArchiveScanner.fileNode(changed, attributes, options, new ScanProgress()));
+      }
+    }
+
+    BasicFileAttributes parentAttributes = readAttributes(parentPath);
+    if (parentAttributes != null) {
+      parent.setLastModified(parentAttributes.lastModifiedTime().toMillis());
+    }
+    propagate(ancestors, parent.getSize() - sizeBefore);
+    return true;
+  }
+
+  /**
+   * Scannt ein Verzeichnis nach einem OVERFLOW neu und übernimmt das Ergebnis in den vorhandenen
+   * Knoten.
+   *
+   * @param directory betroffenes Verzeichnis
+   * @return true, wenn der Baum verändert wurde
+   */
+  boolean rescan(Path directory) {
+    List<FileNode> ancestors = ancestorsOf(directory);
+    if (ancestors == null) {
+      return false;
+    }
+    if (!Files.isDirectory(directory, LinkOption.NOFOLLOW_LINKS)) {
+      return apply(directory);
+    }
+
+    subtreeRescans.increment();
+    FileNode node = ancestors.get(ancestors.size() - 1);
+    long sizeBefore = node.getSize();
+    FileNode rescanned = scanSubtree(directory);
+    node.replaceChildren(rescanned);
+    node.setLastModified(rescanned.getLastModified());
+    register(node);
+    propagate(ancestors, node.getSize() - sizeBefore);
+    return true;
+  }
+
+  /**
+   * Reicht eine Größenänderung an alle Vorfahren weiter und sortiert dabei jeweils nur das
+   * geänderte Kind neu ein. Das erhöht den Änderungsstand ({@link FileNode#getVersion()}) aller
+   * Vorfahren auch dann, wenn sich ihre Größe nicht ändert (z.B. beim Umbenennen).
+   *
+   * @param ancestors Knoten von der Wurzel bis zum bereits angepassten Knoten
+   * @param delta     Größenänderung des letzten Knotens
+   */
+  private void propagate(List<FileNode> ancestors, long delta) {
+    for (int i = ancestors.size() - 2; i >= 0; i--) {
+      FileNode ancestor = ancestors.get(i);
+      if (delta != 0) {
+        ancestor.setSize(ancestor.getSize() + delta);
+      }
+      ancestor.repositionChild(ancestors.get(i + 1));
+    }
+  }
+
+  /**
+   * Sucht die Knoten von der Wurzel bis zu einem Verzeichnis.
+   *
+   * @param directory Verzeichnis innerhalb des Baums
+   * @return Knoten von der Wurzel bis zum Verzeichnis oder null, wenn es nicht im Baum liegt
+   */
+  private List<FileNode> ancestorsOf(Path directory) {
+    if (!directory.startsWith(rootPath)) {
+      return null;
+    }
+    List<FileNode> ancestors = new ArrayList<>();
+    ancestors.add(root);
+    FileNode current = root;
+    for (Path name : rootPath.relativize(directory)) {
+      if (name.toString().isEmpty()) {
+        continue;
+      }
+      current = current.getChild(name.toString());
+      if (current == null || !current.isDirectory()) {
+        return null;
+      }
+      ancestors.add(current);
+    }
+    return ancestors;
+  }
+
+  private FileNode scanSubtree(Path directory) {
+    FileNode subtree = new NioDirectoryScanTask(directory, options, new ScanProgress()).invoke();
+    subtree.sortChildren();
+    return subtree;
+  }
+
+  private void register(FileNode directory) {
+    if (!directory.isDirectory() || directory instanceof ArchiveNode) {
+      return;
+    }
+    try {
+      WatchKey key = directory.getPathObject().register(watchService,
+          StandardWatchEventKinds.ENTRY_CREATE,
+          StandardWatchEventKinds.ENTRY_DELETE,
+          StandardWatchEventKinds.ENTRY_MODIFY);
+      watchedDirectories.put(key, directory.getPathObject());
+    } catch (IOException | ClosedWatchServiceException exception) {
+      // z.B. Limit für inotify-Watches erreicht: Verzeichnis bleibt unbeobachtet
+      unwatchedDirectories.increment();
+      logger.debug("Verzeichnis {} kann nicht überwacht werden", directory.getPath(), exception);
+    }
+    for (FileNode child : directory.getChildren()) {
+      register(child);
+    }
+  }
+
+  private BasicFileAttributes readAttributes(Path path) {
+    try {
+      Class<? extends BasicFileAttributes> type = dosAttributes
+          ? DosFileAttributes.class
+          : BasicFileAttributes.class;
+      return Files.readAttributes(path, type, LinkOption.NOFOLLOW_LINKS);
+    } catch (IOException | UnsupportedOperationException exception) {
+      return null;
+    }
+  }
+
+  private boolean shouldInclude(Path path, BasicFileAttributes attributes) {
+    if (attributes.isSymbolicLink()) {
+      return false;
+    }
+    return options.isIncludeHiddenFiles() || !NioDirectoryScanTask.isHidden(path, attributes);
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public String getPath() {
+    return root.getPath();
+  }
+
+  public boolean isIncludeHiddenFiles() {
+    return options.isIncludeHiddenFiles();
+  }
+
+  public Instant getStartedAt() {
+    return startedAt;
+  }
+
+  public Instant getLastChange() {
+    return lastChange;
+  }
+
+  public int getWatchedDirectories() {
+    return watchedDirectories.size();
+  }
+
+  public long getUnwatchedDirectories() {
+    return unwatchedDirectories.sum();
+  }
+
+  public long getEvents() {
+    return events.sum();
+  }
+
+  public long getAppliedChanges() {
+    return appliedChanges.sum();
+  }
+
+  public long getSubtreeRescans() {
+    return subtreeRescans.sum();
+  }
+
+  @JsonIgnore
+  FileNode getRoot() {
+    return root;
+  }
+}
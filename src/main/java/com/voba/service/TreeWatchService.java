@@ -0,0 +1,137 @@
+package com.voba.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.voba.model.FileNode;
+import com.voba.model.ScanOptions;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service für den Watch-Modus.
+ *
+ * <p>
+ * Ein überwachtes Verzeichnis wird einmal gescannt (bzw. aus dem Cache übernommen) und dann über
+ * eine {@link TreeWatch} laufend aktualisiert. Der Baum bleibt solange im {@link ScanCacheService}
+ * angeheftet, sodass {@code /api/scan} und {@code /api/node} immer den aktuellen Stand liefern.
+ */
+@Service
+public class TreeWatchService {
+
+  @Autowired
+  private ScanCacheService scanCacheService;
+
+  private final long debounceMillis;
+  private final Map<String, TreeWatch> watches = new ConcurrentHashMap<>();
+  private final Map<String, ScanOptions> watchOptions = new ConcurrentHashMap<>();
+
+  /**
+   * Konstruktor mit Konfiguration.
+   *
+   * @param debounceMillis Ruhezeit, nach der gesammelte Dateisystem-Ereignisse angewendet werden
+   */
+  public TreeWatchService(@Value("${drivevisualizer.watch.debounce-millis:500}") long debounceMillis) {
+    this.debounceMillis = debounceMillis;
+  }
+
+  /**
+   * Startet die Überwachung eines Verzeichnisses.
+   *
+   * @param path    Pfad zum Verzeichnis
+   * @param options Scan-Optionen
+   * @return die gestartete Überwachung
+   * @throws IllegalArgumentException wenn der Pfad ungültig ist, ein kompakter Baum, ein Baum mit
+   *                                  zusammengefassten Einträgen oder durchsuchten Archiven oder
+   *                                  die Abrechnung des belegten Speicherplatzes verlangt wird oder
+   *                                  der Pfad bereits (teilweise) überwacht wird
+   */
+  public synchronized TreeWatch startWatch(String path, ScanOptions options) {
+    if (options.isCompactTree()) {
+      throw new IllegalArgumentException("Watch mode requires an object tree (compact=false)");
+    }
+    if (options.isDiskUsage()) {
+      // Änderungen werden mit der Dateigröße angewendet, Hardlinks wären nicht mehr erkennbar
+      throw new IllegalArgumentException("Watch mode does not support disk usage accounting");
+    }
+    if (options.isAggregating() || options.isScanArchives()) {
+      // Änderungen werden je Datei angewendet; zusammengefasste Dateien und Archiv-Inhalte haben
+      // keinen eigenen Knoten bzw. keinen eigenen Pfad im Dateisystem
+      throw new IllegalArgumentException(
+          "Watch mode does not support aggregated trees or archive contents");
+    }
+    Path normalized = ScanCacheService.normalize(path);
+    for (TreeWatch watch : watches.values()) {
+      Path watched = ScanCacheService.normalize(watch.getPath());
+      if (watched.startsWith(normalized) || normalized.startsWith(watched)) {
+        throw new IllegalArgumentException("Path is already watched: " + watch.getPath());
+      }
+    }
+
+    FileNode root = scanCacheService.scan(path, options);
+    if (root.isReadOnly()) {
+      // z.B. aus einem Snapshot geladen: der Watch-Modus braucht einen veränderbaren Baum
+      root = scanCacheService.refresh(path, options, new ScanProgress());
+    }
+    scanCacheService.pin(path, options, root);
+    TreeWatch watch;
+    try {
+      watch = new TreeWatch(root, options, debounceMillis);
+    } catch (IOException | UnsupportedOperationException exception) {
+      scanCacheService.unpin(path, options);
+      throw new IllegalArgumentException("Cannot watch " + path + ": " + exception.getMessage());
+    }
+    watch.start();
+    watches.put(watch.getId(), watch);
+    watchOptions.put(watch.getId(), options);
+    return watch;
+  }
+
+  /**
+   * Sucht eine laufende Überwachung.
+   *
+   * @param id ID der Überwachung
+   * @return die Überwachung oder null, wenn sie unbekannt ist
+   */
+  public TreeWatch getWatch(String id) {
+    return watches.get(id);
+  }
+
+  /**
+   * Gibt alle laufenden Überwachungen zurück.
+   *
+   * @return Liste der Überwachungen
+   */
+  public List<TreeWatch> getWatches() {
+    return new ArrayList<>(watches.values());
+  }
+
+  /**
+   * Beendet eine Überwachung. Der Baum bleibt als gewöhnlicher Eintrag im Cache.
+   *
+   * @param id ID der Überwachung
+   * @return die beendete Überwachung oder null, wenn sie unbekannt ist
+   */
+  public synchronized TreeWatch stopWatch(String id) {
+    TreeWatch watch = watches.remove(id);
+    if (watch != null) {
+      watch.stop();
+      scanCacheService.unpin(watch.getPath(), watchOptions.remove(id));
+    }
+    return watch;
+  }
+
+  /** Beendet beim Herunterfahren alle Überwachungen. */
+  @PreDestroy
+  public void shutdown() {
+    watches.values().forEach(TreeWatch::stop);
+  }
+}
@@ -0,0 +1,57 @@
+package com.voba.service;
+
+import java.time.Duration;
+
+import com.voba.model.FileNode;
+import com.voba.model.TreemapLayout;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Berechnet {@link TreemapLayout Treemap-Layouts} für Knoten gehaltener Bäume und hält die
+ * zuletzt berechneten in einem {@link NodeCache} je Knoten, Änderungsstand und Zeichenfläche vor.
+ */
+@Service
+public class TreemapLayoutService {
+
+  private final NodeCache<TreemapLayout> layouts;
+
+  /**
+   * Konstruktor mit Konfiguration.
+   *
+   * @param maxEntries        max. Anzahl vorgehaltener Layouts
+   * @param timeToLiveSeconds Gültigkeit eines Layouts in Sekunden
+   */
+  public TreemapLayoutService(
+      @Value("${drivevisualizer.layout.cache-entries:64}") int maxEntries,
+      @Value("${drivevisualizer.cache.ttl-seconds:300}") long timeToLiveSeconds) {
+    this.layouts = new NodeCache<>(maxEntries, Duration.ofSeconds(timeToLiveSeconds));
+  }
+
+  /**
+   * Liefert das Layout eines Knotens aus dem Cache oder berechnet es.
+   *
+   * @param node    Wurzel des Layouts
+   * @param width   Breite der Zeichenfläche in Pixeln
+   * @param height  Höhe der Zeichenfläche in Pixeln
+   * @param minSize Mindestgröße eines Rechtecks in Pixeln
+   * @return Layout
+   * @throws IllegalArgumentException wenn ein Parameter kleiner als 1 ist
+   */
+  public TreemapLayout layout(FileNode node, int width, int height, int minSize) {
+    NodeCache.Key key = NodeCache.key(node, new Canvas(width, height, minSize));
+    TreemapLayout cached = layouts.get(key);
+    if (cached != null) {
+      return cached;
+    }
+
+    // Außerhalb der Sperre berechnen; gleichzeitige Anfragen rechnen im Zweifel doppelt
+    TreemapLayout layout = TreemapLayout.compute(node, width, height, minSize);
+    layouts.put(key, layout);
+    return layout;
+  }
+
+  private record Canvas(int width, int height, int minSize) {
+  }
+}
@@ -0,0 +1,228 @@
+package com.voba.service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import com.voba.model.AggregateNode;
+import com.voba.model.DirectoryStatistics;
+import com.voba.model.DiskUsageNode;
+import com.voba.model.FileNode;
+import com.voba.model.ScanOptions;
+
+/**
+ * Scannt ein Verzeichnis auf virtuellen Threads.
+ *
+ * <p>
+ * Gedacht für Dateisysteme mit hoher Latenz (NFS, SMB), bei denen der {@link NioDirectoryScanTask}
+ * im Fork/Join-Pool vor allem wartet: Dessen Parallelität ist auf
+ * {@link ScanOptions#getMaxThreads()} begrenzt. Hier läuft jedes Listen eines Verzeichnisses und
+ * jedes Lesen von Attributen in einem eigenen virtuellen Thread; wie viele Zugriffe gleichzeitig
+ * laufen, begrenzt allein ein {@link Semaphore} mit {@link ScanOptions#getMaxInFlightOperations()}
+ * Genehmigungen. Threads, die auf Kinder warten, halten keine Genehmigung.
+ *
+ * <p>
+ * Echte stat-/readdir-Aufrufe blockieren dabei den Träger-Thread; die JVM gleicht das nur bis zu
+ * {@code jdk.virtualThreadScheduler.maxPoolSize} (Standard 256) zusätzlichen Trägern aus. Höhere
+ * Grenzen lohnen sich daher nur, wenn dieser Wert ebenfalls angehoben wird.
+ *
+ * <p>
+ * Wie beim NIO-Scan werden pro Eintrag genau einmal die Attribute ohne Auflösen von Symlinks
+ * gelesen, der Fortschritt gemeldet und Abbrüche über {@link ScanProgress#checkCancelled()}
+ * erkannt; Einträge werden ebenso nach den Optionen zusammengefasst ({@link Aggregation}). Das
+ * Ergebnis ist unsortiert.
+ */
+final class VirtualThreadDirectoryScanner {
+
+  private final ScanOptions options;
+  private final ScanProgress progress;
+  private final boolean dosAttributes;
+  private final Semaphore inFlight;
+  private final ExecutorService executor;
+  private final DiskUsage diskUsage;
+
+  private VirtualThreadDirectoryScanner(
+      Path root, ScanOptions options, ScanProgress progress, ExecutorService executor) {
+    this.options = options;
+    this.progress = progress;
+    this.dosAttributes = NioDirectoryScanTask.supportsDosAttributes(root);
+    this.inFlight = new Semaphore(options.getMaxInFlightOperations());
+    this.executor = executor;
+    this.diskUsage = options.isDiskUsage() ? new DiskUsage(root) : null;
+  }
+
+  /**
+   * Scannt ein Verzeichnis auf virtuellen Threads.
+   *
+   * @param root     Wurzelverzeichnis
+   * @param options  Scan-Optionen
+   * @param progress Fortschritt, der während des Scans aktualisiert wird
+   * @return unsortierter Baum
+   */
+  static FileNode scan(Path root, ScanOptions options, ScanProgress progress) {
+    ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    try {
+      long lastModified = 0;
+      BasicFileAttributes attributes = NioDirectoryScanTask.readAttributes(root, false);
+      if (attributes != null) {
+        lastModified = attributes.lastModifiedTime().toMillis();
+      }
+      return new VirtualThreadDirectoryScanner(root, options, progress, executor)
+          .scanDirectory(root, lastModified, 0);
+    } finally {
+      // Bei Abbruch oder Fehler wartende Threads sofort beenden
+      executor.shutdownNow();
+    }
+  }
+
+  private FileNode scanDirectory(Path directory, long lastModified, int depth) {
+    progress.checkCancelled();
+    FileNode node = diskUsage != null
+        ? new DiskUsageNode(directory, true)
+        : new FileNode(directory, true);
+    node.setLastModified(lastModified);
+
+    List<Path> entries = listEntries(directory);
+    List<Future<BasicFileAttributes>> attributes = new ArrayList<>(entries.size());
+    for (Path entry : entries) {
+      attributes.add(executor.submit(() -> readAttributes(entry)));
+    }
+
+    List<Future<FileNode>> subdirectories = new ArrayList<>();
+    Aggregation aggregation = new Aggregation(directory, options, depth);
+    boolean reportEarly = Aggregation.reportsSubtreesEarly(options);
+    long fileCount = 0;
+    long byteCount = 0;
+    for (int i = 0; i < entries.size(); i++) {
+      Path entry = entries.get(i);
+      BasicFileAttributes entryAttributes = join(attributes.get(i));
+      if (entryAttributes == null) {
+        progress.entryUnreadable();
+        continue;
+      }
+      if (!NioDirectoryScanTask.shouldProcess(entry, entryAttributes, options)) {
+        progress.entrySkipped();
+        continue;
+      }
+
+      long entryModified = entryAttributes.lastModifiedTime().toMillis();
+      if (entryAttributes.isDirectory()) {
+        subdirectories.add(executor.submit(() -> scanDirectory(entry, entryModified, depth + 1)));
+        continue;
+      }
+      long size = diskUsage != null
+          ? diskSize(entry, entryAttributes)
+          : ArchiveScanner.fileSize(entryAttributes);
+      fileCount++;
+      byteCount += size;
+      if (aggregation.foldFile(size)) {
+        continue;
+      }
+      FileNode fileNode = diskUsage != null
+          ? diskUsage.fileNode(entry, entryAttributes, size)
+          : ArchiveScanner.fileNode(entry, entryAttributes, options, progress);
+      node.addChild(fileNode);
+      if (depth == 0 && reportEarly) {
+        progress.subtreeCompleted(fileNode);
+      }
+    }
+    progress.directoryCompleted(fileCount, byteCount);
+
+    for (Future<FileNode> subdirectory : subdirectories) {
+      aggregation.addSubdirectory(node, join(subdirectory));
+    }
+    AggregateNode aggregate = aggregation.finish(node);
+    node.setStatistics(DirectoryStatistics.compute(node, progress.getExtensions()));
+
+    if (depth == 0) {
+      aggregation.reportRoot(node, aggregate, progress);
+    } else if (depth == 1 && reportEarly) {
+      progress.subtreeCompleted(node);
+    }
+    return node;
+  }
+
+  private List<Path> listEntries(Path directory) {
+    List<Path> entries = new ArrayList<>();
+    acquire();
+    long start = System.nanoTime();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+      for (Path entry : stream) {
+        progress.checkCancelled();
+        entries.add(entry);
+      }
+    } catch (IOException | DirectoryIteratorException exception) {
+      // Verzeichnis nicht lesbar (z.B. Permission denied): bisher gelesene Einträge behalten
+      progress.entryUnreadable();
+    } finally {
+      inFlight.release();
+    }
+    ScanProgress.IoObserver observer = progress.getIoObserver();
+    if (observer != null) {
+      observer.directoryListed(System.nanoTime() - start);
+    }
+    return entries;
+  }
+
+  private BasicFileAttributes readAttributes(Path entry) {
+    progress.checkCancelled();
+    acquire();
+    long start = System.nanoTime();
+    try {
+      return NioDirectoryScanTask.readAttributes(entry, dosAttributes);
+    } finally {
+      inFlight.release();
+      ScanProgress.IoObserver observer = progress.getIoObserver();
+      if (observer != null) {
+        observer.attributesRead(System.nanoTime() - start);
+      }
+    }
+  }
+
+  /** Ermittelt den belegten Platz; das Lesen der Link-Attribute zählt als Zugriff. */
+  private long diskSize(Path entry, BasicFileAttributes attributes) {
+    acquire();
+    try {
+      return diskUsage.diskSize(entry, attributes);
+    } finally {
+      inFlight.release();
+    }
+  }
+
+  private void acquire() {
+    try {
+      inFlight.acquire();
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new CancellationException("Scan interrupted");
+    }
+  }
+
+  private static <T> T join(Future<T> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new CancellationException("Scan interrupted");
+    } catch (ExecutionException exception) {
+      if (exception.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (exception.getCause() instanceof Error error) {
+        throw error;
+      }
+      throw new IllegalStateException(exception.getCause());
+    }
+  }
+}
@@ -15,7 +15,8 @@ let syncingSelection = false; // Prevent infinite loops when syncing
 let scanOptions = {
     includeHiddenFiles: false,
     useParallelProcessing: false,
-    maxThreads: 4
+    maxThreads: 4,
+    aggregateBelowKb: 0
 };
 
 // =============================================================================
@@ -42,6 +43,9 @@ function initializeTreemap() {
         minPixelSize: minPixelSize
     });
 
+    treemapVisualizer.setChildLoader(loadChildren);
+    treemapVisualizer.setLayoutLoader(fetchLayout);
+
     treemapVisualizer.setNodeSelectCallback((node, navigationType) => {
         if (!syncingSelection) {
             syncingSelection = true;
@@ -75,6 +79,7 @@ function initializeTreemap() {
 function initializeFileTree() {
     const fileTreeContainer = document.getElementById('fileTree');
     fileTreeExplorer = new FileTreeExplorer(fileTreeContainer);
+    fileTreeExplorer.setChildLoader(loadChildren);
 
     fileTreeExplorer.setNodeSelectCallback((node) => {
         if (!syncingSelection) {
@@ -161,28 +166,62 @@ function initializeEventListeners() {
 // DIRECTORY SCANNING
 // =============================================================================
 
-// Scan directory
+// Minimum time between two partial renders while a scan is streaming (ms)
+const PARTIAL_RENDER_INTERVAL = 500;
+
+// Levels below the root sent by the scan; deeper levels are fetched on demand via /api/node
+const INITIAL_SCAN_DEPTH = 2;
+
+// Max. number of children per directory sent by the server (largest first)
+const CHILD_PAGE_SIZE = 500;
+
+// Pending child requests, so that a node is never fetched twice at the same time
+const pendingChildLoads = new WeakMap();
+
+// Scan directory (streams partial results as NDJSON)
 async function scanDirectory(path) {
     showLoading(true);
 
     try {
-        // Build URL with scan options
-        const url = new URL('/api/scan', window.location.origin);
-        url.searchParams.append('path', path);
-        url.searchParams.append('includeHidden', scanOptions.includeHiddenFiles);
-        url.searchParams.append('parallel', scanOptions.useParallelProcessing);
-        if (scanOptions.useParallelProcessing) {
-            url.searchParams.append('maxThreads', scanOptions.maxThreads);
-        }
-
-        const response = await fetch(url);
+        const response = await fetch(buildScanUrl('/api/scan/stream', path));
 
         if (!response.ok) {
             const error = await response.json();
             throw new Error(error.error || 'Failed to scan directory');
         }
 
-        const data = await response.json();
+        // Root is filled with completed top-level subtrees while the scan is running
+        const data = { name: path, path: path, size: 0, directory: true, extension: null, children: [] };
+        let lastRender = 0;
+
+        await readNdjson(response, (message) => {
+            switch (message.type) {
+                case 'subtree': {
+                    const node = expandElidedTree(message.node);
+                    data.children.push(node);
+                    data.size += node.size;
+                    if (performance.now() - lastRender >= PARTIAL_RENDER_INTERVAL) {
+                        renderPartialResult(data);
+                        lastRender = performance.now();
+                    }
+                    break;
+                }
+                case 'progress':
+                    updateScanProgress(message);
+                    break;
+                case 'complete':
+                    data.name = message.name;
+                    data.path = message.path;
+                    data.size = message.size;
+                    data.childCount = message.childCount;
+                    updateScanProgress(message);
+                    break;
+                case 'error':
+                    throw new Error(message.error);
+            }
+        });
+
+        data.children.sort((a, b) => b.size - a.size || a.name.localeCompare(b.name));
         currentData = data;
 
         // Update displays
@@ -204,9 +243,183 @@ async function scanDirectory(path) {
         console.error('Scan error:', error);
     } finally {
         showLoading(false);
+        updateScanProgress(null);
+    }
+}
+
+// Builds the scan URL including the current scan options
+function buildScanUrl(endpoint, path) {
+    const url = new URL(endpoint, window.location.origin);
+    url.searchParams.append('path', path);
+    url.searchParams.append('includeHidden', scanOptions.includeHiddenFiles);
+    url.searchParams.append('parallel', scanOptions.useParallelProcessing);
+    if (scanOptions.useParallelProcessing) {
+        url.searchParams.append('maxThreads', scanOptions.maxThreads);
+    }
+    appendAggregation(url);
+    url.searchParams.append('depth', INITIAL_SCAN_DEPTH);
+    url.searchParams.append('limit', CHILD_PAGE_SIZE);
+    url.searchParams.append('format', 'elided');
+    return url;
+}
+
+// Small files are folded into one entry per directory by the server. The server keeps one tree per
+// set of options, so scans and slice requests have to send the same value.
+function appendAggregation(url) {
+    if (scanOptions.aggregateBelowKb > 0) {
+        url.searchParams.append('aggregateBelow', scanOptions.aggregateBelowKb * 1024);
+    }
+}
+
+// Fetches children of a node that are not loaded yet and merges them into the node
+function loadChildren(node, depth = 1, offset = 0) {
+    const pending = pendingChildLoads.get(node);
+    if (pending) {
+        return pending;
+    }
+
+    const load = fetchNodeSlice(node.path, depth, offset)
+        .then(slice => mergeSlice(node, slice))
+        .catch(error => console.error('Error loading children:', error))
+        .finally(() => pendingChildLoads.delete(node));
+
+    pendingChildLoads.set(node, load);
+    return load;
+}
+
+// Fetches a slice of the retained server-side tree
+async function fetchNodeSlice(path, depth, offset) {
+    const url = new URL('/api/node', window.location.origin);
+    url.searchParams.append('path', path);
+    url.searchParams.append('depth', depth);
+    url.searchParams.append('offset', offset);
+    url.searchParams.append('limit', CHILD_PAGE_SIZE);
+    url.searchParams.append('includeHidden', scanOptions.includeHiddenFiles);
+    appendAggregation(url);
+
+    // Slices can hold thousands of nodes, so they are fetched in the binary format; errors are JSON
+    const response = await fetch(url, {
+        headers: { 'Accept': BINARY_TREE_MEDIA_TYPE + ', application/json' }
+    });
+    if (!response.ok) {
+        const error = await response.json();
+        throw new Error(error.error || 'Failed to load directory');
+    }
+    return decodeBinaryTree(await response.arrayBuffer());
+}
+
+// Fetches the squarified layout of a node of the retained server-side tree for the canvas size
+async function fetchLayout(node, width, height, minSize) {
+    const url = new URL('/api/layout', window.location.origin);
+    url.searchParams.append('path', node.path);
+    url.searchParams.append('width', width);
+    url.searchParams.append('height', height);
+    url.searchParams.append('minSize', minSize);
+    url.searchParams.append('includeHidden', scanOptions.includeHiddenFiles);
+    appendAggregation(url);
+
+    const response = await fetch(url);
+    if (!response.ok) {
+        const error = await response.json();
+        throw new Error(error.error || 'Failed to load layout');
+    }
+    return response.json();
+}
+
+// Expands a tree sent with format=elided into the regular node shape. The server only sends the
+// path of the root; paths below are rebuilt from the names, extensions are derived from the names.
+function expandElidedTree(elided) {
+    return expandElidedNode(elided, null, elided.sep);
+}
+
+function expandElidedNode(elided, parentPath, separator) {
+    const directory = elided.c !== undefined || elided.k !== undefined;
+    let path = elided.p;
+    if (parentPath !== null) {
+        path = parentPath.endsWith(separator) ? parentPath + elided.n : parentPath + separator + elided.n;
+    }
+
+    const node = {
+        name: elided.n,
+        path: path,
+        size: elided.s,
+        directory: directory,
+        extension: directory ? null : extensionOf(elided.n)
+    };
+    if (elided.m !== undefined) node.lastModified = elided.m;
+    if (elided.k !== undefined) node.childCount = elided.k;
+    if (elided.o !== undefined) node.offset = elided.o;
+    if (elided.u !== undefined) {
+        node.archive = elided.z === true;
+        node.uncompressedSize = elided.u;
+    }
+    if (elided.a !== undefined) node.apparentSize = elided.a;
+    if (elided.g !== undefined) {
+        node.fileCount = elided.g;
+        node.directoryCount = elided.gd;
+    }
+    if (elided.c) {
+        node.children = elided.c.map(child => expandElidedNode(child, path, separator));
+    }
+    return node;
+}
+
+
+// Merges a slice returned by /api/node into an already loaded node, keeping existing objects
+function mergeSlice(target, slice) {
+    target.childCount = slice.childCount;
+    if (!slice.children) return;
+
+    if (!target.children) {
+        target.children = [];
+    }
+    const existing = new Map(target.children.map(child => [child.name, child]));
+    slice.children.forEach(child => {
+        const known = existing.get(child.name);
+        if (known) {
+            mergeSlice(known, child);
+        } else {
+            target.children.push(child);
+        }
+    });
+}
+
+// Reads a newline-delimited JSON response and calls onMessage for every line
+async function readNdjson(response, onMessage) {
+    const reader = response.body.getReader();
+    const decoder = new TextDecoder();
+    let buffer = '';
+
+    while (true) {
+        const { done, value } = await reader.read();
+        buffer += decoder.decode(value || new Uint8Array(), { stream: !done });
+
+        let newline;
+        while ((newline = buffer.indexOf('\n')) >= 0) {
+            const line = buffer.substring(0, newline).trim();
+            buffer = buffer.substring(newline + 1);
+            if (line) {
+                onMessage(JSON.parse(line));
+            }
+        }
+
+        if (done) {
+            if (buffer.trim()) {
+                onMessage(JSON.parse(buffer));
+            }
+            return;
+        }
     }
 }
 
+// Renders the partial tree of a running scan in the treemap
+function renderPartialResult(data) {
+    showLoading(false);
+    updatePathDisplay(data.path);
+    updateSizeDisplay(data.size);
+    treemapVisualizer.setData(data, true);
+}
+
 // =============================================================================
 // SETTINGS MANAGEMENT
 // =============================================================================
@@ -230,6 +443,7 @@ async function loadSettings() {
             document.getElementById('includeHiddenFiles').checked = scanOptions.includeHiddenFiles;
             document.getElementById('useParallelProcessing').checked = scanOptions.useParallelProcessing;
             document.getElementById('maxThreads').value = scanOptions.maxThreads;
+            document.getElementById('aggregateBelowKb').value = scanOptions.aggregateBelowKb;
         }
     }
 
@@ -256,7 +470,8 @@ async function saveSettings() {
     scanOptions = {
         includeHiddenFiles: document.getElementById('includeHiddenFiles').checked,
         useParallelProcessing: document.getElementById('useParallelProcessing').checked,
-        maxThreads: parseInt(document.getElementById('maxThreads').value) || 4
+        maxThreads: parseInt(document.getElementById('maxThreads').value) || 4,
+        aggregateBelowKb: Math.max(parseInt(document.getElementById('aggregateBelowKb').value) || 0, 0)
     };
 
     // Save settings to localStorage
@@ -446,6 +661,17 @@ function updateSizeDisplay(size) {
     document.getElementById('currentSize').textContent = formatSize(size);
 }
 
+// Update scan progress display (null hides it)
+function updateScanProgress(progress) {
+    const progressElement = document.getElementById('scanProgress');
+    if (!progress) {
+        progressElement.textContent = '';
+        return;
+    }
+    progressElement.textContent = `${progress.directories.toLocaleString()} Ordner, `
+        + `${progress.files.toLocaleString()} Dateien, ${formatSize(progress.bytes)}`;
+}
+
 // Update scan options indicator
 function updateScanOptionsIndicator() {
     const indicator = document.getElementById('scanOptionsIndicator');
@@ -459,6 +685,10 @@ function updateScanOptionsIndicator() {
         badges.push(`<span class="badge bg-warning text-dark" title="Parallele Verarbeitung mit max. ${scanOptions.maxThreads} Threads">⚡ Parallel (${scanOptions.maxThreads})</span>`);
     }
     
+    if (scanOptions.aggregateBelowKb > 0) {
+        badges.push(`<span class="badge bg-success" title="Dateien unter ${scanOptions.aggregateBelowKb} KB werden zusammengefasst">📦 &lt; ${scanOptions.aggregateBelowKb} KB</span>`);
+    }
+
     if (badges.length === 0) {
         badges.push('<span class="badge bg-secondary" title="Standard-Scan: sequentiell, ohne versteckte Dateien">📁 Standard</span>');
     }
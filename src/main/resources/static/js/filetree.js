@@ -10,6 +10,7 @@ class FileTreeExplorer {
         this.expandedNodes = new Set();
         this.selectedNode = null;
         this.nodeSelectCallback = null;
+        this.childLoader = null; // async (node, depth, offset) => void, fetches unloaded children
         this.nodeElements = new Map(); // Maps node objects to DOM elements
         this.parentMap = new WeakMap(); // Cache parent relationships
     }
@@ -82,7 +83,7 @@ class FileTreeExplorer {
 
             // Update expand/collapse icon
             const expandIcon = header.querySelector('.expand-icon');
-            if (expandIcon && node.directory && node.children && node.children.length > 0) {
+            if (expandIcon && hasChildren(node)) {
                 expandIcon.textContent = this.expandedNodes.has(node) ? '▼' : '▶';
             }
 
@@ -91,12 +92,7 @@ class FileTreeExplorer {
             if (childrenContainer) {
                 if (this.expandedNodes.has(node)) {
                     if (childrenContainer.style.display === 'none') {
-                        childrenContainer.innerHTML = '';
-                        const sortedChildren = [...node.children].sort((a, b) => b.size - a.size);
-                        const level = parseInt(element.dataset.level) + 1;
-                        sortedChildren.forEach(child => {
-                            this.renderNode(child, childrenContainer, level);
-                        });
+                        this.renderChildren(node, childrenContainer, parseInt(element.dataset.level) + 1);
                     }
                     childrenContainer.style.display = 'block';
                 } else {
@@ -128,7 +124,7 @@ class FileTreeExplorer {
         const expandIcon = document.createElement('span');
         expandIcon.className = 'expand-icon';
 
-        if (node.directory && node.children && node.children.length > 0) {
+        if (hasChildren(node)) {
             expandIcon.textContent = this.expandedNodes.has(node) ? '▼' : '▶';
             expandIcon.style.cursor = 'pointer';
             expandIcon.addEventListener('click', (event) => {
@@ -200,21 +196,13 @@ class FileTreeExplorer {
         nodeItem.appendChild(nodeHeader);
 
         // Children container (only render when expanded)
-        if (node.directory && node.children && node.children.length > 0) {
+        if (hasChildren(node)) {
             const childrenContainer = document.createElement('div');
             childrenContainer.className = 'tree-node-children';
 
             if (this.expandedNodes.has(node)) {
                 childrenContainer.style.display = 'block';
-
-                // Sort children by size (largest first)
-                const sortedChildren = [...node.children].sort((a, b) => {
-                    return b.size - a.size;
-                });
-
-                sortedChildren.forEach(child => {
-                    this.renderNode(child, childrenContainer, level + 1);
-                });
+                this.renderChildren(node, childrenContainer, level + 1);
             } else {
                 // Don't render children if not expanded
                 childrenContainer.style.display = 'none';
@@ -226,14 +214,45 @@ class FileTreeExplorer {
         parentElement.appendChild(nodeItem);
     }
 
+    // Renders the loaded children of a node, plus a row for children that are not loaded yet
+    renderChildren(node, container, level) {
+        container.innerHTML = '';
+
+        // Sort children by size (largest first)
+        const sortedChildren = [...(node.children || [])].sort((a, b) => b.size - a.size);
+        sortedChildren.forEach(child => {
+            this.parentMap.set(child, node);
+            this.renderNode(child, container, level);
+        });
+
+        if (hasMoreChildren(node) && this.childLoader) {
+            const remaining = node.childCount - node.children.length;
+            const more = document.createElement('div');
+            more.className = 'tree-node-more';
+            more.style.paddingLeft = (level * 20 + 25) + 'px';
+            more.textContent = `Load more (${remaining.toLocaleString()} remaining)`;
+            more.addEventListener('click', async (event) => {
+                event.stopPropagation();
+                more.textContent = 'Loading...';
+                await this.childLoader(node, 1, node.children.length);
+                this.renderChildren(node, container, level);
+            });
+            container.appendChild(more);
+        }
+    }
+
     // =============================================================================
     // NODE OPERATIONS
     // =============================================================================
 
-    toggleExpand(node) {
+    async toggleExpand(node) {
         if (this.expandedNodes.has(node)) {
             this.expandedNodes.delete(node);
         } else {
+            if (needsChildren(node) && this.childLoader) {
+                await this.childLoader(node, 1);
+                this.buildParentMap(node, this.parentMap.get(node));
+            }
             this.expandedNodes.add(node);
         }
         this.updateNodeStates();
@@ -352,7 +371,7 @@ class FileTreeExplorer {
             path.forEach((node, index) => {
                 const isTargetNode = (index === path.length - 1);
                 if (!expandOnlyAncestors || !isTargetNode) {
-                    if (node.directory && node.children && node.children.length > 0) {
+                    if (hasChildren(node) && node.children) {
                         this.expandedNodes.add(node);
                     }
                 }
@@ -460,6 +479,11 @@ class FileTreeExplorer {
     setNodeSelectCallback(callback) {
         this.nodeSelectCallback = callback;
     }
+
+    // Sets the function that fetches children which are not loaded yet
+    setChildLoader(loader) {
+        this.childLoader = loader;
+    }
 }
 
 // =============================================================================
@@ -0,0 +1,270 @@
+// =============================================================================
+// BINARY TREE DECODER
+// =============================================================================
+
+// Decoder for the binary tree format (application/vnd.drivevisualizer.tree, see BinaryTree.java).
+// The nodes are decoded into typed arrays (one entry per node in preorder). The returned root and
+// its descendants are lightweight views on these arrays with the same properties as the JSON
+// nodes (name, path, size, directory, extension, children, childCount and the counts of
+// aggregated entries), so treemap.js and filetree.js can use them unchanged. Children are only
+// materialized when they are accessed.
+
+const BINARY_TREE_MEDIA_TYPE = 'application/vnd.drivevisualizer.tree';
+
+const BINARY_FLAG_SLICE = 1;
+const BINARY_NODE_DIRECTORY = 1;
+const BINARY_NODE_CHILDREN = 2;
+const BINARY_NODE_MODIFIED = 4;
+const BINARY_NODE_ARCHIVE_ENTRY = 8;
+const BINARY_NODE_ARCHIVE = 16;
+const BINARY_NODE_AGGREGATE = 32;
+const BINARY_NODE_APPARENT = 64;
+
+// Decodes a response body and returns the root node
+function decodeBinaryTree(buffer) {
+    const reader = new BinaryTreeReader(new Uint8Array(buffer));
+    if (reader.byte() !== 0x44 || reader.byte() !== 0x56 || reader.byte() !== 0x54) {
+        throw new Error('Not a binary tree');
+    }
+    const version = reader.byte();
+    if (version !== 3) {
+        throw new Error('Unsupported binary tree version ' + version);
+    }
+
+    const slice = (reader.varint() & BINARY_FLAG_SLICE) !== 0;
+    const rootPath = reader.string();
+    const separator = reader.string();
+    const offset = reader.varint();
+
+    const nameCount = reader.varint();
+    const names = new Array(nameCount);
+    const extensions = new Array(nameCount);
+    for (let i = 0; i < nameCount; i++) {
+        names[i] = reader.string();
+        extensions[i] = extensionOf(names[i]);
+    }
+
+    const tree = new BinaryTreeColumns(reader.varint(), names, extensions, rootPath, separator, slice);
+    tree.decodeNodes(reader);
+
+    const root = new BinaryTreeNode(tree, 0, null);
+    if (slice && tree.isDirectory(0)) {
+        root.offset = offset;
+    }
+    return root;
+}
+
+// Sequential reader for unsigned LEB128 varints and UTF-8 strings
+class BinaryTreeReader {
+    constructor(bytes) {
+        this.bytes = bytes;
+        this.position = 0;
+        this.textDecoder = new TextDecoder();
+    }
+
+    byte() {
+        if (this.position >= this.bytes.length) {
+            throw new Error('Unexpected end of binary tree');
+        }
+        return this.bytes[this.position++];
+    }
+
+    // Sizes exceed 32 bits, so the value is accumulated as a double (exact up to 2^53)
+    varint() {
+        let value = 0;
+        let factor = 1;
+        let current;
+        do {
+            current = this.byte();
+            value += (current & 0x7f) * factor;
+            factor *= 128;
+        } while (current & 0x80);
+        return value;
+    }
+
+    string() {
+        const length = this.varint();
+        const text = this.textDecoder.decode(this.bytes.subarray(this.position, this.position + length));
+        this.position += length;
+        return text;
+    }
+}
+
+// Column storage of all nodes, indexed by preorder position
+class BinaryTreeColumns {
+    constructor(nodeCount, names, extensions, rootPath, separator, slice) {
+        this.nodeCount = nodeCount;
+        this.names = names;
+        this.extensions = extensions;
+        this.rootPath = rootPath;
+        this.separator = separator;
+        this.slice = slice;
+
+        this.nameIndex = new Uint32Array(nodeCount);
+        this.flags = new Uint8Array(nodeCount);
+        this.size = new Float64Array(nodeCount);
+        this.lastModified = new Float64Array(nodeCount);
+        this.uncompressedSize = new Float64Array(nodeCount);
+        this.apparentSize = new Float64Array(nodeCount);
+        // Aggregated entries are rare, so their counts are kept by index instead of in columns
+        this.aggregates = new Map();
+        this.childCount = new Uint32Array(nodeCount);
+        this.loadedChildren = new Uint32Array(nodeCount);
+        // Preorder index after the last descendant, i.e. of the next sibling
+        this.subtreeEnd = new Uint32Array(nodeCount);
+    }
+
+    decodeNodes(reader) {
+        // Open directories with the number of children that still have to be read
+        const openNodes = [];
+        const remaining = [];
+
+        for (let index = 0; index < this.nodeCount; index++) {
+            this.nameIndex[index] = reader.varint();
+            const flags = reader.byte();
+            this.flags[index] = flags;
+            this.size[index] = reader.varint();
+            if (flags & BINARY_NODE_MODIFIED) {
+                this.lastModified[index] = reader.varint();
+            }
+            if (flags & BINARY_NODE_ARCHIVE_ENTRY) {
+                this.uncompressedSize[index] = reader.varint();
+            }
+            if (flags & BINARY_NODE_AGGREGATE) {
+                this.aggregates.set(index, { fileCount: reader.varint(), directoryCount: reader.varint() });
+            }
+            if (flags & BINARY_NODE_APPARENT) {
+                this.apparentSize[index] = reader.varint();
+            }
+            if (flags & BINARY_NODE_DIRECTORY) {
+                this.childCount[index] = reader.varint();
+            }
+            if (flags & BINARY_NODE_CHILDREN) {
+                this.loadedChildren[index] = reader.varint();
+            }
+
+            if (openNodes.length > 0) {
+                remaining[remaining.length - 1]--;
+            }
+            if (this.loadedChildren[index] > 0) {
+                openNodes.push(index);
+                remaining.push(this.loadedChildren[index]);
+            } else {
+                this.subtreeEnd[index] = index + 1;
+                // Close all directories whose last child was just read
+                while (openNodes.length > 0 && remaining[remaining.length - 1] === 0) {
+                    this.subtreeEnd[openNodes.pop()] = index + 1;
+                    remaining.pop();
+                }
+            }
+        }
+
+        if (openNodes.length > 0) {
+            throw new Error('Truncated binary tree');
+        }
+    }
+
+    isDirectory(index) {
+        return (this.flags[index] & BINARY_NODE_DIRECTORY) !== 0;
+    }
+}
+
+// View on one node of the column storage. Properties assigned by the application (e.g. when
+// merging further pages of children) become own properties and take precedence over the columns.
+class BinaryTreeNode {
+    constructor(tree, index, parentPath) {
+        this.tree = tree;
+        this.index = index;
+        this.parentPath = parentPath;
+    }
+
+    get name() {
+        return this.tree.names[this.tree.nameIndex[this.index]];
+    }
+
+    get path() {
+        if (this.parentPath === null) {
+            return this.tree.rootPath;
+        }
+        const separator = this.tree.separator;
+        return this.parentPath.endsWith(separator)
+            ? this.parentPath + this.name
+            : this.parentPath + separator + this.name;
+    }
+
+    get size() {
+        return this.tree.size[this.index];
+    }
+
+    get directory() {
+        return this.tree.isDirectory(this.index);
+    }
+
+    get extension() {
+        return this.directory ? null : this.tree.extensions[this.tree.nameIndex[this.index]];
+    }
+
+    get lastModified() {
+        return this.tree.flags[this.index] & BINARY_NODE_MODIFIED ? this.tree.lastModified[this.index] : undefined;
+    }
+
+    get archive() {
+        return (this.tree.flags[this.index] & BINARY_NODE_ARCHIVE) !== 0;
+    }
+
+    get uncompressedSize() {
+        return this.tree.flags[this.index] & BINARY_NODE_ARCHIVE_ENTRY
+            ? this.tree.uncompressedSize[this.index]
+            : undefined;
+    }
+
+    get apparentSize() {
+        return this.tree.flags[this.index] & BINARY_NODE_APPARENT
+            ? this.tree.apparentSize[this.index]
+            : undefined;
+    }
+
+    get fileCount() {
+        const aggregate = this.tree.aggregates.get(this.index);
+        return aggregate ? aggregate.fileCount : undefined;
+    }
+
+    get directoryCount() {
+        const aggregate = this.tree.aggregates.get(this.index);
+        return aggregate ? aggregate.directoryCount : undefined;
+    }
+
+    // Like the JSON format, only slices carry child counts
+    get childCount() {
+        return this.tree.slice && this.directory ? this.tree.childCount[this.index] : undefined;
+    }
+
+    set childCount(value) {
+        shadowBinaryTreeProperty(this, 'childCount', value);
+    }
+
+    get children() {
+        const tree = this.tree;
+        if (!(tree.flags[this.index] & BINARY_NODE_CHILDREN)) {
+            return undefined;
+        }
+        const path = this.path;
+        const children = new Array(tree.loadedChildren[this.index]);
+        let child = this.index + 1;
+        for (let i = 0; i < children.length; i++) {
+            children[i] = new BinaryTreeNode(tree, child, path);
+            child = tree.subtreeEnd[child];
+        }
+        // Materialize once, so that the array and its nodes keep their identity
+        shadowBinaryTreeProperty(this, 'children', children);
+        return children;
+    }
+
+    set children(value) {
+        shadowBinaryTreeProperty(this, 'children', value);
+    }
+}
+
+function shadowBinaryTreeProperty(node, name, value) {
+    Object.defineProperty(node, name, { value: value, writable: true, enumerable: true, configurable: true });
+}
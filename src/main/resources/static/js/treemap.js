@@ -13,6 +13,10 @@ class TreemapVisualizer {
         this.colorMap = options.colorMap || new Map();
         this.minPixelSize = options.minPixelSize || 10;
         this.tooltip = options.tooltip || null;
+        this.childLoader = null; // async (node, depth, offset) => void, fetches unloaded children
+        this.layoutLoader = null; // async (node, width, height, minSize) => server-side layout
+        this.layout = null; // last server-side layout as {key, value}, value null while pending
+        this.failedLayoutKey = null;
 
         // Default colors
         this.defaultDirColor = '#4a90e2';
@@ -47,11 +51,15 @@ class TreemapVisualizer {
         document.addEventListener('keydown', (event) => this.handleKeyPress(event));
     }
 
-    // Sets the data for the treemap
-    setData(data) {
+    // Sets the data for the treemap. Partial results of a running scan are not retained by the server
+    // yet and are therefore always laid out in the browser.
+    setData(data, partial = false) {
         this.data = data;
+        this.partial = partial;
         this.currentRoot = data;
         this.selectedNode = data;
+        this.layout = null;
+        this.failedLayoutKey = null;
         this.render();
     }
 
@@ -62,6 +70,10 @@ class TreemapVisualizer {
     render() {
         if (!this.data) return;
 
+        if (this.layoutLoader && !this.partial && this.renderServerLayout()) {
+            return;
+        }
+
         this.context.clearRect(0, 0, this.canvas.width, this.canvas.height);
         this.nodeRectMap.clear();
 
@@ -73,8 +85,11 @@ class TreemapVisualizer {
         };
 
         this.drawTreemap(this.currentRoot, rect, true);
+        this.highlightSelection();
+    }
 
-        // Highlight selected node
+    // Draws the frame around the selected node
+    highlightSelection() {
         if (this.selectedNode) {
             const selectedRect = this.nodeRectMap.get(this.selectedNode);
             if (selectedRect) {
@@ -85,6 +100,103 @@ class TreemapVisualizer {
         }
     }
 
+    // Paints the layout computed by the server for the current view. Returns false if the client has
+    // to lay out the tree itself because the server could not. While a layout is fetched the canvas
+    // keeps its previous content and the view is painted when the layout arrives.
+    renderServerLayout() {
+        const key = [this.currentRoot.path, this.currentRoot.size, this.canvas.width,
+            this.canvas.height, this.minPixelSize].join('|');
+        if (key === this.failedLayoutKey) {
+            return false;
+        }
+        if (this.layout && this.layout.key === key) {
+            if (this.layout.value) {
+                this.paintLayout(this.layout.value);
+            }
+            return true;
+        }
+
+        this.layout = { key: key, value: null };
+        this.layoutLoader(this.currentRoot, this.canvas.width, this.canvas.height, this.minPixelSize)
+            .then(layout => {
+                if (this.layout && this.layout.key === key) {
+                    this.layout.value = layout;
+                    this.render();
+                }
+            })
+            .catch(error => {
+                console.error('Error loading layout, laying out in the browser:', error);
+                if (this.layout && this.layout.key === key) {
+                    this.layout = null;
+                    this.failedLayoutKey = key;
+                    this.render();
+                }
+            });
+        return true;
+    }
+
+    // Paints the rectangles of a server-side layout. Parents come before their children, so the
+    // children are painted on top; labels are only drawn on rectangles without children.
+    paintLayout(layout) {
+        this.context.clearRect(0, 0, this.canvas.width, this.canvas.height);
+        this.nodeRectMap.clear();
+
+        const count = layout.a.length;
+        const nodes = new Array(count);
+        const parentOfOther = new Array(count).fill(false);
+        for (let i = 1; i < count; i++) {
+            parentOfOther[layout.a[i]] = true;
+        }
+
+        for (let i = 0; i < count; i++) {
+            nodes[i] = i === 0 ? this.currentRoot : this.layoutNode(layout, i, nodes[layout.a[i]]);
+            const rect = {
+                x: layout.r[i * 4],
+                y: layout.r[i * 4 + 1],
+                width: layout.r[i * 4 + 2],
+                height: layout.r[i * 4 + 3]
+            };
+            this.nodeRectMap.set(nodes[i], rect);
+            this.drawRect(nodes[i], rect, !parentOfOther[i]);
+        }
+        this.highlightSelection();
+    }
+
+    // Returns the loaded node for a rectangle of a server-side layout, or a stub standing in for it
+    // until its directory is loaded (see resolveNode)
+    layoutNode(layout, index, parent) {
+        const name = layout.n[index];
+        const loaded = parent.children && parent.children.find(child => child.name === name);
+        if (loaded) {
+            return loaded;
+        }
+
+        const directory = layout.k[index] >= 0;
+        const separator = layout.sep;
+        return {
+            name: name,
+            path: parent.path.endsWith(separator) ? parent.path + name : parent.path + separator + name,
+            size: layout.s[index],
+            directory: directory,
+            extension: directory ? null : extensionOf(name),
+            childCount: directory ? layout.k[index] : undefined,
+            stub: true,
+            parent: parent
+        };
+    }
+
+    // Replaces a stub from a server-side layout by the loaded node, fetching its ancestors one level
+    // at a time. Returns the deepest loaded ancestor if the node is not among the loaded children.
+    async resolveNode(node) {
+        if (!node.stub) {
+            return node;
+        }
+        const parent = await this.resolveNode(node.parent);
+        await this.ensureLoaded(parent, 1);
+        const loaded = parent.children && parent.children.find(child => child.name === node.name);
+        return loaded || parent;
+    }
+
     // Recursively draws the treemap layout
     drawTreemap(node, rect, horizontal) {
         this.nodeRectMap.set(node, rect);
@@ -140,7 +252,7 @@ class TreemapVisualizer {
     }
 
     // Draws a single rectangle for a node
-    drawRect(node, rect) {
+    drawRect(node, rect, label = true) {
         let color = this.defaultDirColor;
         if (!node.directory) {
             if (node.extension && this.colorMap.has(node.extension)) {
@@ -158,7 +270,7 @@ class TreemapVisualizer {
         this.context.strokeRect(rect.x, rect.y, rect.width, rect.height);
 
         // Draw text if space permits
-        if (rect.width > 30 && rect.height > 20) {
+        if (label && rect.width > 30 && rect.height > 20) {
             this.context.fillStyle = '#ffffff';
             this.context.font = '12px Arial';
             this.context.textAlign = 'center';
@@ -205,13 +317,14 @@ class TreemapVisualizer {
     }
 
     // Handles mouse clicks for selection
-    handleClick(event) {
+    async handleClick(event) {
         const canvasBounds = this.canvas.getBoundingClientRect();
         const mouseX = event.clientX - canvasBounds.left;
         const mouseY = event.clientY - canvasBounds.top;
 
-        const node = this.findSmallestNodeAtPosition(mouseX, mouseY);
-        if (!node) return;
+        const found = this.findSmallestNodeAtPosition(mouseX, mouseY);
+        if (!found) return;
+        const node = await this.resolveNode(found);
 
         if (event.ctrlKey) {
             // Ctrl+Click: Select the parent folder of the clicked element
@@ -256,7 +369,7 @@ class TreemapVisualizer {
                 this.navigateToFirstChild();
                 break;
             case ' ':
-                if (this.selectedNode.directory && this.selectedNode.children && this.selectedNode.children.length > 0) {
+                if (hasChildren(this.selectedNode)) {
                     this.zoomIn(this.selectedNode);
                 }
                 event.preventDefault();
@@ -301,7 +414,8 @@ class TreemapVisualizer {
     }
 
     // Navigates to the first child node
-    navigateToFirstChild() {
+    async navigateToFirstChild() {
+        await this.ensureLoaded(this.selectedNode, 1);
         if (this.selectedNode.children && this.selectedNode.children.length > 0) {
             this.selectedNode = this.selectedNode.children[0];
             this.render();
@@ -358,8 +472,16 @@ class TreemapVisualizer {
     // ZOOM & VIEW CONTROL
     // =============================================================================
 
+    // Fetches unloaded levels below the node before it is drilled into
+    async ensureLoaded(node, depth) {
+        if (this.childLoader && !isLoaded(node, depth)) {
+            await this.childLoader(node, depth);
+        }
+    }
+
     // Zooms in to show only the given node
-    zoomIn(node) {
+    async zoomIn(node) {
+        await this.ensureLoaded(node, 2);
         if (node.directory && node.children && node.children.length > 0) {
             this.currentRoot = node;
             this.selectedNode = node;
@@ -445,6 +567,19 @@ class TreemapVisualizer {
         this.nodeSelectCallback = callback;
     }
 
+    // Sets the function that fetches children which are not loaded yet
+    setChildLoader(loader) {
+        this.childLoader = loader;
+    }
+
+    // Sets the function that fetches the layout of a node from the server. Without one, or if it
+    // fails, the treemap is laid out in the browser.
+    setLayoutLoader(loader) {
+        this.layoutLoader = loader;
+        this.layout = null;
+        this.failedLayoutKey = null;
+    }
+
     // Updates the color map and re-renders
     updateColorMap(colorMap) {
         this.colorMap = colorMap;
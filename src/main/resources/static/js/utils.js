@@ -12,3 +12,33 @@ function formatSize(bytes) {
 
     return parseFloat((bytes / Math.pow(kilobyte, unitIndex)).toFixed(2)) + ' ' + units[unitIndex];
 }
+
+// Returns true if the directory has children, loaded or not
+function hasChildren(node) {
+    if (!node || !node.directory) return false;
+    const count = node.childCount !== undefined ? node.childCount : (node.children || []).length;
+    return count > 0;
+}
+
+// Returns true if the children of the node still have to be fetched from the server
+function needsChildren(node) {
+    return hasChildren(node) && !node.children;
+}
+
+// Returns true if only the first page of the children has been fetched
+function hasMoreChildren(node) {
+    return !!node.children && node.childCount !== undefined && node.children.length < node.childCount;
+}
+
+// Returns true if the given number of levels below the node is loaded
+function isLoaded(node, depth) {
+    if (depth <= 0 || !hasChildren(node)) return true;
+    if (!node.children) return false;
+    return node.children.every(child => isLoaded(child, depth - 1));
+}
+
+// Lower-case extension without the dot, or null if the name has none (same rule as the server)
+function extensionOf(name) {
+    const dot = name.lastIndexOf('.');
+    return dot >= 0 ? name.substring(dot + 1).toLowerCase() : null;
+}
@@ -1,36 +1,79 @@
 package com.voba.controller;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
+import com.voba.model.BinaryTree;
 import com.voba.model.FileNode;
 import com.voba.model.ScanOptions;
+import com.voba.model.TopEntries;
 import com.voba.service.DirectoryService;
+import com.voba.service.DuplicateFinderService;
+import com.voba.service.NameIndexService;
+import com.voba.service.ScanCacheService;
+import com.voba.service.ScanExecutor;
+import com.voba.service.ScanProgress;
+import com.voba.service.ScanRejectedException;
+import com.voba.service.TreeQueryService;
+import com.voba.service.TreemapLayoutService;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 /** Unit-Tests für den FileSystemController. */
 @WebMvcTest(FileSystemController.class)
+@Import({ScanCacheService.class, TreemapLayoutService.class, DuplicateFinderService.class,
+    NameIndexService.class, TreeQueryService.class})
 class FileSystemControllerTest {
 
   @Autowired
   private MockMvc mockMvc;
 
+  @Autowired
+  private ScanCacheService scanCacheService;
+
   @MockitoBean
   private DirectoryService directoryService;
 
+  @MockitoBean
+  private ScanExecutor scanExecutor;
+
+  @BeforeEach
+  void setUp() {
+    scanCacheService.clear();
+  }
+
   @Test
   void testScanDirectory() throws Exception {
     FileNode mockNode = new FileNode(Paths.get("test"), true);
@@ -49,6 +92,40 @@ class FileSystemControllerTest {
     verify(directoryService, times(1)).scanDirectory(anyString(), any(ScanOptions.class));
   }
 
+  @Test
+  void testScanDirectoryUsesCache() throws Exception {
+    FileNode mockNode = new FileNode(Paths.get("test"), true);
+    mockNode.setSize(1000);
+
+    when(directoryService.scanDirectory(anyString(), any(ScanOptions.class))).thenReturn(mockNode);
+
+    mockMvc.perform(get("/api/scan").param("path", "test/path")).andExpect(status().isOk());
+    mockMvc
+        .perform(get("/api/scan").param("path", "test/path"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.size").value(1000));
+    verify(directoryService, times(1)).scanDirectory(anyString(), any(ScanOptions.class));
+
+    when(directoryService.scanDirectory(anyString(), any(ScanOptions.class), any(ScanProgress.class)))
+        .thenReturn(mockNode);
+    mockMvc
+        .perform(get("/api/scan").param("path", "test/path").param("refresh", "true"))
+        .andExpect(status().isOk());
+    verify(directoryService, times(1))
+        .scanDirectory(anyString(), any(ScanOptions.class), any(ScanProgress.class));
+
+    // Inkrementeller Neuscan baut auf dem gecachten Ergebnis auf
+    when(directoryService.scanIncremental(
+        anyString(), any(ScanOptions.class), any(FileNode.class), any(ScanProgress.class)))
+        .thenReturn(mockNode);
+    mockMvc
+        .perform(get("/api/scan").param("path", "test/path")
+            .param("refresh", "true").param("incremental", "true"))
+        .andExpect(status().isOk());
+    verify(directoryService, times(1)).scanIncremental(
+        anyString(), any(ScanOptions.class), any(FileNode.class), any(ScanProgress.class));
+  }
+
   @Test
   void testScanDirectoryWithException() throws Exception {
     when(directoryService.scanDirectory(anyString(), any(ScanOptions.class)))
@@ -62,6 +139,23 @@ class FileSystemControllerTest {
     verify(directoryService, times(1)).scanDirectory(anyString(), any(ScanOptions.class));
   }
 
+  @Test
+  void testScanDirectoryRejectedByExecutor() throws Exception {
+    when(directoryService.scanDirectory(anyString(), any(ScanOptions.class)))
+        .thenThrow(new ScanRejectedException(ScanRejectedException.Reason.QUEUE_FULL, "Too many scans"))
+        .thenThrow(new ScanRejectedException(ScanRejectedException.Reason.TIMEOUT, "Waited too long"));
+
+    mockMvc
+        .perform(get("/api/scan").param("path", "test/path"))
+        .andExpect(status().isTooManyRequests())
+        .andExpect(header().exists("Retry-After"))
+        .andExpect(jsonPath("$.error").value("Too many scans"));
+    mockMvc
+        .perform(get("/api/scan").param("path", "test/path"))
+        .andExpect(status().isServiceUnavailable())
+        .andExpect(jsonPath("$.error").value("Waited too long"));
+  }
+
   @Test
   void testGetAvailableDrives() throws Exception {
     mockMvc
@@ -106,4 +200,538 @@ class FileSystemControllerTest {
 
     verify(directoryService, times(1)).scanDirectory(anyString(), any(ScanOptions.class));
   }
+
+  @Test
+  void testScanDirectoryWithDepthAndNodeSlices() throws Exception {
+    FileNode root = new FileNode(Paths.get("root"), true);
+    FileNode subdir = new FileNode(Paths.get("root", "sub"), true);
+    FileNode first = new FileNode(Paths.get("root", "sub", "a.txt"), false);
+    first.setSize(20);
+    FileNode second = new FileNode(Paths.get("root", "sub", "b.txt"), false);
+    second.setSize(10);
+    subdir.addChild(first);
+    subdir.addChild(second);
+    root.addChild(subdir);
+
+    when(directoryService.scanDirectory(anyString(), any(ScanOptions.class))).thenReturn(root);
+
+    mockMvc
+        .perform(get("/api/scan").param("path", "root").param("depth", "1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.childCount").value(1))
+        .andExpect(jsonPath("$.children[0].name").value("sub"))
+        .andExpect(jsonPath("$.children[0].childCount").value(2))
+        .andExpect(jsonPath("$.children[0].children").doesNotExist());
+
+    // Tiefere Ebenen kommen aus dem gecachten Baum, ohne erneuten Scan
+    mockMvc
+        .perform(get("/api/node").param("path", "root/sub").param("offset", "1").param("limit", "1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.name").value("sub"))
+        .andExpect(jsonPath("$.offset").value(1))
+        .andExpect(jsonPath("$.childCount").value(2))
+        .andExpect(jsonPath("$.children.length()").value(1))
+        .andExpect(jsonPath("$.children[0].name").value("b.txt"));
+
+    verify(directoryService, times(1)).scanDirectory(anyString(), any(ScanOptions.class));
+  }
+
+  @Test
+  void testScanDirectoryElidedFormat() throws Exception {
+    FileNode root = new FileNode(Paths.get("root"), true);
+    FileNode child = new FileNode(Paths.get("root", "child.txt"), false);
+    child.setSize(42);
+    root.addChild(child);
+
+    when(directoryService.scanDirectory(anyString(), any(ScanOptions.class))).thenReturn(root);
+
+    mockMvc
+        .perform(get("/api/scan").param("path", "root").param("format", "elided"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.p").value("root"))
+        .andExpect(jsonPath("$.s").value(42))
+        .andExpect(jsonPath("$.c[0].n").value("child.txt"))
+        .andExpect(jsonPath("$.c[0].p").doesNotExist())
+        .andExpect(jsonPath("$.path").doesNotExist());
+
+    mockMvc
+        .perform(get("/api/node").param("path", "root").param("format", "elided"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.k").value(1))
+        .andExpect(jsonPath("$.o").value(0));
+
+    mockMvc
+        .perform(get("/api/scan").param("path", "root").param("format", "xml"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.error").exists());
+  }
+
+  @Test
+  void testLayout() throws Exception {
+    FileNode root = new FileNode(Paths.get("root"), true);
+    FileNode large = new FileNode(Paths.get("root", "large.bin"), false);
+    large.setSize(300);
+    FileNode small = new FileNode(Paths.get("root", "small.bin"), false);
+    small.setSize(100);
+    root.addChild(large);
+    root.addChild(small);
+    root.sortChildren();
+
+    when(directoryService.scanDirectory(anyString(), any(ScanOptions.class))).thenReturn(root);
+
+    mockMvc
+        .perform(get("/api/layout").param("path", "root").param("width", "400")
+            .param("height", "100"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.p").value("root"))
+        .andExpect(jsonPath("$.min").value(10))
+        .andExpect(jsonPath("$.n.length()").value(3))
+        .andExpect(jsonPath("$.n[1]").value("large.bin"))
+        .andExpect(jsonPath("$.a[1]").value(0))
+        .andExpect(jsonPath("$.k[0]").value(2))
+        .andExpect(jsonPath("$.k[1]").value(-1))
+        .andExpect(jsonPath("$.r.length()").value(12));
+
+    // Zweite Anfrage kommt aus dem Scan-Cache, ungültige Zeichenflächen werden abgelehnt
+    mockMvc
+        .perform(get("/api/layout").param("path", "root").param("width", "0")
+            .param("height", "100"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.error").exists());
+
+    verify(directoryService, times(1)).scanDirectory(anyString(), any(ScanOptions.class));
+  }
+
+  @Test
+  void testStatistics() throws Exception {
+    FileNode root = new FileNode(Paths.get("root"), true);
+    FileNode sub = new FileNode(Paths.get("root", "sub"), true);
+    FileNode log = new FileNode(Paths.get("root", "sub", "a.log"), false);
+    log.setSize(300);
+    sub.addChild(log);
+    FileNode text = new FileNode(Paths.get("root", "b.txt"), false);
+    text.setSize(100);
+    root.addChild(sub);
+    root.addChild(text);
+    root.sortChildren();
+
+    when(directoryService.scanDirectory(anyString(), any(ScanOptions.class))).thenReturn(root);
+
+    mockMvc
+        .perform(get("/api/stats").param("path", "root").param("limit", "1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.path").value("root"))
+        .andExpect(jsonPath("$.size").value(400))
+        .andExpect(jsonPath("$.fileCount").value(2))
+        .andExpect(jsonPath("$.directoryCount").value(1))
+        .andExpect(jsonPath("$.maxDepth").value(2))
+        .andExpect(jsonPath("$.extensionCount").value(2))
+        .andExpect(jsonPath("$.extensions.length()").value(1))
+        .andExpect(jsonPath("$.extensions[0].extension").value("log"))
+        .andExpect(jsonPath("$.extensions[0].count").value(1))
+        .andExpect(jsonPath("$.extensions[0].size").value(300));
+
+    mockMvc
+        .perform(get("/api/stats").param("path", "root").param("limit", "0"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.error").exists());
+  }
+
+  @Test
+  void testTopFromTreeAndTopOnlyScan() throws Exception {
+    FileNode root = new FileNode(Paths.get("root"), true);
+    FileNode sub = new FileNode(Paths.get("root", "sub"), true);
+    FileNode large = new FileNode(Paths.get("root", "sub", "large.bin"), false);
+    large.setSize(300);
+    sub.addChild(large);
+    FileNode small = new FileNode(Paths.get("root", "small.bin"), false);
+    small.setSize(100);
+    root.addChild(sub);
+    root.addChild(small);
+    root.sortChildren();
+
+    TopEntries scanned = new TopEntries(Paths.get("other"), 1);
+    scanned.offerFile(Paths.get("other", "big.iso"), 1000);
+    scanned.setSize(1000);
+
+    when(directoryService.scanDirectory(anyString(), any(ScanOptions.class))).thenReturn(root);
+    when(directoryService.scanTop(anyString(), any(ScanOptions.class), anyInt(),
+        any(ScanProgress.class))).thenReturn(scanned);
+
+    mockMvc
+        .perform(get("/api/top").param("path", "root").param("n", "1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.source").value("tree"))
+        .andExpect(jsonPath("$.size").value(400))
+        .andExpect(jsonPath("$.entries.length()").value(1))
+        .andExpect(jsonPath("$.entries[0].path").value(large.getPath()))
+        .andExpect(jsonPath("$.entries[0].size").value(300));
+
+    // Der gehaltene Baum wird auch ohne retain genutzt
+    mockMvc
+        .perform(get("/api/top").param("path", "root").param("kind", "directory")
+            .param("retain", "false"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.source").value("tree"))
+        .andExpect(jsonPath("$.kind").value("directory"))
+        .andExpect(jsonPath("$.entries[0].path").value(sub.getPath()));
+
+    mockMvc
+        .perform(get("/api/top").param("path", "other").param("retain", "false"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.source").value("scan"))
+        .andExpect(jsonPath("$.entries[0].size").value(1000));
+
+    mockMvc
+        .perform(get("/api/top").param("path", "root").param("kind", "link"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.error").exists());
+
+    verify(directoryService, times(1)).scanDirectory(anyString(), any(ScanOptions.class));
+    verify(directoryService, times(1)).scanTop(anyString(), any(ScanOptions.class), anyInt(),
+        any(ScanProgress.class));
+  }
+
+  @Test
+  void testSearch() throws Exception {
+    FileNode root = new FileNode(Paths.get("root"), true);
+    FileNode sub = new FileNode(Paths.get("root", "sub"), true);
+    FileNode iso = new FileNode(Paths.get("root", "sub", "image.iso"), false);
+    iso.setSize(300);
+    sub.addChild(iso);
+    FileNode small = new FileNode(Paths.get("root", "small.iso"), false);
+    small.setSize(100);
+    root.addChild(sub);
+    root.addChild(small);
+    root.sortChildren();
+
+    when(directoryService.scanDirectory(anyString(), any(ScanOptions.class))).thenReturn(root);
+
+    mockMvc
+        .perform(get("/api/search").param("path", "root").param("q", "*.ISO")
+            .param("mode", "glob").param("limit", "1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.path").value("root"))
+        .andExpect(jsonPath("$.mode").value("glob"))
+        .andExpect(jsonPath("$.total").value(2))
+        .andExpect(jsonPath("$.entries.length()").value(1))
+        .andExpect(jsonPath("$.entries[0].path")
+            .value(Paths.get("root", "sub", "image.iso").toString()))
+        .andExpect(jsonPath("$.entries[0].size").value(300))
+        .andExpect(jsonPath("$.entries[0].directory").value(false));
+
+    mockMvc
+        .perform(get("/api/search").param("path", "root").param("q", "sub").param("offset", "0"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.mode").value("substring"))
+        .andExpect(jsonPath("$.total").value(1))
+        .andExpect(jsonPath("$.entries[0].directory").value(true));
+
+    mockMvc
+        .perform(get("/api/search").param("path", "root").param("q", "x").param("mode", "regex"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.error").exists());
+
+    // Der Baum wurde nur einmal gescannt, der Index nur einmal aufgebaut
+    verify(directoryService, times(1)).scanDirectory(anyString(), any(ScanOptions.class));
+  }
+
+  @Test
+  void testQuery() throws Exception {
+    FileNode root = new FileNode(Paths.get("root"), true);
+    FileNode sub = new FileNode(Paths.get("root", "sub"), true);
+    FileNode iso = new FileNode(Paths.get("root", "sub", "image.iso"), false);
+    iso.setSize(300);
+    sub.addChild(iso);
+    FileNode text = new FileNode(Paths.get("root", "sub", "notes.txt"), false);
+    text.setSize(700);
+    sub.addChild(text);
+    FileNode small = new FileNode(Paths.get("root", "small.iso"), false);
+    small.setSize(100);
+    root.addChild(sub);
+    root.addChild(small);
+    root.sortChildren();
+
+    when(directoryService.scanDirectory(anyString(), any(ScanOptions.class))).thenReturn(root);
+    when(scanExecutor.execute(any(ScanOptions.class), any())).thenAnswer(invocation ->
+        invocation.<Function<ForkJoinPool, ?>>getArgument(1).apply(ForkJoinPool.commonPool()));
+
+    mockMvc
+        .perform(get("/api/query").param("path", "root").param("ext", "iso|vmdk")
+            .param("minSize", "200"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.path").value("root"))
+        .andExpect(jsonPath("$.size").value(300))
+        .andExpect(jsonPath("$.children.length()").value(1))
+        .andExpect(jsonPath("$.children[0].name").value("sub"))
+        .andExpect(jsonPath("$.children[0].size").value(300))
+        .andExpect(jsonPath("$.children[0].children[0].name").value("image.iso"));
+
+    mockMvc
+        .perform(get("/api/query").param("path", "root").param("minSize", "5")
+            .param("maxSize", "1"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.error").exists());
+  }
+
+  @Test
+  void testCachedTreeEndpointsAcceptArchives() throws Exception {
+    assertCachedTreeEndpointsResolve("archives");
+    verify(directoryService, times(1)).scanDirectory(
+        anyString(), argThat(ScanOptions::isScanArchives));
+  }
+
+  @Test
+  void testCachedTreeEndpointsAcceptDiskUsage() throws Exception {
+    assertCachedTreeEndpointsResolve("diskUsage");
+    verify(directoryService, times(1)).scanDirectory(
+        anyString(), argThat(ScanOptions::isDiskUsage));
+  }
+
+  /** Scannt mit {@code parameter=true} und löst den Baum über alle Endpunkte erneut auf. */
+  private void assertCachedTreeEndpointsResolve(String parameter) throws Exception {
+    FileNode root = new FileNode(Paths.get("root"), true);
+    FileNode archive = new FileNode(Paths.get("root", "lib.jar"), true);
+    FileNode entry = new FileNode(Paths.get("root", "lib.jar", "Main.class"), false);
+    entry.setSize(100);
+    archive.addChild(entry);
+    root.addChild(archive);
+
+    when(directoryService.scanDirectory(anyString(), any(ScanOptions.class))).thenReturn(root);
+    when(scanExecutor.execute(any(ScanOptions.class), any())).thenAnswer(invocation ->
+        invocation.<Function<ForkJoinPool, ?>>getArgument(1).apply(ForkJoinPool.commonPool()));
+
+    mockMvc
+        .perform(get("/api/scan").param("path", "root").param(parameter, "true"))
+        .andExpect(status().isOk());
+
+    // Alle Endpunkte lösen mit demselben Parameter den gehaltenen Baum auf, statt neu zu scannen
+    mockMvc
+        .perform(get("/api/node").param("path", "root").param(parameter, "true"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.children[0].name").value("lib.jar"));
+    mockMvc
+        .perform(get("/api/layout").param("path", "root").param(parameter, "true")
+            .param("width", "100").param("height", "100"))
+        .andExpect(status().isOk());
+    mockMvc
+        .perform(get("/api/stats").param("path", "root").param(parameter, "true"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.fileCount").value(1));
+    mockMvc
+        .perform(get("/api/top").param("path", "root").param(parameter, "true"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.source").value("tree"))
+        .andExpect(jsonPath("$.entries[0].path").value(entry.getPath()));
+    mockMvc
+        .perform(get("/api/duplicates").param("path", "root").param(parameter, "true"))
+        .andExpect(status().isOk());
+    mockMvc
+        .perform(get("/api/search").param("path", "root").param(parameter, "true")
+            .param("q", "main"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.total").value(1));
+    mockMvc
+        .perform(get("/api/query").param("path", "root").param(parameter, "true")
+            .param("ext", "class"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.size").value(100));
+
+    verify(directoryService, times(1)).scanDirectory(anyString(), any(ScanOptions.class));
+  }
+
+  @Test
+  void testDuplicates(@TempDir Path tempDir) throws Exception {
+    FileNode root = new FileNode(tempDir, true);
+    for (String name : new String[] {"a.txt", "b.txt", "c.txt"}) {
+      Path path = tempDir.resolve(name);
+      Files.writeString(path, name.equals("c.txt") ? "other" : "same!");
+      FileNode file = new FileNode(path, false);
+      file.setSize(5);
+      root.addChild(file);
+    }
+    root.sortChildren();
+
+    when(directoryService.scanDirectory(anyString(), any(ScanOptions.class))).thenReturn(root);
+
+    mockMvc
+        .perform(get("/api/duplicates").param("path", tempDir.toString()))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.path").value(tempDir.toString()))
+        .andExpect(jsonPath("$.candidates").value(3))
+        .andExpect(jsonPath("$.groupCount").value(1))
+        .andExpect(jsonPath("$.reclaimableBytes").value(5))
+        .andExpect(jsonPath("$.groups[0].paths.length()").value(2))
+        .andExpect(jsonPath("$.groups[0].paths[1]").value(tempDir.resolve("b.txt").toString()))
+        .andExpect(jsonPath("$.directories[0].path").value(tempDir.toString()))
+        .andExpect(jsonPath("$.directories[0].copies").value(1));
+
+    mockMvc
+        .perform(get("/api/duplicates").param("path", tempDir.toString()).param("minSize", "0"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.error").exists());
+  }
+
+  @Test
+  void testScanDirectoryBinaryFormatByAcceptHeader() throws Exception {
+    FileNode root = new FileNode(Paths.get("root"), true);
+    root.addChild(new FileNode(Paths.get("root", "child.txt"), false));
+
+    when(directoryService.scanDirectory(anyString(), any(ScanOptions.class))).thenReturn(root);
+
+    byte[] body = mockMvc
+        .perform(get("/api/scan").param("path", "root")
+            .header("Accept", BinaryTree.MEDIA_TYPE + ", application/json"))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(BinaryTree.MEDIA_TYPE))
+        .andReturn()
+        .getResponse()
+        .getContentAsByteArray();
+    assertEquals("DVT", new String(body, 0, 3, StandardCharsets.US_ASCII));
+
+    mockMvc
+        .perform(get("/api/node").param("path", "root").param("format", "binary"))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(BinaryTree.MEDIA_TYPE));
+
+    // Fehler bleiben JSON, wenn der Client es ebenfalls akzeptiert
+    mockMvc
+        .perform(get("/api/node").param("path", "root").param("limit", "0")
+            .header("Accept", BinaryTree.MEDIA_TYPE + ", application/json"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.error").exists());
+  }
+
+  @Test
+  void testGetNodeWithInvalidLimit() throws Exception {
+    FileNode root = new FileNode(Paths.get("root"), true);
+    when(directoryService.scanDirectory(anyString(), any(ScanOptions.class))).thenReturn(root);
+
+    mockMvc
+        .perform(get("/api/node").param("path", "root").param("limit", "0"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.error").exists());
+  }
+
+  @Test
+  void testScanDirectoryWithInvalidEngine() throws Exception {
+    mockMvc
+        .perform(get("/api/scan").param("path", "test/path").param("engine", "unknown"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.error").exists());
+  }
+
+  @Test
+  void testStreamScanWritesSubtreesAndCompletion() throws Exception {
+    FileNode root = new FileNode(Paths.get("root"), true);
+    FileNode child = new FileNode(Paths.get("root", "child.txt"), false);
+    child.setSize(42);
+    root.addChild(child);
+
+    when(directoryService.scanDirectory(anyString(), any(ScanOptions.class), any(ScanProgress.class)))
+        .thenAnswer(invocation -> {
+          ScanProgress progress = invocation.getArgument(2);
+          progress.directoryCompleted(1, 42);
+          progress.subtreeCompleted(child);
+          return root;
+        });
+
+    MvcResult result = mockMvc
+        .perform(get("/api/scan/stream").param("path", "root"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    String[] lines = mockMvc
+        .perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andReturn()
+        .getResponse()
+        .getContentAsString()
+        .split("\n");
+
+    assertEquals(2, lines.length);
+    assertTrue(lines[0].contains("\"type\":\"subtree\""));
+    assertTrue(lines[0].contains("\"name\":\"child.txt\""));
+    assertTrue(lines[1].contains("\"type\":\"complete\""));
+    assertTrue(lines[1].contains("\"files\":1"));
+    assertTrue(lines[1].contains("\"size\":42"));
+  }
+
+  @Test
+  void testConcurrentStreamScansShareOneScan() throws Exception {
+    FileNode root = new FileNode(Paths.get("root"), true);
+    FileNode child = new FileNode(Paths.get("root", "child.txt"), false);
+    child.setSize(42);
+    root.addChild(child);
+
+    when(directoryService.scanDirectory(anyString(), any(ScanOptions.class), any(ScanProgress.class)))
+        .thenAnswer(invocation -> {
+          // Der Scan endet erst, wenn die zweite Anfrage auf ihn wartet
+          long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+          while ((long) scanCacheService.getStats().get("coalesced") == 0
+              && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+          }
+          ScanProgress progress = invocation.getArgument(2);
+          progress.subtreeCompleted(child);
+          return root;
+        });
+
+    MvcResult first = mockMvc
+        .perform(get("/api/scan/stream").param("path", "root"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    MvcResult second = mockMvc
+        .perform(get("/api/scan/stream").param("path", "root"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    for (MvcResult result : List.of(first, second)) {
+      String[] lines = mockMvc
+          .perform(asyncDispatch(result))
+          .andExpect(status().isOk())
+          .andReturn()
+          .getResponse()
+          .getContentAsString()
+          .split("\n");
+      assertEquals(2, lines.length);
+      assertTrue(lines[0].contains("\"name\":\"child.txt\""));
+      assertTrue(lines[1].contains("\"type\":\"complete\""));
+    }
+
+    verify(directoryService, times(1))
+        .scanDirectory(anyString(), any(ScanOptions.class), any(ScanProgress.class));
+    assertEquals(1L, scanCacheService.getStats().get("coalesced"));
+  }
+
+  @Test
+  void testStreamScanWithInvalidPath() throws Exception {
+    doThrow(new IllegalArgumentException("Invalid path"))
+        .when(directoryService).validateDirectory(anyString());
+
+    MvcResult result = mockMvc
+        .perform(get("/api/scan/stream").param("path", "invalid/path"))
+        .andReturn();
+
+    mockMvc
+        .perform(asyncDispatch(result))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.error").value("Invalid path"));
+  }
+
+  @Test
+  void testStreamScanRejectedWhenExecutorIsSaturated() throws Exception {
+    when(scanExecutor.isSaturated()).thenReturn(true);
+
+    MvcResult result = mockMvc
+        .perform(get("/api/scan/stream").param("path", "test/path"))
+        .andReturn();
+
+    mockMvc
+        .perform(asyncDispatch(result))
+        .andExpect(status().isTooManyRequests())
+        .andExpect(header().exists("Retry-After"));
+    verify(directoryService, times(0))
+        .scanDirectory(anyString(), any(ScanOptions.class), any(ScanProgress.class));
+  }
 }
@@ -0,0 +1,51 @@
+package com.voba.controller;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Map;
+
+import com.voba.service.ScanCacheService;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+/** Unit-Tests für den ScanCacheController. */
+@WebMvcTest(ScanCacheController.class)
+class ScanCacheControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockitoBean
+  private ScanCacheService scanCacheService;
+
+  @Test
+  void testGetStats() throws Exception {
+    when(scanCacheService.getStats()).thenReturn(Map.of("hits", 3L, "entries", 1));
+
+    mockMvc
+        .perform(get("/api/cache"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.hits").value(3))
+        .andExpect(jsonPath("$.entries").value(1));
+  }
+
+  @Test
+  void testEvict() throws Exception {
+    when(scanCacheService.getStats()).thenReturn(Map.of("entries", 0));
+
+    mockMvc.perform(delete("/api/cache")).andExpect(status().isOk());
+    verify(scanCacheService).clear();
+
+    mockMvc.perform(delete("/api/cache").param("path", "test/path")).andExpect(status().isOk());
+    verify(scanCacheService).invalidate("test/path");
+  }
+}
@@ -0,0 +1,109 @@
+package com.voba.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.file.Paths;
+
+import com.voba.model.FileNode;
+import com.voba.model.ScanOptions;
+import com.voba.service.ScanJob;
+import com.voba.service.ScanJobService;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+/** Unit-Tests für den ScanJobController. */
+@WebMvcTest(ScanJobController.class)
+class ScanJobControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockitoBean
+  private ScanJobService scanJobService;
+
+  private ScanJob mockJob(ScanJob.Status status) {
+    ScanJob job = mock(ScanJob.class);
+    when(job.getId()).thenReturn("job-1");
+    when(job.getPath()).thenReturn("test/path");
+    when(job.getStatus()).thenReturn(status);
+    return job;
+  }
+
+  @Test
+  void testStartJob() throws Exception {
+    ScanJob job = mockJob(ScanJob.Status.QUEUED);
+    when(scanJobService.startJob(anyString(), any(ScanOptions.class))).thenReturn(job);
+
+    mockMvc
+        .perform(post("/api/jobs").param("path", "test/path"))
+        .andExpect(status().isAccepted())
+        .andExpect(header().string("Location", "/api/jobs/job-1"))
+        .andExpect(jsonPath("$.id").value("job-1"))
+        .andExpect(jsonPath("$.status").value("QUEUED"));
+  }
+
+  @Test
+  void testStartJobWithInvalidPath() throws Exception {
+    when(scanJobService.startJob(anyString(), any(ScanOptions.class)))
+        .thenThrow(new IllegalArgumentException("Invalid path"));
+
+    mockMvc
+        .perform(post("/api/jobs").param("path", "invalid"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.error").value("Invalid path"));
+  }
+
+  @Test
+  void testGetUnknownJob() throws Exception {
+    mockMvc
+        .perform(get("/api/jobs/unknown"))
+        .andExpect(status().isNotFound())
+        .andExpect(jsonPath("$.error").exists());
+  }
+
+  @Test
+  void testGetResultOfRunningJob() throws Exception {
+    ScanJob job = mockJob(ScanJob.Status.RUNNING);
+    when(scanJobService.getJob("job-1")).thenReturn(job);
+
+    mockMvc
+        .perform(get("/api/jobs/job-1/result"))
+        .andExpect(status().isConflict());
+  }
+
+  @Test
+  void testGetResultOfCompletedJob() throws Exception {
+    ScanJob job = mockJob(ScanJob.Status.COMPLETED);
+    when(scanJobService.getJob("job-1")).thenReturn(job);
+    when(scanJobService.getResult("job-1")).thenReturn(new FileNode(Paths.get("root"), true));
+
+    mockMvc
+        .perform(get("/api/jobs/job-1/result"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.name").value("root"));
+  }
+
+  @Test
+  void testCancelJob() throws Exception {
+    ScanJob job = mockJob(ScanJob.Status.CANCELLED);
+    when(scanJobService.cancelJob("job-1")).thenReturn(job);
+
+    mockMvc
+        .perform(delete("/api/jobs/job-1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.status").value("CANCELLED"));
+  }
+}
@@ -0,0 +1,73 @@
+package com.voba.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.file.Paths;
+import java.util.List;
+
+import com.voba.model.MappedFileTree;
+import com.voba.model.ScanOptions;
+import com.voba.model.SnapshotInfo;
+import com.voba.service.SnapshotService;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+/** Unit-Tests für den SnapshotController. */
+@WebMvcTest(SnapshotController.class)
+class SnapshotControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockitoBean
+  private SnapshotService snapshotService;
+
+  private SnapshotInfo sampleSnapshot() {
+    MappedFileTree.Header header = new MappedFileTree.Header(
+        Paths.get("test/path"), false, 42, 10, 0, 0, 0, 0, 0, 1000);
+    return new SnapshotInfo("abc", header, 2048);
+  }
+
+  @Test
+  void testSaveSnapshot() throws Exception {
+    when(snapshotService.save(eq("test/path"), any(ScanOptions.class))).thenReturn(sampleSnapshot());
+
+    mockMvc
+        .perform(post("/api/snapshots").param("path", "test/path"))
+        .andExpect(status().isCreated())
+        .andExpect(header().string("Location", "/api/snapshots/abc"))
+        .andExpect(jsonPath("$.nodeCount").value(42))
+        .andExpect(jsonPath("$.size").value(1000));
+  }
+
+  @Test
+  void testListAndLoad() throws Exception {
+    when(snapshotService.getSnapshots()).thenReturn(List.of(sampleSnapshot()));
+    when(snapshotService.load("abc")).thenReturn(sampleSnapshot());
+
+    mockMvc.perform(get("/api/snapshots")).andExpect(jsonPath("$[0].id").value("abc"));
+    mockMvc.perform(post("/api/snapshots/abc/load")).andExpect(status().isOk());
+  }
+
+  @Test
+  void testUnknownSnapshot() throws Exception {
+    mockMvc
+        .perform(post("/api/snapshots/missing/load"))
+        .andExpect(status().isNotFound())
+        .andExpect(jsonPath("$.error").value("Unknown snapshot: missing"));
+    mockMvc.perform(get("/api/snapshots/missing")).andExpect(status().isNotFound());
+    mockMvc.perform(delete("/api/snapshots/missing")).andExpect(status().isNotFound());
+  }
+}
@@ -0,0 +1,78 @@
+package com.voba.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.voba.model.ScanOptions;
+import com.voba.service.TreeWatch;
+import com.voba.service.TreeWatchService;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+/** Unit-Tests für den TreeWatchController. */
+@WebMvcTest(TreeWatchController.class)
+class TreeWatchControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockitoBean
+  private TreeWatchService treeWatchService;
+
+  private TreeWatch mockWatch() {
+    TreeWatch watch = mock(TreeWatch.class);
+    when(watch.getId()).thenReturn("watch-1");
+    when(watch.getPath()).thenReturn("test/path");
+    when(watch.getAppliedChanges()).thenReturn(3L);
+    return watch;
+  }
+
+  @Test
+  void testStartWatch() throws Exception {
+    TreeWatch watch = mockWatch();
+    when(treeWatchService.startWatch(anyString(), any(ScanOptions.class))).thenReturn(watch);
+
+    mockMvc
+        .perform(post("/api/watches").param("path", "test/path"))
+        .andExpect(status().isCreated())
+        .andExpect(header().string("Location", "/api/watches/watch-1"))
+        .andExpect(jsonPath("$.id").value("watch-1"))
+        .andExpect(jsonPath("$.appliedChanges").value(3));
+  }
+
+  @Test
+  void testStartWatchWithInvalidPath() throws Exception {
+    when(treeWatchService.startWatch(anyString(), any(ScanOptions.class)))
+        .thenThrow(new IllegalArgumentException("Path is already watched: test"));
+
+    mockMvc
+        .perform(post("/api/watches").param("path", "test/path"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.error").value("Path is already watched: test"));
+  }
+
+  @Test
+  void testGetAndStopWatch() throws Exception {
+    TreeWatch watch = mockWatch();
+    when(treeWatchService.getWatch("watch-1")).thenReturn(watch);
+    when(treeWatchService.stopWatch("watch-1")).thenReturn(watch);
+
+    mockMvc.perform(get("/api/watches/watch-1")).andExpect(status().isOk())
+        .andExpect(jsonPath("$.path").value("test/path"));
+    mockMvc.perform(delete("/api/watches/watch-1")).andExpect(status().isOk());
+    mockMvc.perform(get("/api/watches/unknown")).andExpect(status().isNotFound());
+    mockMvc.perform(delete("/api/watches/unknown")).andExpect(status().isNotFound());
+  }
+}
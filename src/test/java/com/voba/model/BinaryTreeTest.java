@@ -0,0 +1,194 @@
+package com.voba.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Test;
+
+/** Unit-Tests für BinaryTree. */
+class BinaryTreeTest {
+
+  private FileNode sampleTree() {
+    Path rootPath = Paths.get("root");
+    FileNode root = new FileNode(rootPath, true);
+    for (int i = 0; i < 3; i++) {
+      FileNode directory = new FileNode(rootPath.resolve("dir" + i), true);
+      FileNode file = new FileNode(rootPath.resolve("dir" + i).resolve("index.js"), false);
+      file.setSize(100_000L * (3 - i));
+      directory.addChild(file);
+      root.addChild(directory);
+    }
+    root.setLastModified(1_700_000_000_000L);
+    root.sortChildren();
+    return root;
+  }
+
+  private ByteBuffer encode(BinaryTree tree) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    tree.writeTo(outputStream);
+    return ByteBuffer.wrap(outputStream.toByteArray());
+  }
+
+  private static long varint(ByteBuffer buffer) {
+    long value = 0;
+    int shift = 0;
+    byte current;
+    do {
+      current = buffer.get();
+      value |= (long) (current & 0x7F) << shift;
+      shift += 7;
+    } while ((current & 0x80) != 0);
+    return value;
+  }
+
+  private static String string(ByteBuffer buffer) {
+    byte[] bytes = new byte[(int) varint(buffer)];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  @Test
+  void testFullTreeLayout() throws IOException {
+    ByteBuffer buffer = encode(BinaryTree.of(sampleTree()));
+
+    assertEquals('D', buffer.get());
+    assertEquals('V', buffer.get());
+    assertEquals('T', buffer.get());
+    assertEquals(BinaryTree.VERSION, buffer.get());
+    assertEquals(0, varint(buffer));
+    assertEquals("root", string(buffer));
+    assertEquals(File.separator, string(buffer));
+    assertEquals(0, varint(buffer));
+
+    // Gleiche Namen stehen nur einmal in der Tabelle
+    assertEquals(5, varint(buffer));
+    assertEquals("root", string(buffer));
+    assertEquals("dir0", string(buffer));
+    assertEquals("index.js", string(buffer));
+    assertEquals("dir1", string(buffer));
+    assertEquals("dir2", string(buffer));
+    assertEquals(7, varint(buffer));
+
+    // Wurzel in Preorder: Name, Flags, Größe, Änderungszeitpunkt, Kinder gesamt und übertragen
+    assertEquals(0, varint(buffer));
+    assertEquals(BinaryTree.DIRECTORY | BinaryTree.CHILDREN | BinaryTree.MODIFIED, buffer.get());
+    assertEquals(600_000, varint(buffer));
+    assertEquals(1_700_000_000_000L, varint(buffer));
+    assertEquals(3, varint(buffer));
+    assertEquals(3, varint(buffer));
+
+    // Erstes Verzeichnis und seine Datei
+    assertEquals(1, varint(buffer));
+    assertEquals(BinaryTree.DIRECTORY | BinaryTree.CHILDREN, buffer.get());
+    assertEquals(300_000, varint(buffer));
+    assertEquals(1, varint(buffer));
+    assertEquals(1, varint(buffer));
+    assertEquals(2, varint(buffer));
+    assertEquals(0, buffer.get());
+    assertEquals(300_000, varint(buffer));
+  }
+
+  @Test
+  void testSliceOmitsChildrenBeyondDepth() throws IOException {
+    ByteBuffer buffer = encode(BinaryTree.slice(sampleTree(), 1, 2, 10));
+
+    buffer.position(4);
+    assertEquals(1, varint(buffer));
+    string(buffer);
+    string(buffer);
+    assertEquals(2, varint(buffer));
+    assertEquals(2, varint(buffer));
+    assertEquals("root", string(buffer));
+    assertEquals("dir2", string(buffer));
+    assertEquals(2, varint(buffer));
+
+    varint(buffer);
+    buffer.get();
+    varint(buffer);
+    varint(buffer);
+    assertEquals(3, varint(buffer));
+    assertEquals(1, varint(buffer));
+
+    assertEquals(1, varint(buffer));
+    assertEquals(BinaryTree.DIRECTORY, buffer.get());
+    assertEquals(100_000, varint(buffer));
+    assertEquals(1, varint(buffer));
+    assertEquals(0, buffer.remaining());
+  }
+
+  @Test
+  void testArchiveFlags() throws IOException {
+    ArchiveNode archive = new ArchiveNode(Paths.get("lib.jar"), true, true);
+    ArchiveNode entry = new ArchiveNode(Paths.get("lib.jar", "a.class"), false, false);
+    entry.setSize(10);
+    entry.setUncompressedSize(25);
+    archive.addChild(entry);
+
+    ByteBuffer buffer = encode(BinaryTree.of(archive));
+    buffer.position(4);
+    varint(buffer);
+    string(buffer);
+    string(buffer);
+    varint(buffer);
+    for (long names = varint(buffer); names > 0; names--) {
+      string(buffer);
+    }
+    assertEquals(2, varint(buffer));
+
+    varint(buffer);
+    assertEquals(BinaryTree.DIRECTORY | BinaryTree.CHILDREN | BinaryTree.ARCHIVE_ENTRY
+        | BinaryTree.ARCHIVE, buffer.get());
+    assertEquals(10, varint(buffer));
+    assertEquals(25, varint(buffer));
+  }
+
+  @Test
+  void testApparentSizeFlag() throws IOException {
+    DiskUsageNode file = new DiskUsageNode(Paths.get("a.txt"), false);
+    file.setSize(4096);
+    file.setApparentSize(10);
+
+    ByteBuffer buffer = encode(BinaryTree.of(file));
+    buffer.position(4);
+    varint(buffer);
+    string(buffer);
+    string(buffer);
+    varint(buffer);
+    for (long names = varint(buffer); names > 0; names--) {
+      string(buffer);
+    }
+    assertEquals(1, varint(buffer));
+
+    varint(buffer);
+    assertEquals(BinaryTree.APPARENT, buffer.get());
+    assertEquals(4096, varint(buffer));
+    assertEquals(10, varint(buffer));
+    assertEquals(0, buffer.remaining());
+  }
+
+  @Test
+  void testBinaryIsSmallerThanElidedJson() throws IOException {
+    FileNode tree = sampleTree();
+
+    int binary = encode(BinaryTree.of(tree)).remaining();
+    int elided = new ObjectMapper().writeValueAsBytes(ElidedTree.of(tree)).length;
+
+    assertTrue(binary * 2 < elided, binary + " bytes vs. " + elided + " bytes");
+  }
+
+  @Test
+  void testInvalidSliceParameters() {
+    assertThrows(IllegalArgumentException.class, () -> BinaryTree.slice(sampleTree(), 0, 0, 0));
+  }
+}
@@ -0,0 +1,95 @@
+package com.voba.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+/** Unit-Tests für den CompactFileTree und seine FileNode-Sicht. */
+class CompactFileTreeTest {
+
+  private CompactFileTree buildSampleTree() {
+    CompactFileTree.Builder builder = CompactFileTree.builder(Paths.get("root"));
+    int docs = builder.addDirectory(0, "docs");
+    builder.addFile(docs, "small.txt", 100);
+    builder.addFile(docs, "large.PDF", 1000);
+    builder.addFile(0, "b.java", 50);
+    builder.addFile(0, "a.java", 50);
+    return builder.build();
+  }
+
+  private String names(List<FileNode> nodes) {
+    return nodes.stream().map(FileNode::getName).collect(Collectors.joining(" "));
+  }
+
+  @Test
+  void testSizesAreAggregated() {
+    CompactFileTree tree = buildSampleTree();
+
+    assertEquals(6, tree.nodeCount());
+    assertEquals(1200, tree.root().getSize());
+    assertEquals(1100, tree.size(1));
+  }
+
+  @Test
+  void testSortChildren() {
+    CompactFileTree tree = buildSampleTree();
+    FileNode root = tree.root();
+
+    root.sortChildren();
+
+    assertEquals("docs a.java b.java", names(root.getChildren()));
+    assertEquals("large.PDF small.txt", names(root.getChildren().get(0).getChildren()));
+  }
+
+  @Test
+  void testViewMatchesFileNodeApi() {
+    CompactFileTree tree = buildSampleTree();
+    tree.sortChildren(0);
+    FileNode docs = tree.root().getChildren().get(0);
+    FileNode large = docs.getChildren().get(0);
+
+    assertEquals("root", tree.root().getName());
+    assertTrue(docs.isDirectory());
+    assertNull(docs.getExtension());
+    assertFalse(large.isDirectory());
+    assertEquals("pdf", large.getExtension());
+    assertEquals(Path.of("root", "docs", "large.PDF"), large.getPathObject());
+    assertEquals(Path.of("root", "docs", "large.PDF").toString(), large.getPath());
+    assertTrue(large.getChildren().isEmpty());
+    assertEquals(tree.node(3), large);
+  }
+
+  @Test
+  void testViewIsReadOnly() {
+    FileNode root = buildSampleTree().root();
+
+    assertThrows(UnsupportedOperationException.class, () -> root.setSize(1));
+    assertThrows(
+        UnsupportedOperationException.class,
+        () -> root.addChild(new FileNode(Paths.get("x"), false)));
+  }
+
+  @Test
+  void testNamesAreInterned() {
+    CompactFileTree.Builder builder = CompactFileTree.builder(Paths.get("root"));
+    for (int i = 0; i < 1000; i++) {
+      int directory = builder.addDirectory(0, "module" + i);
+      builder.addFile(directory, "index.js", 10);
+      builder.addFile(directory, "package.json", 10);
+    }
+    CompactFileTree tree = builder.build();
+
+    // 3001 Knoten, aber nur 1002 verschiedene Namen
+    assertEquals(3001, tree.nodeCount());
+    assertTrue(tree.estimatedMemoryBytes() / tree.nodeCount() < 64);
+  }
+}
@@ -0,0 +1,127 @@
+package com.voba.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/** Unit-Tests für DirectoryStatistics. */
+class DirectoryStatisticsTest {
+
+  private static FileNode file(Path path, long size) {
+    FileNode file = new FileNode(path, false);
+    file.setSize(size);
+    return file;
+  }
+
+  /** root/{a.log 10, b.LOG 20, c 5, src/{x.java 7, y.java 3, deep/{z.log 1}}}. */
+  private FileNode sampleTree() {
+    Path rootPath = Paths.get("root");
+    FileNode root = new FileNode(rootPath, true);
+    root.addChild(file(rootPath.resolve("a.log"), 10));
+    root.addChild(file(rootPath.resolve("b.LOG"), 20));
+    root.addChild(file(rootPath.resolve("c"), 5));
+    FileNode src = new FileNode(rootPath.resolve("src"), true);
+    src.addChild(file(rootPath.resolve("src").resolve("x.java"), 7));
+    src.addChild(file(rootPath.resolve("src").resolve("y.java"), 3));
+    FileNode deep = new FileNode(rootPath.resolve("src").resolve("deep"), true);
+    deep.addChild(file(rootPath.resolve("src").resolve("deep").resolve("z.log"), 1));
+    src.addChild(deep);
+    root.addChild(src);
+    root.sortChildren();
+    return root;
+  }
+
+  @Test
+  void testComputeRollsUpCountsDepthAndExtensions() {
+    FileNode root = sampleTree();
+    DirectoryStatistics statistics = DirectoryStatistics.of(root);
+
+    assertEquals(46, statistics.getSize());
+    assertEquals(6, statistics.getFileCount());
+    assertEquals(2, statistics.getDirectoryCount());
+    assertEquals(3, statistics.getMaxDepth());
+    assertEquals(List.of(
+            new DirectoryStatistics.ExtensionStatistics("log", 3, 31),
+            new DirectoryStatistics.ExtensionStatistics("java", 2, 10),
+            new DirectoryStatistics.ExtensionStatistics(null, 1, 5)),
+        statistics.getExtensions());
+
+    // Statistiken der Unterverzeichnisse werden dabei am Knoten abgelegt und wiederverwendet
+    FileNode src = root.getChild("src");
+    assertNotNull(src.getStatistics());
+    assertEquals(2, src.getStatistics().getMaxDepth());
+    assertSame(statistics, DirectoryStatistics.of(root));
+  }
+
+  @Test
+  void testChangesDiscardStatistics() {
+    FileNode root = sampleTree();
+    DirectoryStatistics.of(root);
+    FileNode src = root.getChild("src");
+
+    src.insertChildSorted(file(Paths.get("root", "src", "new.log"), 4));
+    root.setSize(root.getSize() + 4);
+    assertNull(src.getStatistics());
+    assertNull(root.getStatistics());
+
+    DirectoryStatistics statistics = DirectoryStatistics.of(root);
+    assertEquals(7, statistics.getFileCount());
+    assertEquals(35, statistics.getExtensions().get(0).size());
+  }
+
+  @Test
+  void testStatisticsFromDifferentDictionariesAreMerged() {
+    FileNode root = sampleTree();
+    FileNode src = root.getChild("src");
+    ExtensionDictionary other = new ExtensionDictionary();
+    other.idOf("unrelated");
+    src.setStatistics(DirectoryStatistics.compute(src, other));
+
+    DirectoryStatistics statistics = DirectoryStatistics.compute(root, new ExtensionDictionary());
+    assertEquals(List.of(
+            new DirectoryStatistics.ExtensionStatistics("log", 3, 31),
+            new DirectoryStatistics.ExtensionStatistics("java", 2, 10),
+            new DirectoryStatistics.ExtensionStatistics(null, 1, 5)),
+        statistics.getExtensions());
+  }
+
+  @Test
+  void testAggregatesAndArchivesCountAsFiles() {
+    Path rootPath = Paths.get("root");
+    FileNode root = new FileNode(rootPath, true);
+    root.addChild(new AggregateNode(rootPath, 4, 2, 100));
+    ArchiveNode archive = new ArchiveNode(rootPath.resolve("lib.jar"), true, true);
+    archive.addChild(file(rootPath.resolve("lib.jar").resolve("A.class"), 50));
+    root.addChild(archive);
+
+    DirectoryStatistics statistics = DirectoryStatistics.of(root);
+    assertEquals(5, statistics.getFileCount());
+    assertEquals(2, statistics.getDirectoryCount());
+    assertEquals(1, statistics.getMaxDepth());
+    assertEquals(List.of(new DirectoryStatistics.ExtensionStatistics("jar", 1, 50)),
+        statistics.getExtensions());
+  }
+
+  @Test
+  void testCompactTreeIsComputedOnDemand() {
+    CompactFileTree.Builder builder = CompactFileTree.builder(Paths.get("root"));
+    int sub = builder.addDirectory(0, "sub");
+    builder.addFile(0, "a.txt", 3);
+    builder.addFile(sub, "b.txt", 4);
+    FileNode root = builder.build().root();
+
+    DirectoryStatistics statistics = DirectoryStatistics.of(root);
+    assertEquals(2, statistics.getFileCount());
+    assertEquals(1, statistics.getDirectoryCount());
+    assertEquals(List.of(new DirectoryStatistics.ExtensionStatistics("txt", 2, 7)),
+        statistics.getExtensions());
+    assertNull(root.getStatistics());
+  }
+}
@@ -0,0 +1,141 @@
+package com.voba.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Test;
+
+/** Unit-Tests für ElidedTree. */
+class ElidedTreeTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private FileNode sampleTree() {
+    Path rootPath = Paths.get("root");
+    FileNode root = new FileNode(rootPath, true);
+    for (int i = 0; i < 3; i++) {
+      FileNode directory = new FileNode(rootPath.resolve("dir" + i), true);
+      FileNode file = new FileNode(rootPath.resolve("dir" + i).resolve("file" + i + ".TXT"), false);
+      file.setSize(100 - i);
+      file.setLastModified(1_000 + i);
+      directory.addChild(file);
+      root.addChild(directory);
+    }
+    root.sortChildren();
+    return root;
+  }
+
+  private JsonNode serialize(ElidedTree tree) throws Exception {
+    return objectMapper.readTree(objectMapper.writeValueAsString(tree));
+  }
+
+  @Test
+  void testFullTreeWritesPathOnlyAtRoot() throws Exception {
+    JsonNode json = serialize(ElidedTree.of(sampleTree()));
+
+    assertEquals("root", json.get("p").asText());
+    assertEquals(File.separator, json.get("sep").asText());
+    assertEquals(297, json.get("s").asLong());
+    assertFalse(json.has("k"));
+    assertFalse(json.has("m"));
+
+    JsonNode directory = json.get("c").get(0);
+    assertEquals("dir0", directory.get("n").asText());
+    assertFalse(directory.has("p"));
+    assertEquals(1, directory.get("c").size());
+
+    JsonNode file = directory.get("c").get(0);
+    assertEquals("file0.TXT", file.get("n").asText());
+    assertEquals(100, file.get("s").asLong());
+    assertEquals(1_000, file.get("m").asLong());
+    assertFalse(file.has("c"));
+    assertFalse(file.has("e"));
+  }
+
+  @Test
+  void testSliceWritesChildCountsAndOffset() throws Exception {
+    JsonNode json = serialize(ElidedTree.slice(sampleTree(), 1, 1, 1));
+
+    assertEquals(1, json.get("o").asInt());
+    assertEquals(3, json.get("k").asInt());
+    assertEquals(1, json.get("c").size());
+
+    JsonNode directory = json.get("c").get(0);
+    assertEquals("dir1", directory.get("n").asText());
+    assertEquals(1, directory.get("k").asInt());
+    assertFalse(directory.has("c"));
+  }
+
+  @Test
+  void testArchiveFields() throws Exception {
+    ArchiveNode archive = new ArchiveNode(Paths.get("lib.jar"), true, true);
+    ArchiveNode entry = new ArchiveNode(Paths.get("lib.jar", "a.class"), false, false);
+    entry.setSize(10);
+    entry.setUncompressedSize(25);
+    archive.addChild(entry);
+
+    JsonNode json = serialize(ElidedTree.of(archive));
+
+    assertTrue(json.get("z").asBoolean());
+    assertEquals(25, json.get("u").asLong());
+    assertFalse(json.get("c").get(0).has("z"));
+    assertEquals(25, json.get("c").get(0).get("u").asLong());
+  }
+
+  @Test
+  void testApparentSize() throws Exception {
+    DiskUsageNode directory = new DiskUsageNode(Paths.get("dir"), true);
+    DiskUsageNode file = new DiskUsageNode(Paths.get("dir", "a.txt"), false);
+    file.setSize(4096);
+    file.setApparentSize(10);
+    directory.addChild(file);
+
+    JsonNode json = serialize(ElidedTree.of(directory));
+
+    assertEquals(4096, json.get("s").asLong());
+    assertEquals(10, json.get("a").asLong());
+    assertEquals(10, json.get("c").get(0).get("a").asLong());
+    assertFalse(serialize(ElidedTree.of(sampleTree())).has("a"));
+  }
+
+  @Test
+  void testElidedOutputIsSmallerThanDefaultJson() throws Exception {
+    FileNode tree = sampleTree();
+
+    int elided = objectMapper.writeValueAsBytes(ElidedTree.of(tree)).length;
+    int full = objectMapper.writeValueAsBytes(tree).length;
+
+    assertTrue(elided * 2 < full, elided + " bytes vs. " + full + " bytes");
+  }
+
+  @Test
+  void testInvalidSliceParameters() {
+    FileNode tree = sampleTree();
+    assertThrows(IllegalArgumentException.class, () -> ElidedTree.slice(tree, -1, 0, 10));
+    assertThrows(IllegalArgumentException.class, () -> ElidedTree.slice(tree, 1, -1, 10));
+    assertThrows(IllegalArgumentException.class, () -> ElidedTree.slice(tree, 1, 0, 0));
+  }
+
+  @Test
+  void testAggregateNodeCarriesCounts() throws Exception {
+    FileNode root = new FileNode(Paths.get("root"), true);
+    root.addChild(new AggregateNode(Paths.get("root"), 12, 3, 4_096));
+
+    JsonNode aggregate = serialize(ElidedTree.of(root)).get("c").get(0);
+
+    assertEquals("12 other files, 3 folders", aggregate.get("n").asText());
+    assertEquals(4_096, aggregate.get("s").asLong());
+    assertEquals(12, aggregate.get("g").asLong());
+    assertEquals(3, aggregate.get("gd").asLong());
+    assertFalse(aggregate.has("c"));
+  }
+}
@@ -0,0 +1,79 @@
+package com.voba.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.Test;
+
+/** Unit-Tests für FileNodeSlice. */
+class FileNodeSliceTest {
+
+  private FileNode sampleTree() {
+    Path rootPath = Paths.get("root");
+    FileNode root = new FileNode(rootPath, true);
+    for (int i = 0; i < 3; i++) {
+      FileNode directory = new FileNode(rootPath.resolve("dir" + i), true);
+      FileNode file = new FileNode(rootPath.resolve("dir" + i).resolve("file.txt"), false);
+      file.setSize(100 - i);
+      directory.addChild(file);
+      root.addChild(directory);
+    }
+    root.sortChildren();
+    return root;
+  }
+
+  @Test
+  void testDepthLimitsLevels() {
+    FileNodeSlice slice = FileNodeSlice.of(sampleTree(), 1, 0, 10);
+
+    assertEquals(3, slice.getChildCount());
+    assertEquals(3, slice.getChildren().size());
+    assertEquals(0, slice.getOffset());
+
+    FileNodeSlice firstDirectory = slice.getChildren().get(0);
+    assertEquals("dir0", firstDirectory.getName());
+    assertEquals(100, firstDirectory.getSize());
+    assertEquals(1, firstDirectory.getChildCount());
+    assertNull(firstDirectory.getChildren());
+    assertNull(firstDirectory.getOffset());
+
+    assertNull(FileNodeSlice.of(sampleTree(), 0, 0, 10).getChildren());
+  }
+
+  @Test
+  void testPagination() {
+    FileNodeSlice slice = FileNodeSlice.of(sampleTree(), 2, 1, 1);
+
+    assertEquals(3, slice.getChildCount());
+    assertEquals(1, slice.getOffset());
+    assertEquals(1, slice.getChildren().size());
+    assertEquals("dir1", slice.getChildren().get(0).getName());
+    assertEquals("file.txt", slice.getChildren().get(0).getChildren().get(0).getName());
+
+    assertEquals(0, FileNodeSlice.of(sampleTree(), 1, 5, 10).getChildren().size());
+  }
+
+  @Test
+  void testFileHasNoChildren() {
+    FileNode file = new FileNode(Paths.get("file.txt"), false);
+    FileNodeSlice slice = FileNodeSlice.of(file, 3, 0, 10);
+
+    assertEquals("txt", slice.getExtension());
+    assertEquals(0, slice.getChildCount());
+    assertNull(slice.getChildren());
+    assertNull(slice.getOffset());
+  }
+
+  @Test
+  void testInvalidArguments() {
+    FileNode root = sampleTree();
+
+    assertThrows(IllegalArgumentException.class, () -> FileNodeSlice.of(root, -1, 0, 10));
+    assertThrows(IllegalArgumentException.class, () -> FileNodeSlice.of(root, 1, -1, 10));
+    assertThrows(IllegalArgumentException.class, () -> FileNodeSlice.of(root, 1, 0, 0));
+  }
+}
@@ -140,4 +140,52 @@ class FileNodeTest {
 
     assertEquals(expectedPath, node.getPathObject());
   }
+
+  @Test
+  void testIncrementalMutationsKeepOrder() {
+    FileNode parent = new FileNode(Paths.get("parent"), true);
+    String[] names = {"a.txt", "b.txt", "c.txt"};
+    long[] sizes = {300, 200, 100};
+    for (int i = 0; i < names.length; i++) {
+      FileNode child = new FileNode(Paths.get("parent", names[i]), false);
+      child.setSize(sizes[i]);
+      parent.addChild(child);
+    }
+    parent.sortChildren();
+    List<FileNode> before = parent.getChildren();
+
+    FileNode inserted = new FileNode(Paths.get("parent", "d.txt"), false);
+    inserted.setSize(250);
+    parent.insertChildSorted(inserted);
+    assertEquals("a.txt d.txt b.txt c.txt", toString(parent.getChildren()));
+    assertEquals(850, parent.getSize());
+    // Bereits ausgelieferte Listen bleiben unverändert
+    assertEquals("a.txt b.txt c.txt", toString(before));
+
+    FileNode smallest = parent.getChild("c.txt");
+    smallest.setSize(400);
+    parent.repositionChild(smallest);
+    assertEquals("c.txt a.txt d.txt b.txt", toString(parent.getChildren()));
+
+    assertTrue(parent.removeChild(parent.getChild("a.txt")));
+    assertFalse(parent.removeChild(new FileNode(Paths.get("parent", "x.txt"), false)));
+    assertEquals("c.txt d.txt b.txt", toString(parent.getChildren()));
+    assertEquals(550, parent.getSize());
+    assertNull(parent.getChild("a.txt"));
+  }
+
+  @Test
+  void testReplaceChildren() {
+    FileNode node = new FileNode(Paths.get("dir"), true);
+    node.addChild(new FileNode(Paths.get("dir", "old.txt"), false));
+
+    FileNode rescanned = new FileNode(Paths.get("dir"), true);
+    FileNode file = new FileNode(Paths.get("dir", "new.txt"), false);
+    file.setSize(10);
+    rescanned.addChild(file);
+    node.replaceChildren(rescanned);
+
+    assertEquals("new.txt", toString(node.getChildren()));
+    assertEquals(10, node.getSize());
+  }
 }
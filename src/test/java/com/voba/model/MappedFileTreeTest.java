@@ -0,0 +1,117 @@
+package com.voba.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit-Tests für den MappedFileTree. */
+class MappedFileTreeTest {
+
+  private FileNode sampleTree() {
+    Path root = Paths.get("/data/snapshot-root");
+    FileNode rootNode = new FileNode(root, true);
+    FileNode music = new FileNode(root.resolve("Musik"), true);
+    FileNode song = new FileNode(root.resolve("Musik").resolve("Lied 1.mp3"), false);
+    song.setSize(300);
+    song.setLastModified(1_700_000_000_000L);
+    music.addChild(song);
+    FileNode empty = new FileNode(root.resolve("leer"), true);
+    FileNode readme = new FileNode(root.resolve("README"), false);
+    readme.setSize(20);
+    FileNode notes = new FileNode(root.resolve("notes.txt"), false);
+    notes.setSize(20);
+    rootNode.addChild(music);
+    rootNode.addChild(empty);
+    rootNode.addChild(readme);
+    rootNode.addChild(notes);
+    rootNode.sortChildren();
+    return rootNode;
+  }
+
+  @Test
+  void testWriteAndOpenRoundTrip(@TempDir Path tempDir) throws IOException {
+    FileNode original = sampleTree();
+    Path file = tempDir.resolve("tree.dvs");
+
+    MappedFileTree.Header written = MappedFileTree.write(original, true, 1234L, file);
+    MappedFileTree tree = MappedFileTree.open(file);
+    FileNode root = tree.root();
+
+    assertEquals(6, written.nodeCount());
+    assertEquals(written, tree.getHeader());
+    assertTrue(tree.getHeader().includeHidden());
+    assertEquals(1234L, tree.getHeader().createdAt());
+    assertEquals(340, tree.getHeader().totalSize());
+    assertEquals(describe(original), describe(root));
+    assertTrue(root.isReadOnly());
+
+    FileNode song = root.getChild("Musik").getChild("Lied 1.mp3");
+    assertEquals("mp3", song.getExtension());
+    assertEquals(1_700_000_000_000L, song.getLastModified());
+    assertEquals(original.getPath() + "/Musik/Lied 1.mp3", song.getPath().replace('\\', '/'));
+    assertNull(root.getChild("README").getExtension());
+    assertTrue(root.getChild("leer").getChildren().isEmpty());
+    assertFalse(Files.exists(tempDir.resolve("tree.dvs.tmp")));
+  }
+
+  @Test
+  void testOpenRejectsOtherFiles(@TempDir Path tempDir) throws IOException {
+    Path file = tempDir.resolve("color-mappings.json");
+    Files.writeString(file, "[]".repeat(100));
+
+    assertThrows(IOException.class, () -> MappedFileTree.open(file));
+    assertThrows(IOException.class, () -> MappedFileTree.readHeader(file));
+  }
+
+  @Test
+  void testCorruptRootPathLengthIsRejected(@TempDir Path tempDir) throws IOException {
+    Path file = tempDir.resolve("tree.dvs");
+    MappedFileTree.write(sampleTree(), false, 1234L, file);
+
+    for (int length : new int[] {-1, Integer.MAX_VALUE}) {
+      ByteBuffer value = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      value.putInt(length).flip();
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+        channel.write(value, 20);
+      }
+
+      assertThrows(IOException.class, () -> MappedFileTree.readHeader(file));
+      assertThrows(IOException.class, () -> MappedFileTree.open(file));
+    }
+  }
+
+  @Test
+  void testReadOnlyNodes(@TempDir Path tempDir) throws IOException {
+    Path file = tempDir.resolve("tree.dvs");
+    MappedFileTree.write(sampleTree(), false, 0, file);
+    FileNode root = MappedFileTree.open(file).root();
+
+    assertThrows(UnsupportedOperationException.class, () -> root.setSize(1));
+    assertThrows(UnsupportedOperationException.class,
+        () -> root.insertChildSorted(new FileNode(Paths.get("x"), false)));
+  }
+
+  private String describe(FileNode node) {
+    StringBuilder builder = new StringBuilder(node.getName()).append(':').append(node.getSize());
+    if (node.isDirectory()) {
+      builder.append('[');
+      node.getChildren().forEach(child -> builder.append(describe(child)).append(','));
+      builder.append(']');
+    }
+    return builder.toString();
+  }
+}
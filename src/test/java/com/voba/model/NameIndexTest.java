@@ -0,0 +1,126 @@
+package com.voba.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/** Unit-Tests für den NameIndex. */
+class NameIndexTest {
+
+  private static FileNode file(FileNode parent, String name, long size) {
+    FileNode file = new FileNode(parent.getPathObject().resolve(name), false);
+    file.setSize(size);
+    parent.addChild(file);
+    return file;
+  }
+
+  private static FileNode tree() {
+    Path rootPath = Paths.get("root");
+    FileNode root = new FileNode(rootPath, true);
+    FileNode docs = new FileNode(rootPath.resolve("docs"), true);
+    file(docs, "report-2023.pdf", 500);
+    file(docs, "Report-2024.PDF", 300);
+    file(docs, "notes.txt", 50);
+    FileNode media = new FileNode(rootPath.resolve("media"), true);
+    file(media, "movie.iso", 5000);
+    file(media, "backup.iso", 2000);
+    root.addChild(docs);
+    root.addChild(media);
+    file(root, "a.txt", 10);
+    root.addChild(new FileNode(rootPath.resolve("ab"), true));
+    root.addChild(new AggregateNode(rootPath, 3, 0, 5));
+    root.sortChildren();
+    return root;
+  }
+
+  private static List<String> paths(NameIndex.Result result) {
+    return result.entries().stream().map(NameIndex.Entry::path).toList();
+  }
+
+  private static String path(String... segments) {
+    return Paths.get("root", segments).toString();
+  }
+
+  @Test
+  void testIndexesAllEntriesExceptRootAndAggregates() {
+    NameIndex index = NameIndex.build(tree());
+
+    assertEquals(9, index.getEntryCount());
+    assertEquals(9, index.getNameCount());
+    assertEquals(path(), index.getRootPath());
+    assertEquals(7865, index.getRootSize());
+    assertTrue(index.estimateMemoryBytes() > 0);
+  }
+
+  @Test
+  void testSubstringSearchIsCaseInsensitiveAndSortedBySize() {
+    NameIndex index = NameIndex.build(tree());
+
+    NameIndex.Result result = index.substring("REPORT", 0, 10);
+    assertEquals(2, result.total());
+    assertEquals(List.of(path("docs", "report-2023.pdf"), path("docs", "Report-2024.PDF")),
+        paths(result));
+    assertEquals(500, result.entries().get(0).size());
+    assertEquals("report-2023.pdf", result.entries().get(0).name());
+    assertFalse(result.entries().get(0).directory());
+
+    assertEquals(0, index.substring("missing", 0, 10).total());
+  }
+
+  @Test
+  void testShortQueriesAndPagination() {
+    NameIndex index = NameIndex.build(tree());
+
+    NameIndex.Result all = index.substring("a", 0, 10);
+    assertEquals(4, all.total());
+    assertEquals(List.of(path("media"), path("media", "backup.iso"), path("a.txt"), path("ab")),
+        paths(all));
+    assertTrue(all.entries().get(0).directory());
+
+    NameIndex.Result page = index.substring("a", 1, 2);
+    assertEquals(4, page.total());
+    assertEquals(List.of(path("media", "backup.iso"), path("a.txt")), paths(page));
+    assertTrue(index.substring("a", 4, 2).entries().isEmpty());
+  }
+
+  @Test
+  void testGlobSearch() {
+    NameIndex index = NameIndex.build(tree());
+
+    assertEquals(List.of(path("media", "movie.iso"), path("media", "backup.iso")),
+        paths(index.glob("*.iso", 0, 10)));
+    assertEquals(2, index.glob("report-20??.pdf", 0, 10).total());
+    assertEquals(0, index.glob("*.is", 0, 10).total());
+    assertEquals(9, index.glob("*", 0, 10).total());
+    // Sonderzeichen regulärer Ausdrücke gelten wörtlich
+    assertEquals(0, index.glob("a+txt", 0, 10).total());
+    assertEquals(1, index.glob("a.txt", 0, 10).total());
+  }
+
+  @Test
+  void testPathsBelowFileSystemRoot() {
+    Path rootPath = Paths.get("").toAbsolutePath().getRoot();
+    FileNode root = new FileNode(rootPath, true);
+    file(root, "file.txt", 1);
+
+    assertEquals(List.of(rootPath.resolve("file.txt").toString()),
+        paths(NameIndex.build(root).substring("file", 0, 10)));
+  }
+
+  @Test
+  void testInvalidArguments() {
+    NameIndex index = NameIndex.build(tree());
+
+    assertThrows(IllegalArgumentException.class, () -> index.substring("", 0, 10));
+    assertThrows(IllegalArgumentException.class, () -> index.glob("", 0, 10));
+    assertThrows(IllegalArgumentException.class, () -> index.substring("a", -1, 10));
+    assertThrows(IllegalArgumentException.class, () -> index.substring("a", 0, 0));
+  }
+}
@@ -2,6 +2,7 @@ package com.voba.model;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -67,4 +68,41 @@ class ScanOptionsTest {
         assertTrue(options.isUseParallelProcessing());
         assertEquals(2, options.getMaxThreads());
     }
+
+    @Test
+    void testEngine() {
+        ScanOptions options = new ScanOptions();
+
+        assertEquals(ScanEngine.NIO, options.getEngine(), "NIO engine should be the default");
+        assertEquals(ScanEngine.FILE_IO, options.setEngine(ScanEngine.FILE_IO).getEngine());
+        assertThrows(IllegalArgumentException.class, () -> options.setEngine(null));
+    }
+
+    @Test
+    void testAggregation() {
+        ScanOptions options = new ScanOptions();
+
+        assertFalse(options.isAggregating(), "Aggregation should be off by default");
+        String signature = options.resultSignature();
+        options.setAggregateBelowSize(4096).setMaxChildren(50).setMaxDepth(3);
+
+        assertTrue(options.isAggregating());
+        assertEquals(4096, options.getAggregateBelowSize());
+        assertEquals(50, options.getMaxChildren());
+        assertEquals(3, options.getMaxDepth());
+        assertNotEquals(signature, options.resultSignature());
+        assertThrows(IllegalArgumentException.class, () -> options.setAggregateBelowSize(-1));
+        assertThrows(IllegalArgumentException.class, () -> options.setMaxChildren(-1));
+        assertThrows(IllegalArgumentException.class, () -> options.setMaxDepth(-1));
+    }
+
+    @Test
+    void testDiskUsage() {
+        ScanOptions options = new ScanOptions();
+
+        assertFalse(options.isDiskUsage(), "Disk usage accounting should be off by default");
+        String signature = options.resultSignature();
+        assertTrue(options.setDiskUsage(true).isDiskUsage());
+        assertNotEquals(signature, options.resultSignature());
+    }
 }
@@ -0,0 +1,93 @@
+package com.voba.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/** Unit-Tests für TopEntries. */
+class TopEntriesTest {
+
+  private static FileNode file(Path path, long size) {
+    FileNode file = new FileNode(path, false);
+    file.setSize(size);
+    return file;
+  }
+
+  /** root/{a 50, b 10, sub/{c 40, d 10, deep/{e 30}}, lib.jar/{x 5}, 2 other files (100)}. */
+  private FileNode sampleTree() {
+    Path rootPath = Paths.get("root");
+    Path subPath = rootPath.resolve("sub");
+    FileNode root = new FileNode(rootPath, true);
+    root.addChild(file(rootPath.resolve("a"), 50));
+    root.addChild(file(rootPath.resolve("b"), 10));
+    FileNode sub = new FileNode(subPath, true);
+    sub.addChild(file(subPath.resolve("c"), 40));
+    sub.addChild(file(subPath.resolve("d"), 10));
+    FileNode deep = new FileNode(subPath.resolve("deep"), true);
+    deep.addChild(file(subPath.resolve("deep").resolve("e"), 30));
+    sub.addChild(deep);
+    root.addChild(sub);
+    ArchiveNode archive = new ArchiveNode(rootPath.resolve("lib.jar"), true, true);
+    archive.addChild(file(rootPath.resolve("lib.jar").resolve("x"), 5));
+    root.addChild(archive);
+    root.addChild(new AggregateNode(rootPath, 2, 0, 100));
+    return root;
+  }
+
+  private static List<String> paths(List<TopEntries.Entry> entries) {
+    return entries.stream().map(TopEntries.Entry::path).toList();
+  }
+
+  @Test
+  void testLargestFilesAndDirectoriesOfTree() {
+    TopEntries top = TopEntries.of(sampleTree(), 3);
+
+    assertEquals(245, top.getSize());
+    assertEquals(List.of(
+            new TopEntries.Entry(Paths.get("root", "a").toString(), 50),
+            new TopEntries.Entry(Paths.get("root", "sub", "c").toString(), 40),
+            new TopEntries.Entry(Paths.get("root", "sub", "deep", "e").toString(), 30)),
+        top.getFiles());
+    // Archive zählen als Dateien, Sammelknoten werden übersprungen, die Wurzel fehlt
+    assertEquals(List.of(Paths.get("root", "sub").toString(),
+            Paths.get("root", "sub", "deep").toString()),
+        paths(top.getDirectories()));
+
+    // Bei gleicher Größe entscheidet der Pfad
+    TopEntries all = TopEntries.of(sampleTree(), 10);
+    assertEquals(List.of("a", "c", "e", "b", "d", "lib.jar"),
+        all.getFiles().stream().map(entry -> Paths.get(entry.path()).getFileName().toString())
+            .toList());
+  }
+
+  @Test
+  void testMergeMatchesSinglePassAndDrainsPartialResult() {
+    Path root = Paths.get("root");
+    TopEntries single = new TopEntries(root, 4);
+    TopEntries first = new TopEntries(root, 4);
+    TopEntries second = new TopEntries(root.resolve("sub"), 4);
+    for (int i = 0; i < 20; i++) {
+      Path path = root.resolve("f" + i);
+      long size = (i * 7L) % 11;
+      single.offerFile(path, size);
+      (i % 2 == 0 ? first : second).offerFile(path, size);
+    }
+    first.merge(second);
+
+    assertEquals(single.getFiles(), first.getFiles());
+    assertEquals(4, first.getFiles().size());
+    assertTrue(second.getFiles().isEmpty());
+  }
+
+  @Test
+  void testLimitMustBePositive() {
+    assertThrows(IllegalArgumentException.class, () -> new TopEntries(Paths.get("root"), 0));
+    assertThrows(IllegalArgumentException.class, () -> TopEntries.of(sampleTree(), -1));
+  }
+}
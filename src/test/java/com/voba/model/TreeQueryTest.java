@@ -0,0 +1,91 @@
+package com.voba.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/** Unit-Tests für die TreeQuery. */
+class TreeQueryTest {
+
+  private static final long NOW = TimeUnit.DAYS.toMillis(1000);
+
+  private static FileNode file(String name, long size, long ageDays) {
+    FileNode file = new FileNode(Paths.get("root", name), false);
+    file.setSize(size);
+    file.setLastModified(NOW - TimeUnit.DAYS.toMillis(ageDays));
+    return file;
+  }
+
+  private static TreeQuery.Evaluator evaluator(TreeQuery query) {
+    return query.evaluator(NOW);
+  }
+
+  @Test
+  void testEmptyQueryMatchesEverything() {
+    TreeQuery.Evaluator evaluator =
+        evaluator(new TreeQuery(null, null, null, null, null, null, null, null));
+
+    assertTrue(evaluator.matches(file("a.txt", 0, 0), 1));
+    assertTrue(evaluator.descends(100));
+  }
+
+  @Test
+  void testSizeExtensionAndName() {
+    TreeQuery.Evaluator evaluator = evaluator(new TreeQuery(
+        100L, 1000L, Set.of("ISO", ".vmdk", " "), "disk*", null, null, null, null));
+
+    assertTrue(evaluator.matches(file("disk1.iso", 500, 0), 1));
+    assertTrue(evaluator.matches(file("Disk2.VMDK", 100, 0), 1));
+    assertFalse(evaluator.matches(file("disk3.iso", 99, 0), 1));
+    assertFalse(evaluator.matches(file("disk4.iso", 1001, 0), 1));
+    assertFalse(evaluator.matches(file("disk5.txt", 500, 0), 1));
+    assertFalse(evaluator.matches(file("image.iso", 500, 0), 1));
+    assertFalse(evaluator.matches(file("disk", 500, 0), 1));
+
+    // Archive sind im Baum Verzeichnisse, zählen aber mit der Erweiterung ihres Namens
+    ArchiveNode archive = new ArchiveNode(Paths.get("root", "disk.iso"), true, true);
+    archive.setSize(500);
+    assertTrue(evaluator.matches(archive, 1));
+  }
+
+  @Test
+  void testAgeAndDepth() {
+    TreeQuery.Evaluator evaluator =
+        evaluator(new TreeQuery(null, null, null, null, 180, 365, 2, 3));
+
+    assertTrue(evaluator.matches(file("a", 1, 200), 2));
+    assertFalse(evaluator.matches(file("a", 1, 100), 2));
+    assertFalse(evaluator.matches(file("a", 1, 400), 2));
+    assertFalse(evaluator.matches(file("a", 1, 200), 1));
+    assertFalse(evaluator.matches(file("a", 1, 200), 4));
+
+    FileNode unknown = file("a", 1, 0);
+    unknown.setLastModified(0);
+    assertFalse(evaluator.matches(unknown, 2));
+
+    assertTrue(evaluator.descends(2));
+    assertFalse(evaluator.descends(3));
+  }
+
+  @Test
+  void testQueriesAreValuesAndValidated() {
+    assertEquals(new TreeQuery(1L, null, Set.of("ISO"), " *.iso ", null, null, null, null),
+        new TreeQuery(1L, null, Set.of("iso"), "*.iso", null, null, null, null));
+
+    assertThrows(IllegalArgumentException.class,
+        () -> new TreeQuery(-1L, null, null, null, null, null, null, null));
+    assertThrows(IllegalArgumentException.class,
+        () -> new TreeQuery(10L, 5L, null, null, null, null, null, null));
+    assertThrows(IllegalArgumentException.class,
+        () -> new TreeQuery(null, null, null, null, -1, null, null, null));
+    assertThrows(IllegalArgumentException.class,
+        () -> new TreeQuery(null, null, null, null, null, null, 3, 2));
+  }
+}
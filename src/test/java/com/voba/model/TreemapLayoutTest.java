@@ -0,0 +1,119 @@
+package com.voba.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Test;
+
+/** Unit-Tests für TreemapLayout. */
+class TreemapLayoutTest {
+
+  private static FileNode file(Path path, long size) {
+    FileNode file = new FileNode(path, false);
+    file.setSize(size);
+    return file;
+  }
+
+  /** Wurzel mit Dateien der Größen 600, 300, 60, 30, 9, 1 und einem Verzeichnis mit 2 Dateien. */
+  private FileNode sampleTree() {
+    Path rootPath = Paths.get("root");
+    FileNode root = new FileNode(rootPath, true);
+    long[] sizes = {600, 300, 60, 30, 9, 1};
+    for (int i = 0; i < sizes.length; i++) {
+      root.addChild(file(rootPath.resolve("file" + i), sizes[i]));
+    }
+    FileNode directory = new FileNode(rootPath.resolve("dir"), true);
+    directory.addChild(file(rootPath.resolve("dir").resolve("a"), 150));
+    directory.addChild(file(rootPath.resolve("dir").resolve("b"), 50));
+    root.addChild(directory);
+    root.sortChildren();
+    return root;
+  }
+
+  @Test
+  void testRectanglesAreProportionalAndInsideTheirParent() {
+    FileNode root = sampleTree();
+    TreemapLayout layout = TreemapLayout.compute(root, 400, 300, 1);
+
+    // Alle 9 Knoten sind groß genug; die Wurzel füllt die Zeichenfläche
+    assertEquals(10, layout.size());
+    float[] rootRectangle = layout.rectangle(0);
+    assertEquals(400, rootRectangle[2]);
+    assertEquals(300, rootRectangle[3]);
+    assertEquals(-1, layout.parent(0));
+
+    double pixelsPerByte = 400.0 * 300 / root.getSize();
+    for (int i = 1; i < layout.size(); i++) {
+      float[] rectangle = layout.rectangle(i);
+      float[] parent = layout.rectangle(layout.parent(i));
+      assertTrue(layout.parent(i) < i);
+      assertEquals(layout.size(i) * pixelsPerByte, rectangle[2] * rectangle[3],
+          layout.size(i) * pixelsPerByte * 0.02 + 1, layout.name(i));
+      assertTrue(rectangle[0] >= parent[0] - 0.1 && rectangle[1] >= parent[1] - 0.1);
+      assertTrue(rectangle[0] + rectangle[2] <= parent[0] + parent[2] + 0.2);
+      assertTrue(rectangle[1] + rectangle[3] <= parent[1] + parent[3] + 0.2);
+    }
+  }
+
+  @Test
+  void testLayoutStopsAtMinimumSize() {
+    FileNode root = sampleTree();
+    // 1200 Bytes auf 120.000 Pixel: Dateien unter 13 Bytes ergeben weniger als 35x35 Pixel
+    TreemapLayout layout = TreemapLayout.compute(root, 400, 300, 35);
+
+    assertEquals(8, layout.size());
+    for (int i = 0; i < layout.size(); i++) {
+      assertTrue(layout.size(i) >= 13, layout.name(i));
+    }
+
+    // Auf 40x30 Pixeln bleiben nur die beiden größten Dateien, der Rest ist Fläche der Wurzel
+    TreemapLayout coarse = TreemapLayout.compute(root, 40, 30, 15);
+    assertEquals(3, coarse.size());
+    assertEquals("file0", coarse.name(1));
+    assertEquals("file1", coarse.name(2));
+  }
+
+  @Test
+  void testSingleChildTakesParentRectangle() {
+    Path rootPath = Paths.get("root");
+    FileNode root = new FileNode(rootPath, true);
+    root.addChild(file(rootPath.resolve("only"), 10));
+
+    TreemapLayout layout = TreemapLayout.compute(root, 50, 20, 5);
+
+    assertEquals(2, layout.size());
+    assertEquals("only", layout.name(1));
+    assertEquals(50, layout.rectangle(1)[2]);
+    assertEquals(20, layout.rectangle(1)[3]);
+  }
+
+  @Test
+  void testInvalidViewportIsRejected() {
+    FileNode root = sampleTree();
+    assertThrows(IllegalArgumentException.class, () -> TreemapLayout.compute(root, 0, 10, 1));
+    assertThrows(IllegalArgumentException.class, () -> TreemapLayout.compute(root, 10, 10, 0));
+  }
+
+  @Test
+  void testJsonIsColumnar() throws Exception {
+    ObjectMapper objectMapper = new ObjectMapper();
+    JsonNode json = objectMapper.readTree(
+        objectMapper.writeValueAsString(TreemapLayout.compute(sampleTree(), 400, 300, 35)));
+
+    assertEquals("root", json.get("p").asText());
+    assertEquals(400, json.get("w").asInt());
+    assertEquals(8 * 4, json.get("r").size());
+    assertEquals(8, json.get("n").size());
+    assertEquals(-1, json.get("a").get(0).asInt());
+    assertEquals(7, json.get("k").get(0).asInt());
+    assertEquals("file0", json.get("n").get(1).asText());
+    assertEquals(-1, json.get("k").get(1).asInt());
+  }
+}
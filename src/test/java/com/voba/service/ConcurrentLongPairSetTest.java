@@ -0,0 +1,91 @@
+package com.voba.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+/** Unit-Tests für die ConcurrentLongPairSet. */
+class ConcurrentLongPairSetTest {
+
+  @Test
+  void testAddAndContains() {
+    ConcurrentLongPairSet set = new ConcurrentLongPairSet();
+
+    long[] values = {0, 1, -1, Long.MIN_VALUE, Long.MAX_VALUE};
+    for (long first : values) {
+      for (long second : values) {
+        assertFalse(set.contains(first, second));
+        assertTrue(set.add(first, second));
+        assertFalse(set.add(first, second));
+        assertTrue(set.contains(first, second));
+      }
+    }
+    assertEquals(25, set.size());
+  }
+
+  @Test
+  void testPairsWithWideValuesStayDistinct() {
+    ConcurrentLongPairSet set = new ConcurrentLongPairSet();
+
+    // Gerät 1 mit Inode 0 und Gerät 0 mit Inode 2^32 fielen bei einem zusammengefassten Schlüssel
+    // aus Inode und verschobener Gerätenummer zusammen
+    assertTrue(set.add(1, 0));
+    assertTrue(set.add(0, 1L << 32));
+    assertTrue(set.add(1L << 32, 1L << 32));
+    assertTrue(set.add(0, 0));
+    assertFalse(set.contains(1L << 32, 0));
+    assertEquals(4, set.size());
+  }
+
+  @Test
+  void testGrowsBeyondInitialCapacity() {
+    ConcurrentLongPairSet set = new ConcurrentLongPairSet();
+
+    for (long value = 1; value <= 100_000; value++) {
+      assertTrue(set.add(42, value << 32));
+    }
+    assertEquals(100_000, set.size());
+    for (long value = 1; value <= 100_000; value++) {
+      assertTrue(set.contains(42, value << 32));
+    }
+    assertFalse(set.contains(42, 100_001L << 32));
+    assertFalse(set.contains(43, 1L << 32));
+  }
+
+  @Test
+  void testConcurrentAddsAcceptEachPairOnce() throws Exception {
+    ConcurrentLongPairSet set = new ConcurrentLongPairSet();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Integer>> results = new ArrayList<>();
+      for (int thread = 0; thread < 4; thread++) {
+        // Alle Threads fügen dieselben Paare ein, nur einer darf jeweils erfolgreich sein
+        results.add(executor.submit(() -> {
+          int added = 0;
+          for (long value = 0; value < 50_000; value++) {
+            if (set.add(value % 7, value)) {
+              added++;
+            }
+          }
+          return added;
+        }));
+      }
+      int added = 0;
+      for (Future<Integer> result : results) {
+        added += result.get();
+      }
+      assertEquals(50_000, added);
+      assertEquals(50_000, set.size());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
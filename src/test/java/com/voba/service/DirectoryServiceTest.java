@@ -4,14 +4,31 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.attribute.DosFileAttributeView;
-
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import com.voba.model.AggregateNode;
+import com.voba.model.ArchiveNode;
+import com.voba.model.DirectoryStatistics;
+import com.voba.model.DiskUsageNode;
 import com.voba.model.FileNode;
+import com.voba.model.ScanEngine;
 import com.voba.model.ScanOptions;
+import com.voba.model.TopEntries;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -195,4 +212,451 @@ class DirectoryServiceTest {
     assertNotNull(result);
     assertEquals(120, result.getChildren().size());
   }
+
+  @Test
+  void testNioAndFileIoEnginesProduceSameTree(@TempDir Path tempDir) throws IOException {
+    Path subDir = tempDir.resolve("sub");
+    Files.createDirectories(subDir.resolve("deeper"));
+    Files.writeString(tempDir.resolve("a.txt"), "aaaa");
+    Files.writeString(subDir.resolve("b.java"), "bbbbbbbb");
+    Files.writeString(subDir.resolve("deeper").resolve("c"), "cc");
+
+    FileNode nio = directoryService.scanDirectory(
+        tempDir.toString(), new ScanOptions().setEngine(ScanEngine.NIO));
+    FileNode fileIo = directoryService.scanDirectory(
+        tempDir.toString(), new ScanOptions().setEngine(ScanEngine.FILE_IO));
+
+    assertEquals(describe(fileIo), describe(nio));
+    assertEquals(14, nio.getSize());
+  }
+
+  @Test
+  void testEnginesComputeStatisticsDuringScan(@TempDir Path tempDir) throws IOException {
+    Path subDir = tempDir.resolve("sub");
+    Files.createDirectories(subDir.resolve("deeper"));
+    Files.createDirectories(tempDir.resolve("empty"));
+    Files.writeString(tempDir.resolve("a.txt"), "aaaa");
+    Files.writeString(subDir.resolve("b.TXT"), "bbbbbbbb");
+    Files.writeString(subDir.resolve("c.java"), "cc");
+    Files.writeString(subDir.resolve("deeper").resolve("d"), "d");
+
+    List<ScanOptions> engines = List.of(
+        new ScanOptions(),
+        new ScanOptions().setUseParallelProcessing(true),
+        new ScanOptions().setUseVirtualThreads(true),
+        new ScanOptions().setEngine(ScanEngine.FILE_IO));
+    for (ScanOptions options : engines) {
+      FileNode result = directoryService.scanDirectory(tempDir.toString(), options);
+
+      DirectoryStatistics statistics = result.getStatistics();
+      assertNotNull(statistics);
+      assertEquals(4, statistics.getFileCount());
+      assertEquals(3, statistics.getDirectoryCount());
+      assertEquals(3, statistics.getMaxDepth());
+      assertEquals(List.of(
+              new DirectoryStatistics.ExtensionStatistics("txt", 2, 12),
+              new DirectoryStatistics.ExtensionStatistics("java", 1, 2),
+              new DirectoryStatistics.ExtensionStatistics(null, 1, 1)),
+          statistics.getExtensions());
+
+      FileNode sub = result.getChild("sub");
+      assertEquals(3, sub.getStatistics().getFileCount());
+      assertEquals(2, sub.getStatistics().getMaxDepth());
+      assertEquals(0, result.getChild("empty").getStatistics().getMaxDepth());
+    }
+  }
+
+  @Test
+  void testTopOnlyScanMatchesTree(@TempDir Path tempDir) throws IOException {
+    Path subDir = tempDir.resolve("sub");
+    Files.createDirectories(subDir.resolve("deeper"));
+    Files.createDirectories(tempDir.resolve("other"));
+    Files.writeString(tempDir.resolve("a.txt"), "x".repeat(40));
+    Files.writeString(tempDir.resolve(".hidden"), "x".repeat(100));
+    Files.writeString(subDir.resolve("b.bin"), "x".repeat(30));
+    Files.writeString(subDir.resolve("deeper").resolve("c"), "x".repeat(20));
+    Files.writeString(tempDir.resolve("other").resolve("d"), "x".repeat(10));
+
+    FileNode tree = directoryService.scanDirectory(tempDir.toString(), new ScanOptions());
+    TopEntries expected = TopEntries.of(tree, 2);
+    for (ScanOptions options : List.of(
+        new ScanOptions(), new ScanOptions().setUseParallelProcessing(true))) {
+      TopEntries top = directoryService.scanTop(tempDir.toString(), options, 2, new ScanProgress());
+
+      assertEquals(100, top.getSize());
+      assertEquals(expected.getFiles(), top.getFiles());
+      assertEquals(expected.getDirectories(), top.getDirectories());
+      assertEquals(List.of(subDir.toString(), subDir.resolve("deeper").toString()),
+          top.getDirectories().stream().map(TopEntries.Entry::path).toList());
+    }
+
+    assertThrows(IllegalArgumentException.class,
+        () -> directoryService.scanTop(tempDir.toString(), null, 0, new ScanProgress()));
+  }
+
+  @Test
+  void testNioEngineSkipsSymlinks(@TempDir Path tempDir) throws IOException {
+    Path target = tempDir.resolve("target");
+    Files.createDirectory(target);
+    Files.writeString(target.resolve("file.txt"), "content");
+    try {
+      Files.createSymbolicLink(tempDir.resolve("link"), target);
+    } catch (UnsupportedOperationException | IOException exception) {
+      return; // Symlinks auf diesem System nicht verfügbar
+    }
+
+    FileNode result = directoryService.scanDirectory(
+        tempDir.toString(), new ScanOptions().setEngine(ScanEngine.NIO));
+
+    assertEquals(1, result.getChildren().size());
+    assertEquals("target", result.getChildren().get(0).getName());
+  }
+
+  @Test
+  void testNioEngineWithParallelProcessing(@TempDir Path tempDir) throws IOException {
+    for (int i = 0; i < 120; i++) {
+      Path dir = tempDir.resolve("dir" + i);
+      Files.createDirectory(dir);
+      Files.writeString(dir.resolve("file.txt"), "content " + i);
+    }
+
+    ScanOptions options = new ScanOptions()
+        .setEngine(ScanEngine.NIO)
+        .setUseParallelProcessing(true)
+        .setMaxThreads(4);
+    FileNode parallel = directoryService.scanDirectory(tempDir.toString(), options);
+    FileNode sequential = directoryService.scanDirectory(
+        tempDir.toString(), new ScanOptions().setEngine(ScanEngine.NIO));
+
+    assertEquals(120, parallel.getChildren().size());
+    assertEquals(describe(sequential), describe(parallel));
+  }
+
+  @Test
+  void testCompactTreeMatchesObjectTree(@TempDir Path tempDir) throws IOException {
+    Path subDir = tempDir.resolve("sub");
+    Files.createDirectories(subDir.resolve("deeper"));
+    Files.writeString(tempDir.resolve("a.txt"), "aaaa");
+    Files.writeString(tempDir.resolve(".hidden"), "hidden");
+    Files.writeString(subDir.resolve("b.java"), "bbbbbbbb");
+    Files.writeString(subDir.resolve("deeper").resolve("c"), "cc");
+
+    FileNode objects = directoryService.scanDirectory(tempDir.toString(), new ScanOptions());
+    FileNode compact = directoryService.scanDirectory(
+        tempDir.toString(), new ScanOptions().setCompactTree(true));
+
+    assertEquals(describe(objects), describe(compact));
+    assertEquals(
+        subDir.resolve("b.java").toString(),
+        compact.getChildren().get(0).getChildren().get(0).getPath());
+  }
+
+  @Test
+  void testScanReportsProgressAndTopLevelSubtrees(@TempDir Path tempDir) throws IOException {
+    Path subDir = tempDir.resolve("sub");
+    Files.createDirectories(subDir.resolve("deeper"));
+    Files.writeString(tempDir.resolve("a.txt"), "aaaa");
+    Files.writeString(subDir.resolve("b.txt"), "bb");
+    Files.writeString(subDir.resolve("deeper").resolve("c.txt"), "c");
+
+    List<String> subtrees = new CopyOnWriteArrayList<>();
+    ScanProgress progress = new ScanProgress()
+        .onSubtreeCompleted(node -> subtrees.add(node.getName() + ":" + node.getSize()));
+    directoryService.scanDirectory(tempDir.toString(), new ScanOptions(), progress);
+
+    assertEquals(3, progress.getDirectories());
+    assertEquals(3, progress.getFiles());
+    assertEquals(7, progress.getBytes());
+    assertEquals(2, subtrees.size());
+    assertTrue(subtrees.containsAll(List.of("a.txt:4", "sub:3")));
+  }
+
+  @Test
+  void testAggregationFoldsSmallFilesAndSmallestChildren(@TempDir Path tempDir)
+      throws IOException {
+    Path subDir = tempDir.resolve("sub");
+    Files.createDirectories(subDir.resolve("deeper"));
+    Files.writeString(tempDir.resolve("big.bin"), "x".repeat(100));
+    Files.writeString(tempDir.resolve("medium.bin"), "x".repeat(60));
+    Files.writeString(tempDir.resolve("tiny1.txt"), "x");
+    Files.writeString(tempDir.resolve("tiny2.txt"), "xx");
+    Files.writeString(subDir.resolve("c.bin"), "x".repeat(20));
+    Files.writeString(subDir.resolve("deeper").resolve("d.bin"), "x".repeat(30));
+
+    List<ScanOptions> engines = List.of(
+        new ScanOptions(),
+        new ScanOptions().setUseParallelProcessing(true),
+        new ScanOptions().setUseVirtualThreads(true),
+        new ScanOptions().setEngine(ScanEngine.FILE_IO));
+    for (ScanOptions options : engines) {
+      options.setAggregateBelowSize(10).setMaxChildren(2);
+      FileNode result = directoryService.scanDirectory(tempDir.toString(), options);
+
+      // sub (50) und tiny*.txt fallen weg: 2 Dateien unter 10 Bytes, 1 Verzeichnis mit 3 Dateien
+      assertEquals(213, result.getSize());
+      List<FileNode> children = result.getChildren();
+      assertEquals(3, children.size());
+      assertEquals("big.bin", children.get(0).getName());
+      AggregateNode aggregate = (AggregateNode) children.stream()
+          .filter(AggregateNode.class::isInstance)
+          .findFirst()
+          .orElseThrow();
+      assertEquals("4 other files, 2 folders", aggregate.getName());
+      assertEquals(4, aggregate.getFileCount());
+      assertEquals(2, aggregate.getDirectoryCount());
+      assertEquals(53, aggregate.getSize());
+      assertEquals(tempDir.resolve(aggregate.getName()).toString(), aggregate.getPath());
+    }
+  }
+
+  @Test
+  void testAggregationBelowMaxDepth(@TempDir Path tempDir) throws IOException {
+    Path subDir = tempDir.resolve("sub");
+    Files.createDirectories(subDir.resolve("deeper"));
+    Files.writeString(tempDir.resolve("a.txt"), "aaaa");
+    Files.writeString(subDir.resolve("b.txt"), "bb");
+    Files.writeString(subDir.resolve("deeper").resolve("c.txt"), "c");
+
+    List<String> subtrees = new CopyOnWriteArrayList<>();
+    ScanProgress progress = new ScanProgress()
+        .onSubtreeCompleted(node -> subtrees.add(describe(node)));
+    FileNode result = directoryService.scanDirectory(
+        tempDir.toString(), new ScanOptions().setMaxDepth(1), progress);
+
+    assertEquals(tempDir.getFileName() + ":7[a.txt:4,sub:3[2 other files, 1 folder:3,],]",
+        describe(result));
+    assertEquals(3, progress.getFiles());
+    assertTrue(subtrees.containsAll(List.of("a.txt:4", "sub:3[2 other files, 1 folder:3,]")));
+  }
+
+  @Test
+  void testAggregationWithMaxChildrenReportsRootChildrenAtTheEnd(@TempDir Path tempDir)
+      throws IOException {
+    Files.createDirectory(tempDir.resolve("sub"));
+    Files.writeString(tempDir.resolve("sub").resolve("b.txt"), "bb");
+    Files.writeString(tempDir.resolve("a.txt"), "aaaa");
+    Files.writeString(tempDir.resolve("c.txt"), "c");
+
+    List<String> subtrees = new CopyOnWriteArrayList<>();
+    ScanProgress progress = new ScanProgress()
+        .onSubtreeCompleted(node -> subtrees.add(node.getName()));
+    directoryService.scanDirectory(
+        tempDir.toString(), new ScanOptions().setMaxChildren(1), progress);
+
+    assertEquals(List.of("a.txt", "2 other files, 1 folder"), subtrees);
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> directoryService.scanDirectory(
+            tempDir.toString(), new ScanOptions().setMaxChildren(1).setCompactTree(true)));
+  }
+
+  @Test
+  void testCancelledScanStops(@TempDir Path tempDir) throws IOException {
+    for (int i = 0; i < 120; i++) {
+      Files.createDirectory(tempDir.resolve("dir" + i));
+    }
+    ScanProgress progress = new ScanProgress();
+    progress.cancel();
+
+    for (ScanEngine engine : ScanEngine.values()) {
+      ScanOptions options = new ScanOptions().setEngine(engine).setUseParallelProcessing(true);
+      assertThrows(
+          CancellationException.class,
+          () -> directoryService.scanDirectory(tempDir.toString(), options, progress));
+    }
+    assertThrows(
+        CancellationException.class,
+        () -> directoryService.scanDirectory(
+            tempDir.toString(), new ScanOptions().setCompactTree(true), progress));
+  }
+
+  @Test
+  void testIncrementalScanReusesUnchangedDirectories(@TempDir Path tempDir) throws IOException {
+    Files.createDirectories(tempDir.resolve("a").resolve("nested"));
+    Files.createDirectory(tempDir.resolve("b"));
+    Files.writeString(tempDir.resolve("a").resolve("x.txt"), "x");
+    Files.writeString(tempDir.resolve("a").resolve("nested").resolve("y.txt"), "yy");
+    Files.writeString(tempDir.resolve("b").resolve("z.txt"), "zzz");
+    FileNode previous = directoryService.scanDirectory(tempDir.toString());
+
+    // Inhalt ändern verändert den Zeitstempel des Verzeichnisses nicht
+    Files.writeString(tempDir.resolve("a").resolve("x.txt"), "xxxxxxxxxx");
+
+    ScanProgress progress = new ScanProgress();
+    FileNode result = directoryService.scanIncremental(
+        tempDir.toString(), new ScanOptions(), previous, progress);
+
+    assertEquals(4, progress.getReusedDirectories());
+    assertEquals(0, progress.getRelistedDirectories());
+    assertEquals(describe(directoryService.scanDirectory(tempDir.toString())), describe(result));
+    assertEquals(15, result.getSize());
+  }
+
+  @Test
+  void testIncrementalScanRelistsChangedDirectories(@TempDir Path tempDir) throws IOException {
+    Path changed = tempDir.resolve("changed");
+    Path deleted = tempDir.resolve("deleted");
+    Files.createDirectories(changed);
+    Files.createDirectories(deleted);
+    Files.writeString(changed.resolve("old.txt"), "old");
+    Files.writeString(deleted.resolve("gone.txt"), "gone");
+    FileNode previous = directoryService.scanDirectory(tempDir.toString());
+
+    Files.writeString(changed.resolve("new.txt"), "new!");
+    Files.setLastModifiedTime(changed, FileTime.fromMillis(
+        Files.getLastModifiedTime(changed).toMillis() + 5000));
+    // Gelöschter Eintrag bei unverändertem Zeitstempel: Re-Stat schlägt fehl, Verzeichnis wird gelistet
+    FileTime deletedTime = Files.getLastModifiedTime(deleted);
+    Files.delete(deleted.resolve("gone.txt"));
+    Files.setLastModifiedTime(deleted, deletedTime);
+
+    ScanProgress progress = new ScanProgress();
+    FileNode result = directoryService.scanIncremental(
+        tempDir.toString(), new ScanOptions().setUseParallelProcessing(true), previous, progress);
+
+    assertEquals(1, progress.getReusedDirectories());
+    assertEquals(2, progress.getRelistedDirectories());
+    assertEquals(describe(directoryService.scanDirectory(tempDir.toString())), describe(result));
+    assertEquals(2, result.getChild("changed").getChildren().size());
+    assertTrue(result.getChild("deleted").getChildren().isEmpty());
+  }
+
+  @Test
+  void testIncrementalScanWithoutPreviousScansFully(@TempDir Path tempDir) throws IOException {
+    Files.writeString(tempDir.resolve("a.txt"), "a");
+
+    ScanProgress progress = new ScanProgress();
+    FileNode result = directoryService.scanIncremental(
+        tempDir.toString(), new ScanOptions(), null, progress);
+
+    assertEquals(1, result.getChildren().size());
+    assertEquals(0, progress.getReusedDirectories());
+    assertEquals(1, progress.getRelistedDirectories());
+  }
+
+  @Test
+  void testScanInMemoryFileSystem() throws IOException {
+    try (FileSystem fileSystem = Jimfs.newFileSystem(Configuration.unix())) {
+      Path root = Files.createDirectories(fileSystem.getPath("/data"));
+      Files.writeString(root.resolve("a.txt"), "aaaa");
+      Path nested = Files.createDirectories(root.resolve("sub").resolve("nested"));
+      Files.writeString(nested.resolve("b.bin"), "bb");
+      Files.writeString(root.resolve(".hidden"), "hidden");
+
+      String expected = null;
+      for (ScanOptions options : List.of(
+          new ScanOptions(),
+          new ScanOptions().setUseParallelProcessing(true),
+          new ScanOptions().setUseVirtualThreads(true),
+          new ScanOptions().setCompactTree(true))) {
+        FileNode result = directoryService.scanDirectory(root, options, new ScanProgress());
+        assertEquals(6, result.getSize());
+        assertEquals(2, result.getChildren().size());
+        if (expected == null) {
+          expected = describe(result);
+        }
+        assertEquals(expected, describe(result));
+      }
+
+      assertThrows(IllegalArgumentException.class, () -> directoryService.scanDirectory(
+          root, new ScanOptions().setEngine(ScanEngine.FILE_IO), new ScanProgress()));
+      assertThrows(IllegalArgumentException.class, () -> directoryService.scanDirectory(
+          root.resolve("a.txt"), new ScanOptions(), new ScanProgress()));
+    }
+  }
+
+  @Test
+  void testScanArchivesReadsCentralDirectory(@TempDir Path tempDir) throws IOException {
+    Path archive = tempDir.resolve("bundle.zip");
+    try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(archive))) {
+      zip.putNextEntry(new ZipEntry("docs/"));
+      zip.closeEntry();
+      zip.putNextEntry(new ZipEntry("docs/readme.txt"));
+      zip.write("a".repeat(10_000).getBytes(StandardCharsets.UTF_8));
+      zip.closeEntry();
+      zip.putNextEntry(new ZipEntry("app.jar"));
+      zip.write("b".repeat(1_000).getBytes(StandardCharsets.UTF_8));
+      zip.closeEntry();
+    }
+    Files.writeString(tempDir.resolve("broken.zip"), "not a zip");
+
+    FileNode plain = directoryService.scanDirectory(tempDir.toString());
+    assertTrue(plain.getChildren().stream().noneMatch(FileNode::isDirectory));
+
+    FileNode result = directoryService.scanDirectory(
+        tempDir.toString(), new ScanOptions().setScanArchives(true));
+    ArchiveNode node = (ArchiveNode) result.getChild("bundle.zip");
+    assertTrue(node.isArchive());
+    assertEquals(Files.size(archive), node.getSize());
+    assertEquals(11_000, node.getUncompressedSize());
+
+    ArchiveNode docs = (ArchiveNode) node.getChild("docs");
+    ArchiveNode readme = (ArchiveNode) docs.getChild("readme.txt");
+    assertEquals(archive.resolve("docs").resolve("readme.txt").toString(), readme.getPath());
+    assertEquals(10_000, readme.getUncompressedSize());
+    assertTrue(readme.getSize() < readme.getUncompressedSize());
+    // Archive in Archiven werden nicht geöffnet
+    assertTrue(!node.getChild("app.jar").isDirectory());
+    assertTrue(!result.getChild("broken.zip").isDirectory());
+  }
+
+  @Test
+  void testDiskUsageCountsHardLinksOnce(@TempDir Path tempDir) throws IOException {
+    assumeTrue(tempDir.getFileSystem().supportedFileAttributeViews().contains("unix"));
+    Path first = Files.createDirectory(tempDir.resolve("first"));
+    Path second = Files.createDirectory(tempDir.resolve("second"));
+    Path data = Files.write(first.resolve("data.bin"), new byte[10_000]);
+    Files.createLink(second.resolve("link.bin"), data);
+    Files.writeString(tempDir.resolve("small.txt"), "x");
+    long blockSize = Files.getFileStore(tempDir).getBlockSize();
+    long dataOnDisk = (10_000 + blockSize - 1) / blockSize * blockSize;
+
+    assertEquals(20_001, directoryService.scanDirectory(tempDir.toString()).getSize());
+    for (ScanOptions options : List.of(
+        new ScanOptions().setDiskUsage(true),
+        new ScanOptions().setDiskUsage(true).setUseParallelProcessing(true),
+        new ScanOptions().setDiskUsage(true).setUseVirtualThreads(true))) {
+      DiskUsageNode root = (DiskUsageNode) directoryService.scanDirectory(
+          tempDir, options, new ScanProgress());
+      assertEquals(dataOnDisk + blockSize, root.getSize());
+      assertEquals(20_001, root.getApparentSize());
+
+      // Welcher Link zählt, hängt von der Reihenfolge ab; beide behalten ihre scheinbare Größe
+      DiskUsageNode firstNode = (DiskUsageNode) root.getChild("first");
+      DiskUsageNode secondNode = (DiskUsageNode) root.getChild("second");
+      assertEquals(dataOnDisk, firstNode.getSize() + secondNode.getSize());
+      assertEquals(10_000, firstNode.getApparentSize());
+      assertEquals(10_000, secondNode.getApparentSize());
+      DiskUsageNode small = (DiskUsageNode) root.getChild("small.txt");
+      assertEquals(blockSize, small.getSize());
+      assertEquals(1, small.getApparentSize());
+    }
+
+    // Zusammengefasste Einträge zählen auch scheinbar mit dem belegten Platz
+    DiskUsageNode aggregated = (DiskUsageNode) directoryService.scanDirectory(tempDir,
+        new ScanOptions().setDiskUsage(true).setMaxChildren(1), new ScanProgress());
+    assertEquals(dataOnDisk + blockSize, aggregated.getSize());
+    assertEquals(10_000 + blockSize, aggregated.getApparentSize());
+
+    assertThrows(IllegalArgumentException.class, () -> directoryService.scanDirectory(tempDir,
+        new ScanOptions().setDiskUsage(true).setEngine(ScanEngine.FILE_IO), new ScanProgress()));
+    assertThrows(IllegalArgumentException.class, () -> directoryService.scanDirectory(tempDir,
+        new ScanOptions().setDiskUsage(true).setCompactTree(true), new ScanProgress()));
+  }
+
+  /**
+   * Erzeugt eine textuelle Beschreibung eines Baums (Name, Größe, Kinder).
+   *
+   * @param node Wurzel des Baums
+   * @return Beschreibung des Baums
+   */
+  private String describe(FileNode node) {
+    StringBuilder builder = new StringBuilder(node.getName()).append(':').append(node.getSize());
+    if (node.isDirectory()) {
+      builder.append('[');
+      node.getChildren().forEach(child -> builder.append(describe(child)).append(','));
+      builder.append(']');
+    }
+    return builder.toString();
+  }
 }
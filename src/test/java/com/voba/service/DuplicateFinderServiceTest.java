@@ -0,0 +1,190 @@
+package com.voba.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.voba.model.DiskUsageNode;
+import com.voba.model.DuplicateReport;
+import com.voba.model.FileNode;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit-Tests für den DuplicateFinderService. */
+class DuplicateFinderServiceTest {
+
+  @TempDir
+  Path tempDir;
+
+  private DuplicateFinderService service;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    service = new DuplicateFinderService(2, 100);
+
+    byte[] large = new byte[20000];
+    Arrays.fill(large, (byte) 'x');
+    Files.createDirectories(tempDir.resolve("a"));
+    Files.createDirectories(tempDir.resolve("b"));
+    Files.createDirectories(tempDir.resolve("c"));
+    Files.write(tempDir.resolve("a/large1.bin"), large);
+    Files.write(tempDir.resolve("b/large2.bin"), large);
+    // Gleicher Anfang und gleiches Ende, nur die Mitte unterscheidet sich
+    large[10000] = 'y';
+    Files.write(tempDir.resolve("b/large3.bin"), large);
+    Files.writeString(tempDir.resolve("c/small1.txt"), "hello");
+    Files.writeString(tempDir.resolve("c/small2.txt"), "hello");
+    Files.writeString(tempDir.resolve("c/other.txt"), "world");
+    Files.writeString(tempDir.resolve("unique.txt"), "unique size");
+  }
+
+  @AfterEach
+  void tearDown() {
+    service.shutdown();
+  }
+
+  private static FileNode tree(Path path) throws IOException {
+    FileNode node = new FileNode(path, Files.isDirectory(path));
+    if (!node.isDirectory()) {
+      node.setSize(Files.size(path));
+      return node;
+    }
+    try (Stream<Path> entries = Files.list(path)) {
+      for (Path entry : entries.toList()) {
+        node.addChild(tree(entry));
+      }
+    }
+    node.sortChildren();
+    return node;
+  }
+
+  /** Baut einen Baum mit Abrechnung des belegten Speicherplatzes wie die Scan-Engines. */
+  private static FileNode diskUsageTree(Path path, DiskUsage diskUsage) throws IOException {
+    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+    if (!attributes.isDirectory()) {
+      return diskUsage.fileNode(path, attributes, diskUsage.diskSize(path, attributes));
+    }
+    FileNode node = new DiskUsageNode(path, true);
+    try (Stream<Path> entries = Files.list(path)) {
+      for (Path entry : entries.sorted().toList()) {
+        node.addChild(diskUsageTree(entry, diskUsage));
+      }
+    }
+    node.sortChildren();
+    return node;
+  }
+
+  @Test
+  void testFindsGroupsAndReclaimableBytesPerDirectory() throws IOException {
+    DuplicateReport report = service.find(tree(tempDir), 1, 100);
+
+    assertEquals(7, report.fileCount());
+    assertEquals(6, report.candidates());
+    assertEquals(6, report.partialHashes());
+    // Nur die großen Dateien mit gleichem Teil-Hash werden vollständig gelesen
+    assertEquals(3, report.fullHashes());
+    assertEquals(0, report.cacheHits());
+    assertEquals(0, report.skipped());
+
+    assertEquals(2, report.groupCount());
+    assertEquals(2, report.duplicateCount());
+    assertEquals(20005, report.reclaimableBytes());
+    DuplicateReport.Group large = report.groups().get(0);
+    assertEquals(20000, large.size());
+    assertEquals(20000, large.reclaimableBytes());
+    assertEquals(List.of(
+        tempDir.resolve("a/large1.bin").toString(),
+        tempDir.resolve("b/large2.bin").toString()), large.paths());
+    assertEquals(List.of(
+        tempDir.resolve("c/small1.txt").toString(),
+        tempDir.resolve("c/small2.txt").toString()), report.groups().get(1).paths());
+
+    assertEquals(List.of(
+        new DuplicateReport.DirectoryEntry(tempDir.resolve("b").toString(), 1, 20000),
+        new DuplicateReport.DirectoryEntry(tempDir.resolve("c").toString(), 1, 5)),
+        report.directories());
+  }
+
+  @Test
+  void testDiskUsageTreeComparesFileLengths() throws IOException {
+    FileNode root = diskUsageTree(tempDir, new DiskUsage(tempDir));
+
+    // Die Knotengrößen sind auf Blöcke gerundet, gruppiert wird nach der Dateilänge
+    DuplicateReport report = service.find(root, 1, 100);
+    assertEquals(7, report.fileCount());
+    assertEquals(0, report.skipped());
+    assertEquals(2, report.groupCount());
+    assertEquals(20005, report.reclaimableBytes());
+    assertEquals(20000, report.groups().get(0).size());
+  }
+
+  @Test
+  void testHardLinksAreNotDuplicates() throws IOException {
+    Files.createLink(tempDir.resolve("b/link.bin"), tempDir.resolve("a/large1.bin"));
+    Files.createDirectories(tempDir.resolve("d"));
+    Path linked = Files.writeString(tempDir.resolve("d/linked.txt"), "only linked");
+    Files.createLink(tempDir.resolve("d/link.txt"), linked);
+    assumeTrue(Files.readAttributes(linked, BasicFileAttributes.class).fileKey() != null);
+
+    // Links auf dieselbe Datei zählen einmal, mit dem kleinsten Pfad
+    DuplicateReport report = service.find(tree(tempDir), 1, 100);
+    assertEquals(2, report.groupCount());
+    assertEquals(2, report.duplicateCount());
+    assertEquals(20005, report.reclaimableBytes());
+    assertEquals(List.of(
+        tempDir.resolve("a/large1.bin").toString(),
+        tempDir.resolve("b/large2.bin").toString()), report.groups().get(0).paths());
+  }
+
+  @Test
+  void testRepeatedSearchUsesHashCache() throws IOException {
+    FileNode root = tree(tempDir);
+    service.find(root, 1, 100);
+
+    DuplicateReport report = service.find(root, 1, 100);
+    assertEquals(0, report.partialHashes());
+    assertEquals(0, report.fullHashes());
+    assertEquals(9, report.cacheHits());
+    assertEquals(2, report.groupCount());
+  }
+
+  @Test
+  void testChangedFilesAreSkipped() throws IOException {
+    FileNode root = tree(tempDir);
+    Files.writeString(tempDir.resolve("c/small2.txt"), "hello, changed");
+
+    DuplicateReport report = service.find(root, 1, 100);
+    assertEquals(1, report.skipped());
+    assertEquals(1, report.groupCount());
+    assertEquals(20000, report.reclaimableBytes());
+  }
+
+  @Test
+  void testMinSizeAndLimit() throws IOException {
+    FileNode root = tree(tempDir);
+
+    DuplicateReport large = service.find(root, 10, 100);
+    assertEquals(4, large.fileCount());
+    assertEquals(1, large.groupCount());
+
+    DuplicateReport limited = service.find(root, 1, 1);
+    assertEquals(2, limited.groupCount());
+    assertEquals(1, limited.groups().size());
+    assertEquals(1, limited.directories().size());
+    assertEquals(20005, limited.reclaimableBytes());
+
+    assertThrows(IllegalArgumentException.class, () -> service.find(root, 0, 100));
+    assertThrows(IllegalArgumentException.class, () -> service.find(root, 1, 0));
+  }
+}
@@ -0,0 +1,405 @@
+package com.voba.service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.AccessMode;
+import java.nio.file.CopyOption;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileStore;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.LinkOption;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.FileAttributeView;
+import java.nio.file.attribute.UserPrincipalLookupService;
+import java.nio.file.spi.FileSystemProvider;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test-Dateisystem, das das Standard-Dateisystem umhüllt und jedes Listen eines Verzeichnisses und
+ * jedes Lesen von Attributen um eine feste Latenz verzögert. Simuliert ein Netzwerk-Dateisystem
+ * (NFS, SMB) und zählt, wie viele Zugriffe höchstens gleichzeitig liefen.
+ */
+final class LatencyFileSystem extends FileSystem {
+
+  private final FileSystem delegate;
+  private final Provider provider;
+  private final long latencyMicros;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+  private final AtomicInteger operations = new AtomicInteger();
+
+  /**
+   * Erzeugt ein Dateisystem über dem Standard-Dateisystem.
+   *
+   * @param latencyMicros Latenz pro Zugriff in Mikrosekunden
+   */
+  LatencyFileSystem(long latencyMicros) {
+    this.delegate = FileSystems.getDefault();
+    this.provider = new Provider(delegate.provider());
+    this.latencyMicros = latencyMicros;
+  }
+
+  /**
+   * Gibt den Pfad in diesem Dateisystem zurück, der einem Pfad des Standard-Dateisystems entspricht.
+   *
+   * @param path Pfad im Standard-Dateisystem
+   * @return umhüllter Pfad
+   */
+  Path wrap(Path path) {
+    return path == null ? null : new LatencyPath(this, path);
+  }
+
+  int getMaxInFlight() {
+    return maxInFlight.get();
+  }
+
+  int getOperations() {
+    return operations.get();
+  }
+
+  private void delay() throws IOException {
+    int current = inFlight.incrementAndGet();
+    maxInFlight.accumulateAndGet(current, Math::max);
+    operations.incrementAndGet();
+    try {
+      TimeUnit.MICROSECONDS.sleep(latencyMicros);
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for the file system");
+    } finally {
+      inFlight.decrementAndGet();
+    }
+  }
+
+  private static Path unwrap(Path path) {
+    return path instanceof LatencyPath latencyPath ? latencyPath.delegate : path;
+  }
+
+  @Override
+  public FileSystemProvider provider() {
+    return provider;
+  }
+
+  @Override
+  public void close() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean isOpen() {
+    return true;
+  }
+
+  @Override
+  public boolean isReadOnly() {
+    return delegate.isReadOnly();
+  }
+
+  @Override
+  public String getSeparator() {
+    return delegate.getSeparator();
+  }
+
+  @Override
+  public Iterable<Path> getRootDirectories() {
+    List<Path> roots = new ArrayList<>();
+    delegate.getRootDirectories().forEach(root -> roots.add(wrap(root)));
+    return roots;
+  }
+
+  @Override
+  public Iterable<FileStore> getFileStores() {
+    return delegate.getFileStores();
+  }
+
+  @Override
+  public Set<String> supportedFileAttributeViews() {
+    return delegate.supportedFileAttributeViews();
+  }
+
+  @Override
+  public Path getPath(String first, String... more) {
+    return wrap(delegate.getPath(first, more));
+  }
+
+  @Override
+  public PathMatcher getPathMatcher(String syntaxAndPattern) {
+    PathMatcher matcher = delegate.getPathMatcher(syntaxAndPattern);
+    return path -> matcher.matches(unwrap(path));
+  }
+
+  @Override
+  public UserPrincipalLookupService getUserPrincipalLookupService() {
+    return delegate.getUserPrincipalLookupService();
+  }
+
+  @Override
+  public WatchService newWatchService() {
+    throw new UnsupportedOperationException();
+  }
+
+  /** Provider, der Zugriffe verzögert an den Provider des Standard-Dateisystems weiterreicht. */
+  private final class Provider extends FileSystemProvider {
+    private final FileSystemProvider delegateProvider;
+
+    Provider(FileSystemProvider delegateProvider) {
+      this.delegateProvider = delegateProvider;
+    }
+
+    @Override
+    public String getScheme() {
+      return "latency";
+    }
+
+    @Override
+    public FileSystem newFileSystem(URI uri, Map<String, ?> env) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public FileSystem getFileSystem(URI uri) {
+      return LatencyFileSystem.this;
+    }
+
+    @Override
+    public Path getPath(URI uri) {
+      return wrap(delegateProvider.getPath(uri));
+    }
+
+    @Override
+    public SeekableByteChannel newByteChannel(
+        Path path, Set<? extends OpenOption> options, FileAttribute<?>... attrs) throws IOException {
+      return delegateProvider.newByteChannel(unwrap(path), options, attrs);
+    }
+
+    @Override
+    public DirectoryStream<Path> newDirectoryStream(
+        Path dir, DirectoryStream.Filter<? super Path> filter) throws IOException {
+      delay();
+      DirectoryStream<Path> stream = delegateProvider.newDirectoryStream(
+          unwrap(dir), entry -> filter.accept(wrap(entry)));
+      return new DirectoryStream<>() {
+        @Override
+        public Iterator<Path> iterator() {
+          Iterator<Path> entries = stream.iterator();
+          return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+              return entries.hasNext();
+            }
+
+            @Override
+            public Path next() {
+              return wrap(entries.next());
+            }
+          };
+        }
+
+        @Override
+        public void close() throws IOException {
+          stream.close();
+        }
+      };
+    }
+
+    @Override
+    public void createDirectory(Path dir, FileAttribute<?>... attrs) throws IOException {
+      delegateProvider.createDirectory(unwrap(dir), attrs);
+    }
+
+    @Override
+    public void delete(Path path) throws IOException {
+      delegateProvider.delete(unwrap(path));
+    }
+
+    @Override
+    public void copy(Path source, Path target, CopyOption... options) throws IOException {
+      delegateProvider.copy(unwrap(source), unwrap(target), options);
+    }
+
+    @Override
+    public void move(Path source, Path target, CopyOption... options) throws IOException {
+      delegateProvider.move(unwrap(source), unwrap(target), options);
+    }
+
+    @Override
+    public boolean isSameFile(Path path, Path path2) throws IOException {
+      return delegateProvider.isSameFile(unwrap(path), unwrap(path2));
+    }
+
+    @Override
+    public boolean isHidden(Path path) throws IOException {
+      return delegateProvider.isHidden(unwrap(path));
+    }
+
+    @Override
+    public FileStore getFileStore(Path path) throws IOException {
+      return delegateProvider.getFileStore(unwrap(path));
+    }
+
+    @Override
+    public void checkAccess(Path path, AccessMode... modes) throws IOException {
+      delay();
+      delegateProvider.checkAccess(unwrap(path), modes);
+    }
+
+    @Override
+    public <V extends FileAttributeView> V getFileAttributeView(
+        Path path, Class<V> type, LinkOption... options) {
+      return delegateProvider.getFileAttributeView(unwrap(path), type, options);
+    }
+
+    @Override
+    public <A extends BasicFileAttributes> A readAttributes(
+        Path path, Class<A> type, LinkOption... options) throws IOException {
+      delay();
+      return delegateProvider.readAttributes(unwrap(path), type, options);
+    }
+
+    @Override
+    public Map<String, Object> readAttributes(Path path, String attributes, LinkOption... options)
+        throws IOException {
+      delay();
+      return delegateProvider.readAttributes(unwrap(path), attributes, options);
+    }
+
+    @Override
+    public void setAttribute(Path path, String attribute, Object value, LinkOption... options)
+        throws IOException {
+      delegateProvider.setAttribute(unwrap(path), attribute, value, options);
+    }
+  }
+
+  /** Pfad dieses Dateisystems; alle Operationen arbeiten auf dem umhüllten Pfad. */
+  private static final class LatencyPath implements Path {
+    private final LatencyFileSystem fileSystem;
+    private final Path delegate;
+
+    LatencyPath(LatencyFileSystem fileSystem, Path delegate) {
+      this.fileSystem = fileSystem;
+      this.delegate = delegate;
+    }
+
+    @Override
+    public FileSystem getFileSystem() {
+      return fileSystem;
+    }
+
+    @Override
+    public boolean isAbsolute() {
+      return delegate.isAbsolute();
+    }
+
+    @Override
+    public Path getRoot() {
+      return fileSystem.wrap(delegate.getRoot());
+    }
+
+    @Override
+    public Path getFileName() {
+      return fileSystem.wrap(delegate.getFileName());
+    }
+
+    @Override
+    public Path getParent() {
+      return fileSystem.wrap(delegate.getParent());
+    }
+
+    @Override
+    public int getNameCount() {
+      return delegate.getNameCount();
+    }
+
+    @Override
+    public Path getName(int index) {
+      return fileSystem.wrap(delegate.getName(index));
+    }
+
+    @Override
+    public Path subpath(int beginIndex, int endIndex) {
+      return fileSystem.wrap(delegate.subpath(beginIndex, endIndex));
+    }
+
+    @Override
+    public boolean startsWith(Path other) {
+      return delegate.startsWith(unwrap(other));
+    }
+
+    @Override
+    public boolean endsWith(Path other) {
+      return delegate.endsWith(unwrap(other));
+    }
+
+    @Override
+    public Path normalize() {
+      return fileSystem.wrap(delegate.normalize());
+    }
+
+    @Override
+    public Path resolve(Path other) {
+      return fileSystem.wrap(delegate.resolve(unwrap(other)));
+    }
+
+    @Override
+    public Path relativize(Path other) {
+      return fileSystem.wrap(delegate.relativize(unwrap(other)));
+    }
+
+    @Override
+    public URI toUri() {
+      return delegate.toUri();
+    }
+
+    @Override
+    public Path toAbsolutePath() {
+      return fileSystem.wrap(delegate.toAbsolutePath());
+    }
+
+    @Override
+    public Path toRealPath(LinkOption... options) throws IOException {
+      return fileSystem.wrap(delegate.toRealPath(options));
+    }
+
+    @Override
+    public WatchKey register(
+        WatchService watcher, WatchEvent.Kind<?>[] events, WatchEvent.Modifier... modifiers) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int compareTo(Path other) {
+      return delegate.compareTo(unwrap(other));
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof LatencyPath path && path.delegate.equals(delegate);
+    }
+
+    @Override
+    public int hashCode() {
+      return delegate.hashCode();
+    }
+
+    @Override
+    public String toString() {
+      return delegate.toString();
+    }
+  }
+}
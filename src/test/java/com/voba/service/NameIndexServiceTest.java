@@ -0,0 +1,40 @@
+package com.voba.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.voba.model.FileNode;
+import com.voba.model.NameIndex;
+
+import org.junit.jupiter.api.Test;
+
+/** Unit-Tests für den NameIndexService. */
+class NameIndexServiceTest {
+
+  @Test
+  void testIndexIsRebuiltAfterChange() {
+    NameIndexService service = new NameIndexService(4, 300);
+    Path rootPath = Paths.get("root");
+    FileNode root = new FileNode(rootPath, true);
+    FileNode docs = new FileNode(rootPath.resolve("docs"), true);
+    FileNode report = new FileNode(docs.getPathObject().resolve("report.txt"), false);
+    report.setSize(100);
+    docs.addChild(report);
+    root.addChild(docs);
+
+    NameIndex index = service.index(root);
+    assertSame(index, service.index(root));
+    assertEquals(1, index.substring("txt", 0, 10).total());
+
+    FileNode notes = new FileNode(rootPath.resolve("notes.txt"), false);
+    notes.setSize(50);
+    root.insertChildSorted(notes);
+    NameIndex changed = service.index(root);
+    assertNotSame(index, changed);
+    assertEquals(2, changed.substring("txt", 0, 10).total());
+  }
+}
@@ -0,0 +1,56 @@
+package com.voba.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import com.voba.model.FileNode;
+import com.voba.model.ScanOptions;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit-Tests für die Aufteilung des parallelen NIO-Scans. */
+class NioDirectoryScanTaskTest {
+
+  @TempDir
+  private Path tempDir;
+
+  /** Legt einen binären Baum an: jede Ebene hat zwei Unterverzeichnisse und eine Datei. */
+  private void createDeepTree(Path directory, int levels) throws IOException {
+    Files.writeString(directory.resolve("file.txt"), "x".repeat(levels + 1));
+    if (levels > 0) {
+      createDeepTree(Files.createDirectory(directory.resolve("a")), levels - 1);
+      createDeepTree(Files.createDirectory(directory.resolve("b")), levels - 1);
+    }
+  }
+
+  @Test
+  void testDeepTreeWithFewEntriesIsScannedInParallel() throws IOException {
+    createDeepTree(tempDir, 6);
+    LatencyFileSystem fileSystem = new LatencyFileSystem(500);
+    ScanOptions options = new ScanOptions().setUseParallelProcessing(true);
+
+    FileNode sequential = new NioDirectoryScanTask(tempDir, new ScanOptions(), new ScanProgress())
+        .invoke();
+    ScanProgress progress = new ScanProgress();
+    ForkJoinPool pool = new ForkJoinPool(4);
+    FileNode parallel;
+    try {
+      parallel = pool.invoke(
+          new NioDirectoryScanTask(fileSystem.wrap(tempDir), options, progress));
+    } finally {
+      pool.shutdownNow();
+    }
+
+    // Kein Verzeichnis hat mehr als drei Einträge; trotzdem müssen Zugriffe parallel laufen
+    assertTrue(fileSystem.getMaxInFlight() > 1, "max in flight: " + fileSystem.getMaxInFlight());
+    assertEquals(127, progress.getDirectories());
+    assertEquals(127, progress.getFiles());
+    assertEquals(sequential.getSize(), parallel.getSize());
+  }
+}
@@ -0,0 +1,119 @@
+package com.voba.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+
+import com.voba.model.FileNode;
+
+import org.junit.jupiter.api.Test;
+
+/** Unit-Tests für den NodeCache. */
+class NodeCacheTest {
+
+  private static FileNode directory(String name) {
+    FileNode directory = new FileNode(Paths.get(name), true);
+    for (String file : new String[] {"a.bin", "b.bin"}) {
+      FileNode child = new FileNode(directory.getPathObject().resolve(file), false);
+      child.setSize(100);
+      directory.insertChildSorted(child);
+    }
+    return directory;
+  }
+
+  @Test
+  void testValuesAreKeyedOnNodeAndParameters() {
+    NodeCache<String> cache = new NodeCache<>(4, Duration.ofMinutes(5));
+    FileNode root = directory("root");
+
+    cache.put(NodeCache.key(root, "a"), "first");
+    assertEquals("first", cache.get(NodeCache.key(root, "a")));
+    assertNull(cache.get(NodeCache.key(root, "b")));
+    assertNull(cache.get(NodeCache.key(root, null)));
+
+    // Ein neuer Scan desselben Verzeichnisses liefert neue Knoten und damit neue Schlüssel
+    assertNull(cache.get(NodeCache.key(directory("root"), "a")));
+  }
+
+  @Test
+  void testRenameKeepingSizesMissesCachedValue() {
+    NodeCache<String> cache = new NodeCache<>(4, Duration.ofMinutes(5));
+    FileNode root = directory("root");
+    NodeCache.Key before = NodeCache.key(root, null);
+    cache.put(before, "before");
+
+    FileNode renamed = new FileNode(Paths.get("root", "c.bin"), false);
+    renamed.setSize(100);
+    root.removeChild(root.getChild("a.bin"));
+    root.insertChildSorted(renamed);
+
+    // Größe und Anzahl der Kinder sind gleich, der Änderungsstand nicht
+    assertEquals(200, root.getSize());
+    assertEquals(2, root.getChildren().size());
+    assertNull(cache.get(NodeCache.key(root, null)));
+    assertEquals("before", cache.get(before));
+  }
+
+  @Test
+  void testLeastRecentlyUsedValueIsEvicted() {
+    NodeCache<String> cache = new NodeCache<>(2, Duration.ofMinutes(5));
+    FileNode first = directory("first");
+    FileNode second = directory("second");
+    FileNode third = directory("third");
+
+    cache.put(NodeCache.key(first, null), "first");
+    cache.put(NodeCache.key(second, null), "second");
+    assertEquals("first", cache.get(NodeCache.key(first, null)));
+    cache.put(NodeCache.key(third, null), "third");
+
+    assertEquals("first", cache.get(NodeCache.key(first, null)));
+    assertNull(cache.get(NodeCache.key(second, null)));
+    assertEquals("third", cache.get(NodeCache.key(third, null)));
+  }
+
+  @Test
+  void testValuesAreEvictedByByteBudget() {
+    NodeCache<String> cache = new NodeCache<>(16, 10, String::length, Duration.ofMinutes(5));
+    NodeCache.Key first = NodeCache.key(directory("first"), null);
+    NodeCache.Key second = NodeCache.key(directory("second"), null);
+    NodeCache.Key third = NodeCache.key(directory("third"), null);
+
+    cache.put(first, "aaaa");
+    cache.put(second, "bbbb");
+    cache.put(third, "cccc");
+    assertNull(cache.get(first));
+    assertEquals("bbbb", cache.get(second));
+    assertEquals(8, cache.estimatedBytes());
+
+    // Ein Wert über dem Budget wird nicht abgelegt und verdrängt nichts
+    cache.put(first, "x".repeat(11));
+    assertNull(cache.get(first));
+    assertEquals(8, cache.estimatedBytes());
+    cache.remove(second);
+    assertEquals(4, cache.estimatedBytes());
+  }
+
+  @Test
+  void testPutIfAbsentKeepsExistingValue() {
+    NodeCache<String> cache = new NodeCache<>(4, Duration.ofMinutes(5));
+    NodeCache.Key key = NodeCache.key(directory("root"), null);
+
+    assertNull(cache.putIfAbsent(key, "first"));
+    assertEquals("first", cache.putIfAbsent(key, "second"));
+    cache.remove(key);
+    assertNull(cache.putIfAbsent(key, "third"));
+    assertEquals("third", cache.get(key));
+  }
+
+  @Test
+  void testValuesExpire() throws InterruptedException {
+    NodeCache<String> cache = new NodeCache<>(4, Duration.ofMillis(1));
+    NodeCache.Key key = NodeCache.key(directory("root"), null);
+
+    cache.put(key, "value");
+    Thread.sleep(5);
+    assertNull(cache.get(key));
+  }
+}
@@ -0,0 +1,250 @@
+package com.voba.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.voba.model.FileNode;
+import com.voba.model.ScanOptions;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/** Unit-Tests für den ScanCacheService. */
+class ScanCacheServiceTest {
+
+  private DirectoryService directoryService;
+
+  @BeforeEach
+  void setUp() {
+    directoryService = mock(DirectoryService.class);
+  }
+
+  private ScanCacheService createCache(long maxBytes) {
+    ScanCacheService cache = new ScanCacheService(maxBytes, 300);
+    ReflectionTestUtils.setField(cache, "directoryService", directoryService);
+    return cache;
+  }
+
+  private FileNode sampleTree(String rootPath) {
+    Path root = Paths.get(rootPath).toAbsolutePath();
+    FileNode rootNode = new FileNode(root, true);
+    FileNode subdir = new FileNode(root.resolve("sub"), true);
+    FileNode file = new FileNode(root.resolve("sub").resolve("a.txt"), false);
+    file.setSize(10);
+    subdir.addChild(file);
+    rootNode.addChild(subdir);
+    return rootNode;
+  }
+
+  @Test
+  void testHitAndMiss() {
+    ScanCacheService cache = createCache(1 << 20);
+    FileNode root = sampleTree("cache-root");
+    when(directoryService.scanDirectory(anyString(), any(ScanOptions.class))).thenReturn(root);
+
+    assertSame(root, cache.scan("cache-root", new ScanOptions()));
+    assertSame(root, cache.scan("cache-root/./", new ScanOptions()));
+    verify(directoryService, times(1)).scanDirectory(anyString(), any(ScanOptions.class));
+
+    // Andere Ergebnis-Signatur -> eigener Eintrag
+    cache.scan("cache-root", new ScanOptions().setIncludeHiddenFiles(true));
+    verify(directoryService, times(2)).scanDirectory(anyString(), any(ScanOptions.class));
+
+    assertEquals(1L, cache.getStats().get("hits"));
+    assertEquals(2L, cache.getStats().get("misses"));
+  }
+
+  @Test
+  void testRefreshUsesCachedTreeAsPreviousResult() {
+    ScanCacheService cache = createCache(1 << 20);
+    FileNode previous = sampleTree("cache-root");
+    FileNode rescanned = sampleTree("cache-root");
+    FileNode fullScan = sampleTree("cache-root");
+    cache.put("cache-root", new ScanOptions(), previous);
+    when(directoryService.scanIncremental(
+        anyString(), any(ScanOptions.class), eq(previous), any(ScanProgress.class)))
+        .thenReturn(rescanned);
+    when(directoryService.scanDirectory(anyString(), any(ScanOptions.class), any(ScanProgress.class)))
+        .thenReturn(fullScan);
+
+    assertSame(rescanned,
+        cache.refresh("cache-root", new ScanOptions().setIncremental(true), new ScanProgress()));
+    assertSame(rescanned, cache.getIfPresent("cache-root", new ScanOptions()));
+    assertEquals(1L, cache.getStats().get("hits"));
+
+    // Ohne inkrementelle Option wird vollständig neu gescannt
+    assertSame(fullScan, cache.refresh("cache-root", new ScanOptions(), new ScanProgress()));
+    assertSame(fullScan, cache.getIfPresent("cache-root", new ScanOptions()));
+    verify(directoryService, times(1)).scanIncremental(
+        anyString(), any(ScanOptions.class), any(), any(ScanProgress.class));
+    verify(directoryService, times(0)).scanIncremental(
+        anyString(), any(ScanOptions.class), isNull(), any(ScanProgress.class));
+  }
+
+  @Test
+  void testSubPathServedFromCachedTree() {
+    ScanCacheService cache = createCache(1 << 20);
+    FileNode root = sampleTree("cache-root");
+    cache.put("cache-root", new ScanOptions(), root);
+
+    FileNode subdir = cache.getIfPresent("cache-root/sub", new ScanOptions());
+    assertSame(root.getChildren().get(0), subdir);
+    assertNull(cache.getIfPresent("cache-root/sub/a.txt", new ScanOptions()));
+    assertNull(cache.getIfPresent("cache-root/missing", new ScanOptions()));
+  }
+
+  @Test
+  void testEvictionByMemoryBudget() {
+    FileNode first = sampleTree("first");
+    long treeBytes = first.estimateMemoryBytes();
+    ScanCacheService cache = createCache(treeBytes * 2);
+
+    cache.put("first", new ScanOptions(), first);
+    cache.put("second", new ScanOptions(), sampleTree("second"));
+    assertSame(first, cache.getIfPresent("first", new ScanOptions()));
+
+    // "first" wurde zuletzt gelesen, daher wird "second" verdrängt
+    cache.put("third", new ScanOptions(), sampleTree("third"));
+    assertSame(first, cache.getIfPresent("first", new ScanOptions()));
+    assertNull(cache.getIfPresent("second", new ScanOptions()));
+    assertEquals(1L, cache.getStats().get("evictions"));
+    assertEquals(treeBytes * 2, cache.getStats().get("estimatedBytes"));
+  }
+
+  @Test
+  void testInvalidate() {
+    ScanCacheService cache = createCache(1 << 20);
+    cache.put("cache-root", new ScanOptions(), sampleTree("cache-root"));
+
+    cache.invalidate("cache-root/sub");
+
+    assertNull(cache.getIfPresent("cache-root", new ScanOptions()));
+    assertEquals(0, cache.getStats().get("entries"));
+    assertEquals(0L, cache.getStats().get("estimatedBytes"));
+  }
+
+  @Test
+  void testConcurrentRequestsAreCoalesced() throws Exception {
+    ScanCacheService cache = createCache(1 << 20);
+    FileNode root = sampleTree("cache-root");
+    CountDownLatch release = new CountDownLatch(1);
+    when(directoryService.scanDirectory(anyString(), any(ScanOptions.class)))
+        .thenAnswer(invocation -> {
+          release.await(5, TimeUnit.SECONDS);
+          return root;
+        });
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<FileNode>> results = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        results.add(executor.submit(() -> cache.scan("cache-root", new ScanOptions())));
+      }
+      while ((long) cache.getStats().get("coalesced") < 3) {
+        Thread.sleep(5);
+      }
+      release.countDown();
+
+      for (Future<FileNode> result : results) {
+        assertSame(root, result.get(5, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    verify(directoryService, times(1)).scanDirectory(anyString(), any(ScanOptions.class));
+  }
+
+  @Test
+  void testWaitingRequestScansWhenLeaderIsCancelled() throws Exception {
+    ScanCacheService cache = createCache(1 << 20);
+    FileNode root = sampleTree("cache-root");
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    when(directoryService.scanDirectory(anyString(), any(ScanOptions.class), any(ScanProgress.class)))
+        .thenAnswer(invocation -> {
+          started.countDown();
+          release.await(5, TimeUnit.SECONDS);
+          throw new CancellationException("Scan cancelled");
+        });
+    when(directoryService.scanDirectory(anyString(), any(ScanOptions.class))).thenReturn(root);
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<ScanCacheService.ScanResult> leader = executor.submit(
+          () -> cache.scan("cache-root", new ScanOptions(), new ScanProgress()));
+      started.await(5, TimeUnit.SECONDS);
+      Future<FileNode> waiting = executor.submit(() -> cache.scan("cache-root", new ScanOptions()));
+      while ((long) cache.getStats().get("coalesced") < 1) {
+        Thread.sleep(5);
+      }
+      release.countDown();
+
+      // Der Abbruch des führenden Aufrufers trifft nur ihn, der wartende Aufrufer scannt selbst
+      ExecutionException failure = assertThrows(ExecutionException.class, leader::get);
+      assertInstanceOf(CancellationException.class, failure.getCause());
+      assertSame(root, waiting.get(5, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+
+    verify(directoryService, times(1)).scanDirectory(anyString(), any(ScanOptions.class));
+  }
+
+  @Test
+  void testOversizedResultIsNotCached() {
+    ScanCacheService cache = createCache(16);
+    FileNode root = sampleTree("cache-root");
+    when(directoryService.scanDirectory(anyString(), any(ScanOptions.class)))
+        .thenReturn(root, sampleTree("cache-root"));
+
+    FileNode first = cache.scan("cache-root", new ScanOptions());
+    assertNotSame(first, cache.scan("cache-root", new ScanOptions()));
+  }
+
+  @Test
+  void testPinnedEntriesSurviveEvictionAndInvalidation() {
+    FileNode watched = sampleTree("watched");
+    ScanCacheService cache = createCache(watched.estimateMemoryBytes() * 2);
+    cache.put("parent", new ScanOptions(), sampleTree("parent"));
+
+    cache.pin("watched", new ScanOptions(), watched);
+    cache.put("other", new ScanOptions(), sampleTree("other"));
+    cache.put("another", new ScanOptions(), sampleTree("another"));
+    cache.invalidate("watched");
+    cache.clear();
+    cache.put("watched", new ScanOptions(), sampleTree("watched"));
+
+    assertSame(watched, cache.getIfPresent("watched", new ScanOptions()));
+    assertEquals(1L, cache.getStats().get("pinned"));
+
+    cache.unpin("watched", new ScanOptions());
+    cache.clear();
+    assertNull(cache.getIfPresent("watched", new ScanOptions()));
+  }
+}
@@ -0,0 +1,136 @@
+package com.voba.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import com.voba.model.ScanOptions;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/** Unit-Tests für den ScanExecutor. */
+class ScanExecutorTest {
+
+  private final ExecutorService callers = Executors.newCachedThreadPool();
+  private ScanExecutor scanExecutor;
+
+  @AfterEach
+  void tearDown() {
+    callers.shutdownNow();
+    if (scanExecutor != null) {
+      scanExecutor.shutdown();
+    }
+  }
+
+  @Test
+  void testParallelismIsLimitedToShareOfBudget() {
+    scanExecutor = new ScanExecutor(8, 2, 0, 1);
+
+    int parallelism = scanExecutor.execute(new ScanOptions().setMaxThreads(16),
+        pool -> pool.getParallelism());
+    int requested = scanExecutor.execute(new ScanOptions().setMaxThreads(1),
+        pool -> pool.getParallelism());
+
+    assertEquals(4, parallelism);
+    assertEquals(1, requested);
+    assertEquals(2L, scanExecutor.getStats().get("completedScans"));
+  }
+
+  @Test
+  void testRejectsWhenQueueIsFull() throws Exception {
+    scanExecutor = new ScanExecutor(2, 1, 1, 10);
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    Future<?> first = callers.submit(() -> scanExecutor.execute(new ScanOptions(), pool -> {
+      running.countDown();
+      await(release);
+      return null;
+    }));
+    assertTrue(running.await(5, TimeUnit.SECONDS));
+    Future<?> queued = callers.submit(() -> scanExecutor.execute(new ScanOptions(), pool -> null));
+    waitUntil(() -> scanExecutor.isSaturated());
+
+    ScanRejectedException rejected = assertThrows(ScanRejectedException.class,
+        () -> scanExecutor.execute(new ScanOptions(), pool -> null));
+    assertEquals(ScanRejectedException.Reason.QUEUE_FULL, rejected.getReason());
+
+    Map<String, Object> stats = scanExecutor.getStats();
+    assertEquals(1, stats.get("activeScans"));
+    assertEquals(1, stats.get("queuedScans"));
+    assertEquals(1L, stats.get("rejectedScans"));
+
+    release.countDown();
+    first.get(5, TimeUnit.SECONDS);
+    queued.get(5, TimeUnit.SECONDS);
+    assertEquals(2L, scanExecutor.getStats().get("completedScans"));
+  }
+
+  @Test
+  void testRejectsAfterQueueTimeout() throws Exception {
+    scanExecutor = new ScanExecutor(1, 1, 1, 0);
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    Future<?> first = callers.submit(() -> scanExecutor.execute(new ScanOptions(), pool -> {
+      running.countDown();
+      await(release);
+      return null;
+    }));
+    assertTrue(running.await(5, TimeUnit.SECONDS));
+
+    ScanRejectedException rejected = assertThrows(ScanRejectedException.class,
+        () -> scanExecutor.execute(new ScanOptions(), pool -> null));
+    assertEquals(ScanRejectedException.Reason.TIMEOUT, rejected.getReason());
+
+    release.countDown();
+    first.get(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void testReleasesSlotWhenScanFails() {
+    scanExecutor = new ScanExecutor(1, 1, 0, 1);
+
+    assertThrows(IllegalStateException.class, () -> scanExecutor.execute(new ScanOptions(), pool -> {
+      throw new IllegalStateException("failed");
+    }));
+
+    assertEquals("ok", scanExecutor.execute(new ScanOptions(), pool -> "ok"));
+  }
+
+  @Test
+  void testRejectsAfterShutdown() {
+    scanExecutor = new ScanExecutor(1, 1, 0, 1);
+    scanExecutor.shutdown();
+
+    ScanRejectedException rejected = assertThrows(ScanRejectedException.class,
+        () -> scanExecutor.execute(new ScanOptions(), pool -> null));
+    assertEquals(ScanRejectedException.Reason.SHUTDOWN, rejected.getReason());
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void waitUntil(BooleanSupplier condition)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertTrue(condition.getAsBoolean());
+  }
+}
@@ -0,0 +1,91 @@
+package com.voba.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.voba.model.FileNode;
+import com.voba.model.ScanOptions;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+/** Unit-Tests für den ScanJobService. */
+@SpringBootTest
+class ScanJobServiceTest {
+
+  @Autowired
+  private ScanJobService scanJobService;
+
+  @MockitoBean
+  private DirectoryService directoryService;
+
+  private ScanJob awaitFinished(ScanJob job) throws InterruptedException {
+    for (int i = 0; i < 200 && !job.getStatus().isFinished(); i++) {
+      Thread.sleep(25);
+    }
+    return job;
+  }
+
+  @Test
+  void testJobCompletesWithResult() throws Exception {
+    FileNode root = new FileNode(Paths.get("root"), true);
+    when(directoryService.scanDirectory(anyString(), any(ScanOptions.class), any(ScanProgress.class)))
+        .thenReturn(root);
+
+    ScanJob job = awaitFinished(scanJobService.startJob("root", new ScanOptions()));
+
+    assertEquals(ScanJob.Status.COMPLETED, job.getStatus());
+    assertSame(root, scanJobService.getResult(job.getId()));
+    assertSame(job, scanJobService.getJob(job.getId()));
+    assertNotNull(job.getElapsedMillis());
+  }
+
+  @Test
+  void testCancelReachesRunningScan() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    when(directoryService.scanDirectory(anyString(), any(ScanOptions.class), any(ScanProgress.class)))
+        .thenAnswer(invocation -> {
+          ScanProgress progress = invocation.getArgument(2);
+          started.countDown();
+          while (true) {
+            progress.checkCancelled();
+            Thread.sleep(5);
+          }
+        });
+
+    ScanJob job = scanJobService.startJob("root", new ScanOptions());
+    started.await(5, TimeUnit.SECONDS);
+    scanJobService.cancelJob(job.getId());
+
+    assertEquals(ScanJob.Status.CANCELLED, awaitFinished(job).getStatus());
+    assertNull(scanJobService.getResult(job.getId()));
+  }
+
+  @Test
+  void testFailedJobReportsError() throws Exception {
+    when(directoryService.scanDirectory(anyString(), any(ScanOptions.class), any(ScanProgress.class)))
+        .thenThrow(new IllegalStateException("disk gone"));
+
+    ScanJob job = awaitFinished(scanJobService.startJob("root", new ScanOptions()));
+
+    assertEquals(ScanJob.Status.FAILED, job.getStatus());
+    assertEquals("disk gone", job.getError());
+  }
+
+  @Test
+  void testUnknownJob() {
+    assertNull(scanJobService.getJob("unknown"));
+    assertNull(scanJobService.cancelJob("unknown"));
+  }
+}
@@ -0,0 +1,82 @@
+package com.voba.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+import com.voba.model.FileNode;
+import com.voba.model.ScanOptions;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Vergleicht den Fork/Join-Scan mit dem Scan auf virtuellen Threads auf einem Dateisystem mit
+ * simulierter Latenz ({@link LatencyFileSystem}).
+ *
+ * <p>
+ * Kein regulärer Test (der Klassenname passt nicht auf die Surefire-Muster); Aufruf mit
+ * {@code mvn test -Dtest=ScanLatencyBenchmark}. Latenz und Baumgröße lassen sich über die
+ * System-Properties {@code benchmark.latencyMicros}, {@code benchmark.directories} und
+ * {@code benchmark.files} anpassen.
+ */
+class ScanLatencyBenchmark {
+
+  private static final int ITERATIONS = 3;
+
+  @TempDir
+  private Path tempDir;
+
+  @Test
+  void compareForkJoinAndVirtualThreads() throws IOException {
+    long latencyMicros = Long.getLong("benchmark.latencyMicros", 1000);
+    int directories = Integer.getInteger("benchmark.directories", 120);
+    int files = Integer.getInteger("benchmark.files", 100);
+    for (int d = 0; d < directories; d++) {
+      Path directory = Files.createDirectory(tempDir.resolve("dir" + d));
+      for (int f = 0; f < files; f++) {
+        Files.writeString(directory.resolve("file" + f + ".bin"), "x");
+      }
+    }
+
+    LatencyFileSystem fileSystem = new LatencyFileSystem(latencyMicros);
+    Path root = fileSystem.wrap(tempDir);
+    ScanOptions options = new ScanOptions().setUseParallelProcessing(true);
+
+    System.out.printf("Simulated latency %d us, %d directories x %d files, %d CPU threads%n",
+        latencyMicros, directories, files, options.getMaxThreads());
+    FileNode forkJoin = measure("fork/join (maxThreads=" + options.getMaxThreads() + ")", () -> {
+      ForkJoinPool pool = new ForkJoinPool(options.getMaxThreads());
+      try {
+        return pool.invoke(new NioDirectoryScanTask(root, options, new ScanProgress()));
+      } finally {
+        pool.shutdownNow();
+      }
+    });
+    for (int maxInFlight : new int[] {16, 64, 256}) {
+      ScanOptions virtualOptions = new ScanOptions().setMaxInFlightOperations(maxInFlight);
+      FileNode virtual = measure("virtual threads (maxInFlight=" + maxInFlight + ")",
+          () -> VirtualThreadDirectoryScanner.scan(root, virtualOptions, new ScanProgress()));
+      assertEquals(forkJoin.getSize(), virtual.getSize());
+    }
+  }
+
+  private FileNode measure(String name, Supplier<FileNode> scan) {
+    FileNode result = scan.get();
+    long[] millis = new long[ITERATIONS];
+    for (int i = 0; i < ITERATIONS; i++) {
+      long start = System.nanoTime();
+      result = scan.get();
+      millis[i] = (System.nanoTime() - start) / 1_000_000;
+    }
+    Arrays.sort(millis);
+    System.out.printf("%-40s median %6d ms (min %d, max %d)%n",
+        name, millis[ITERATIONS / 2], millis[0], millis[ITERATIONS - 1]);
+    return result;
+  }
+}
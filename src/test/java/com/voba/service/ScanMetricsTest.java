@@ -0,0 +1,96 @@
+package com.voba.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Path;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+import com.voba.model.ScanEngine;
+import com.voba.model.ScanOptions;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Unit-Tests für ScanMetrics. */
+class ScanMetricsTest {
+
+  private MeterRegistry registry;
+  private ScanMetrics scanMetrics;
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+    scanMetrics = new ScanMetrics(registry, 2);
+  }
+
+  @Test
+  void testRecordCountsEntriesAndLatencies() {
+    Path root = Path.of("/data/music/rock").toAbsolutePath();
+    ScanProgress progress = new ScanProgress();
+
+    String result = scanMetrics.record(root, "parallel", progress, () -> {
+      progress.directoryCompleted(3, 300);
+      progress.directoryCompleted(1, 100);
+      progress.entrySkipped();
+      progress.entryUnreadable();
+      progress.getIoObserver().directoryListed(TimeUnit.MILLISECONDS.toNanos(2));
+      return "done";
+    });
+
+    assertEquals("done", result);
+    String rootTag = scanMetrics.rootTag(root);
+    Timer duration = registry.get("drivevisualizer.scan.duration")
+        .tags("root", rootTag, "mode", "parallel", "outcome", "success").timer();
+    assertEquals(1, duration.count());
+    assertEquals(6, registry.get("drivevisualizer.scan.entries").counter().count());
+    assertEquals(2, registry.get("drivevisualizer.scan.directories.listed").counter().count());
+    assertEquals(1, registry.get("drivevisualizer.scan.entries.skipped").counter().count());
+    assertEquals(1, registry.get("drivevisualizer.scan.entries.unreadable").counter().count());
+    assertEquals(1, registry.get("drivevisualizer.scan.readdir.latency").timer().count());
+    assertNotNull(registry.get("drivevisualizer.scan.stat.latency").timer());
+  }
+
+  @Test
+  void testRecordTagsCancelledScans() {
+    ScanProgress progress = new ScanProgress();
+
+    assertThrows(CancellationException.class, () -> scanMetrics.record(
+        Path.of("/data"), "virtual", progress, () -> {
+          throw new CancellationException("Scan cancelled");
+        }));
+
+    assertEquals(1, registry.get("drivevisualizer.scan.duration")
+        .tags("mode", "virtual", "outcome", "cancelled").timer().count());
+  }
+
+  @Test
+  void testRootTagIsTruncated() {
+    Path root = Path.of("/data").toAbsolutePath().getRoot();
+
+    assertEquals(root.resolve("data").resolve("music").toString(),
+        scanMetrics.rootTag(root.resolve("data").resolve("music").resolve("rock")));
+    assertEquals(root.resolve("data").toString(), scanMetrics.rootTag(root.resolve("data")));
+    assertEquals(root.toString(), scanMetrics.rootTag(root));
+  }
+
+  @Test
+  void testModeFollowsOptions() {
+    ScanOptions options = new ScanOptions();
+    assertEquals("sequential", ScanMetrics.mode(options));
+    options.setUseParallelProcessing(true);
+    assertEquals("parallel", ScanMetrics.mode(options));
+    options.setEngine(ScanEngine.FILE_IO);
+    assertEquals("file_io", ScanMetrics.mode(options));
+    options.setUseVirtualThreads(true);
+    assertEquals("virtual", ScanMetrics.mode(options));
+    options.setCompactTree(true);
+    assertEquals("compact", ScanMetrics.mode(options));
+  }
+}
@@ -0,0 +1,98 @@
+package com.voba.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import com.voba.model.ScanOptions;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Vergleicht den sequentiellen mit dem parallelen NIO-Scan ({@link AdaptiveSplitter}) auf breiten,
+ * tiefen und gemischten synthetischen Bäumen.
+ *
+ * <p>
+ * Kein regulärer Test (der Klassenname passt nicht auf die Surefire-Muster); Aufruf mit
+ * {@code mvn test -Dtest=ScanSplittingBenchmark}. Mit {@code benchmark.latencyMicros} (Standard 0)
+ * wird jeder Zugriff über das {@link LatencyFileSystem} verzögert, z.B. um einen kalten Cache oder
+ * ein Netzlaufwerk nachzubilden; {@code benchmark.threads} setzt die Parallelität (Standard
+ * CPU-Kerne).
+ */
+class ScanSplittingBenchmark {
+
+  private static final int ITERATIONS = 5;
+
+  @TempDir
+  private Path tempDir;
+
+  @Test
+  void compareTreeShapes() throws IOException {
+    long latencyMicros = Long.getLong("benchmark.latencyMicros", 0);
+    int threads = Integer.getInteger("benchmark.threads",
+        Runtime.getRuntime().availableProcessors());
+    LatencyFileSystem fileSystem = new LatencyFileSystem(latencyMicros);
+    System.out.printf("Simulated latency %d us, %d threads%n", latencyMicros, threads);
+
+    // Breit: ein Verzeichnis mit vielen Unterverzeichnissen mit je einigen Dateien
+    Path wide = Files.createDirectory(tempDir.resolve("wide"));
+    for (int d = 0; d < 500; d++) {
+      createFiles(Files.createDirectory(wide.resolve("dir" + d)), 10);
+    }
+    // Tief: binärer Baum, jede Ebene mit zwei Unterverzeichnissen und zwei Dateien
+    Path deep = Files.createDirectory(tempDir.resolve("deep"));
+    createBinaryTree(deep, 11);
+    // Gemischt: Quellcode-ähnlich, einige breite Verzeichnisse in schmalen, tiefen Pfaden
+    Path mixed = Files.createDirectory(tempDir.resolve("mixed"));
+    for (int module = 0; module < 8; module++) {
+      Path path = mixed.resolve("module" + module);
+      for (int level = 0; level < 8; level++) {
+        path = Files.createDirectories(path.resolve("pkg" + level));
+        createFiles(path, level == 7 ? 200 : 3);
+      }
+    }
+
+    for (Path tree : new Path[] {wide, deep, mixed}) {
+      Path root = fileSystem.wrap(tree);
+      long sequential = measure(root, new ScanOptions(), 1);
+      long parallel = measure(root, new ScanOptions().setUseParallelProcessing(true), threads);
+      System.out.printf("%-6s sequential %6d ms, parallel %6d ms, speedup %.2f%n",
+          tree.getFileName(), sequential, parallel, (double) sequential / Math.max(1, parallel));
+    }
+  }
+
+  private void createFiles(Path directory, int count) throws IOException {
+    for (int f = 0; f < count; f++) {
+      Files.writeString(directory.resolve("file" + f + ".txt"), "x");
+    }
+  }
+
+  private void createBinaryTree(Path directory, int levels) throws IOException {
+    createFiles(directory, 2);
+    if (levels > 0) {
+      createBinaryTree(Files.createDirectory(directory.resolve("a")), levels - 1);
+      createBinaryTree(Files.createDirectory(directory.resolve("b")), levels - 1);
+    }
+  }
+
+  /** Gibt den Median der Laufzeit in Millisekunden zurück. */
+  private long measure(Path root, ScanOptions options, int threads) {
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    try {
+      pool.invoke(new NioDirectoryScanTask(root, options, new ScanProgress()));
+      long[] millis = new long[ITERATIONS];
+      for (int i = 0; i < ITERATIONS; i++) {
+        long start = System.nanoTime();
+        pool.invoke(new NioDirectoryScanTask(root, options, new ScanProgress()));
+        millis[i] = (System.nanoTime() - start) / 1_000_000;
+      }
+      Arrays.sort(millis);
+      return millis[ITERATIONS / 2];
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+}
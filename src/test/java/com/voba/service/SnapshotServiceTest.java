@@ -0,0 +1,89 @@
+package com.voba.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import com.voba.model.FileNode;
+import com.voba.model.ScanOptions;
+import com.voba.model.SnapshotInfo;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/** Unit-Tests für den SnapshotService. */
+class SnapshotServiceTest {
+
+  @TempDir
+  private Path tempDir;
+
+  private ScanCacheService cache;
+  private SnapshotService snapshotService;
+
+  @BeforeEach
+  void setUp() {
+    cache = new ScanCacheService(1 << 24, 300);
+    DirectoryService directoryService = new DirectoryService();
+    ReflectionTestUtils.setField(directoryService, "scanExecutor", new ScanExecutor(2, 1, 4, 60));
+    ReflectionTestUtils.setField(directoryService, "scanMetrics",
+        new ScanMetrics(new SimpleMeterRegistry(), 2));
+    ReflectionTestUtils.setField(cache, "directoryService", directoryService);
+    snapshotService = new SnapshotService(tempDir.resolve("snapshots").toString());
+    ReflectionTestUtils.setField(snapshotService, "scanCacheService", cache);
+  }
+
+  @Test
+  void testSaveListAndLoad() throws IOException {
+    Path scanned = Files.createDirectories(tempDir.resolve("scanned").resolve("sub"));
+    Files.writeString(scanned.resolve("a.txt"), "12345");
+    Files.writeString(scanned.resolve(".hidden"), "123");
+    String path = tempDir.resolve("scanned").toString();
+
+    SnapshotInfo saved = snapshotService.save(path, new ScanOptions());
+    assertEquals(3, saved.getNodeCount());
+    assertEquals(5, saved.getSize());
+    assertFalse(saved.isIncludeHidden());
+
+    List<SnapshotInfo> snapshots = snapshotService.getSnapshots();
+    assertEquals(1, snapshots.size());
+    assertEquals(saved.getId(), snapshots.get(0).getId());
+
+    cache.clear();
+    SnapshotInfo loaded = snapshotService.load(saved.getId());
+    assertEquals(path, loaded.getPath());
+    FileNode root = cache.getIfPresent(path, new ScanOptions());
+    assertTrue(root.isReadOnly());
+    assertEquals(5, root.getSize());
+    assertEquals("a.txt", cache.getIfPresent(path + "/sub", new ScanOptions())
+        .getChildren().get(0).getName());
+    assertSame(root, cache.scan(path, new ScanOptions()));
+  }
+
+  @Test
+  void testUnknownAndInvalidIds() throws IOException {
+    assertTrue(snapshotService.getSnapshots().isEmpty());
+    assertNull(snapshotService.getSnapshot("missing"));
+    assertNull(snapshotService.load("../color-mappings"));
+    assertFalse(snapshotService.delete("../color-mappings"));
+  }
+
+  @Test
+  void testDelete() throws IOException {
+    SnapshotInfo saved = snapshotService.save(tempDir.toString(), new ScanOptions());
+
+    assertTrue(snapshotService.delete(saved.getId()));
+    assertNull(snapshotService.getSnapshot(saved.getId()));
+    assertFalse(snapshotService.delete(saved.getId()));
+  }
+}
@@ -0,0 +1,152 @@
+package com.voba.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Set;
+
+import com.voba.model.AggregateNode;
+import com.voba.model.FileNode;
+import com.voba.model.ScanOptions;
+import com.voba.model.TreeQuery;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/** Unit-Tests für den TreeQueryService. */
+class TreeQueryServiceTest {
+
+  private ScanExecutor scanExecutor;
+  private TreeQueryService service;
+
+  @BeforeEach
+  void setUp() {
+    scanExecutor = new ScanExecutor(4, 1, 4, 10);
+    service = new TreeQueryService(2, 1 << 20, 300);
+    ReflectionTestUtils.setField(service, "scanExecutor", scanExecutor);
+  }
+
+  @AfterEach
+  void tearDown() {
+    scanExecutor.shutdown();
+  }
+
+  private static FileNode file(FileNode parent, String name, long size) {
+    FileNode file = new FileNode(parent.getPathObject().resolve(name), false);
+    file.setSize(size);
+    file.setLastModified(1000);
+    parent.addChild(file);
+    return file;
+  }
+
+  /** Baum mit vielen Verzeichnissen, damit sich die parallele Auswertung aufteilt. */
+  private static FileNode tree() {
+    Path rootPath = Paths.get("root");
+    FileNode root = new FileNode(rootPath, true);
+    for (int i = 0; i < 20; i++) {
+      FileNode directory = new FileNode(rootPath.resolve("dir" + i), true);
+      FileNode nested = new FileNode(directory.getPathObject().resolve("nested"), true);
+      file(nested, "image" + i + ".iso", 1000 + i);
+      file(nested, "notes.txt", 10);
+      directory.addChild(nested);
+      file(directory, "readme.txt", 5);
+      root.addChild(directory);
+    }
+    file(root, "top.iso", 50);
+    root.addChild(new AggregateNode(rootPath, 10, 0, 100));
+    root.sortChildren();
+    return root;
+  }
+
+  private static TreeQuery query(Long minSize, String extensions) {
+    return new TreeQuery(minSize, null, extensions != null ? Set.of(extensions) : null, null,
+        null, null, null, null);
+  }
+
+  @Test
+  void testQueryPrunesTreeAndReaggregatesSizes() {
+    FileNode root = tree();
+    ScanOptions options = new ScanOptions().setUseParallelProcessing(true).setMaxThreads(4);
+
+    FileNode result = service.query(root, query(100L, "iso"), options);
+
+    assertEquals(20, result.getChildren().size());
+    long expected = 0;
+    for (int i = 0; i < 20; i++) {
+      expected += 1000 + i;
+    }
+    assertEquals(expected, result.getSize());
+    // Sortiert nach neuer Größe; Verzeichnisse enthalten nur noch passende Dateien
+    FileNode largest = result.getChildren().get(0);
+    assertEquals("dir19", largest.getName());
+    assertEquals(1019, largest.getSize());
+    FileNode nested = largest.getChildren().get(0);
+    assertEquals(List.of("image19.iso"),
+        nested.getChildren().stream().map(FileNode::getName).toList());
+    assertEquals(1000, nested.getChildren().get(0).getLastModified());
+
+    // Der ursprüngliche Baum bleibt unverändert
+    FileNode original = root.getChildren().get(0);
+    assertEquals(2, original.getChildren().size());
+    assertEquals(2, original.getChildren().get(0).getChildren().size());
+  }
+
+  @Test
+  void testSequentialAndParallelResultsMatch() {
+    FileNode root = tree();
+    TreeQuery query = new TreeQuery(null, null, Set.of("txt"), null, null, null, null, 2);
+
+    FileNode parallel = service.query(root, query,
+        new ScanOptions().setUseParallelProcessing(true).setMaxThreads(4));
+    TreeQueryService uncached = new TreeQueryService(2, 1 << 20, 300);
+    ReflectionTestUtils.setField(uncached, "scanExecutor", scanExecutor);
+    FileNode sequential = uncached.query(root, query, new ScanOptions());
+
+    assertEquals(100, parallel.getSize());
+    assertEquals(sequential.getSize(), parallel.getSize());
+    assertEquals(20, parallel.getChildren().size());
+    assertTrue(parallel.getChildren().stream()
+        .allMatch(directory -> directory.getChildren().size() == 1));
+  }
+
+  @Test
+  void testNoMatchesYieldsEmptyRoot() {
+    FileNode result = service.query(tree(), query(null, "vmdk"), new ScanOptions());
+
+    assertEquals("root", result.getName());
+    assertTrue(result.isDirectory());
+    assertEquals(0, result.getSize());
+    assertTrue(result.getChildren().isEmpty());
+  }
+
+  @Test
+  void testResultsAreCachedPerTreeAndQuery() {
+    FileNode root = tree();
+    ScanOptions options = new ScanOptions();
+
+    FileNode result = service.query(root, query(100L, "iso"), options);
+    assertSame(result, service.query(root, query(100L, "ISO"), options));
+    assertNotSame(result, service.query(root, query(1000L, "iso"), options));
+    assertNotSame(result, service.query(tree(), query(100L, "iso"), options));
+  }
+
+  @Test
+  void testResultsOverByteBudgetAreNotCached() {
+    FileNode root = tree();
+    TreeQuery query = query(100L, "iso");
+    long resultBytes = service.query(root, query, new ScanOptions()).estimateMemoryBytes();
+    TreeQueryService bounded = new TreeQueryService(16, resultBytes - 1, 300);
+    ReflectionTestUtils.setField(bounded, "scanExecutor", scanExecutor);
+
+    FileNode result = bounded.query(root, query, new ScanOptions());
+    assertEquals(resultBytes, result.estimateMemoryBytes());
+    assertNotSame(result, bounded.query(root, query, new ScanOptions()));
+  }
+}
@@ -0,0 +1,67 @@
+package com.voba.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.voba.model.AggregateNode;
+import com.voba.model.FileNode;
+import com.voba.model.ScanOptions;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/** Unit-Tests für den TreeWatchService. */
+@SpringBootTest
+class TreeWatchServiceTest {
+
+  @Autowired
+  private TreeWatchService treeWatchService;
+
+  @Autowired
+  private ScanCacheService scanCacheService;
+
+  @AfterEach
+  void tearDown() {
+    treeWatchService.getWatches().forEach(watch -> treeWatchService.stopWatch(watch.getId()));
+    scanCacheService.clear();
+  }
+
+  @Test
+  void testAggregatedTreeIsNotWatched(@TempDir Path root) throws IOException {
+    Files.write(root.resolve("small.bin"), new byte[10]);
+    Files.write(root.resolve("large.bin"), new byte[1000]);
+    ScanOptions options = new ScanOptions().setAggregateBelowSize(100);
+    FileNode tree = scanCacheService.scan(root.toString(), options);
+
+    assertThrows(IllegalArgumentException.class,
+        () -> treeWatchService.startWatch(root.toString(), options));
+    assertTrue(treeWatchService.getWatches().isEmpty());
+
+    // Eine zusammengefasste Datei ändert sich: der gehaltene Baum bleibt unverändert, statt die
+    // Datei zusätzlich zum Sammelknoten einzufügen
+    Files.write(root.resolve("small.bin"), new byte[20]);
+    assertEquals(1010, tree.getSize());
+    assertNull(tree.getChild("small.bin"));
+    assertTrue(tree.getChildren().stream().anyMatch(AggregateNode.class::isInstance));
+  }
+
+  @Test
+  void testArchiveAndTruncatedTreesAreNotWatched(@TempDir Path root) throws IOException {
+    Files.write(root.resolve("file.bin"), new byte[10]);
+
+    assertThrows(IllegalArgumentException.class, () -> treeWatchService.startWatch(
+        root.toString(), new ScanOptions().setScanArchives(true)));
+    assertThrows(IllegalArgumentException.class, () -> treeWatchService.startWatch(
+        root.toString(), new ScanOptions().setMaxChildren(1)));
+    assertTrue(treeWatchService.getWatches().isEmpty());
+  }
+}
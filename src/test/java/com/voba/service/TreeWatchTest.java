@@ -0,0 +1,168 @@
+package com.voba.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import com.voba.model.FileNode;
+import com.voba.model.ScanOptions;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit-Tests für TreeWatch. */
+class TreeWatchTest {
+
+  private FileNode scan(Path root) {
+    FileNode tree = new NioDirectoryScanTask(root, new ScanOptions(), new ScanProgress()).invoke();
+    tree.sortChildren();
+    return tree;
+  }
+
+  private void createSample(Path root) throws IOException {
+    Files.createDirectories(root.resolve("docs/deep"));
+    Files.write(root.resolve("docs/deep/a.bin"), new byte[100]);
+    Files.write(root.resolve("b.bin"), new byte[50]);
+    Files.write(root.resolve("c.bin"), new byte[80]);
+  }
+
+  @Test
+  void testApplyPropagatesSizesAndKeepsOrder(@TempDir Path root) throws IOException {
+    createSample(root);
+    FileNode tree = scan(root);
+    TreeWatch watch = new TreeWatch(tree, new ScanOptions(), 10);
+    FileNode docs = tree.getChild("docs");
+    FileNode deep = docs.getChild("deep");
+
+    // Datei schrumpft: Größe bis zur Wurzel angepasst, docs rutscht ans Ende
+    Files.write(root.resolve("docs/deep/a.bin"), new byte[10]);
+    assertTrue(watch.apply(root.resolve("docs/deep/a.bin")));
+    assertEquals(10, deep.getSize());
+    assertEquals(10, docs.getSize());
+    assertEquals(140, tree.getSize());
+    assertEquals("c.bin", tree.getChildren().get(0).getName());
+    assertEquals("docs", tree.getChildren().get(2).getName());
+
+    // Neue Datei und neues Verzeichnis mit Inhalt
+    Files.write(root.resolve("docs/new.bin"), new byte[5]);
+    Files.createDirectories(root.resolve("docs/sub"));
+    Files.write(root.resolve("docs/sub/x.bin"), new byte[200]);
+    assertTrue(watch.apply(root.resolve("docs/new.bin")));
+    assertTrue(watch.apply(root.resolve("docs/sub")));
+    assertEquals(215, docs.getSize());
+    assertEquals(345, tree.getSize());
+    assertEquals("docs", tree.getChildren().get(0).getName());
+    assertEquals("sub", docs.getChildren().get(0).getName());
+
+    // Gelöschte Datei, unveränderte Datei
+    Files.delete(root.resolve("b.bin"));
+    assertTrue(watch.apply(root.resolve("b.bin")));
+    assertFalse(watch.apply(root.resolve("c.bin")));
+    assertNull(tree.getChild("b.bin"));
+    assertEquals(295, tree.getSize());
+  }
+
+  @Test
+  void testSameSizeChangeUpdatesLastModified(@TempDir Path root) throws IOException {
+    createSample(root);
+    FileNode tree = scan(root);
+    TreeWatch watch = new TreeWatch(tree, new ScanOptions(), 10);
+    FileNode deep = tree.getChild("docs").getChild("deep");
+    FileNode file = deep.getChild("a.bin");
+
+    Files.write(root.resolve("docs/deep/a.bin"), new byte[100]);
+    Files.setLastModifiedTime(root.resolve("docs/deep/a.bin"), FileTime.fromMillis(2_000_000));
+    Files.setLastModifiedTime(root.resolve("docs/deep"), FileTime.fromMillis(1_000_000));
+    assertTrue(watch.apply(root.resolve("docs/deep/a.bin")));
+
+    assertEquals(100, file.getSize());
+    assertEquals(2_000_000, file.getLastModified());
+    assertEquals(1_000_000, deep.getLastModified());
+    assertEquals(230, tree.getSize());
+    assertFalse(watch.apply(root.resolve("docs/deep/a.bin")));
+  }
+
+  @Test
+  void testRenameBumpsVersionOfAncestors(@TempDir Path root) throws IOException {
+    createSample(root);
+    FileNode tree = scan(root);
+    TreeWatch watch = new TreeWatch(tree, new ScanOptions(), 10);
+    FileNode docs = tree.getChild("docs");
+    FileNode deep = docs.getChild("deep");
+    long treeVersion = tree.getVersion();
+    long docsVersion = docs.getVersion();
+    long deepVersion = deep.getVersion();
+
+    Files.move(root.resolve("docs/deep/a.bin"), root.resolve("docs/deep/z.bin"));
+    assertTrue(watch.apply(root.resolve("docs/deep/a.bin")));
+    assertTrue(watch.apply(root.resolve("docs/deep/z.bin")));
+
+    // Größen bleiben gleich, der Änderungsstand steigt bis zur Wurzel
+    assertEquals(230, tree.getSize());
+    assertNotNull(deep.getChild("z.bin"));
+    assertTrue(deep.getVersion() > deepVersion);
+    assertTrue(docs.getVersion() > docsVersion);
+    assertTrue(tree.getVersion() > treeVersion);
+  }
+
+  @Test
+  void testApplyIgnoresHiddenAndUnknownPaths(@TempDir Path root) throws IOException {
+    createSample(root);
+    FileNode tree = scan(root);
+    TreeWatch watch = new TreeWatch(tree, new ScanOptions(), 10);
+
+    Files.write(root.resolve(".hidden"), new byte[10]);
+    assertFalse(watch.apply(root.resolve(".hidden")));
+    assertFalse(watch.apply(root.resolve("missing/file.bin")));
+    assertEquals(230, tree.getSize());
+  }
+
+  @Test
+  void testRescanReplacesOnlySubtree(@TempDir Path root) throws IOException {
+    createSample(root);
+    FileNode tree = scan(root);
+    TreeWatch watch = new TreeWatch(tree, new ScanOptions(), 10);
+    FileNode docs = tree.getChild("docs");
+    FileNode b = tree.getChild("b.bin");
+
+    Files.write(root.resolve("docs/one.bin"), new byte[30]);
+    Files.write(root.resolve("docs/two.bin"), new byte[40]);
+    assertTrue(watch.rescan(root.resolve("docs")));
+
+    assertSame(docs, tree.getChild("docs"));
+    assertSame(b, tree.getChild("b.bin"));
+    assertEquals(170, docs.getSize());
+    assertEquals(300, tree.getSize());
+    assertEquals(1, watch.getSubtreeRescans());
+  }
+
+  @Test
+  void testWatchAppliesFileSystemEvents(@TempDir Path root) throws Exception {
+    createSample(root);
+    FileNode tree = scan(root);
+    TreeWatch watch = new TreeWatch(tree, new ScanOptions(), 20);
+    watch.start();
+    try {
+      Files.write(root.resolve("docs/deep/late.bin"), new byte[1000]);
+      Files.delete(root.resolve("c.bin"));
+
+      for (int i = 0; i < 200 && tree.getSize() != 1150; i++) {
+        Thread.sleep(25);
+      }
+      assertEquals(1150, tree.getSize());
+      assertEquals(1100, tree.getChild("docs").getSize());
+      assertNotNull(watch.getLastChange());
+      assertTrue(watch.getEvents() >= 2);
+    } finally {
+      watch.stop();
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package com.voba.service;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.voba.model.FileNode;
+import com.voba.model.TreemapLayout;
+
+import org.junit.jupiter.api.Test;
+
+/** Unit-Tests für den TreemapLayoutService. */
+class TreemapLayoutServiceTest {
+
+  private static FileNode tree() {
+    Path rootPath = Paths.get("root");
+    FileNode root = new FileNode(rootPath, true);
+    for (int i = 1; i <= 3; i++) {
+      FileNode file = new FileNode(rootPath.resolve("file" + i), false);
+      file.setSize(i * 100);
+      root.addChild(file);
+    }
+    root.sortChildren();
+    return root;
+  }
+
+  @Test
+  void testLayoutsAreCachedPerNodeAndViewport() {
+    TreemapLayoutService service = new TreemapLayoutService(4, 300);
+    FileNode root = tree();
+
+    TreemapLayout layout = service.layout(root, 400, 300, 10);
+    assertSame(layout, service.layout(root, 400, 300, 10));
+    assertNotSame(layout, service.layout(root, 200, 300, 10));
+    assertNotSame(layout, service.layout(root, 400, 300, 20));
+    assertSame(layout, service.layout(root, 400, 300, 10));
+  }
+}
@@ -0,0 +1,83 @@
+package com.voba.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CancellationException;
+
+import com.voba.model.FileNode;
+import com.voba.model.ScanOptions;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit-Tests für den VirtualThreadDirectoryScanner. */
+class VirtualThreadDirectoryScannerTest {
+
+  @TempDir
+  private Path tempDir;
+
+  private void createTree(int directories, int filesPerDirectory) throws IOException {
+    for (int d = 0; d < directories; d++) {
+      Path directory = Files.createDirectories(tempDir.resolve("dir" + d).resolve("nested"));
+      for (int f = 0; f < filesPerDirectory; f++) {
+        Files.writeString(directory.resolve("file" + f + ".txt"), "x".repeat(f + 1));
+      }
+    }
+    Files.writeString(tempDir.resolve(".hidden"), "hidden");
+  }
+
+  @Test
+  void testProducesSameTreeAsForkJoinScan() throws IOException {
+    createTree(5, 4);
+    ScanOptions options = new ScanOptions();
+
+    FileNode expected = new NioDirectoryScanTask(tempDir, options, new ScanProgress()).invoke();
+    ScanProgress progress = new ScanProgress();
+    FileNode actual = VirtualThreadDirectoryScanner.scan(tempDir, options, progress);
+    expected.sortChildren();
+    actual.sortChildren();
+
+    assertEquals(describe(expected), describe(actual));
+    assertEquals(11, progress.getDirectories());
+    assertEquals(20, progress.getFiles());
+  }
+
+  @Test
+  void testRespectsInFlightLimit() throws IOException {
+    createTree(20, 5);
+    LatencyFileSystem fileSystem = new LatencyFileSystem(2000);
+    ScanOptions options = new ScanOptions().setMaxInFlightOperations(8);
+
+    FileNode root = VirtualThreadDirectoryScanner.scan(
+        fileSystem.wrap(tempDir), options, new ScanProgress());
+
+    assertEquals(20, root.getChildren().size());
+    assertTrue(fileSystem.getMaxInFlight() <= 8, "max in flight: " + fileSystem.getMaxInFlight());
+    assertTrue(fileSystem.getMaxInFlight() > 1, "accesses should overlap");
+  }
+
+  @Test
+  void testCancelledScanStops() throws IOException {
+    createTree(3, 1);
+    ScanProgress progress = new ScanProgress();
+    progress.cancel();
+
+    assertThrows(CancellationException.class,
+        () -> VirtualThreadDirectoryScanner.scan(tempDir, new ScanOptions(), progress));
+  }
+
+  private String describe(FileNode node) {
+    StringBuilder builder = new StringBuilder(node.getName()).append(':').append(node.getSize());
+    if (node.isDirectory()) {
+      builder.append('[');
+      node.getChildren().forEach(child -> builder.append(describe(child)).append(','));
+      builder.append(']');
+    }
+    return builder.toString();
+  }
+}